@@ -49,6 +49,8 @@ public class AddPermissionCommand<T extends PermissionsOperationsParameters> ext
     private VmStaticDao vmStaticDao;
     @Inject
     private MultiLevelAdministrationHandler multiLevelAdministrationHandler;
+    @Inject
+    private PermissionCache permissionCache;
 
     public AddPermissionCommand(T parameters, CommandContext commandContext) {
         super(parameters, commandContext);
@@ -193,6 +195,7 @@ public class AddPermissionCommand<T extends PermissionsOperationsParameters> ext
                 getCompensationContext().stateChanged();
                 return null;
             });
+            permissionCache.invalidate();
             permission = paramPermission;
         }
 
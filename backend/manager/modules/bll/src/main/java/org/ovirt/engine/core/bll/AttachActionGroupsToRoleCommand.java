@@ -27,6 +27,9 @@ public class AttachActionGroupsToRoleCommand<T extends ActionGroupsToRoleParamet
     @Inject
     private RoleDao roleDao;
 
+    @Inject
+    private PermissionCache permissionCache;
+
     public AttachActionGroupsToRoleCommand(T parameters, CommandContext cmdContext) {
         super(parameters, cmdContext);
     }
@@ -91,6 +94,7 @@ public class AttachActionGroupsToRoleCommand<T extends ActionGroupsToRoleParamet
             }
         }
 
+        permissionCache.invalidate();
         setSucceeded(true);
     }
 
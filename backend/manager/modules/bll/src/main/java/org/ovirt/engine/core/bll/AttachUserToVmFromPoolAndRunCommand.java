@@ -55,6 +55,8 @@ public class AttachUserToVmFromPoolAndRunCommand<T extends AttachUserToVmFromPoo
     @Inject
     private DbUserDao dbUserDao;
     @Inject
+    private PermissionCache permissionCache;
+    @Inject
     private VmDao vmDao;
     @Inject
     private CommandCoordinatorUtil commandCoordinatorUtil;
@@ -305,6 +307,7 @@ public class AttachUserToVmFromPoolAndRunCommand<T extends AttachUserToVmFromPoo
                             getVmId());
             if (perm != null) {
                 permissionDao.remove(perm.getId());
+                permissionCache.invalidate();
             }
         }
     }
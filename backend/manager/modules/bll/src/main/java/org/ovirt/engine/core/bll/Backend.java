@@ -158,6 +158,9 @@ public class Backend implements BackendInternal, BackendCommandObjectsHandler {
     @Inject
     private CommandCompensator compensator;
 
+    @Inject
+    private QueryResultCache queryResultCache;
+
     @Inject
     private DBConfigUtils dbConfigUtils;
 
@@ -448,6 +451,9 @@ public class Backend implements BackendInternal, BackendCommandObjectsHandler {
         executionHandler.prepareCommandForMonitoring(command, command.getActionType(), runAsInternal);
 
         returnValue = actionExecutor.get().execute(command);
+        if (returnValue.getSucceeded()) {
+            queryResultCache.invalidate(command.getActionType());
+        }
         returnValue.setCorrelationId(command.getParameters().getCorrelationId());
         returnValue.setJobId(command.getJobId());
         return returnValue;
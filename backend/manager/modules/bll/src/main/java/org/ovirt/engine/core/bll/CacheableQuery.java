@@ -0,0 +1,29 @@
+package org.ovirt.engine.core.bll;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.ovirt.engine.core.common.action.ActionType;
+
+/**
+ * Marks a query whose results can be kept in the {@link QueryResultCache}. The query must return data that changes
+ * only when one of the given commands succeeds, and its results must depend only on its parameters and, for filtered
+ * executions, on the permissions of the user.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheableQuery {
+
+    /**
+     * The commands that modify the data returned by the query, and so invalidate its cached results.
+     */
+    ActionType[] invalidatedBy();
+
+    /**
+     * Whether the results depend on the user even for executions that aren't filtered, for example because the
+     * query checks if the user is an administrator.
+     */
+    boolean perUser() default false;
+}
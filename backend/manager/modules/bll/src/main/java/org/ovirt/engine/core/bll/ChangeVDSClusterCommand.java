@@ -11,6 +11,7 @@ import javax.inject.Inject;
 import org.apache.commons.lang.StringUtils;
 import org.ovirt.engine.core.bll.context.CommandContext;
 import org.ovirt.engine.core.bll.network.HostSetupNetworksParametersBuilder;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
 import org.ovirt.engine.core.bll.utils.ClusterUtils;
 import org.ovirt.engine.core.bll.utils.PermissionSubject;
 import org.ovirt.engine.core.common.AuditLogType;
@@ -79,6 +80,10 @@ public class ChangeVDSClusterCommand<T extends ChangeVDSClusterParameters> exten
     private ClusterDao clusterDao;
     @Inject
     private ClusterUtils clusterUtils;
+    @Inject
+    private PermissionCache permissionCache;
+    @Inject
+    private SchedulingManager schedulingManager;
 
     private StoragePool targetStoragePool;
 
@@ -228,10 +233,12 @@ public class ChangeVDSClusterCommand<T extends ChangeVDSClusterParameters> exten
             staticData.setClusterId(targetClusterId);
             vdsStaticDao.update(staticData);
             getCompensationContext().stateChanged();
+            permissionCache.invalidate();
             // remove the server from resource manager and add it back
             initializeVds();
             return null;
         });
+        schedulingManager.hostRemoved(getVdsId());
 
         if (targetStoragePool != null
                 && (getSourceCluster().getStoragePoolId()== null || !targetStoragePool.getId().equals(getSourceCluster().getStoragePoolId()))) {
@@ -45,6 +45,8 @@ public class ChangeVMClusterCommand<T extends ChangeVMClusterParameters> extends
     private VmStaticDao vmStaticDao;
     @Inject
     private AffinityGroupDao affinityGroupDao;
+    @Inject
+    private PermissionCache permissionCache;
 
     @Inject
     private NetworkHelper networkHelper;
@@ -153,6 +155,8 @@ public class ChangeVMClusterCommand<T extends ChangeVMClusterParameters> extends
         cpuProfileHelper.assignFirstCpuProfile(vm.getStaticData(), getUserIdIfExternal().orElse(null));
 
         vmStaticDao.update(vm.getStaticData());
+        // permissions given on the clusters apply to the vm now
+        permissionCache.invalidate();
         moveMacsToAnotherMacPoolIfNeeded();
 
         // change vm cluster should remove the vm from all associated affinity groups
@@ -89,7 +89,6 @@ import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogableImpl;
 import org.ovirt.engine.core.dal.job.ExecutionMessageDirector;
 import org.ovirt.engine.core.dao.BusinessEntitySnapshotDao;
 import org.ovirt.engine.core.dao.EntityDao;
-import org.ovirt.engine.core.dao.PermissionDao;
 import org.ovirt.engine.core.dao.StepDao;
 import org.ovirt.engine.core.utils.CorrelationIdTracker;
 import org.ovirt.engine.core.utils.ReflectionUtils;
@@ -155,7 +154,7 @@ public abstract class CommandBase<T extends ActionParametersBase>
     private BusinessEntitySnapshotDao businessEntitySnapshotDao;
 
     @Inject
-    private PermissionDao permissionDao;
+    private PermissionCache permissionCache;
 
     @Inject
     private StepDao stepDao;
@@ -907,7 +906,12 @@ public abstract class CommandBase<T extends ActionParametersBase>
             final Guid object,
             final VdcObjectType type) {
         // Grant if there is matching permission in the database:
-        final Guid permId = permissionDao.getEntityPermissions(userId, actionGroup, object, type);
+        DbUser user = getCurrentUser();
+        final Guid permId = permissionCache.getEntityPermissions(userId,
+                user != null && userId.equals(user.getId()) ? user.getGroupIds() : null,
+                actionGroup,
+                object,
+                type);
         if (permId != null) {
             if (log.isDebugEnabled()) {
                 log.debug("Found permission '{}' for user when running '{}', on '{}' with id '{}'",
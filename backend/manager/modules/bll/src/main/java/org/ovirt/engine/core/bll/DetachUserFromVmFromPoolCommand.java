@@ -27,6 +27,8 @@ public class DetachUserFromVmFromPoolCommand<T extends DetachUserFromVmFromPoolP
     private SnapshotDao snapshotDao;
     @Inject
     private VmDao vmDao;
+    @Inject
+    private PermissionCache permissionCache;
 
     /**
      * Constructor for command creation when compensation is applied on startup
@@ -47,6 +49,7 @@ public class DetachUserFromVmFromPoolCommand<T extends DetachUserFromVmFromPoolP
                         getAdUserId(), getParameters().getVmId());
         if (perm != null) {
             permissionDao.remove(perm.getId());
+            permissionCache.invalidate();
             if (getParameters().getIsRestoreStateless()) {
                 VM vm = vmDao.get(getParameters().getVmId());
                 if (vm != null) {
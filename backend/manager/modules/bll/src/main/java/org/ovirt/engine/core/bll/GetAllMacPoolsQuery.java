@@ -3,9 +3,14 @@ package org.ovirt.engine.core.bll;
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.dao.MacPoolDao;
 
+@CacheableQuery(invalidatedBy = {
+        ActionType.AddMacPool,
+        ActionType.UpdateMacPool,
+        ActionType.RemoveMacPool })
 public class GetAllMacPoolsQuery<P extends QueryParametersBase> extends QueriesCommandBase<P> {
     @Inject
     private MacPoolDao macPoolDao;
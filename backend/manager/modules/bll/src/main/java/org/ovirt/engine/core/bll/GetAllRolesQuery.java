@@ -3,9 +3,17 @@ package org.ovirt.engine.core.bll;
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.dao.RoleDao;
 
+@CacheableQuery(invalidatedBy = {
+        ActionType.AddRoleWithActionGroups,
+        ActionType.UpdateRole,
+        ActionType.RemoveRole,
+        ActionType.AttachActionGroupsToRole,
+        ActionType.DetachActionGroupsFromRole },
+        perUser = true)
 public class GetAllRolesQuery<P extends QueryParametersBase> extends QueriesCommandBase<P> {
     @Inject
     private RoleDao roleDao;
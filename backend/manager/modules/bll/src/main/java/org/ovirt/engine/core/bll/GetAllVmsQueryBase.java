@@ -23,9 +23,16 @@ public abstract class GetAllVmsQueryBase<P extends QueryParametersBase> extends
     @Override
     protected void executeQueryCommand() {
         List<VM> vmsList = getVMs();
+        boolean guestAgentVersion = getParameters().isFieldRequested("guest_agent_version")
+                || getParameters().isFieldRequested("spice_driver_version");
+        boolean statistics = getParameters().isFieldRequested("statistics");
         for (VM vm : vmsList) {
-            vmHandler.updateVmGuestAgentVersion(vm);
-            vmHandler.updateVmStatistics(vm);
+            if (guestAgentVersion) {
+                vmHandler.updateVmGuestAgentVersion(vm);
+            }
+            if (statistics) {
+                vmHandler.updateVmStatistics(vm);
+            }
         }
         getQueryReturnValue().setReturnValue(vmsList);
     }
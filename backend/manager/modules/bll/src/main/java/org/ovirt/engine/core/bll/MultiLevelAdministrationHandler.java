@@ -46,6 +46,9 @@ public class MultiLevelAdministrationHandler {
     @Inject
     private DbUserDao dbUserDao;
 
+    @Inject
+    private PermissionCache permissionCache;
+
     /**
      * Admin user is a user with at least one permission that contains admin
      * role
@@ -66,6 +69,7 @@ public class MultiLevelAdministrationHandler {
         for (Permission perms : permissions) {
             permissionDao.save(perms);
         }
+        permissionCache.invalidate();
     }
 
     public void setIsAdminGUIFlag(Guid userId, boolean hasPermissions) {
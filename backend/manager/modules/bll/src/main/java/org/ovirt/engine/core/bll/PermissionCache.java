@@ -0,0 +1,252 @@
+package org.ovirt.engine.core.bll;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.common.VdcObjectType;
+import org.ovirt.engine.core.common.businessentities.ActionGroup;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.PermissionDao;
+import org.ovirt.engine.core.utils.transaction.TransactionSuccessListener;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the permissions found by {@link PermissionDao#getEntityPermissions(Guid, ActionGroup, Guid, VdcObjectType)},
+ * so checking the authorization of a user to run a command does not query the object hierarchy in the database
+ * every time.
+ *
+ * The checks are cached per user and the groups of the user, so a user who logs in with different groups does not
+ * get the results of the old ones. Only found permissions are cached, so a permission granted by any path, directly
+ * or through the hierarchy of the objects, is seen by the next check. Changes which may take a permission away, such
+ * as removing a permission, changing a role or moving an object in the hierarchy, have to {@link #invalidate()} the
+ * cache. Entries expire after {@link ConfigValues#PermissionCacheTimeToLiveInSeconds} to bound the effect of the
+ * changes which do not.
+ */
+@Singleton
+public class PermissionCache implements PermissionCacheMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionCache.class);
+
+    @Inject
+    private PermissionDao permissionDao;
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private long timeToLive;
+    private int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    public void init() {
+        timeToLive = TimeUnit.SECONDS.toNanos(
+                Config.<Integer> getValue(ConfigValues.PermissionCacheTimeToLiveInSeconds));
+        maxEntries = Config.<Integer> getValue(ConfigValues.PermissionCacheMaxEntries);
+        try {
+            objectName = new ObjectName("PermissionCache:type=" + this.getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            log.debug("Problem during registration of PermissionCache into JMX: {}", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            platformMBeanServer.unregisterMBean(this.objectName);
+        } catch (Exception e) {
+            log.debug("Problem during unregistration of PermissionCache into JMX: {}", e);
+        }
+    }
+
+    /**
+     * Returns the id of a permission which grants the user the action group on the object
+     *
+     * @param userId
+     *            the user to check
+     * @param groupIds
+     *            the groups of the user
+     * @param actionGroup
+     *            the action group to check
+     * @param objectId
+     *            the object to check
+     * @param type
+     *            the type of the object to check
+     * @return the id of the permission, or {@code null} if the user has no such permission
+     */
+    public Guid getEntityPermissions(Guid userId,
+            Collection<Guid> groupIds,
+            ActionGroup actionGroup,
+            Guid objectId,
+            VdcObjectType type) {
+        if (!Config.<Boolean> getValue(ConfigValues.PermissionCacheEnabled)) {
+            return permissionDao.getEntityPermissions(userId, actionGroup, objectId, type);
+        }
+
+        Key key = new Key(userId, groupIds, actionGroup, objectId, type);
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiration - now > 0) {
+            hits.increment();
+            return entry.permissionId;
+        }
+
+        misses.increment();
+        long loadedGeneration = generation.get();
+        Guid permissionId = permissionDao.getEntityPermissions(userId, actionGroup, objectId, type);
+        if (permissionId == null) {
+            return null;
+        }
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(e -> e.expiration - now <= 0);
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+        }
+        entries.put(key, new Entry(permissionId, now + timeToLive));
+        // the permissions were changed while loaded, what was loaded may not be valid anymore
+        if (generation.get() != loadedGeneration) {
+            entries.remove(key);
+        }
+        return permissionId;
+    }
+
+    /**
+     * Drops all the cached permission checks. When called within a transaction, the cache is invalidated again once
+     * the transaction is committed, as checks made until then still see the permissions before the change.
+     */
+    @Override
+    public void invalidate() {
+        clear();
+        invalidateOnCommit();
+    }
+
+    protected void invalidateOnCommit() {
+        if (TransactionSupport.current() != null) {
+            TransactionSupport.registerRollbackHandler((TransactionSuccessListener) this::clear);
+        }
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+        invalidations.increment();
+    }
+
+    /**
+     * Returns a number that changes every time the cache is invalidated, so that users of the permissions can detect
+     * that they changed.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    @Override
+    public int getSize() {
+        return entries.size();
+    }
+
+    @Override
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        invalidations.reset();
+    }
+
+    private static class Key {
+
+        private final Guid userId;
+        private final Set<Guid> groupIds;
+        private final ActionGroup actionGroup;
+        private final Guid objectId;
+        private final VdcObjectType type;
+
+        Key(Guid userId, Collection<Guid> groupIds, ActionGroup actionGroup, Guid objectId, VdcObjectType type) {
+            this.userId = userId;
+            this.groupIds = groupIds == null ? Collections.emptySet() : new HashSet<>(groupIds);
+            this.actionGroup = actionGroup;
+            this.objectId = objectId;
+            this.type = type;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, groupIds, actionGroup, objectId, type);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Objects.equals(userId, other.userId)
+                    && Objects.equals(groupIds, other.groupIds)
+                    && actionGroup == other.actionGroup
+                    && Objects.equals(objectId, other.objectId)
+                    && type == other.type;
+        }
+    }
+
+    private static class Entry {
+
+        private final Guid permissionId;
+        private final long expiration;
+
+        Entry(Guid permissionId, long expiration) {
+            this.permissionId = permissionId;
+            this.expiration = expiration;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.ovirt.engine.core.bll;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface PermissionCacheMXBean {
+
+    /**
+     * Number of permission checks answered by the cache since the statistics were reset
+     */
+    long getHits();
+
+    /**
+     * Number of permission checks which were looked up in the database since the statistics were reset
+     */
+    long getMisses();
+
+    /**
+     * Ratio of the permission checks answered by the cache
+     */
+    double getHitRatio();
+
+    /**
+     * Number of times the cache was invalidated since the statistics were reset
+     */
+    long getInvalidations();
+
+    /**
+     * Number of cached permission checks
+     */
+    int getSize();
+
+    /**
+     * Drops all the cached permission checks
+     */
+    void invalidate();
+
+    void resetStatistics();
+}
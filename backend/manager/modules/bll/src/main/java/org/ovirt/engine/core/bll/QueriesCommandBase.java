@@ -53,6 +53,9 @@ public abstract class QueriesCommandBase<P extends QueryParametersBase> extends
     @Inject
     protected BackendInternal backend;
 
+    @Inject
+    private QueryResultCache queryResultCache;
+
     public QueriesCommandBase(P parameters, EngineContext engineContext) {
         if (parameters.getCorrelationId() == null) {
             parameters.setCorrelationId(CorrelationIdTracker.getCorrelationId());
@@ -103,7 +106,11 @@ public abstract class QueriesCommandBase<P extends QueryParametersBase> extends
                 long start = System.currentTimeMillis();
                 try {
                     returnValue.setSucceeded(true);
-                    executeQueryCommand();
+                    if (queryResultCache != null && queryResultCache.isCacheable(this)) {
+                        queryResultCache.execute(this, this::executeQueryCommand);
+                    } else {
+                        executeQueryCommand();
+                    }
                 } catch (RuntimeException ex) {
                     returnValue.setSucceeded(false);
                     Throwable th = ex instanceof EngineException ? ex : ex.getCause();
@@ -0,0 +1,349 @@
+package org.ovirt.engine.core.bll;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.common.action.ActionType;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.queries.QueryParametersBase;
+import org.ovirt.engine.core.common.queries.QueryReturnValue;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.transaction.TransactionSuccessListener;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the results of the queries marked with {@link CacheableQuery}, which return reference data, like roles or MAC
+ * pools, that is read very often and changes only when an administrator runs a command.
+ *
+ * The results are cached per query and parameters. Filtered executions, and those of queries whose results depend on
+ * the user, are cached per user as well, and are dropped when the {@link PermissionCache} is invalidated, as the
+ * permissions decide what they return. The results of a query are dropped when one of the commands it is invalidated
+ * by succeeds, and expire after {@link ConfigValues#QueryResultCacheTimeToLiveInSeconds} to bound the effect of
+ * changes made by other means.
+ *
+ * The results are kept serialized, and every hit gets its own copy, so the callers can modify what they get.
+ */
+@Singleton
+public class QueryResultCache implements QueryResultCacheMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryResultCache.class);
+
+    @Inject
+    private PermissionCache permissionCache;
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ActionType, Set<Class<?>>> dependents = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, List<Field>> parameterFields = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private long timeToLive;
+    private int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    public void init() {
+        timeToLive = TimeUnit.SECONDS.toNanos(
+                Config.<Integer> getValue(ConfigValues.QueryResultCacheTimeToLiveInSeconds));
+        maxEntries = Config.<Integer> getValue(ConfigValues.QueryResultCacheMaxEntries);
+        try {
+            objectName = new ObjectName("QueryResultCache:type=" + this.getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            log.debug("Problem during registration of QueryResultCache into JMX: {}", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            platformMBeanServer.unregisterMBean(this.objectName);
+        } catch (Exception e) {
+            log.debug("Problem during unregistration of QueryResultCache into JMX: {}", e);
+        }
+    }
+
+    /**
+     * @return {@code true} if the results of the given query can be taken from the cache
+     */
+    public boolean isCacheable(QueriesCommandBase<?> query) {
+        return query.getClass().isAnnotationPresent(CacheableQuery.class)
+                && Config.<Boolean> getValue(ConfigValues.QueryResultCacheEnabled);
+    }
+
+    /**
+     * Sets the result of the query from the cache, or, if it isn't cached, runs the given code to execute it and
+     * caches its result if it succeeded.
+     *
+     * @param query
+     *            the query, already validated
+     * @param execution
+     *            the code that executes the query and sets its result
+     */
+    public void execute(QueriesCommandBase<?> query, Runnable execution) {
+        QueryParametersBase parameters = query.getParameters();
+        boolean perUser = parameters.isFiltered() || query.getClass().getAnnotation(CacheableQuery.class).perUser();
+        Key key = new Key(query.getClass(), perUser ? query.getUserID() : null, getParametersKey(parameters));
+        long permissionGeneration = perUser ? permissionCache.getGeneration() : 0;
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiration - now > 0 && entry.permissionGeneration == permissionGeneration) {
+            Object value = deserialize(entry.data);
+            if (value != null) {
+                hits.increment();
+                query.setReturnValue(value);
+                return;
+            }
+        }
+
+        misses.increment();
+        addDependents(query.getClass());
+        long loadedGeneration = generation.get();
+        execution.run();
+        QueryReturnValue returnValue = query.getQueryReturnValue();
+        if (!returnValue.getSucceeded()) {
+            return;
+        }
+        byte[] data = serialize(returnValue.getReturnValue());
+        if (data == null) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(e -> e.expiration - now <= 0);
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+        }
+        entries.put(key, new Entry(data, now + timeToLive, permissionGeneration));
+        // a command changed the data while the query was executed, what was loaded may not be valid anymore
+        if (generation.get() != loadedGeneration) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Drops the cached results of the queries invalidated by the given command. When called within a transaction,
+     * they are invalidated again once the transaction is committed, as queries executed until then still see the data
+     * before the change.
+     */
+    public void invalidate(ActionType actionType) {
+        Set<Class<?>> queries = dependents.get(actionType);
+        if (queries == null) {
+            return;
+        }
+        clear(queries);
+        if (TransactionSupport.current() != null) {
+            TransactionSupport.registerRollbackHandler((TransactionSuccessListener) () -> clear(queries));
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        generation.incrementAndGet();
+        entries.clear();
+        invalidations.increment();
+    }
+
+    private void clear(Set<Class<?>> queries) {
+        generation.incrementAndGet();
+        entries.keySet().removeIf(k -> queries.contains(k.queryClass));
+        invalidations.increment();
+    }
+
+    private void addDependents(Class<?> queryClass) {
+        CacheableQuery cacheable = queryClass.getAnnotation(CacheableQuery.class);
+        for (ActionType actionType : cacheable.invalidatedBy()) {
+            dependents.computeIfAbsent(actionType, a -> ConcurrentHashMap.newKeySet()).add(queryClass);
+        }
+    }
+
+    /**
+     * Builds the part of the key that depends on the parameters, from the fields of the classes of parameters that
+     * extend {@link QueryParametersBase}, as the fields of the base class describe the session and not the query.
+     */
+    private String getParametersKey(QueryParametersBase parameters) {
+        List<Field> fields = parameterFields.computeIfAbsent(parameters.getClass(), QueryResultCache::findFields);
+        if (fields.isEmpty()) {
+            return parameters.getClass().getName();
+        }
+        StringBuilder key = new StringBuilder(parameters.getClass().getName());
+        for (Field field : fields) {
+            Object value;
+            try {
+                value = field.get(parameters);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+            key.append(';').append(field.getName()).append('=');
+            key.append(value instanceof Object[] ? Arrays.deepToString((Object[]) value) : Objects.toString(value));
+        }
+        return key.toString();
+    }
+
+    private static List<Field> findFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != QueryParametersBase.class && c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+        return Collections.unmodifiableList(fields);
+    }
+
+    private static byte[] serialize(Object value) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            log.debug("Query result of type '{}' can't be cached: {}",
+                    value != null ? value.getClass().getName() : null, e.getMessage());
+            return null;
+        }
+        return buffer.toByteArray();
+    }
+
+    private static Object deserialize(byte[] data) {
+        try (ObjectInputStream in = new CacheObjectInputStream(new ByteArrayInputStream(data))) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            log.debug("Cached query result can't be read: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    @Override
+    public int getSize() {
+        return entries.size();
+    }
+
+    @Override
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        invalidations.reset();
+    }
+
+    /**
+     * Resolves the classes of the cached results with the class loader of the engine, which, unlike the one of the
+     * serialization classes, sees the business entities.
+     */
+    private static class CacheObjectInputStream extends ObjectInputStream {
+
+        CacheObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(desc.getName(), false, QueryResultCache.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+    }
+
+    private static class Key {
+
+        private final Class<?> queryClass;
+        private final Guid userId;
+        private final String parameters;
+
+        Key(Class<?> queryClass, Guid userId, String parameters) {
+            this.queryClass = queryClass;
+            this.userId = userId;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(queryClass, userId, parameters);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return queryClass == other.queryClass
+                    && Objects.equals(userId, other.userId)
+                    && Objects.equals(parameters, other.parameters);
+        }
+    }
+
+    private static class Entry {
+
+        private final byte[] data;
+        private final long expiration;
+        private final long permissionGeneration;
+
+        Entry(byte[] data, long expiration, long permissionGeneration) {
+            this.data = data;
+            this.expiration = expiration;
+            this.permissionGeneration = permissionGeneration;
+        }
+    }
+}
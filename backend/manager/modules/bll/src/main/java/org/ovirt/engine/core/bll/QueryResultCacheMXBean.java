@@ -0,0 +1,39 @@
+package org.ovirt.engine.core.bll;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface QueryResultCacheMXBean {
+
+    /**
+     * Number of query executions answered by the cache since the statistics were reset
+     */
+    long getHits();
+
+    /**
+     * Number of query executions which were run against the database since the statistics were reset
+     */
+    long getMisses();
+
+    /**
+     * Ratio of the query executions answered by the cache
+     */
+    double getHitRatio();
+
+    /**
+     * Number of times cached results were invalidated since the statistics were reset
+     */
+    long getInvalidations();
+
+    /**
+     * Number of cached query results
+     */
+    int getSize();
+
+    /**
+     * Drops all the cached query results
+     */
+    void invalidate();
+
+    void resetStatistics();
+}
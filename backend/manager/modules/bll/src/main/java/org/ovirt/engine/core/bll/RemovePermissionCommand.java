@@ -32,6 +32,8 @@ public class RemovePermissionCommand<T extends PermissionsOperationsParameters>
     private MultiLevelAdministrationHandler multiLevelAdministrationHandler;
     @Inject
     private VmStaticDao vmStaticDao;
+    @Inject
+    private PermissionCache permissionCache;
 
     /**
      * Constructor for command creation when compensation is applied on startup
@@ -89,6 +91,7 @@ public class RemovePermissionCommand<T extends PermissionsOperationsParameters>
 
         vmStaticDao.incrementDbGeneration(perms.getObjectId());
         permissionDao.remove(perms.getId());
+        permissionCache.invalidate();
         dbUserDao.updateLastAdminCheckStatus(userId);
         setSucceeded(true);
     }
@@ -8,6 +8,7 @@ import javax.inject.Inject;
 
 import org.apache.commons.lang.StringUtils;
 import org.ovirt.engine.core.bll.context.CommandContext;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
 import org.ovirt.engine.core.bll.utils.ClusterUtils;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.common.action.LockProperties;
@@ -81,6 +82,8 @@ public class RemoveVdsCommand<T extends RemoveVdsParameters> extends VdsCommand<
 
     @Inject
     private AnsibleExecutor ansibleExecutor;
+    @Inject
+    private SchedulingManager schedulingManager;
 
     public RemoveVdsCommand(T parameters, CommandContext commandContext) {
         super(parameters, commandContext);
@@ -123,6 +126,7 @@ public class RemoveVdsCommand<T extends RemoveVdsParameters> extends VdsCommand<
         });
 
         removeVdsFromCollection();
+        schedulingManager.hostRemoved(getVdsId());
         runAnsibleRemovePlaybook();
         setSucceeded(true);
     }
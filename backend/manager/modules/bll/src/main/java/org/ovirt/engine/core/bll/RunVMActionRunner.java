@@ -1,15 +1,22 @@
 package org.ovirt.engine.core.bll;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.context.CommandContext;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
+import org.ovirt.engine.core.bll.scheduling.SchedulingPlan;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.ActionType;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.VmStaticDao;
 
@@ -17,6 +24,8 @@ public class RunVMActionRunner extends SortedMultipleActionsRunnerBase {
 
     @Inject
     private VmStaticDao vmStaticDao;
+    @Inject
+    private SchedulingManager schedulingManager;
 
     public RunVMActionRunner(ActionType actionType, List<ActionParametersBase> parameters, CommandContext commandContext, boolean isInternal) {
         super(actionType, parameters, commandContext, isInternal);
@@ -42,6 +51,55 @@ public class RunVMActionRunner extends SortedMultipleActionsRunnerBase {
             commandsList.add(runVmCommandsMap.get(guid));
         }
 
+        if (Config.<Boolean>getValue(ConfigValues.SchedulerBatchSchedulingEnabled)) {
+            planVdsToRunOn(commandsList);
+        }
+    }
+
+    /**
+     * Selects the hosts for the VMs of each cluster in one batch scheduling pass, in the order the
+     * VMs are going to be started. VMs the batch could not place are scheduled one by one when their
+     * command runs.
+     */
+    private void planVdsToRunOn(List<CommandBase<?>> commandsList) {
+        Map<Guid, List<RunVmCommand<?>>> commandsByCluster = new LinkedHashMap<>();
+        for (CommandBase<?> command : commandsList) {
+            if (command.getReturnValue().isValid() && command instanceof RunVmCommand) {
+                RunVmCommand<?> runVmCommand = (RunVmCommand<?>) command;
+                if (runVmCommand.canPlanVdsToRunOn()) {
+                    commandsByCluster.computeIfAbsent(runVmCommand.getVm().getClusterId(), id -> new ArrayList<>())
+                            .add(runVmCommand);
+                }
+            }
+        }
+
+        for (List<RunVmCommand<?>> clusterCommands : commandsByCluster.values()) {
+            // a single VM gains nothing from the batch
+            if (clusterCommands.size() < 2) {
+                continue;
+            }
+
+            RunVmCommand<?> firstCommand = clusterCommands.get(0);
+            SchedulingPlan plan = schedulingManager.scheduleBatch(firstCommand.getCluster(),
+                    clusterCommands.stream().map(RunVmCommand::getVm).collect(Collectors.toList()),
+                    Collections.emptyList(),
+                    Collections.emptyList(),
+                    firstCommand.getCorrelationId());
+            for (RunVmCommand<?> command : clusterCommands) {
+                plan.getHost(command.getVmId()).ifPresent(command::setPlannedVdsId);
+            }
+        }
+    }
+
+    @Override
+    protected void executeValidatedCommand(CommandBase<?> command) {
+        try {
+            super.executeValidatedCommand(command);
+        } finally {
+            if (command instanceof RunVmCommand) {
+                ((RunVmCommand<?>) command).releaseUnusedPlannedVds();
+            }
+        }
     }
 
 }
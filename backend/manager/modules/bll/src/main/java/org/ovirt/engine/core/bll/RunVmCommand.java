@@ -113,6 +113,8 @@ public class RunVmCommand<T extends RunVmParams> extends RunVmCommandBase<T>
     private Guid cachedActiveIsoDomainId;
     private boolean needsHostDevices = false;
     private InitializationType initializationType;
+    /** Host selected for the VM by a batch scheduling pass, preferred when scheduling on the first run */
+    private Guid plannedVdsId;
     protected VmPayload vmPayload;
 
     public static final String ISO_PREFIX = "iso://";
@@ -824,15 +826,17 @@ public class RunVmCommand<T extends RunVmParams> extends RunVmCommandBase<T>
     }
 
     protected boolean getVdsToRunOn() {
-        Optional<Guid> vdsToRunOn =
-                schedulingManager.schedule(getCluster(),
-                        getVm(),
-                        getRunVdssList(),
-                        getVdsWhiteList(),
-                        getPredefinedVdsIdListToRunOn(),
-                        new ArrayList<>(),
-                        this,
-                        getCorrelationId());
+        Optional<Guid> vdsToRunOn = schedulePlannedVds();
+        if (!vdsToRunOn.isPresent()) {
+            vdsToRunOn = schedulingManager.schedule(getCluster(),
+                    getVm(),
+                    getRunVdssList(),
+                    getVdsWhiteList(),
+                    getPredefinedVdsIdListToRunOn(),
+                    new ArrayList<>(),
+                    this,
+                    getCorrelationId());
+        }
         setVdsId(vdsToRunOn.orElse(null));
         if (vdsToRunOn.isPresent()) {
             getRunVdssList().add(vdsToRunOn.get());
@@ -1334,6 +1338,62 @@ public class RunVmCommand<T extends RunVmParams> extends RunVmCommandBase<T>
         return Collections.emptyList();
     }
 
+    /**
+     * Whether the host for this command may be selected in advance by a batch scheduling pass,
+     * which considers neither the white list nor the predefined hosts.
+     */
+    boolean canPlanVdsToRunOn() {
+        return getVm() != null
+                && getVm().isDown()
+                && getRunVdssList().isEmpty()
+                && getVdsWhiteList().isEmpty()
+                && getPredefinedVdsIdListToRunOn().isEmpty();
+    }
+
+    /**
+     * Sets the host selected by a batch scheduling pass. Resources for the VM are already
+     * pending on the host, it is validated again before it is used on the first run.
+     */
+    void setPlannedVdsId(Guid plannedVdsId) {
+        this.plannedVdsId = plannedVdsId;
+    }
+
+    /**
+     * Returns the host planned by the batch scheduling pass if it can still run the VM. The resources
+     * reserved by the batch stay pending on the host and are used by this run, so only the state of the
+     * host and of the reservation is checked instead of scheduling the VM again.
+     *
+     * @return the planned host, or empty if there is none or it cannot be used anymore
+     */
+    private Optional<Guid> schedulePlannedVds() {
+        if (plannedVdsId == null) {
+            return Optional.empty();
+        }
+        Guid vdsId = plannedVdsId;
+        if (schedulingManager.isPlannedHostValid(getCluster(), getVm(), vdsId, getRunVdssList())) {
+            plannedVdsId = null;
+            return Optional.of(vdsId);
+        }
+        log.info("The host '{}' planned for the VM '{}' cannot run it anymore, scheduling the VM again",
+                vdsId,
+                getVmName());
+        releaseUnusedPlannedVds();
+        return Optional.empty();
+    }
+
+    /**
+     * Releases the resources reserved on the planned host when the command ended
+     * before the host was used.
+     */
+    void releaseUnusedPlannedVds() {
+        if (plannedVdsId == null) {
+            return;
+        }
+        cleanupPassthroughVnics(plannedVdsId);
+        schedulingManager.clearPendingVm(getVm().getStaticData());
+        plannedVdsId = null;
+    }
+
     /**
      * Since this callback is called by the VdsUpdateRunTimeInfo thread, we don't want it
      * to fetch the VM using {@link #getVm()}, as the thread that invokes {@link #rerun()},
@@ -4,7 +4,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -56,7 +55,6 @@ import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.common.queries.QueryType;
 import org.ovirt.engine.core.common.queries.SearchParameters;
 import org.ovirt.engine.core.compat.DateTime;
-import org.ovirt.engine.core.compat.TimeSpan;
 import org.ovirt.engine.core.compat.Version;
 import org.ovirt.engine.core.dao.AuditLogDao;
 import org.ovirt.engine.core.dao.ClusterDao;
@@ -86,9 +84,11 @@ import org.ovirt.engine.core.utils.lock.EngineLock;
 import org.ovirt.engine.core.utils.lock.LockManager;
 
 public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<P> {
-    private static final Map<String, QueryData> queriesCache = new HashMap<>();
     public static final String LDAP = "LDAP";
 
+    @Inject
+    private SearchQueryCache queriesCache;
+
     @Inject
     private QuotaManager quotaManager;
 
@@ -254,11 +254,24 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
         }
 
         List<VM> vms = vmDao.getAllUsingQuery(data.getQuery());
+        // When the caller asked only for some fields skip the run time information that it doesn't need:
+        SearchParameters parameters = getParameters();
+        boolean guestAgentVersion = parameters.isFieldRequested("guest_agent_version")
+                || parameters.isFieldRequested("spice_driver_version");
+        // the lock of the VM qualifies its status, see VmWithStatusForExclusiveLock
+        boolean status = parameters.isFieldRequested("status");
+        boolean statistics = parameters.isFieldRequested("statistics");
         for (VM vm : vms) {
-            vmHandler.updateVmGuestAgentVersion(vm);
-            vmHandler.updateVmLock(vm);
-            vmHandler.updateOperationProgress(vm);
-            vmHandler.updateVmStatistics(vm);
+            if (guestAgentVersion) {
+                vmHandler.updateVmGuestAgentVersion(vm);
+            }
+            if (status) {
+                vmHandler.updateVmLock(vm);
+                vmHandler.updateOperationProgress(vm);
+            }
+            if (statistics) {
+                vmHandler.updateVmStatistics(vm);
+            }
         }
         return vms;
     }
@@ -462,8 +475,6 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
     private QueryData initQueryData(boolean useCache) {
         final String ASTR = "*";
         QueryData data = null;
-        boolean isExistsValue = false;
-        boolean IsFromYesterday = false;
         boolean isSafe = false;
         String searchKey = "";
         try {
@@ -473,22 +484,16 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
             String searchText = getParameters().getSearchPattern();
             // do not cache expressions with '*' since it is translated to specific IDs that might be changed
             useCache = useCache && !searchText.contains(ASTR);
+            // do not cache keyset pages, the key of the previous page is part of the query and never repeats
+            useCache = useCache && getParameters().getSearchAfter() == null;
             if (useCache) {
                 // first lets check the cache of queries.
                 searchKey = String.format("%1$s,%2$s,%3$s", searchText, getParameters().getMaxCount(), getParameters().getCaseSensitive());
                 data = queriesCache.get(searchKey);
-                isExistsValue = data != null;
-
-                if (isExistsValue) {
-                    TimeSpan span = DateTime.getNow().subtract(new Date(data.getDate()));
-                    if (span.Days >= 1) {
-                        IsFromYesterday = true;
-                    }
-                }
             }
             // query not in cache or the cached entry is too old, process the
             // search text.
-            if (!isExistsValue || IsFromYesterday) {
+            if (data == null) {
                 log.debug("ResourceManager::searchBusinessObjects(''{}'') - entered", searchText);
                 final char AT='@';
                 String queryAuthz = null;
@@ -497,6 +502,9 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                 Matcher m = adSearchPattern.matcher(searchText);
                 // checks if this is a AD query, if it is, verify given profile and namespace and pass the query
                 if (m.matches()) {
+                    if (getParameters().getSearchAfter() != null) {
+                        throw new RuntimeException("Directory searches can't be paged by key");
+                    }
                     final String COLON = ":";
                     String prefix = m.group("prefix");
                     searchText =  m.group("content");
@@ -543,6 +551,7 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                 searchObj.setMaxCount(Math.min(Integer.MAX_VALUE, getParameters().getMaxCount()));
                 // setting FromSearch value
                 searchObj.setSearchFrom(getParameters().getSearchFrom());
+                searchObj.setSearchAfter(getParameters().getSearchAfter());
                 if (searchObj.getError() != SyntaxError.NO_ERROR) {
                     int startPos = searchObj.getErrorStartPos();
                     int endPos = searchObj.getErrorEndPos();
@@ -578,7 +587,7 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                 // statically, therefore , in order to reflect changes in the parent tree
                 // we should not rely on the cached query in such case and have to build the
                 // query from scratch.
-                if (!containsStaticInValues(data.getQuery())) {
+                if (useCache && !containsStaticInValues(data.getQuery())) {
                     queriesCache.put(searchKey, data);
                 }
             }
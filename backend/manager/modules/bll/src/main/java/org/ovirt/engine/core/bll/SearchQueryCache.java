@@ -0,0 +1,137 @@
+package org.ovirt.engine.core.bll;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.aaa.QueryData;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the queries generated by {@link SearchQuery} from search expressions, keyed by the search expression and
+ * the parameters the query depends on.
+ *
+ * The cache holds up to {@link ConfigValues#SearchQueryCacheMaxEntries} expressions, evicting the least recently
+ * used one when full, and drops an expression {@link ConfigValues#SearchQueryCacheTimeToLiveInMinutes} after it
+ * was parsed.
+ */
+@Singleton
+public class SearchQueryCache implements SearchQueryCacheMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchQueryCache.class);
+
+    private Map<String, QueryData> entries;
+    private long timeToLive;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    public void init() {
+        int maxEntries = Config.<Integer> getValue(ConfigValues.SearchQueryCacheMaxEntries);
+        timeToLive = TimeUnit.MINUTES.toMillis(Config.<Integer> getValue(
+                ConfigValues.SearchQueryCacheTimeToLiveInMinutes));
+        entries = new LinkedHashMap<String, QueryData>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, QueryData> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        try {
+            objectName = new ObjectName("SearchQueryCache:type=" + this.getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            log.debug("Problem during registration of SearchQueryCache into JMX: {}", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            platformMBeanServer.unregisterMBean(this.objectName);
+        } catch (Exception e) {
+            log.debug("Problem during unregistration of SearchQueryCache into JMX: {}", e);
+        }
+    }
+
+    /**
+     * @return the cached query, or {@code null} if there is none or it was cached for too long
+     */
+    public synchronized QueryData get(String key) {
+        QueryData data = entries.get(key);
+        if (data != null && System.currentTimeMillis() - data.getDate() >= timeToLive) {
+            entries.remove(key);
+            expirations.increment();
+            data = null;
+        }
+        if (data == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return data;
+    }
+
+    public synchronized void put(String key, QueryData data) {
+        entries.put(key, data);
+    }
+
+    @Override
+    public synchronized void invalidate() {
+        entries.clear();
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    @Override
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        expirations.reset();
+    }
+}
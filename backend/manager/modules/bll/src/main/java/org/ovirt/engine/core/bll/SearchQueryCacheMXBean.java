@@ -0,0 +1,39 @@
+package org.ovirt.engine.core.bll;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface SearchQueryCacheMXBean {
+
+    /**
+     * Number of searches which used a cached parsed expression since the statistics were reset
+     */
+    long getHits();
+
+    /**
+     * Number of searches which had to parse their expression since the statistics were reset
+     */
+    long getMisses();
+
+    /**
+     * Number of least recently used expressions evicted because the cache was full
+     */
+    long getEvictions();
+
+    /**
+     * Number of expressions dropped because they were cached for too long
+     */
+    long getExpirations();
+
+    /**
+     * Number of cached parsed expressions
+     */
+    int getSize();
+
+    /**
+     * Drops all the cached parsed expressions
+     */
+    void invalidate();
+
+    void resetStatistics();
+}
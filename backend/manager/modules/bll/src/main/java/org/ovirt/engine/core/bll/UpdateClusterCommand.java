@@ -125,6 +125,8 @@ public class UpdateClusterCommand<T extends ManagementNetworkOnClusterOperationP
     private VdsStaticDao vdsStaticDao;
     @Inject
     private VmHandler vmHandler;
+    @Inject
+    private PermissionCache permissionCache;
 
     private List<VDS> allForCluster;
 
@@ -235,6 +237,8 @@ public class UpdateClusterCommand<T extends ManagementNetworkOnClusterOperationP
         });
 
         if (isAddedToStoragePool) {
+            // permissions given on the data center apply to the cluster now
+            permissionCache.invalidate();
             for (VDS vds : allForCluster) {
                 VdsActionParameters parameters = new VdsActionParameters();
                 parameters.setVdsId(vds.getId());
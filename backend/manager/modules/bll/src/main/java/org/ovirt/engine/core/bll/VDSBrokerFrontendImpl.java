@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.bll;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -33,6 +34,12 @@ public class VDSBrokerFrontendImpl implements VDSBrokerFrontend {
         return VdsHandler.handleVdsResult(getResourceManager().runVdsCommand(commandType, parameters));
     }
 
+    @Override
+    public Map<Guid, VDSReturnValue> runVdsCommandOnHosts(VDSCommandType commandType,
+            Collection<? extends VdsIdVDSCommandParametersBase> parameters) {
+        return getResourceManager().runVdsCommandOnHosts(commandType, parameters);
+    }
+
     @Override
     public VDSReturnValue runAsyncVdsCommand(VDSCommandType commandType, VdsAndVmIDVDSParametersBase parameters,
                                              IVdsAsyncCommand command) {
@@ -2,6 +2,7 @@ package org.ovirt.engine.core.bll.eventqueue;
 
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
@@ -60,6 +61,23 @@ public class EventQueueMonitor implements EventQueue {
         return null;
     }
 
+    @Override
+    public boolean isEventInProgress(Guid storagePoolId, Set<EventType> eventTypes) {
+        ReentrantLock lock = getPoolLock(storagePoolId);
+        lock.lock();
+        try {
+            Event currentEvent = poolCurrentEventMap.get(storagePoolId);
+            if (currentEvent != null && eventTypes.contains(currentEvent.getEventType())) {
+                return true;
+            }
+            LinkedList<Pair<Event, FutureTask<EventResult>>> queue = poolsEventsMap.get(storagePoolId);
+            return queue != null
+                    && queue.stream().anyMatch(queueEvent -> eventTypes.contains(queueEvent.getFirst().getEventType()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
     private FutureTask<EventResult> submitTaskInternal(Event event,
             Callable<EventResult> callable) {
         FutureTask<EventResult> task = null;
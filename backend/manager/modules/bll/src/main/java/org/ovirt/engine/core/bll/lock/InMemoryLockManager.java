@@ -3,16 +3,21 @@ package org.ovirt.engine.core.bll.lock;
 import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -35,7 +40,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * The following class an implementation of internal locking mechanism
+ * The following class an implementation of internal locking mechanism.
+ *
+ * The keys of the locks are spread over a fixed number of stripes. An operation takes only the stripes of
+ * the keys it works with (in ascending order, so operations on several stripes cannot deadlock), so locks
+ * of unrelated entities do not contend. Threads waiting in acquireLockWait() wait on the stripe of the key
+ * that blocks them and are woken up only by releases on that stripe.
  */
 @Startup
 @Singleton(name = "LockManager")
@@ -45,17 +55,32 @@ import org.slf4j.LoggerFactory;
 public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBean {
 
     private static final Pair<Boolean, Set<String>> LOCK_INSERT_SUCCESS_RESULT = new Pair<>(Boolean.TRUE, Collections.<String>emptySet());
+    /** Number of stripes, has to be a power of two **/
+    private static final int STRIPES_COUNT = 256;
     /** A map which is contains all internal representation of locks **/
-    private final Map<String, InternalLockView> locks = new HashMap<>();
-    /** A lock which is used to synchronized acquireLock(), acquireLockWait() and releaseLock() operations **/
-    private final Lock globalLock = new ReentrantLock();
-    /** A condition which is used in order to notify for waiting threads that some lock was released**/
-    private final Condition releasedLock = globalLock.newCondition();
+    private final ConcurrentMap<String, InternalLockView> locks = new ConcurrentHashMap<>();
+    /** Stripes which are used to synchronize acquireLock(), acquireLockWait() and releaseLock() operations **/
+    private final Stripe[] stripes = new Stripe[STRIPES_COUNT];
+
+    /** Statistics exposed via JMX **/
+    private final LongAdder acquiredLocks = new LongAdder();
+    private final LongAdder failedAcquires = new LongAdder();
+    private final LongAdder stripeContentions = new LongAdder();
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+    private final LongAdder releasedLocks = new LongAdder();
+    private final LongAdder totalHoldTimeNanos = new LongAdder();
+    private final LongAccumulator maxHoldTimeNanos = new LongAccumulator(Math::max, 0);
 
     private MBeanServer platformMBeanServer;
     private ObjectName objectName = null;
     private static final Logger log = LoggerFactory.getLogger(InMemoryLockManager.class);
 
+    public InMemoryLockManager() {
+        for (int i = 0; i < STRIPES_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
     @PostConstruct
     public void registerInJMX() {
         try {
@@ -79,11 +104,12 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     @Override
     public Pair<Boolean, Set<String>> acquireLock(EngineLock lock) {
         log.debug("Before acquiring lock '{}'", lock);
-        globalLock.lock();
+        int[] lockStripes = getStripes(lock);
+        lockStripes(lockStripes);
         try {
             return acquireLockInternal(lock);
         } finally {
-            globalLock.unlock();
+            unlockStripes(lockStripes);
         }
     }
 
@@ -91,16 +117,29 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     public void acquireLockWait(EngineLock lock) {
         log.debug("Before acquiring and wait lock '{}'", lock);
         validateLockForAcquireAndWait(lock);
-        globalLock.lock();
+        int[] lockStripes = getStripes(lock);
+        waitingThreads.incrementAndGet();
         try {
-            while (!acquireLockInternal(lock).getFirst()) {
+            while (true) {
+                Stripe blockingStripe;
+                long releases;
+                lockStripes(lockStripes);
+                try {
+                    if (acquireLockInternal(lock).getFirst()) {
+                        return;
+                    }
+                    blockingStripe = getStripe(findBlockingKey(lock));
+                    releases = blockingStripe.releases;
+                } finally {
+                    unlockStripes(lockStripes);
+                }
                 log.info("Failed to acquire lock and wait lock '{}'", lock);
-                releasedLock.await();
+                blockingStripe.awaitRelease(releases);
             }
         } catch (InterruptedException ignore) {
 
         } finally {
-            globalLock.unlock();
+            waitingThreads.decrementAndGet();
         }
     }
 
@@ -114,7 +153,8 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     @Override
     public void releaseLock(EngineLock lock) {
         log.debug("Before releasing a lock '{}'", lock);
-        globalLock.lock();
+        int[] lockStripes = getStripes(lock);
+        lockStripes(lockStripes);
         try {
             if (lock.getSharedLocks() != null) {
                 lock.getSharedLocks().entrySet().stream().forEach(entry ->
@@ -124,21 +164,22 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
                 lock.getExclusiveLocks().entrySet().stream().forEach(entry ->
                     releaseExclusiveLock(buildHashMapKey(entry)));
             }
-            releasedLock.signalAll();
+            signalReleased(lockStripes);
         } finally {
-            globalLock.unlock();
+            unlockStripes(lockStripes);
         }
     }
 
     @Override
     public void clear() {
         log.warn("Cleaning all in memory locks");
-        globalLock.lock();
+        int[] allStripes = getAllStripes();
+        lockStripes(allStripes);
         try {
             locks.clear();
-            releasedLock.signalAll();
+            signalReleased(allStripes);
         } finally {
-            globalLock.unlock();
+            unlockStripes(allStripes);
         }
     }
 
@@ -147,7 +188,8 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         log.warn("The following lock is going to be released via external call, lockId '{}', error message can be"
                 + " left for shared lock",
                 lockId);
-        globalLock.lock();
+        int[] lockStripes = { getStripeIndex(lockId) };
+        lockStripes(lockStripes);
         try {
             InternalLockView lock = locks.get(lockId);
             if (lock == null) {
@@ -159,9 +201,9 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
             } else {
                 releaseSharedLock(lockId, null);
             }
-            releasedLock.signalAll();
+            signalReleased(lockStripes);
         } finally {
-            globalLock.unlock();
+            unlockStripes(lockStripes);
         }
         log.warn("Lock '{}' was released via external call", lockId);
         return true;
@@ -170,15 +212,58 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     @Override
     public List<String> showAllLocks() {
         log.debug("All in memory locks will be shown");
-        globalLock.lock();
+        // all the stripes are held, so the locks are shown as they were at a single point in time
+        int[] allStripes = getAllStripes();
+        lockStripes(allStripes);
         try {
             return locks.entrySet().stream().map(this::createLockDescription).collect(Collectors.toList());
         } finally {
-            globalLock.unlock();
+            unlockStripes(allStripes);
             log.debug("All in memory locks were shown");
         }
     }
 
+    @Override
+    public long getAcquiredLockCount() {
+        return acquiredLocks.sum();
+    }
+
+    @Override
+    public long getFailedAcquireCount() {
+        return failedAcquires.sum();
+    }
+
+    @Override
+    public long getStripeContentionCount() {
+        return stripeContentions.sum();
+    }
+
+    @Override
+    public int getWaitingThreadCount() {
+        return waitingThreads.get();
+    }
+
+    @Override
+    public double getAverageHoldTimeMillis() {
+        long released = releasedLocks.sum();
+        return released == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalHoldTimeNanos.sum()) / 1000.0 / released;
+    }
+
+    @Override
+    public long getMaxHoldTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxHoldTimeNanos.get());
+    }
+
+    @Override
+    public void resetStatistics() {
+        acquiredLocks.reset();
+        failedAcquires.reset();
+        stripeContentions.reset();
+        releasedLocks.reset();
+        totalHoldTimeNanos.reset();
+        maxHoldTimeNanos.reset();
+    }
+
     private String createLockDescription(Entry<String, InternalLockView> e) {
         return "The object id is : " + e.getKey() + ' ' + e.getValue();
     }
@@ -190,6 +275,75 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         return entry.getKey() + entry.getValue().getFirst();
     }
 
+    private Stream<String> getKeys(EngineLock lock) {
+        Stream<String> sharedKeys = lock.getSharedLocks() == null ? Stream.empty()
+                : lock.getSharedLocks().entrySet().stream().map(this::buildHashMapKey);
+        Stream<String> exclusiveKeys = lock.getExclusiveLocks() == null ? Stream.empty()
+                : lock.getExclusiveLocks().entrySet().stream().map(this::buildHashMapKey);
+        return Stream.concat(sharedKeys, exclusiveKeys);
+    }
+
+    private int getStripeIndex(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES_COUNT - 1);
+    }
+
+    private Stripe getStripe(String key) {
+        return stripes[getStripeIndex(key)];
+    }
+
+    /**
+     * Returns the indexes of the stripes guarding the keys of the lock, in ascending order
+     */
+    private int[] getStripes(EngineLock lock) {
+        return getKeys(lock).mapToInt(this::getStripeIndex).distinct().sorted().toArray();
+    }
+
+    private int[] getAllStripes() {
+        int[] indexes = new int[STRIPES_COUNT];
+        for (int i = 0; i < STRIPES_COUNT; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+
+    private void lockStripes(int[] indexes) {
+        for (int index : indexes) {
+            ReentrantLock stripeLock = stripes[index].lock;
+            if (!stripeLock.tryLock()) {
+                stripeContentions.increment();
+                stripeLock.lock();
+            }
+        }
+    }
+
+    private void unlockStripes(int[] indexes) {
+        for (int i = indexes.length - 1; i >= 0; i--) {
+            stripes[indexes[i]].lock.unlock();
+        }
+    }
+
+    private void signalReleased(int[] indexes) {
+        for (int index : indexes) {
+            stripes[index].signalReleased();
+        }
+    }
+
+    /**
+     * Returns the first key of the lock which can not be acquired now, the stripes of the lock have to be held
+     */
+    private String findBlockingKey(EngineLock lock) {
+        if (lock.getSharedLocks() != null) {
+            for (Entry<String, Pair<String, String>> entry : lock.getSharedLocks().entrySet()) {
+                InternalLockView existing = locks.get(buildHashMapKey(entry));
+                if (existing != null && existing.getExclusive()) {
+                    return buildHashMapKey(entry);
+                }
+            }
+        }
+        return getKeys(lock).filter(locks::containsKey).findFirst().orElseThrow(IllegalStateException::new);
+    }
+
     /**
      * The following method contains a logic for acquiring a lock. It is comprised of two steps:
      * 1. Check if the lock can be acquired
@@ -198,14 +352,17 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     private Pair<Boolean, Set<String>> acquireLockInternal(EngineLock lock) {
         Pair<Boolean, Set<String>> result = acquireLockInternalStep(lock, true);
         if (!result.getFirst()) {
+            failedAcquires.increment();
             return result;
         }
 
         result = acquireLockInternalStep(lock, false);
         if (!result.getFirst()) {
+            failedAcquires.increment();
             return result;
         }
 
+        acquiredLocks.increment();
         log.debug("Success acquiring lock '{}'", lock);
         return LOCK_INSERT_SUCCESS_RESULT;
     }
@@ -279,6 +436,7 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         InternalLockView lock = locks.get(key);
         if (lock != null && lock.getExclusive()) {
             locks.remove(key);
+            recordHoldTime(lock);
             log.debug("The exclusive lock for key '{}' is released and lock is removed from map", key);
         } else if (lock == null) {
             log.warn("Trying to release exclusive lock which does not exist, lock key: '{}'", key);
@@ -295,6 +453,7 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
                 log.debug("The shared lock for key '{}' is released.", key);
                 if (lock.getCount() == 0) {
                     locks.remove(key);
+                    recordHoldTime(lock);
                     log.debug("The shared lock for key '{}' is removed from map", key);
                 } else {
                     lock.removeMessage(message);
@@ -307,14 +466,29 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         }
     }
 
+    private void recordHoldTime(InternalLockView lock) {
+        long holdTime = System.nanoTime() - lock.getCreated();
+        releasedLocks.increment();
+        totalHoldTimeNanos.add(holdTime);
+        maxHoldTimeNanos.accumulate(holdTime);
+    }
+
     @Override
     public LockInfo getLockInfo(String key) {
-        InternalLockView internalLockView = locks.get(key);
-        if (internalLockView == null) {
-            return null;
+        InternalLockView internalLockView;
+        Set<String> messages;
+        int[] lockStripes = { getStripeIndex(key) };
+        lockStripes(lockStripes);
+        try {
+            internalLockView = locks.get(key);
+            if (internalLockView == null) {
+                return null;
+            }
+            messages = internalLockView.getMessages();
+        } finally {
+            unlockStripes(lockStripes);
         }
 
-        Set<String> messages = internalLockView.getMessages();
         messages.remove(EngineMessage.ACTION_TYPE_FAILED_OBJECT_LOCKED.name());
         if (messages.isEmpty()) {
             // EngineMessage.ACTION_TYPE_FAILED_OBJECT_LOCKED should only be used for
@@ -333,6 +507,34 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
                 .anyMatch(entry -> getLockInfo(buildHashMapKey(entry)) != null);
     }
 
+    /**
+     * The following class represents a stripe guarding a part of the keys of the locks
+     */
+    private static class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        /** A condition which is used in order to notify waiting threads that some lock of the stripe was released **/
+        private final Condition released = lock.newCondition();
+        /** Number of releases on the stripe, lets a waiter detect releases done before it started to wait **/
+        private long releases;
+
+        private void signalReleased() {
+            releases++;
+            released.signalAll();
+        }
+
+        private void awaitRelease(long releasesBefore) throws InterruptedException {
+            lock.lock();
+            try {
+                while (releases == releasesBefore) {
+                    released.await();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
     /**
      * The following class represents different locks which are kept inside InMemoryLockManager
      */
@@ -344,6 +546,8 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         private final boolean exclusive;
         /** Contains error messages for that key **/
         private List<String> messages;
+        /** The time the lock was inserted, in nanoseconds **/
+        private final long created = System.nanoTime();
 
         public InternalLockView(int count, String message, boolean exclusive) {
             this.count = count;
@@ -360,6 +564,10 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
             return count;
         }
 
+        public long getCreated() {
+            return created;
+        }
+
         public void increaseCount() {
             count++;
         }
@@ -21,4 +21,41 @@ public interface LockManagerMonitorMXBean {
      * The following method will release a lock with provided lockId
      */
     boolean releaseLock(String lockId);
+
+    /**
+     * The following method will return a number of locks acquired since the statistics were reset
+     */
+    long getAcquiredLockCount();
+
+    /**
+     * The following method will return a number of attempts to acquire a lock which failed because
+     * the lock is taken by somebody else
+     */
+    long getFailedAcquireCount();
+
+    /**
+     * The following method will return a number of times a thread had to wait for another thread
+     * working with locks of the same stripe
+     */
+    long getStripeContentionCount();
+
+    /**
+     * The following method will return a number of threads currently waiting for a lock
+     */
+    int getWaitingThreadCount();
+
+    /**
+     * The following method will return an average time a lock was held in milliseconds
+     */
+    double getAverageHoldTimeMillis();
+
+    /**
+     * The following method will return a maximal time a lock was held in milliseconds
+     */
+    long getMaxHoldTimeMillis();
+
+    /**
+     * The following method will reset the statistics, the number of waiting threads is not affected
+     */
+    void resetStatistics();
 }
@@ -0,0 +1,104 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.scheduling.PerHostMessages;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Remembers the results of host independent filters while a batch of VMs is scheduled.
+ *
+ * The result of such a filter for a host depends only on the host and on the {@link VmShape},
+ * so it is computed once per shape and host. When a VM is placed on a host, the results
+ * for that host are dropped, because its pending resources changed.
+ *
+ * The cache is not thread safe, it is meant to live only for one batch under the cluster lock.
+ */
+class BatchFilterCache {
+
+    private final Map<VmShape, Map<Guid, Map<Guid, Outcome>>> outcomes = new HashMap<>();
+
+    private int hits;
+    private int misses;
+
+    /**
+     * Filters the hosts using the cached outcomes and evaluates the filter only for
+     * the hosts that have no outcome cached yet.
+     *
+     * @param evaluation evaluates the filter over a list of hosts, collecting messages to the passed object
+     */
+    List<VDS> filter(PolicyUnitImpl unit,
+            VmShape shape,
+            List<VDS> hosts,
+            PerHostMessages messages,
+            BiFunction<List<VDS>, PerHostMessages, List<VDS>> evaluation) {
+        Map<Guid, Outcome> unitOutcomes = outcomes
+                .computeIfAbsent(shape, s -> new HashMap<>())
+                .computeIfAbsent(unit.getGuid(), u -> new HashMap<>());
+
+        List<VDS> missing = hosts.stream()
+                .filter(host -> !unitOutcomes.containsKey(host.getId()))
+                .collect(Collectors.toList());
+        hits += hosts.size() - missing.size();
+        misses += missing.size();
+
+        if (!missing.isEmpty()) {
+            PerHostMessages missingMessages = new PerHostMessages();
+            Set<Guid> passed = evaluation.apply(missing, missingMessages).stream()
+                    .map(VDS::getId)
+                    .collect(Collectors.toSet());
+            for (VDS host : missing) {
+                unitOutcomes.put(host.getId(),
+                        new Outcome(passed.contains(host.getId()), missingMessages.getMessages(host.getId())));
+            }
+        }
+
+        List<VDS> result = new ArrayList<>(hosts.size());
+        for (VDS host : hosts) {
+            Outcome outcome = unitOutcomes.get(host.getId());
+            if (!outcome.messages.isEmpty()) {
+                messages.addMessages(host.getId(), outcome.messages);
+            }
+            if (outcome.passed) {
+                result.add(host);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops all cached outcomes for the host.
+     */
+    void invalidateHost(Guid hostId) {
+        for (Map<Guid, Map<Guid, Outcome>> unitOutcomes : outcomes.values()) {
+            for (Map<Guid, Outcome> hostOutcomes : unitOutcomes.values()) {
+                hostOutcomes.remove(hostId);
+            }
+        }
+    }
+
+    int getHits() {
+        return hits;
+    }
+
+    int getMisses() {
+        return misses;
+    }
+
+    private static class Outcome {
+        private final boolean passed;
+        private final List<String> messages;
+
+        Outcome(boolean passed, List<String> messages) {
+            this.passed = passed;
+            this.messages = messages;
+        }
+    }
+}
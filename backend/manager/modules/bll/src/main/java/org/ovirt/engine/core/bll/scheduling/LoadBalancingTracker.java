@@ -0,0 +1,166 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Decides which clusters have to be load balanced by the periodic balancing job.
+ *
+ * A summary of the load of every host is kept from the scheduling statistics updates. A cluster is
+ * marked dirty when the load of one of its hosts changed by more than the configured deltas, when
+ * the number of VMs on a host changed, when a host crossed one of the CPU or memory utilization
+ * thresholds of the cluster policy, or while a host is over the high CPU utilization threshold or
+ * under the low one with VMs running on it (balancing units decide on the duration of these states,
+ * so such a cluster is checked on every run).
+ * Clean clusters are skipped, but each cluster is balanced at least once per {@code maxSkippedIntervals}
+ * runs to pick up changes not reflected in the host statistics.
+ *
+ * The summary of a host is dropped when the host is removed or moved to another cluster, and the cluster
+ * it was in is marked dirty.
+ *
+ * When the tracker is disabled, all clusters are balanced on every run.
+ */
+class LoadBalancingTracker {
+
+    private final boolean enabled;
+    private final int cpuDeltaThreshold;
+    private final long memoryDeltaThreshold;
+    private final int maxSkippedIntervals;
+
+    private final ConcurrentHashMap<Guid, HostLoadSummary> hostSummaries = new ConcurrentHashMap<>();
+    private final Set<Guid> dirtyClusters = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Guid, Integer> skippedIntervals = new ConcurrentHashMap<>();
+
+    /**
+     * @param cpuDeltaThreshold change of the CPU usage (in percent) that makes the cluster dirty
+     * @param memoryDeltaThreshold change of the free memory (in MB) that makes the cluster dirty
+     * @param maxSkippedIntervals maximal number of balancing runs a clean cluster can be skipped
+     */
+    LoadBalancingTracker(boolean enabled, int cpuDeltaThreshold, long memoryDeltaThreshold, int maxSkippedIntervals) {
+        this.enabled = enabled;
+        this.cpuDeltaThreshold = cpuDeltaThreshold;
+        this.memoryDeltaThreshold = memoryDeltaThreshold;
+        this.maxSkippedIntervals = maxSkippedIntervals;
+    }
+
+    /**
+     * Updates the load summary of the host and marks its cluster dirty if the load changed significantly.
+     *
+     * @param cpuUtilization the CPU utilization of the host with respect to the thresholds of its cluster
+     * @param memoryUtilization the memory utilization of the host with respect to the limits of its cluster
+     */
+    void hostStatsUpdated(VDS host, Utilization cpuUtilization, Utilization memoryUtilization) {
+        if (!enabled || host.getClusterId() == null) {
+            return;
+        }
+
+        HostLoadSummary current = new HostLoadSummary(host, cpuUtilization, memoryUtilization);
+        HostLoadSummary previous = hostSummaries.put(host.getId(), current);
+        if (previous == null
+                || current.needsBalancing()
+                || !Objects.equals(previous.clusterId, current.clusterId)
+                || current.differsFrom(previous, cpuDeltaThreshold, memoryDeltaThreshold)) {
+            markClusterDirty(current.clusterId);
+            if (previous != null) {
+                markClusterDirty(previous.clusterId);
+            }
+        }
+    }
+
+    /**
+     * Drops the load summary of a host which was removed or moved to another cluster.
+     */
+    void hostRemoved(Guid hostId) {
+        HostLoadSummary previous = hostSummaries.remove(hostId);
+        if (previous != null) {
+            markClusterDirty(previous.clusterId);
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void markClusterDirty(Guid clusterId) {
+        dirtyClusters.add(clusterId);
+    }
+
+    void markAllClustersDirty() {
+        dirtyClusters.addAll(skippedIntervals.keySet());
+        hostSummaries.values().forEach(summary -> dirtyClusters.add(summary.clusterId));
+    }
+
+    /**
+     * Called once per cluster and balancing run. Clears the dirty flag of the cluster, so changes
+     * reported while the cluster is being balanced mark it dirty for the next run.
+     *
+     * @return true if the cluster should be balanced in this run
+     */
+    boolean shouldBalance(Guid clusterId) {
+        if (!enabled) {
+            return true;
+        }
+
+        if (dirtyClusters.remove(clusterId)) {
+            skippedIntervals.put(clusterId, 0);
+            return true;
+        }
+
+        int skipped = skippedIntervals.merge(clusterId, 1, Integer::sum);
+        if (skipped > maxSkippedIntervals) {
+            skippedIntervals.put(clusterId, 0);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Utilization of a host resource with respect to the thresholds of the cluster policy.
+     */
+    enum Utilization {
+        UNDER,
+        NORMAL,
+        OVER
+    }
+
+    private static class HostLoadSummary {
+        private final Guid clusterId;
+        private final int cpuUsage;
+        private final long memFree;
+        private final int vmCount;
+        private final boolean outOfThresholds;
+        private final Utilization cpuUtilization;
+        private final Utilization memoryUtilization;
+
+        HostLoadSummary(VDS host, Utilization cpuUtilization, Utilization memoryUtilization) {
+            clusterId = host.getClusterId();
+            cpuUsage = host.getUsageCpuPercent() == null ? 0 : host.getUsageCpuPercent();
+            memFree = host.getMemFree() == null ? 0 : host.getMemFree();
+            vmCount = host.getVmCount();
+            outOfThresholds = host.getCpuOverCommitTimestamp() != null;
+            this.cpuUtilization = cpuUtilization;
+            this.memoryUtilization = memoryUtilization;
+        }
+
+        /**
+         * Over and under utilized hosts are migrated from once they stay in that state for the configured
+         * duration, which no statistics update reports. Under utilized hosts without VMs are left alone.
+         */
+        boolean needsBalancing() {
+            return cpuUtilization == Utilization.OVER || (cpuUtilization == Utilization.UNDER && vmCount > 0);
+        }
+
+        boolean differsFrom(HostLoadSummary other, int cpuDelta, long memoryDelta) {
+            return vmCount != other.vmCount
+                    || outOfThresholds != other.outOfThresholds
+                    || cpuUtilization != other.cpuUtilization
+                    || memoryUtilization != other.memoryUtilization
+                    || Math.abs(cpuUsage - other.cpuUsage) >= cpuDelta
+                    || Math.abs(memFree - other.memFree) >= memoryDelta;
+        }
+    }
+}
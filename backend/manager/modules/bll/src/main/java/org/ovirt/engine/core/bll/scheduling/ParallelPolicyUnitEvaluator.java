@@ -0,0 +1,153 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.scheduling.PerHostMessages;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates filter and weight policy units over a list of hosts.
+ *
+ * Units marked as {@link SchedulingUnit#hostIndependent()} are evaluated over disjoint
+ * partitions of the host list when the list is large enough. The partitions are submitted to
+ * the engine thread pool, and the calling thread evaluates every partition no pool thread has
+ * started yet, so the evaluation never waits for a busy pool. Partial results are merged in
+ * partition order, so the result is the same as the one of a sequential evaluation. All other
+ * units are evaluated on the calling thread.
+ */
+public class ParallelPolicyUnitEvaluator {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelPolicyUnitEvaluator.class);
+
+    private final int parallelism;
+    private final int hostThreshold;
+
+    /**
+     * @param parallelism maximal number of partitions evaluated at once, values lower than 2 disable
+     *                    parallel evaluation
+     * @param hostThreshold minimal number of hosts for which the list is partitioned
+     */
+    public ParallelPolicyUnitEvaluator(int parallelism, int hostThreshold) {
+        this.parallelism = parallelism;
+        this.hostThreshold = Math.max(hostThreshold, 2);
+    }
+
+    public List<VDS> filter(PolicyUnitImpl unit,
+            Cluster cluster,
+            List<VDS> hosts,
+            VM vm,
+            Map<String, String> parameters,
+            PerHostMessages messages) {
+        if (!shouldPartition(unit, hosts)) {
+            return unit.filter(cluster, hosts, vm, parameters, messages);
+        }
+
+        List<List<VDS>> partitions = partition(hosts);
+        List<PerHostMessages> partitionMessages = new ArrayList<>(partitions.size());
+        List<Callable<List<VDS>>> tasks = new ArrayList<>(partitions.size());
+        for (List<VDS> part : partitions) {
+            PerHostMessages partMessages = new PerHostMessages();
+            partitionMessages.add(partMessages);
+            tasks.add(() -> unit.filter(cluster, part, vm, parameters, partMessages));
+        }
+
+        List<VDS> result = new ArrayList<>(hosts.size());
+        for (List<VDS> partResult : invokeAll(unit, tasks)) {
+            result.addAll(partResult);
+        }
+        for (PerHostMessages partMessages : partitionMessages) {
+            partMessages.getMessages().forEach(messages::addMessages);
+        }
+        return result;
+    }
+
+    public List<Pair<Guid, Integer>> score(PolicyUnitImpl unit,
+            Cluster cluster,
+            List<VDS> hosts,
+            VM vm,
+            Map<String, String> parameters) {
+        if (!shouldPartition(unit, hosts)) {
+            return unit.score(cluster, hosts, vm, parameters);
+        }
+
+        List<Callable<List<Pair<Guid, Integer>>>> tasks = new ArrayList<>();
+        for (List<VDS> part : partition(hosts)) {
+            tasks.add(() -> unit.score(cluster, part, vm, parameters));
+        }
+
+        List<Pair<Guid, Integer>> result = new ArrayList<>(hosts.size());
+        for (List<Pair<Guid, Integer>> partResult : invokeAll(unit, tasks)) {
+            result.addAll(partResult);
+        }
+        return result;
+    }
+
+    private boolean shouldPartition(PolicyUnitImpl unit, List<VDS> hosts) {
+        return parallelism > 1 && hosts.size() >= hostThreshold && unit.isHostIndependent();
+    }
+
+    /**
+     * Splits the host list to at most {@code parallelism} consecutive parts of (almost) equal size.
+     */
+    List<List<VDS>> partition(List<VDS> hosts) {
+        int parts = Math.min(parallelism, hosts.size());
+        List<List<VDS>> partitions = new ArrayList<>(parts);
+        int start = 0;
+        for (int i = 0; i < parts; i++) {
+            int end = start + (hosts.size() - start) / (parts - i);
+            partitions.add(new ArrayList<>(hosts.subList(start, end)));
+            start = end;
+        }
+        return partitions;
+    }
+
+    private <T> List<T> invokeAll(PolicyUnitImpl unit, List<Callable<T>> tasks) {
+        List<FutureTask<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(new FutureTask<>(task));
+        }
+        // the first partition is always evaluated by the calling thread
+        for (FutureTask<T> future : futures.subList(1, futures.size())) {
+            try {
+                ThreadPoolUtil.execute(future);
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+
+        List<T> results = new ArrayList<>(tasks.size());
+        for (FutureTask<T> future : futures) {
+            // does nothing if a pool thread started the partition already
+            future.run();
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                log.error("Policy unit '{}' failed on a partition of hosts: {}",
+                        unit.getPolicyUnit().getName(),
+                        e.getCause().getMessage());
+                log.debug("Exception", e.getCause());
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        return results;
+    }
+}
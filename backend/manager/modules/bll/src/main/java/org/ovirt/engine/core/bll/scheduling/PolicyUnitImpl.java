@@ -102,6 +102,22 @@ public abstract class PolicyUnitImpl {
         return pendingResourceManager;
     }
 
+    /**
+     * @return true if the unit can be evaluated over disjoint parts of the host list independently
+     */
+    public boolean isHostIndependent() {
+        SchedulingUnit unit = getClass().getAnnotation(SchedulingUnit.class);
+        return unit != null && unit.hostIndependent();
+    }
+
+    /**
+     * @return true if the scores of the unit can be reused for VMs of the same shape
+     */
+    public boolean isScoreCacheable() {
+        SchedulingUnit unit = getClass().getAnnotation(SchedulingUnit.class);
+        return unit != null && unit.cacheableScore();
+    }
+
     // The following methods are only used when instantiating an internal policy unit
 
     protected String getName() {
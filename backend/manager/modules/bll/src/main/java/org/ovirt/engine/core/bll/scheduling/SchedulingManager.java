@@ -31,6 +31,7 @@ import org.ovirt.engine.core.bll.HostLocking;
 import org.ovirt.engine.core.bll.VmHandler;
 import org.ovirt.engine.core.bll.network.host.NetworkDeviceHelper;
 import org.ovirt.engine.core.bll.network.host.VfScheduler;
+import org.ovirt.engine.core.bll.scheduling.LoadBalancingTracker.Utilization;
 import org.ovirt.engine.core.bll.scheduling.external.BalanceResult;
 import org.ovirt.engine.core.bll.scheduling.external.ExternalSchedulerBroker;
 import org.ovirt.engine.core.bll.scheduling.external.ExternalSchedulerDiscovery;
@@ -129,6 +130,13 @@ public class SchedulingManager implements BackendService {
 
     private PendingResourceManager pendingResourceManager;
 
+    private ParallelPolicyUnitEvaluator policyUnitEvaluator;
+
+    @Inject
+    private SchedulingScoreCache scoreCache;
+
+    private LoadBalancingTracker loadBalancingTracker;
+
     /**
      * [policy id, policy] map
      */
@@ -162,6 +170,8 @@ public class SchedulingManager implements BackendService {
     public void init() {
         log.info("Initializing Scheduling manager");
         initializePendingResourceManager();
+        initializePolicyUnitEvaluator();
+        initializeLoadBalancingTracker();
         loadPolicyUnits();
         loadClusterPolicies();
         loadExternalScheduler();
@@ -174,6 +184,22 @@ public class SchedulingManager implements BackendService {
         pendingResourceManager = new PendingResourceManager(resourceManager);
     }
 
+    private void initializePolicyUnitEvaluator() {
+        int threads = Config.<Boolean>getValue(ConfigValues.SchedulerParallelEvaluationEnabled)
+                ? Config.<Integer>getValue(ConfigValues.SchedulerParallelEvaluationThreads)
+                : 1;
+        policyUnitEvaluator = new ParallelPolicyUnitEvaluator(threads,
+                Config.<Integer>getValue(ConfigValues.SchedulerParallelEvaluationHostThreshold));
+    }
+
+    private void initializeLoadBalancingTracker() {
+        loadBalancingTracker = new LoadBalancingTracker(
+                Config.<Boolean>getValue(ConfigValues.VdsLoadBalancingEventDriven),
+                Config.<Integer>getValue(ConfigValues.VdsLoadBalancingCpuDeltaThreshold),
+                Config.<Integer>getValue(ConfigValues.VdsLoadBalancingMemoryDeltaThresholdInMB),
+                Config.<Integer>getValue(ConfigValues.VdsLoadBalancingMaxSkippedIntervals));
+    }
+
     private void loadExternalScheduler() {
         if (Config.<Boolean>getValue(ConfigValues.ExternalSchedulerEnabled)) {
             log.info("Starting external scheduler discovery thread");
@@ -375,6 +401,111 @@ public class SchedulingManager implements BackendService {
         }
     }
 
+    /**
+     * Finds hosts for several VMs of the same cluster in a single pass.
+     *
+     * The cluster is locked and the candidate hosts are loaded only once for the whole batch.
+     * Results of host independent filters are cached per {@link VmShape} and host, so every next
+     * VM of the same shape is filtered only on the hosts that changed by the previous placements.
+     * Pending resources are added after every placement, so the next VMs see the hosts as if the
+     * already placed VMs were running there.
+     *
+     * The batch is meant for VMs that are being started, resources of running VMs are not subtracted
+     * and the filters do not wait for pending resources to be released. The VMs that were not placed
+     * can still be scheduled one by one with {@link #schedule}.
+     */
+    public SchedulingPlan scheduleBatch(Cluster cluster,
+            List<VM> vms,
+            List<Guid> hostBlackList,
+            List<Guid> hostWhiteList,
+            String correlationId) {
+        SchedulingPlan plan = new SchedulingPlan();
+        if (vms.isEmpty()) {
+            return plan;
+        }
+
+        prepareClusterLock(cluster.getId());
+        try {
+            log.debug("Batch scheduling of {} VMs started, correlation Id: {}", vms.size(), correlationId);
+            checkAllowOverbooking(cluster);
+            lockCluster(cluster.getId());
+            List<VDS> vdsList = vdsDao
+                    .getAllForClusterWithStatus(cluster.getId(), VDSStatus.Up);
+            vdsList = removeBlacklistedHosts(vdsList, hostBlackList);
+            vdsList = keepOnlyWhitelistedHosts(vdsList, hostWhiteList);
+            refreshCachedPendingValues(vdsList);
+            ClusterPolicy policy = policyMap.get(cluster.getClusterPolicyId());
+            Map<String, String> parameters = createClusterPolicyParameters(cluster);
+            BatchFilterCache filterCache = new BatchFilterCache();
+
+            for (VM vm : vms) {
+                List<String> messages = new ArrayList<>();
+                List<VDS> candidates =
+                        runFilters(policy.getFilters(),
+                                cluster,
+                                vdsList,
+                                vm,
+                                parameters,
+                                policy.getFilterPositionMap(),
+                                messages,
+                                noWaitingVmDelayer,
+                                true,
+                                correlationId,
+                                filterCache);
+
+                Optional<Guid> bestHost = candidates.isEmpty()
+                        ? Optional.empty()
+                        : selectBestHost(cluster, vm, Collections.emptyList(), candidates, policy, parameters);
+                if (!bestHost.isPresent()) {
+                    plan.addFailure(vm.getId(), messages);
+                    continue;
+                }
+
+                Guid bestHostId = bestHost.get();
+                plan.addPlacement(vm.getId(), bestHostId);
+                if (!bestHostId.equals(vm.getRunOnVds())) {
+                    addPendingResources(vm, bestHostId);
+                    markVfsAsUsedByVm(vm, bestHostId);
+                    refreshCachedPendingValues(vdsList.stream()
+                            .filter(host -> host.getId().equals(bestHostId))
+                            .collect(Collectors.toList()));
+                    filterCache.invalidateHost(bestHostId);
+                }
+            }
+
+            log.debug("Batch scheduling placed {} of {} VMs, filter cache hits: {}, misses: {}",
+                    plan.getPlacements().size(),
+                    vms.size(),
+                    filterCache.getHits(),
+                    filterCache.getMisses());
+            return plan;
+        } catch (InterruptedException e) {
+            log.error("batch scheduling interrupted, correlation Id: {}: {}", correlationId, e.getMessage());
+            log.debug("Exception: ", e);
+            return plan;
+        } finally {
+            releaseCluster(cluster.getId());
+
+            log.debug("Batch scheduling ended, correlation Id: {}", correlationId);
+        }
+    }
+
+    /**
+     * Checks the host planned for the VM by {@link #scheduleBatch} can still be used to run it, without
+     * locking the cluster and running the filters again. The resources the batch reserved for the VM are
+     * still pending on the host, so no other scheduling could take them meanwhile, and only the state of
+     * the host and of the reservation is checked. A change of the load of the host which was not caused by
+     * the engine is not detected, the VM then fails to start there and is scheduled again by the rerun.
+     */
+    public boolean isPlannedHostValid(Cluster cluster, VM vm, Guid hostId, List<Guid> hostBlackList) {
+        if (hostBlackList.contains(hostId)
+                || !hostId.equals(PendingVM.getScheduledHost(getPendingResourceManager(), vm))) {
+            return false;
+        }
+        VDS host = vdsDao.get(hostId);
+        return host != null && host.getStatus() == VDSStatus.Up && cluster.getId().equals(host.getClusterId());
+    }
+
     private void addPendingResources(VM vm, Guid hostId) {
         getPendingResourceManager().addPending(new PendingCpuCores(hostId, vm, vm.getNumOfCpus()));
         getPendingResourceManager().addPending(new PendingMemory(hostId, vm, vmOverheadCalculator.getStaticOverheadInMb(vm)));
@@ -676,6 +807,34 @@ public class SchedulingManager implements BackendService {
             RunVmDelayer runVmDelayer,
             boolean shouldRunExternalFilters,
             String correlationId) {
+        return runFilters(filters,
+                cluster,
+                hostList,
+                vm,
+                parameters,
+                filterPositionMap,
+                messages,
+                runVmDelayer,
+                shouldRunExternalFilters,
+                correlationId,
+                null);
+    }
+
+    /**
+     * @param filterCache cache of host independent filter results, {@code null} when the filters
+     *                    should be evaluated on all hosts
+     */
+    private List<VDS> runFilters(List<Guid> filters,
+            Cluster cluster,
+            List<VDS> hostList,
+            VM vm,
+            Map<String, String> parameters,
+            Map<Guid, Integer> filterPositionMap,
+            List<String> messages,
+            RunVmDelayer runVmDelayer,
+            boolean shouldRunExternalFilters,
+            String correlationId,
+            BatchFilterCache filterCache) {
         SchedulingResult result = new SchedulingResult();
         List<PolicyUnitImpl> internalFilters = new ArrayList<>();
         List<PolicyUnitImpl> externalFilters = new ArrayList<>();
@@ -702,8 +861,15 @@ public class SchedulingManager implements BackendService {
             return hostList;
         }
 
-        hostList =
-                runInternalFilters(internalFilters, cluster, hostList, vm, parameters, runVmDelayer, correlationId, result);
+        hostList = runInternalFilters(internalFilters,
+                cluster,
+                hostList,
+                vm,
+                parameters,
+                runVmDelayer,
+                correlationId,
+                result,
+                filterCache);
 
         if (shouldRunExternalFilters
                 && Config.<Boolean>getValue(ConfigValues.ExternalSchedulerEnabled)
@@ -726,14 +892,34 @@ public class SchedulingManager implements BackendService {
             Map<String, String> parameters,
             RunVmDelayer runVmDelayer,
             String correlationId,
-            SchedulingResult result) {
+            SchedulingResult result,
+            BatchFilterCache filterCache) {
+        VmShape shape = filterCache != null ? VmShape.of(vm) : null;
         for (PolicyUnitImpl filterPolicyUnit : filters) {
             if (hostList.isEmpty()) {
                 break;
             }
             filterPolicyUnit.setRunVmDelayer(runVmDelayer);
             List<VDS> currentHostList = new ArrayList<>(hostList);
-            hostList = filterPolicyUnit.filter(cluster, hostList, vm, parameters, result.getDetails());
+            if (filterCache != null && filterPolicyUnit.isHostIndependent()) {
+                hostList = filterCache.filter(filterPolicyUnit,
+                        shape,
+                        hostList,
+                        result.getDetails(),
+                        (hosts, messages) -> policyUnitEvaluator.filter(filterPolicyUnit,
+                                cluster,
+                                hosts,
+                                vm,
+                                parameters,
+                                messages));
+            } else {
+                hostList = policyUnitEvaluator.filter(filterPolicyUnit,
+                        cluster,
+                        hostList,
+                        vm,
+                        parameters,
+                        result.getDetails());
+            }
             logFilterActions(currentHostList,
                     toIdSet(hostList),
                     EngineMessage.VAR__FILTERTYPE__INTERNAL,
@@ -841,7 +1027,13 @@ public class SchedulingManager implements BackendService {
             Map<String, String> parameters) {
 
         for (Pair<PolicyUnitImpl, Integer> pair : functions) {
-            List<Pair<Guid, Integer>> scoreResult = pair.getFirst().score(cluster, hostList, vm, parameters);
+            List<Pair<Guid, Integer>> scoreResult = scoreCache.score(pair.getFirst(),
+                    cluster,
+                    hostList,
+                    vm,
+                    parameters,
+                    getPendingResourceManager(),
+                    hosts -> policyUnitEvaluator.score(pair.getFirst(), cluster, hosts, vm, parameters));
             for (Pair<Guid, Integer> result : scoreResult) {
                 selector.record(pair.getFirst().getGuid(), result.getFirst(), result.getSecond());
             }
@@ -943,6 +1135,7 @@ public class SchedulingManager implements BackendService {
     public void editClusterPolicy(ClusterPolicy clusterPolicy) {
         clusterPolicyDao.update(clusterPolicy);
         policyMap.put(clusterPolicy.getId(), clusterPolicy);
+        loadBalancingTracker.markAllClustersDirty();
     }
 
     public void removeClusterPolicy(Guid clusterPolicyId) {
@@ -1043,6 +1236,11 @@ public class SchedulingManager implements BackendService {
         log.debug("Load Balancer timer entered.");
         List<Cluster> clusters = clusterDao.getAll();
         for (Cluster cluster : clusters) {
+            if (!loadBalancingTracker.shouldBalance(cluster.getId())) {
+                log.debug("Skipping load balancing of cluster '{}', its load did not change", cluster.getName());
+                continue;
+            }
+
             ClusterPolicy policy = policyMap.get(cluster.getClusterPolicyId());
             PolicyUnitImpl policyUnit = policyUnits.get(policy.getBalance());
             List<BalanceResult> balanceResults = Collections.emptyList();
@@ -1154,13 +1352,28 @@ public class SchedulingManager implements BackendService {
     /**
      * update host scheduling statistics:
      * * CPU load duration interval over/under policy threshold
+     * * load summary used to decide whether the cluster of the host needs load balancing
      */
     public void updateHostSchedulingStats(VDS vds) {
-        if (vds.getUsageCpuPercent() != null) {
-            Cluster cluster = clusterDao.get(vds.getClusterId());
-            if (vds.getUsageCpuPercent() >= NumberUtils.toInt(cluster.getClusterPolicyProperties()
+        // the cluster is read only when it is needed, as this runs on every statistics refresh of every host
+        Cluster cluster = vds.getClusterId() != null
+                && (vds.getUsageCpuPercent() != null || loadBalancingTracker.isEnabled())
+                ? clusterDao.get(vds.getClusterId())
+                : null;
+        Utilization cpuUtilization = Utilization.NORMAL;
+        if (cluster != null && vds.getUsageCpuPercent() != null) {
+            boolean overUtilized = vds.getUsageCpuPercent() >= NumberUtils.toInt(cluster.getClusterPolicyProperties()
                     .get(HIGH_UTILIZATION),
-                    Config.<Integer> getValue(ConfigValues.HighUtilizationForEvenlyDistribute))
+                    Config.<Integer> getValue(ConfigValues.HighUtilizationForEvenlyDistribute));
+            if (overUtilized) {
+                cpuUtilization = Utilization.OVER;
+            } else if (cluster.getClusterPolicyProperties().containsKey(LOW_UTILIZATION)
+                    && vds.getUsageCpuPercent() < NumberUtils.toInt(cluster.getClusterPolicyProperties()
+                            .get(LOW_UTILIZATION))) {
+                // only the policies with the low utilization threshold move VMs from under utilized hosts
+                cpuUtilization = Utilization.UNDER;
+            }
+            if (overUtilized
                     || vds.getUsageCpuPercent() <= NumberUtils.toInt(cluster.getClusterPolicyProperties()
                             .get(LOW_UTILIZATION),
                             Config.<Integer> getValue(ConfigValues.LowUtilizationForEvenlyDistribute))) {
@@ -1171,6 +1384,40 @@ public class SchedulingManager implements BackendService {
                 vds.setCpuOverCommitTimestamp(null);
             }
         }
+        if (cluster != null) {
+            loadBalancingTracker.hostStatsUpdated(vds, cpuUtilization, getMemoryUtilization(vds, cluster));
+        } else if (loadBalancingTracker.isEnabled()) {
+            // the host or its cluster was removed meanwhile
+            loadBalancingTracker.hostRemoved(vds.getId());
+        }
+        scoreCache.hostStatsUpdated(vds.getId());
+    }
+
+    /**
+     * Drops the scheduling state kept for the host, to be called when the host is removed or moved to
+     * another cluster.
+     */
+    public void hostRemoved(Guid hostId) {
+        loadBalancingTracker.hostRemoved(hostId);
+        scoreCache.hostStatsUpdated(hostId);
+    }
+
+    /**
+     * Memory utilization of the host with respect to the memory limits of the cluster policy,
+     * compared the way the power saving balancing does.
+     */
+    private static Utilization getMemoryUtilization(VDS vds, Cluster cluster) {
+        Map<String, String> properties = cluster.getClusterPolicyProperties();
+        float freeMemory = vds.getMaxSchedulingMemory();
+        if (freeMemory < NumberUtils.toLong(
+                properties.get(PolicyUnitParameter.LOW_MEMORY_LIMIT_FOR_OVER_UTILIZED.getDbName()), 0L)) {
+            return Utilization.OVER;
+        }
+        if (freeMemory > NumberUtils.toLong(
+                properties.get(PolicyUnitParameter.HIGH_MEMORY_LIMIT_FOR_UNDER_UTILIZED.getDbName()), Long.MAX_VALUE)) {
+            return Utilization.UNDER;
+        }
+        return Utilization.NORMAL;
     }
 
     /**
@@ -0,0 +1,44 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Result of scheduling a batch of VMs: the selected host of every VM that could be placed
+ * and the scheduling messages of every VM that could not.
+ */
+public class SchedulingPlan {
+    private final Map<Guid, Guid> placements = new LinkedHashMap<>();
+    private final Map<Guid, List<String>> failures = new LinkedHashMap<>();
+
+    void addPlacement(Guid vmId, Guid hostId) {
+        placements.put(vmId, hostId);
+    }
+
+    void addFailure(Guid vmId, List<String> messages) {
+        failures.put(vmId, messages);
+    }
+
+    public Optional<Guid> getHost(Guid vmId) {
+        return Optional.ofNullable(placements.get(vmId));
+    }
+
+    /**
+     * @return VM id to host id, in the order the VMs were placed
+     */
+    public Map<Guid, Guid> getPlacements() {
+        return Collections.unmodifiableMap(placements);
+    }
+
+    /**
+     * @return VM id to the messages explaining why no host was found
+     */
+    public Map<Guid, List<String>> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+}
@@ -0,0 +1,230 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.bll.scheduling.pending.PendingResourceManager;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of host scores computed by the weight policy units marked with {@link SchedulingUnit#cacheableScore()}.
+ *
+ * A score is kept per host and identified by the policy unit, the {@link VmShape} of the scheduled VM,
+ * the policy parameters and the cluster settings the units read. All scores of a host are dropped when the statistics of the host are
+ * refreshed or when its pending resources change, so VMs of the same template or instance type started
+ * in a row reuse the scores computed for the first one.
+ */
+@Singleton
+public class SchedulingScoreCache implements SchedulingScoreCacheMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SchedulingScoreCache.class);
+
+    /** Bounds the number of VM shapes and units remembered for a single host */
+    private static final int MAX_SCORES_PER_HOST = 1024;
+
+    private final ConcurrentHashMap<Guid, AtomicLong> statsVersions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Guid, HostScores> scoresByHost = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    public void registerInJMX() {
+        try {
+            objectName = new ObjectName("SchedulingScoreCache:type=" + this.getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            log.debug("Problem during registration of Monitoring into JMX: {}", e);
+        }
+    }
+
+    @PreDestroy
+    public void unregisterFromJMX() {
+        try {
+            platformMBeanServer.unregisterMBean(this.objectName);
+        } catch (Exception e) {
+            log.debug("Problem during unregistration of Monitoring into JMX: {}", e);
+        }
+    }
+
+    /**
+     * Returns the scores of the hosts, computing with the unit only the scores that are not cached.
+     *
+     * @param evaluation computes the scores of the unit for a list of hosts
+     * @return scores in the order of the hosts
+     */
+    public List<Pair<Guid, Integer>> score(PolicyUnitImpl unit,
+            Cluster cluster,
+            List<VDS> hosts,
+            VM vm,
+            Map<String, String> parameters,
+            PendingResourceManager pendingResourceManager,
+            Function<List<VDS>, List<Pair<Guid, Integer>>> evaluation) {
+        if (!unit.isScoreCacheable() || !Config.<Boolean>getValue(ConfigValues.SchedulerScoreCacheEnabled)) {
+            return evaluation.apply(hosts);
+        }
+
+        ScoreKey key = new ScoreKey(unit.getGuid(), cluster, VmShape.of(vm), parameters);
+        Map<Guid, HostScores> hostScores = new HashMap<>(hosts.size());
+        Map<Guid, Integer> scores = new HashMap<>(hosts.size());
+        List<VDS> missing = new ArrayList<>();
+        for (VDS host : hosts) {
+            HostScores current = getHostScores(host.getId(), pendingResourceManager.getHostVersion(host.getId()));
+            hostScores.put(host.getId(), current);
+            Integer score = current.scores.get(key);
+            if (score == null) {
+                missing.add(host);
+            } else {
+                scores.put(host.getId(), score);
+            }
+        }
+        hits.add(hosts.size() - missing.size());
+        misses.add(missing.size());
+
+        if (!missing.isEmpty()) {
+            for (Pair<Guid, Integer> score : evaluation.apply(missing)) {
+                scores.put(score.getFirst(), score.getSecond());
+                HostScores current = hostScores.get(score.getFirst());
+                if (current != null && current.scores.size() < MAX_SCORES_PER_HOST) {
+                    current.scores.put(key, score.getSecond());
+                }
+            }
+        }
+
+        List<Pair<Guid, Integer>> result = new ArrayList<>(hosts.size());
+        for (VDS host : hosts) {
+            Integer score = scores.get(host.getId());
+            if (score != null) {
+                result.add(new Pair<>(host.getId(), score));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops the scores of the host, to be called when the statistics of the host are refreshed.
+     */
+    public void hostStatsUpdated(Guid hostId) {
+        statsVersions.computeIfAbsent(hostId, id -> new AtomicLong()).incrementAndGet();
+        scoresByHost.remove(hostId);
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getSize() {
+        return scoresByHost.values().stream().mapToLong(scores -> scores.scores.size()).sum();
+    }
+
+    @Override
+    public void clear() {
+        scoresByHost.clear();
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * Returns the scores of the host valid for the current statistics and pending resources of the host,
+     * replacing the outdated ones.
+     */
+    private HostScores getHostScores(Guid hostId, long pendingVersion) {
+        long statsVersion = statsVersions.computeIfAbsent(hostId, id -> new AtomicLong()).get();
+        return scoresByHost.compute(hostId, (id, scores) ->
+                scores != null && scores.statsVersion == statsVersion && scores.pendingVersion == pendingVersion
+                        ? scores
+                        : new HostScores(statsVersion, pendingVersion));
+    }
+
+    private static class HostScores {
+        private final long statsVersion;
+        private final long pendingVersion;
+        private final Map<ScoreKey, Integer> scores = new ConcurrentHashMap<>();
+
+        HostScores(long statsVersion, long pendingVersion) {
+            this.statsVersion = statsVersion;
+            this.pendingVersion = pendingVersion;
+        }
+    }
+
+    private static class ScoreKey {
+        private final Guid unitId;
+        private final Guid clusterId;
+        private final Guid clusterPolicyId;
+        private final boolean countThreadsAsCores;
+        private final int maxVdsMemoryOverCommit;
+        private final VmShape shape;
+        private final Map<String, String> parameters;
+
+        ScoreKey(Guid unitId, Cluster cluster, VmShape shape, Map<String, String> parameters) {
+            this.unitId = unitId;
+            this.clusterId = cluster.getId();
+            this.clusterPolicyId = cluster.getClusterPolicyId();
+            this.countThreadsAsCores = cluster.getCountThreadsAsCores();
+            this.maxVdsMemoryOverCommit = cluster.getMaxVdsMemoryOverCommit();
+            this.shape = shape;
+            this.parameters = parameters == null ? new HashMap<>() : new HashMap<>(parameters);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ScoreKey)) {
+                return false;
+            }
+            ScoreKey other = (ScoreKey) obj;
+            return Objects.equals(unitId, other.unitId)
+                    && Objects.equals(clusterId, other.clusterId)
+                    && Objects.equals(clusterPolicyId, other.clusterPolicyId)
+                    && countThreadsAsCores == other.countThreadsAsCores
+                    && maxVdsMemoryOverCommit == other.maxVdsMemoryOverCommit
+                    && Objects.equals(shape, other.shape)
+                    && Objects.equals(parameters, other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(unitId,
+                    clusterId,
+                    clusterPolicyId,
+                    countThreadsAsCores,
+                    maxVdsMemoryOverCommit,
+                    shape,
+                    parameters);
+        }
+    }
+}
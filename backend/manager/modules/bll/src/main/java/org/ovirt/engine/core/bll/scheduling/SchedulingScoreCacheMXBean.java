@@ -0,0 +1,27 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface SchedulingScoreCacheMXBean {
+
+    /**
+     * Number of host scores served from the cache
+     */
+    long getHits();
+
+    /**
+     * Number of host scores computed by the policy units
+     */
+    long getMisses();
+
+    /**
+     * Number of scores currently kept in the cache
+     */
+    long getSize();
+
+    /**
+     * Drops all cached scores and resets the counters
+     */
+    void clear();
+}
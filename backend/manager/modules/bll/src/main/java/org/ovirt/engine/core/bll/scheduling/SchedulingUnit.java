@@ -15,4 +15,18 @@ public @interface SchedulingUnit {
     PolicyUnitType type() default PolicyUnitType.FILTER;
     String description() default "";
     PolicyUnitParameter[] parameters() default {};
+
+    /**
+     * Marks a filter or weight unit whose result for a host depends only on that host
+     * (and the VM being scheduled), not on the other hosts in the candidate list.
+     * Such units can be evaluated over partitions of the host list in parallel.
+     */
+    boolean hostIndependent() default false;
+
+    /**
+     * Marks a weight unit whose score for a host depends only on that host, its pending resources,
+     * the {@link VmShape} of the VM being scheduled and the policy parameters. Scores of such units
+     * can be reused by the {@link SchedulingScoreCache}.
+     */
+    boolean cacheableScore() default false;
 }
@@ -0,0 +1,90 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.businessentities.VMStatus;
+import org.ovirt.engine.core.common.utils.HugePageUtils;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.compat.Version;
+
+/**
+ * The part of a VM definition the host independent filters and the cacheable weight units look at.
+ *
+ * Two VMs with an equal shape get the same result from such a unit on the same host,
+ * so the result computed for one of them can be reused for the other.
+ */
+final class VmShape {
+    private final int numOfCpus;
+    private final int numOfCpusWithThreads;
+    private final VMStatus status;
+    private final Guid runOnVds;
+    private final boolean usingCpuPassthrough;
+    private final String cpuName;
+    private final String customCpuName;
+    private final String emulatedMachine;
+    private final String customEmulatedMachine;
+    private final Version customCompatibilityVersion;
+    private final Map<Integer, Integer> hugePages;
+
+    private VmShape(VM vm) {
+        numOfCpus = vm.getNumOfCpus(false);
+        numOfCpusWithThreads = vm.getNumOfCpus();
+        status = vm.getStatus();
+        runOnVds = vm.getRunOnVds();
+        usingCpuPassthrough = vm.isUsingCpuPassthrough();
+        cpuName = vm.getCpuName();
+        customCpuName = vm.getCustomCpuName();
+        emulatedMachine = vm.getEmulatedMachine();
+        customEmulatedMachine = vm.getCustomEmulatedMachine();
+        customCompatibilityVersion = vm.getCustomCompatibilityVersion();
+        hugePages = HugePageUtils.isBackedByHugepages(vm.getStaticData())
+                ? HugePageUtils.getHugePages(vm.getStaticData())
+                : Collections.emptyMap();
+    }
+
+    static VmShape of(VM vm) {
+        return new VmShape(vm);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof VmShape)) {
+            return false;
+        }
+        VmShape other = (VmShape) obj;
+        return numOfCpus == other.numOfCpus
+                && numOfCpusWithThreads == other.numOfCpusWithThreads
+                && usingCpuPassthrough == other.usingCpuPassthrough
+                && status == other.status
+                && Objects.equals(runOnVds, other.runOnVds)
+                && Objects.equals(cpuName, other.cpuName)
+                && Objects.equals(customCpuName, other.customCpuName)
+                && Objects.equals(emulatedMachine, other.emulatedMachine)
+                && Objects.equals(customEmulatedMachine, other.customEmulatedMachine)
+                && Objects.equals(customCompatibilityVersion, other.customCompatibilityVersion)
+                && Objects.equals(hugePages, other.hugePages);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                numOfCpus,
+                numOfCpusWithThreads,
+                status,
+                runOnVds,
+                usingCpuPassthrough,
+                cpuName,
+                customCpuName,
+                emulatedMachine,
+                customEmulatedMachine,
+                customCompatibilityVersion,
+                hugePages
+        );
+    }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -30,6 +31,7 @@ public class PendingResourceManager {
     private final Map<Guid, Set<PendingResource>> resourcesByHost = new ConcurrentHashMap<>();
     private final Map<Guid, Set<PendingResource>> resourcesByVm = new ConcurrentHashMap<>();
     private final Map<PendingResource, PendingResource> pendingResources = new ConcurrentHashMap<>();
+    private final Map<Guid, AtomicLong> hostVersions = new ConcurrentHashMap<>();
 
     private final ResourceManager resourceManager;
 
@@ -208,6 +210,15 @@ public class PendingResourceManager {
         return list;
     }
 
+    /**
+     * Return a number that changes every time the pending resources of the host change.
+     * @param hostId - id of the host
+     */
+    public long getHostVersion(Guid hostId) {
+        AtomicLong version = hostVersions.get(hostId);
+        return version == null ? 0 : version.get();
+    }
+
     /**
      * Notify host manager that the pending memory and CPU data have changed.
      * This is automatically called when a VM or Host are cleared, however the user is responsible
@@ -215,6 +226,8 @@ public class PendingResourceManager {
      * @param hostId - it of the affected host
      */
     public void notifyHostManagers(Guid hostId) {
+        hostVersions.computeIfAbsent(hostId, id -> new AtomicLong()).incrementAndGet();
+
         if (resourceManager == null) {
             return;
         }
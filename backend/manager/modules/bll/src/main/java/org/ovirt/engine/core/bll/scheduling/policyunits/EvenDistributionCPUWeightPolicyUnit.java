@@ -25,7 +25,9 @@ import org.ovirt.engine.core.compat.Guid;
         name = "OptimalForCpuEvenDistribution",
         type = PolicyUnitType.WEIGHT,
         description = "Gives hosts with lower CPU usage, lower weight (means that hosts with lower CPU usage are more"
-                + " likely to be selected)"
+                + " likely to be selected)",
+        hostIndependent = true,
+        cacheableScore = true
 )
 public class EvenDistributionCPUWeightPolicyUnit extends PolicyUnitImpl {
 
@@ -2,9 +2,9 @@ package org.ovirt.engine.core.bll.storage.connection.iscsibond;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -28,7 +28,6 @@ import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.IscsiBondDao;
 import org.ovirt.engine.core.dao.StorageServerConnectionDao;
 import org.ovirt.engine.core.dao.VdsDao;
-import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 
 public abstract class BaseIscsiBondCommand<T extends ActionParametersBase> extends CommandBase<T> {
 
@@ -59,43 +58,55 @@ public abstract class BaseIscsiBondCommand<T extends ActionParametersBase> exten
     }
 
     protected void connectAllHostsToStorage(List<String> connectionIds) {
-        List<Callable<Void>> tasks = new ArrayList<>();
         final List<StorageServerConnections> connections = storageServerConnectionDao.getByIds(connectionIds);
         List<VDS> hosts = vdsDao.getAllForStoragePoolAndStatus(getIscsiBond().getStoragePoolId(), VDSStatus.Up);
+        Map<Guid, VDS> hostsById = new HashMap<>();
+        List<StorageServerConnectionManagementVDSParameters> parameters = new ArrayList<>();
 
         for (final VDS host : hosts) {
-            tasks.add(() -> {
-                try {
-                    final List<StorageServerConnections> conns = iscsiStorageHelper.updateIfaces(connections, host.getId());
-                    VDSReturnValue returnValue = runVdsCommand(VDSCommandType.ConnectStorageServer,
-                            new StorageServerConnectionManagementVDSParameters(host.getId(), Guid.Empty, StorageType.ISCSI, conns)
-                    );
-                    final Map<String, String> iscsiMap = (Map<String, String>) returnValue.getReturnValue();
-                    List<String> failedConnectionsList = iscsiMap.entrySet().stream()
-                            .filter(e -> !"0".equals(e.getValue())).map(Map.Entry::getKey)
-                            .collect(Collectors.toList());
-                    if (!failedConnectionsList.isEmpty()) {
-                        log.error("Host '{}' - '{}' encounter problems to connect to the iSCSI Storage"
-                                        + " Server. The following connections were problematic"+ "" +
-                                        " (connectionid=vdsm result): {}",
-                                host.getName(),
-                                host.getId(),
-                                iscsiMap.toString());
-                        encounterConnectionProblems = true;
-                    }
-                } catch (EngineException e) {
-                    log.error("Could not connect Host '{}' - '{}' to Iscsi Storage Server: {}",
-                            host.getName(),
-                            host.getId(),
-                            e.getMessage());
-                    log.debug("Exception", e);
-                    encounterConnectionProblems = true;
-                }
-                return null;
-            });
+            try {
+                final List<StorageServerConnections> conns = iscsiStorageHelper.updateIfaces(connections, host.getId());
+                parameters.add(new StorageServerConnectionManagementVDSParameters(host.getId(),
+                        Guid.Empty,
+                        StorageType.ISCSI,
+                        conns));
+                hostsById.put(host.getId(), host);
+            } catch (EngineException e) {
+                logConnectionFailure(host, e.getMessage(), e);
+            }
         }
 
-        ThreadPoolUtil.invokeAll(tasks);
+        Map<Guid, VDSReturnValue> returnValues =
+                vdsBroker.runVdsCommandOnHosts(VDSCommandType.ConnectStorageServer, parameters);
+        returnValues.forEach((hostId, returnValue) -> {
+            VDS host = hostsById.get(hostId);
+            if (!returnValue.getSucceeded()) {
+                logConnectionFailure(host, returnValue.getExceptionString(), returnValue.getExceptionObject());
+                return;
+            }
+            final Map<String, String> iscsiMap = (Map<String, String>) returnValue.getReturnValue();
+            List<String> failedConnectionsList = iscsiMap.entrySet().stream()
+                    .filter(e -> !"0".equals(e.getValue())).map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            if (!failedConnectionsList.isEmpty()) {
+                log.error("Host '{}' - '{}' encounter problems to connect to the iSCSI Storage"
+                                + " Server. The following connections were problematic"+ "" +
+                                " (connectionid=vdsm result): {}",
+                        host.getName(),
+                        host.getId(),
+                        iscsiMap.toString());
+                encounterConnectionProblems = true;
+            }
+        });
+    }
+
+    private void logConnectionFailure(VDS host, String message, Throwable e) {
+        log.error("Could not connect Host '{}' - '{}' to Iscsi Storage Server: {}",
+                host.getName(),
+                host.getId(),
+                message);
+        log.debug("Exception", e);
+        encounterConnectionProblems = true;
     }
 
     /**
@@ -9,6 +9,7 @@ import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.LockMessagesMatchUtil;
 import org.ovirt.engine.core.bll.NonTransactiveCommandAttribute;
+import org.ovirt.engine.core.bll.PermissionCache;
 import org.ovirt.engine.core.bll.context.CommandContext;
 import org.ovirt.engine.core.bll.storage.connection.CINDERStorageHelper;
 import org.ovirt.engine.core.bll.utils.PermissionSubject;
@@ -63,6 +64,8 @@ public class AttachStorageDomainToPoolCommand<T extends AttachStorageDomainToPoo
     private UnregisteredOVFDataDao unregisteredOVFDataDao;
     @Inject
     private CINDERStorageHelper cinderStorageHelper;
+    @Inject
+    private PermissionCache permissionCache;
 
     public AttachStorageDomainToPoolCommand(T parameters, CommandContext commandContext) {
         super(parameters, commandContext);
@@ -121,6 +124,8 @@ public class AttachStorageDomainToPoolCommand<T extends AttachStorageDomainToPoo
                     storagePoolIsoMapDao.save(map);
                     getCompensationContext().snapshotNewEntity(map);
                     getCompensationContext().stateChanged();
+                    // the domain inherits the permissions of the data center
+                    permissionCache.invalidate();
                     return null;
                 });
 
@@ -225,6 +230,7 @@ public class AttachStorageDomainToPoolCommand<T extends AttachStorageDomainToPoo
     private void handleCinderDomain() {
         cinderStorageHelper.attachCinderDomainToPool(getStorageDomain().getId(),
                 getParameters().getStoragePoolId());
+        permissionCache.invalidate();
         if (getParameters().getActivate()) {
             attemptToActivateCinderDomain();
         }
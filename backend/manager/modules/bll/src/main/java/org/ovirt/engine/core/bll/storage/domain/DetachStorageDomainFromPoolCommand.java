@@ -9,8 +9,10 @@ import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.LockMessagesMatchUtil;
 import org.ovirt.engine.core.bll.NonTransactiveCommandAttribute;
+import org.ovirt.engine.core.bll.PermissionCache;
 import org.ovirt.engine.core.bll.context.CommandContext;
 import org.ovirt.engine.core.bll.storage.connection.CINDERStorageHelper;
+import org.ovirt.engine.core.bll.storage.ovfstore.OvfStoreManifest;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.common.action.DetachStorageDomainFromPoolParameters;
 import org.ovirt.engine.core.common.action.LockProperties;
@@ -49,6 +51,10 @@ public class DetachStorageDomainFromPoolCommand<T extends DetachStorageDomainFro
     private StorageDomainDao storageDomainDao;
     @Inject
     private AuditLogDirector auditLogDirector;
+    @Inject
+    private PermissionCache permissionCache;
+    @Inject
+    private OvfStoreManifest ovfStoreManifest;
 
     public DetachStorageDomainFromPoolCommand(T parameters, CommandContext commandContext) {
         super(parameters, commandContext);
@@ -96,6 +102,8 @@ public class DetachStorageDomainFromPoolCommand<T extends DetachStorageDomainFro
             detachSucceeded = detachNonMasterStorageDomain();
         }
         auditOnExistingLeasesIfExist();
+        // the OVF_STORE of the domain may be updated by the pool it is attached to next
+        ovfStoreManifest.clear(getStorageDomain().getId());
         log.info("End detach storage domain");
         setSucceeded(detachSucceeded);
     }
@@ -148,10 +156,13 @@ public class DetachStorageDomainFromPoolCommand<T extends DetachStorageDomainFro
         storagePoolIsoMapDao.remove(new StoragePoolIsoMapId(mapToRemove.getStorageId(),
                 mapToRemove.getStoragePoolId()));
         getCompensationContext().stateChanged();
+        // the domain does not inherit the permissions of the data center anymore
+        permissionCache.invalidate();
     }
 
     private void detachCinderStorageDomain() {
         cinderStorageHelper.detachCinderDomainFromPool(getStorageDomain().getStoragePoolIsoMapData());
+        permissionCache.invalidate();
         setSucceeded(true);
     }
 
@@ -7,6 +7,7 @@ import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.LockMessagesMatchUtil;
 import org.ovirt.engine.core.bll.context.CommandContext;
+import org.ovirt.engine.core.bll.storage.ovfstore.OvfStoreManifest;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.action.LockProperties;
@@ -35,6 +36,9 @@ public class ForceRemoveStorageDomainCommand<T extends StorageDomainParametersBa
     @Inject
     private VmDao vmDao;
 
+    @Inject
+    private OvfStoreManifest ovfStoreManifest;
+
     private Boolean lastInStoragePool = null;
 
     public ForceRemoveStorageDomainCommand(T parameters, CommandContext cmdContext) {
@@ -83,6 +87,7 @@ public class ForceRemoveStorageDomainCommand<T extends StorageDomainParametersBa
                 .storageDomainRemoved(getStorageDomain().getStorageStaticData());
 
         storageDomainDao.remove(getStorageDomain().getId());
+        ovfStoreManifest.clear(getStorageDomain().getId());
 
         if (isAttachedStorageDomain()) {
             // if iso reset path for pool
@@ -9,6 +9,7 @@ import javax.inject.Inject;
 import org.ovirt.engine.core.bll.LockMessagesMatchUtil;
 import org.ovirt.engine.core.bll.NonTransactiveCommandAttribute;
 import org.ovirt.engine.core.bll.context.CommandContext;
+import org.ovirt.engine.core.bll.storage.ovfstore.OvfStoreManifest;
 import org.ovirt.engine.core.bll.validator.storage.StorageDomainToPoolRelationValidator;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.common.action.ActionType;
@@ -43,6 +44,8 @@ public class RemoveStorageDomainCommand<T extends RemoveStorageDomainParameters>
     private StoragePoolIsoMapDao storagePoolIsoMapDao;
     @Inject
     private StorageDomainDao storageDomainDao;
+    @Inject
+    private OvfStoreManifest ovfStoreManifest;
 
     public RemoveStorageDomainCommand(T parameters, CommandContext commandContext) {
         super(parameters, commandContext);
@@ -86,6 +89,7 @@ public class RemoveStorageDomainCommand<T extends RemoveStorageDomainParameters>
             storageDomainDao.remove(dom.getId());
             return null;
         });
+        ovfStoreManifest.clear(dom.getId());
 
         setSucceeded(true);
     }
@@ -17,6 +17,7 @@ import javax.inject.Singleton;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
+import org.ovirt.engine.core.bll.PermissionCache;
 import org.ovirt.engine.core.bll.exportimport.vnics.MapVnicsContext;
 import org.ovirt.engine.core.bll.exportimport.vnics.MapVnicsFlow;
 import org.ovirt.engine.core.common.VdcObjectType;
@@ -59,6 +60,8 @@ public class DrMappingHelper {
     @Inject
     private PermissionDao permissionDao;
     @Inject
+    private PermissionCache permissionCache;
+    @Inject
     private MapVnicsFlow mapVnicsFlow;
 
     protected static final Logger log = LoggerFactory.getLogger(DrMappingHelper.class);
@@ -310,6 +313,7 @@ public class DrMappingHelper {
                 log.warn("Role {} was not found", roleName);
             }
         }));
+        permissionCache.invalidate();
     }
 
     public List<String> updateVnicsFromMappings(Guid clusterId, String vmName, List<VmNetworkInterface> vnics, Collection<ExternalVnicProfileMapping> mappings) {
@@ -0,0 +1,131 @@
+package org.ovirt.engine.core.bll.storage.ovfstore;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Singleton;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.archivers.tar.TarEntries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the tar entries of the OVFs in the last OVF_STORE archive of each storage domain, with the ovf generation and
+ * the digest of the OVF they were encoded from, so the next archive of the domain encodes only the OVFs that changed.
+ * The entries of the VMs and templates whose OVFs are regenerated or removed are invalidated on all the domains.
+ * The entries are kept up to {@link ConfigValues#OvfStoreManifestMaxSizeInMB}, the ones of the least recently used
+ * domains are dropped first.
+ */
+@Singleton
+public class OvfStoreManifest {
+
+    private static final Logger log = LoggerFactory.getLogger(OvfStoreManifest.class);
+
+    private final Map<Guid, Map<Guid, Entry>> entriesByDomain = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @return the entries of the last archive of the given domain by the id of their VM or template
+     */
+    public synchronized Map<Guid, Entry> getEntries(Guid storageDomainId) {
+        Map<Guid, Entry> entries = entriesByDomain.get(storageDomainId);
+        return entries != null ? entries : Collections.emptyMap();
+    }
+
+    /**
+     * Replaces the entries of the given domain with the ones of its new archive, dropping the entries of the least
+     * recently used domains if they don't fit.
+     */
+    public synchronized void setEntries(Guid storageDomainId, Map<Guid, Entry> entries) {
+        entriesByDomain.remove(storageDomainId);
+        long maxSize = Config.<Integer>getValue(ConfigValues.OvfStoreManifestMaxSizeInMB) * 1024L * 1024L;
+        long entriesSize = sizeOf(entries);
+        if (entriesSize > maxSize) {
+            log.info("OVF_STORE - The {} bytes of entries of domain '{}' exceed the manifest size, not keeping them",
+                    entriesSize,
+                    storageDomainId);
+            return;
+        }
+
+        long size = entriesSize;
+        for (Map<Guid, Entry> domainEntries : entriesByDomain.values()) {
+            size += sizeOf(domainEntries);
+        }
+        Iterator<Map.Entry<Guid, Map<Guid, Entry>>> iterator = entriesByDomain.entrySet().iterator();
+        while (size > maxSize) {
+            Map.Entry<Guid, Map<Guid, Entry>> eldest = iterator.next();
+            log.debug("OVF_STORE - Dropping the entries of domain '{}' from the manifest", eldest.getKey());
+            size -= sizeOf(eldest.getValue());
+            iterator.remove();
+        }
+        entriesByDomain.put(storageDomainId, new ConcurrentHashMap<>(entries));
+    }
+
+    /**
+     * Invalidates the entries of the given VMs and templates on all the domains.
+     */
+    public synchronized void invalidate(Collection<Guid> ids) {
+        entriesByDomain.values().forEach(entries -> entries.keySet().removeAll(ids));
+    }
+
+    /**
+     * Drops the entries of the given domain, once its archive may be changed by others, e.g. when it is detached or
+     * removed.
+     */
+    public synchronized void clear(Guid storageDomainId) {
+        entriesByDomain.remove(storageDomainId);
+    }
+
+    private static long sizeOf(Map<Guid, Entry> entries) {
+        long size = 0;
+        for (Entry entry : entries.values()) {
+            size += entry.getEncoded().length;
+        }
+        return size;
+    }
+
+    /**
+     * Encodes the tar entry of the given OVF, or returns the previous one if it was encoded from the same OVF.
+     */
+    public static Entry createEntry(Guid id, Long generation, String ovf, Entry previous) {
+        String digest = DigestUtils.sha256Hex(ovf);
+        byte[] encoded = previous != null && previous.getDigest().equals(digest)
+                ? previous.getEncoded()
+                : TarEntries.encode(id + ".ovf", ovf.getBytes());
+        return new Entry(generation, digest, encoded);
+    }
+
+    public static class Entry {
+        private final Long generation;
+        private final String digest;
+        private final byte[] encoded;
+
+        public Entry(Long generation, String digest, byte[] encoded) {
+            this.generation = generation;
+            this.digest = digest;
+            this.encoded = encoded;
+        }
+
+        /**
+         * @return the ovf generation the entry was encoded from, {@code null} for unregistered entities
+         */
+        public Long getGeneration() {
+            return generation;
+        }
+
+        public String getDigest() {
+            return digest;
+        }
+
+        public byte[] getEncoded() {
+            return encoded;
+        }
+    }
+}
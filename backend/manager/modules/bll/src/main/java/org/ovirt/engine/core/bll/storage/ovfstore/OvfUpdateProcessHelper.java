@@ -9,6 +9,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -27,6 +29,8 @@ import org.ovirt.engine.core.common.businessentities.storage.BaseDisk;
 import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
 import org.ovirt.engine.core.common.businessentities.storage.DiskVmElement;
 import org.ovirt.engine.core.common.businessentities.storage.FullEntityOvfData;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.vdscommands.RemoveVMVDSCommandParameters;
 import org.ovirt.engine.core.common.vdscommands.UpdateVMVDSCommandParameters;
 import org.ovirt.engine.core.common.vdscommands.VDSCommandType;
@@ -38,6 +42,7 @@ import org.ovirt.engine.core.dao.DiskVmElementDao;
 import org.ovirt.engine.core.dao.VmTemplateDao;
 import org.ovirt.engine.core.dao.network.VmNetworkInterfaceDao;
 import org.ovirt.engine.core.utils.ovf.OvfManager;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 
 @Singleton
@@ -107,6 +112,21 @@ public class OvfUpdateProcessHelper {
         return templateMeta;
     }
 
+    /**
+     * Generates the OVFs of the given entities with the given generator, which must be thread safe. The OVFs are
+     * generated in parallel when the incremental OVF store update is enabled.
+     *
+     * @return the OVFs in the order of the given entities
+     */
+    public <E> List<String> generateOvfs(List<E> entities, Function<E, String> generator) {
+        if (entities.size() < 2 || !Config.<Boolean> getValue(ConfigValues.OvfStoreIncrementalUpdate)) {
+            return entities.stream().map(generator).collect(Collectors.toList());
+        }
+        return ThreadPoolUtil.invokeAll(entities.stream()
+                .<Callable<String>> map(entity -> () -> generator.apply(entity))
+                .collect(Collectors.toList()));
+    }
+
     /**
      * Loads additional need vm data for it's ovf
      */
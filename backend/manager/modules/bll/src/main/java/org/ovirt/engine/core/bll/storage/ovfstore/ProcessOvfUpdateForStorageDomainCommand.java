@@ -3,16 +3,20 @@ package org.ovirt.engine.core.bll.storage.ovfstore;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import javax.enterprise.inject.Instance;
 import javax.enterprise.inject.Typed;
@@ -66,6 +70,7 @@ import org.ovirt.engine.core.dao.VmDynamicDao;
 import org.ovirt.engine.core.dao.VmStaticDao;
 import org.ovirt.engine.core.utils.JsonHelper;
 import org.ovirt.engine.core.utils.archivers.tar.InMemoryTar;
+import org.ovirt.engine.core.utils.archivers.tar.TarEntries;
 import org.ovirt.engine.core.utils.ovf.OvfInfoFileConstants;
 
 @NonTransactiveCommandAttribute
@@ -91,6 +96,8 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
     @Inject
     private StorageDomainDao storageDomainDao;
     @Inject
+    private OvfStoreManifest ovfStoreManifest;
+    @Inject
     @Typed(SerialChildCommandsExecutionCallback.class)
     private Instance<SerialChildCommandsExecutionCallback> callbackProvider;
 
@@ -181,7 +188,7 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
         return buildJson(description, false);
     }
 
-    private String generateInfoFileData() {
+    String generateInfoFileData() {
         Map<String, Object> data = new HashMap<>();
         data.put(OvfInfoFileConstants.LastUpdated, updateDate.toString());
         data.put(OvfInfoFileConstants.Domains, Collections.singletonList(getParameters().getStorageDomainId()));
@@ -252,6 +259,73 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
         return bufferedOutputStream.toByteArray();
     }
 
+    /**
+     * Builds the entries of the OVF_STORE archive of the domain out of the entries of its previous archive, encoding
+     * only the OVFs whose ovf generation or content changed since.
+     */
+    List<byte[]> buildOvfStoreEntries(List<Guid> vmAndTemplatesIds) {
+        Guid storageDomainId = getParameters().getStorageDomainId();
+        Map<Guid, OvfStoreManifest.Entry> previousEntries = ovfStoreManifest.getEntries(storageDomainId);
+        Map<Guid, OvfStoreManifest.Entry> entries = new LinkedHashMap<>();
+        List<byte[]> archiveEntries = new ArrayList<>();
+        int encodedCount = 0;
+
+        archiveEntries.add(TarEntries.encode(OvfInfoFileConstants.InfoFileName, generateInfoFileData().getBytes()));
+        Map<String, Object> metaDataForEntities = generateMetaDataFile(vmAndTemplatesIds);
+        int i = 0;
+        while (i < vmAndTemplatesIds.size()) {
+            int size = Math.min(StorageConstants.OVF_MAX_ITEMS_PER_SQL_STATEMENT, vmAndTemplatesIds.size() - i);
+            List<Guid> idsToProcess = vmAndTemplatesIds.subList(i, i + size);
+            i += size;
+
+            Map<Guid, Long> changedGenerations = new HashMap<>();
+            for (Pair<Guid, Long> generation : vmAndTemplatesGenerationsDao.loadOvfGenerationsForIds(idsToProcess)) {
+                OvfStoreManifest.Entry previousEntry = previousEntries.get(generation.getFirst());
+                if (previousEntry != null && generation.getSecond().equals(previousEntry.getGeneration())) {
+                    entries.put(generation.getFirst(), previousEntry);
+                } else {
+                    changedGenerations.put(generation.getFirst(), generation.getSecond());
+                }
+            }
+
+            if (!changedGenerations.isEmpty()) {
+                for (Pair<Guid, String> ovf : vmAndTemplatesGenerationsDao.loadOvfDataForIds(
+                        new ArrayList<>(changedGenerations.keySet()))) {
+                    if (ovf.getSecond() != null) {
+                        entries.put(ovf.getFirst(), OvfStoreManifest.createEntry(ovf.getFirst(),
+                                changedGenerations.get(ovf.getFirst()),
+                                ovf.getSecond(),
+                                previousEntries.get(ovf.getFirst())));
+                        encodedCount++;
+                    }
+                }
+            }
+        }
+        entries.values().forEach(entry -> archiveEntries.add(entry.getEncoded()));
+
+        List<Pair<Guid, String>> unprocessedOvfData =
+                retrieveUnprocessedUnregisteredOvfData(entries.keySet(), metaDataForEntities);
+        archiveEntries.add(TarEntries.encode(OvfInfoFileConstants.MetaDataFileName,
+                buildJson(metaDataForEntities, true).getBytes()));
+        for (Pair<Guid, String> ovf : unprocessedOvfData) {
+            if (ovf.getSecond() != null) {
+                OvfStoreManifest.Entry entry = OvfStoreManifest.createEntry(ovf.getFirst(),
+                        null,
+                        ovf.getSecond(),
+                        previousEntries.get(ovf.getFirst()));
+                entries.put(ovf.getFirst(), entry);
+                archiveEntries.add(entry.getEncoded());
+            }
+        }
+
+        ovfStoreManifest.setEntries(storageDomainId, entries);
+        log.debug("OVF_STORE - Built the entries of domain '{}': {} OVFs, {} of them regenerated",
+                storageDomainId,
+                entries.size(),
+                encodedCount);
+        return archiveEntries;
+    }
+
     private List<Pair<Guid, String>> retrieveUnprocessedUnregisteredOvfData(Set<Guid> processedIds,
             Map<String, Object> metaDataForEntities) {
         Map<String, Object> statusMap = (Map<String, Object>) metaDataForEntities.get(OvfInfoFileConstants.VmStatus);
@@ -282,7 +356,20 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
 
         vmAndTemplatesIds.addAll(vmStaticDao.getVmAndTemplatesIdsWithoutAttachedImageDisks(getParameters().getStoragePoolId(), false));
 
-        byte[] bytes = buildOvfInfoFileByteArray(vmAndTemplatesIds);
+        long buildStart = System.nanoTime();
+        final Supplier<InputStream> ovfData;
+        final long size;
+        if (Config.<Boolean>getValue(ConfigValues.OvfStoreIncrementalUpdate)) {
+            List<byte[]> archiveEntries = buildOvfStoreEntries(vmAndTemplatesIds);
+            ovfData = () -> TarEntries.openArchive(archiveEntries);
+            size = TarEntries.archiveSize(archiveEntries);
+        } else {
+            ovfStoreManifest.clear(getParameters().getStorageDomainId());
+            byte[] bytes = buildOvfInfoFileByteArray(vmAndTemplatesIds);
+            ovfData = () -> new ByteArrayInputStream(bytes);
+            size = bytes.length;
+        }
+        long uploadStart = System.nanoTime();
 
         Pair<StorageDomainOvfInfo, DiskImage> lastOvfStoreForUpdate = domainOvfStoresInfoForUpdate.getLast();
 
@@ -301,7 +388,8 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
 
         for (Pair<StorageDomainOvfInfo, DiskImage> pair : domainOvfStoresInfoForUpdate) {
             shouldUpdateLastOvfStore |=
-                    performOvfUpdateForDomain(bytes,
+                    performOvfUpdateForDomain(ovfData,
+                            size,
                             pair.getFirst(),
                             pair.getSecond(),
                             vmAndTemplatesIds);
@@ -310,12 +398,21 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
         // if we successfully updated any ovf store, we can attempt to also update the one we kept for best effort
         // backup (if we did)
         if (shouldUpdateLastOvfStore && lastOvfStoreForUpdate != null) {
-            performOvfUpdateForDomain(bytes,
+            performOvfUpdateForDomain(ovfData,
+                    size,
                     lastOvfStoreForUpdate.getFirst(),
                     lastOvfStoreForUpdate.getSecond(),
                     vmAndTemplatesIds);
         }
 
+        long uploadEnd = System.nanoTime();
+        log.info("OVF_STORE - Updated domain '{}' with {} entities ({} bytes): built in {} ms, uploaded in {} ms",
+                getParameters().getStorageDomainId(),
+                vmAndTemplatesIds.size(),
+                size,
+                TimeUnit.NANOSECONDS.toMillis(uploadStart - buildStart),
+                TimeUnit.NANOSECONDS.toMillis(uploadEnd - uploadStart));
+
         if (!failedOvfDisks.isEmpty()) {
             addCustomValue("DataCenterName", getStoragePool().getName());
             addCustomValue("StorageDomainName", getStorageDomain().getName());
@@ -344,7 +441,8 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
         runVdsCommand(VDSCommandType.SetVolumeDescription, vdsCommandParameters);
     }
 
-    private boolean performOvfUpdateForDomain(byte[] ovfData,
+    private boolean performOvfUpdateForDomain(Supplier<InputStream> ovfData,
+            long size,
             StorageDomainOvfInfo storageDomainOvfInfo,
             DiskImage ovfDisk,
             List<Guid> vmAndTemplatesIds) {
@@ -364,13 +462,9 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
 
             storageDomainOvfInfoDao.update(storageDomainOvfInfo);
 
-            ByteArrayInputStream byteArrayInputStream =
-                    new ByteArrayInputStream(ovfData);
-
-            Long size = Long.valueOf(ovfData.length);
             UploadStreamParameters uploadStreamParameters =
                     new UploadStreamParameters(storagePoolId, storageDomainId,
-                            diskId, volumeId, byteArrayInputStream,
+                            diskId, volumeId, ovfData.get(),
                             size);
 
             uploadStreamParameters.setParentCommand(getActionType());
@@ -3,12 +3,13 @@ package org.ovirt.engine.core.bll.storage.ovfstore;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
@@ -94,6 +95,8 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
     private DbUserDao dbUserDao;
     @Inject
     private OvfHelper ovfHelper;
+    @Inject
+    private OvfStoreManifest ovfStoreManifest;
 
     private int itemsCountPerUpdate;
     private List<Guid> proccessedIdsInfo;
@@ -118,19 +121,24 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
         log.info("Attempting to update VM OVFs in Data Center '{}'", pool.getName());
         initProcessedInfoLists();
 
+        long start = System.nanoTime();
         updateOvfForVmsOfStoragePool(pool);
 
-        log.info("Successfully updated VM OVFs in Data Center '{}'", pool.getName());
+        log.info("Successfully updated VM OVFs in Data Center '{}' in {} ms", pool.getName(), millisSince(start));
         log.info("Attempting to update template OVFs in Data Center '{}'", pool.getName());
 
+        start = System.nanoTime();
         updateOvfForTemplatesOfStoragePool(pool);
 
-        log.info("Successfully updated templates OVFs in Data Center '{}'", pool.getName());
+        log.info("Successfully updated templates OVFs in Data Center '{}' in {} ms", pool.getName(), millisSince(start));
         log.info("Attempting to remove unneeded template/vm OVFs in Data Center '{}'", pool.getName());
 
+        start = System.nanoTime();
         removeOvfForTemplatesAndVmsOfStoragePool(pool);
 
-        log.info("Successfully removed unneeded template/vm OVFs in Data Center '{}'", pool.getName());
+        log.info("Successfully removed unneeded template/vm OVFs in Data Center '{}' in {} ms",
+                pool.getName(),
+                millisSince(start));
 
         getReturnValue().setActionReturnValue(proccessedDomains);
         setSucceeded(true);
@@ -202,6 +210,7 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
 
         markDomainsWithOvfsForOvfUpdate(removedOvfIdsInfo);
         vmAndTemplatesGenerationsDao.deleteOvfGenerations(removedOvfIdsInfo);
+        ovfStoreManifest.invalidate(removedOvfIdsInfo);
     }
 
     protected void markDomainsWithOvfsForOvfUpdate(Collection<Guid> ovfIds) {
@@ -227,6 +236,7 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
             vmAndTemplatesGenerationsDao.updateOvfGenerations(guidsForUpdate, ovfGenerationsForUpdate, ovfConfigurationsInfo);
             i += sizeToUpdate;
         }
+        ovfStoreManifest.invalidate(proccessedIdsInfo);
         initProcessedInfoLists();
     }
 
@@ -234,8 +244,9 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
      * Creates and returns a map containing valid templates metadata
      */
     protected Map<Guid, KeyValuePairCompat<String, List<Guid>>> populateTemplatesMetadataForOvfUpdate(List<Guid> idsToProcess) {
-        Map<Guid, KeyValuePairCompat<String, List<Guid>>> vmsAndTemplateMetadata = new HashMap<>();
+        Map<Guid, KeyValuePairCompat<String, List<Guid>>> vmsAndTemplateMetadata = new ConcurrentHashMap<>();
         List<VmTemplate> templates = vmTemplateDao.getVmTemplatesByIds(idsToProcess);
+        List<VmTemplate> templatesForUpdate = new ArrayList<>();
 
         for (VmTemplate template : templates) {
             if (VmTemplateStatus.Locked != template.getStatus()) {
@@ -246,15 +257,23 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
                     Long currentDbGeneration = vmStaticDao.getDbGeneration(template.getId());
                     // currentDbGeneration can be null in case that the template was deleted during the run of OvfDataUpdater.
                     if (currentDbGeneration != null && template.getDbGeneration() == currentDbGeneration) {
-                        proccessedOvfConfigurationsInfo.add(ovfUpdateProcessHelper.buildMetadataDictionaryForTemplate(template, vmsAndTemplateMetadata));
-                        proccessedIdsInfo.add(template.getId());
-                        proccessedOvfGenerationsInfo.add(template.getDbGeneration());
-                        proccessDisksDomains(template.getDiskList());
+                        templatesForUpdate.add(template);
                     }
                 }
             }
         }
 
+        List<String> templatesOvfs = ovfUpdateProcessHelper.generateOvfs(templatesForUpdate,
+                template -> ovfUpdateProcessHelper.buildMetadataDictionaryForTemplate(template,
+                        vmsAndTemplateMetadata));
+        for (int i = 0; i < templatesForUpdate.size(); i++) {
+            VmTemplate template = templatesForUpdate.get(i);
+            proccessedOvfConfigurationsInfo.add(templatesOvfs.get(i));
+            proccessedIdsInfo.add(template.getId());
+            proccessedOvfGenerationsInfo.add(template.getDbGeneration());
+            proccessDisksDomains(template.getDiskList());
+        }
+
         return vmsAndTemplateMetadata;
     }
 
@@ -320,8 +339,9 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
      * Create and returns map contains valid vms metadata
      */
     protected Map<Guid, KeyValuePairCompat<String, List<Guid>>> populateVmsMetadataForOvfUpdate(List<Guid> idsToProcess) {
-        Map<Guid, KeyValuePairCompat<String, List<Guid>>> vmsAndTemplateMetadata = new HashMap<>();
+        Map<Guid, KeyValuePairCompat<String, List<Guid>>> vmsAndTemplateMetadata = new ConcurrentHashMap<>();
         List<VM> vms = vmDao.getVmsByIds(idsToProcess);
+        List<Pair<VM, FullEntityOvfData>> vmsForUpdate = new ArrayList<>();
         for (VM vm : vms) {
             if (VMStatus.ImageLocked != vm.getStatus()) {
                 updateVmDisksFromDb(vm);
@@ -361,15 +381,22 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
                     fullEntityOvfData.setAffinityLabels(affinityLabels);
                     fullEntityOvfData.setDbUsers(dbUsers);
                     ovfHelper.populateUserToRoles(fullEntityOvfData, vm.getId());
-                    proccessedOvfConfigurationsInfo.add(ovfUpdateProcessHelper.buildMetadataDictionaryForVm(vm,
-                            vmsAndTemplateMetadata,
-                            fullEntityOvfData));
-                    proccessedIdsInfo.add(vm.getId());
-                    proccessedOvfGenerationsInfo.add(vm.getStaticData().getDbGeneration());
-                    proccessDisksDomains(vm.getDiskList());
+                    vmsForUpdate.add(new Pair<>(vm, fullEntityOvfData));
                 }
             }
         }
+
+        List<String> vmsOvfs = ovfUpdateProcessHelper.generateOvfs(vmsForUpdate,
+                vmForUpdate -> ovfUpdateProcessHelper.buildMetadataDictionaryForVm(vmForUpdate.getFirst(),
+                        vmsAndTemplateMetadata,
+                        vmForUpdate.getSecond()));
+        for (int i = 0; i < vmsForUpdate.size(); i++) {
+            VM vm = vmsForUpdate.get(i).getFirst();
+            proccessedOvfConfigurationsInfo.add(vmsOvfs.get(i));
+            proccessedIdsInfo.add(vm.getId());
+            proccessedOvfGenerationsInfo.add(vm.getStaticData().getDbGeneration());
+            proccessDisksDomains(vm.getDiskList());
+        }
         return vmsAndTemplateMetadata;
     }
 
@@ -384,6 +411,10 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
         }
     }
 
+    private static long millisSince(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
     /**
      * Init the lists contain the processed info.
      */
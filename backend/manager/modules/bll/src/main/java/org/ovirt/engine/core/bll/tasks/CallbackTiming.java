@@ -3,11 +3,8 @@ package org.ovirt.engine.core.bll.tasks;
 import org.ovirt.engine.core.bll.tasks.interfaces.CommandCallback;
 
 class CallbackTiming {
-    // Total delay between callback executions
+    // Total delay between callback executions, the remaining delay is kept by the CallbackTimingWheel
     private long initialDelay;
-
-    // Remaining delay to next callback execution
-    private long remainingDelay;
     private CommandCallback callback;
 
     // the end-time, where the callback shouldn't wait for the event any longer and change to polling mode
@@ -16,7 +13,6 @@ class CallbackTiming {
     public CallbackTiming(CommandCallback callback, long executionDelay) {
         this.callback = callback;
         this.initialDelay = executionDelay;
-        this.remainingDelay = executionDelay;
     }
 
     public long getInitialDelay() {
@@ -27,10 +23,6 @@ class CallbackTiming {
         this.initialDelay = initialDelay;
     }
 
-    public long getRemainingDelay() {
-        return remainingDelay;
-    }
-
     public void setWaitOnEventEndTime(long waitOnEventEndTime) {
         this.waitOnEventEndTime = waitOnEventEndTime;
     }
@@ -39,10 +31,6 @@ class CallbackTiming {
         return waitOnEventEndTime;
     }
 
-    public void setRemainingDelay(long remainingDelay) {
-        this.remainingDelay = remainingDelay;
-    }
-
     public CommandCallback getCallback() {
         return callback;
     }
@@ -0,0 +1,100 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * A hashed timing wheel of the commands whose callbacks wait for their next invocation.
+ *
+ * The wheel advances by one tick on every run of the {@link CommandCallbacksPoller}. A command is kept in the slot of
+ * the tick its callback is due at, so a tick visits only the commands of its own slot instead of all of them.
+ * Commands due more than a revolution ahead stay in their slot and are skipped until their tick comes.
+ */
+class CallbackTimingWheel {
+
+    private static final int SLOTS = 64;
+
+    private final List<Set<Guid>> slots;
+    private final Map<Guid, Long> dueTicks = new HashMap<>();
+    private final Set<Guid> wokenUp = new HashSet<>();
+    private long currentTick;
+
+    CallbackTimingWheel() {
+        slots = new ArrayList<>(SLOTS);
+        for (int i = 0; i < SLOTS; i++) {
+            slots.add(new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * Schedules the callback of the command the given number of ticks from now, replacing its previous schedule. A
+     * command which was woken up since it was last due is scheduled to the next tick.
+     */
+    synchronized void schedule(Guid cmdId, long ticks) {
+        unschedule(cmdId);
+        long dueTick = currentTick + (wokenUp.remove(cmdId) ? 1 : Math.max(1, ticks));
+        dueTicks.put(cmdId, dueTick);
+        slot(dueTick).add(cmdId);
+    }
+
+    /**
+     * Brings the callback of the command forward to the next tick. A command which is not scheduled because its
+     * callback is being invoked is scheduled to the next tick once the invocation is over.
+     */
+    synchronized void wakeUp(Guid cmdId) {
+        Long dueTick = dueTicks.get(cmdId);
+        if (dueTick == null) {
+            wokenUp.add(cmdId);
+        } else if (dueTick > currentTick + 1) {
+            schedule(cmdId, 1);
+        }
+    }
+
+    synchronized void remove(Guid cmdId) {
+        unschedule(cmdId);
+        wokenUp.remove(cmdId);
+    }
+
+    /**
+     * Advances the wheel by one tick and removes the commands whose callbacks are due from it
+     *
+     * @return the commands whose callbacks are due, in the order they were scheduled at
+     */
+    synchronized List<Guid> advance() {
+        currentTick++;
+        List<Guid> due = new ArrayList<>();
+        Iterator<Guid> iterator = slot(currentTick).iterator();
+        while (iterator.hasNext()) {
+            Guid cmdId = iterator.next();
+            if (dueTicks.get(cmdId) == currentTick) {
+                iterator.remove();
+                dueTicks.remove(cmdId);
+                due.add(cmdId);
+            }
+        }
+        return due;
+    }
+
+    synchronized int size() {
+        return dueTicks.size();
+    }
+
+    private void unschedule(Guid cmdId) {
+        Long dueTick = dueTicks.remove(cmdId);
+        if (dueTick != null) {
+            slot(dueTick).remove(cmdId);
+        }
+    }
+
+    private Set<Guid> slot(long tick) {
+        return slots.get((int) (tick % SLOTS));
+    }
+}
@@ -1,15 +1,19 @@
 package org.ovirt.engine.core.bll.tasks;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.inject.Inject;
 
@@ -32,6 +36,10 @@ public class CommandCallbacksPoller implements BackendService {
     @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
     private ManagedScheduledExecutorService executor;
 
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.CoCo)
+    private ManagedExecutorService callbacksExecutor;
+
     private static final Logger log = LoggerFactory.getLogger(CommandCallbacksPoller.class);
     private long pollingRate;
 
@@ -42,11 +50,16 @@ public class CommandCallbacksPoller implements BackendService {
 
     private int repeatEndMethodsOnFailMaxRetries;
 
+    private int parallelism;
+
+    private long lastExpiredCommandsCheck;
+
     @PostConstruct
-    private void init() {
+    void init() {
         log.info("Start initializing {}", getClass().getSimpleName());
         pollingRate = Config.<Long>getValue(ConfigValues.AsyncCommandPollingLoopInSeconds);
         repeatEndMethodsOnFailMaxRetries = Config.<Integer>getValue(ConfigValues.RepeatEndMethodsOnFailMaxRetries);
+        parallelism = Config.<Integer>getValue(ConfigValues.AsyncCommandCallbacksParallelism);
         initCommandExecutor();
         executor.scheduleWithFixedDelay(this::invokeCallbackMethods,
                 pollingRate,
@@ -111,79 +124,145 @@ public class CommandCallbacksPoller implements BackendService {
         }
     }
 
-    private void invokeCallbackMethodsImpl() {
-        Iterator<Entry<Guid, CallbackTiming>> iterator = commandsRepository.getCallbacksTiming().entrySet().iterator();
-        while (iterator.hasNext()) {
-            Entry<Guid, CallbackTiming> entry = iterator.next();
+    void invokeCallbackMethodsImpl() {
+        List<List<Guid>> lanes = toLanes(commandsRepository.pollDueCallbacks());
+        List<Future<?>> futures = new ArrayList<>(lanes.size());
+        for (List<Guid> lane : lanes.subList(Math.min(1, lanes.size()), lanes.size())) {
+            try {
+                futures.add(callbacksExecutor.submit(() -> invokeCallbacks(lane)));
+            } catch (RejectedExecutionException ex) {
+                invokeCallbacks(lane);
+            }
+        }
+        if (!lanes.isEmpty()) {
+            invokeCallbacks(lanes.get(0));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                log.error("Exception in invokeCallbackMethods: {}", ExceptionUtils.getRootCauseMessage(ex));
+                log.debug("Exception", ex);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        // the life time of the commands is set in minutes, there is no point to check it on every loop
+        long now = System.currentTimeMillis();
+        if (now - lastExpiredCommandsCheck >= TimeUnit.MINUTES.toMillis(1)) {
+            lastExpiredCommandsCheck = now;
+            commandsRepository.markExpiredCommandsAsFailure();
+        }
+    }
 
-            Guid cmdId = entry.getKey();
-            CallbackTiming callbackTiming = entry.getValue();
+    /**
+     * Splits the commands whose callbacks are due to at most {@link ConfigValues#AsyncCommandCallbacksParallelism}
+     * lanes invoked in parallel. The commands of the same root command share a lane and keep the order they were due
+     * at, as their callbacks depend on each other.
+     */
+    List<List<Guid>> toLanes(List<Guid> cmdIds) {
+        Map<Guid, List<Guid>> cmdIdsByRoot = new LinkedHashMap<>();
+        for (Guid cmdId : cmdIds) {
             CommandEntity commandEntity = commandsRepository.getCommandEntity(cmdId);
-            CorrelationIdTracker.setCorrelationId(commandEntity != null
-                    ? commandEntity.getCommandParameters().getCorrelationId() : null);
-            if (commandEntity != null && updateCommandWaitingForEvent(commandEntity, callbackTiming)) {
-                continue;
-            }
+            Guid rootCmdId = commandEntity == null || Guid.isNullOrEmpty(commandEntity.getRootCommandId())
+                    ? cmdId
+                    : commandEntity.getRootCommandId();
+            cmdIdsByRoot.computeIfAbsent(rootCmdId, id -> new ArrayList<>()).add(cmdId);
+        }
 
-            // Decrement counter; execute if it reaches 0
-            callbackTiming.setRemainingDelay(callbackTiming.getRemainingDelay() - pollingRate);
-            if (callbackTiming.getRemainingDelay() > 0) {
-                continue;
-            }
+        int laneCount = Math.min(Math.max(1, parallelism), cmdIdsByRoot.size());
+        List<List<Guid>> lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        int lane = 0;
+        for (List<Guid> rootCmdIds : cmdIdsByRoot.values()) {
+            lanes.get(lane++ % laneCount).addAll(rootCmdIds);
+        }
+        return lanes;
+    }
 
-            CommandCallback callback = callbackTiming.getCallback();
-            CommandStatus status = commandsRepository.getCommandStatus(cmdId);
-            boolean runCallbackAgain = false;
-            boolean errorInCallback = false;
-            try {
-                switch (status) {
-                    case FAILED:
-                    case SUCCEEDED:
-                        runCallbackAgain = endCallback(cmdId, callback, status);
-                        break;
-                    case ACTIVE:
-                        if (commandEntity != null && commandEntity.isExecuted()) {
-                            callback.doPolling(cmdId, getChildCommandIds(cmdId));
-                        }
-                        break;
-                    case EXECUTION_FAILED:
-                        if (callback.pollOnExecutionFailed()) {
-                            callback.doPolling(cmdId, getChildCommandIds(cmdId));
-                        }
-                        break;
-                    default:
-                        break;
+    private void invokeCallbacks(List<Guid> cmdIds) {
+        try {
+            for (Guid cmdId : cmdIds) {
+                try {
+                    invokeCallback(cmdId);
+                } catch (RuntimeException ex) {
+                    log.error("Exception in invokeCallbackMethods: {}", ExceptionUtils.getRootCauseMessage(ex));
+                    log.debug("Exception", ex);
+                    // the command is not scheduled anymore, so it is polled again by the next loop
+                    commandsRepository.scheduleCallback(cmdId, pollingRate);
                 }
-            } catch (Exception ex) {
-                errorInCallback = true;
-                handleError(ex, status, cmdId);
-            } finally {
-                if ((CommandStatus.FAILED == status || (CommandStatus.SUCCEEDED == status && !errorInCallback))
-                        && !runCallbackAgain) {
-                    commandsRepository.updateCallbackNotified(cmdId);
-                    iterator.remove();
-                    CommandEntity cmdEntity = commandsRepository.getCommandEntity(entry.getKey());
-                    if (cmdEntity != null) {
-                        // When a child finishes, its parent's callback should execute shortly thereafter
-                        CallbackTiming rootCmdContainer =
-                                commandsRepository.getCallbackTiming(cmdEntity.getRootCommandId());
-                        if (rootCmdContainer != null) {
-                            rootCmdContainer.setInitialDelay(pollingRate);
-                            rootCmdContainer.setRemainingDelay(pollingRate);
-                        }
+            }
+        } finally {
+            CorrelationIdTracker.setCorrelationId(null);
+        }
+    }
+
+    private void invokeCallback(Guid cmdId) {
+        CallbackTiming callbackTiming = commandsRepository.getCallbackTiming(cmdId);
+        if (callbackTiming == null) {
+            return;
+        }
+
+        CommandEntity commandEntity = commandsRepository.getCommandEntity(cmdId);
+        CorrelationIdTracker.setCorrelationId(commandEntity != null
+                ? commandEntity.getCommandParameters().getCorrelationId() : null);
+        if (commandEntity != null && updateCommandWaitingForEvent(commandEntity, callbackTiming)) {
+            // the callback is woken up by the event, or polled once waiting for it times out
+            commandsRepository.scheduleCallback(cmdId,
+                    TimeUnit.MILLISECONDS.toSeconds(callbackTiming.getWaitOnEventEndTime() - System.currentTimeMillis())
+                            + 1);
+            return;
+        }
+
+        CommandCallback callback = callbackTiming.getCallback();
+        CommandStatus status = commandsRepository.getCommandStatus(cmdId);
+        boolean runCallbackAgain = false;
+        boolean errorInCallback = false;
+        try {
+            switch (status) {
+                case FAILED:
+                case SUCCEEDED:
+                    runCallbackAgain = endCallback(cmdId, callback, status);
+                    break;
+                case ACTIVE:
+                    if (commandEntity != null && commandEntity.isExecuted()) {
+                        callback.doPolling(cmdId, getChildCommandIds(cmdId));
                     }
-                } else if (status != commandsRepository.getCommandStatus(cmdId)) {
-                    callbackTiming.setInitialDelay(pollingRate);
-                    callbackTiming.setRemainingDelay(pollingRate);
-                } else {
-                    long maxDelay = Config.<Long>getValue(ConfigValues.AsyncCommandPollingRateInSeconds);
-                    callbackTiming.setInitialDelay(Math.min(maxDelay, callbackTiming.getInitialDelay() * 2));
-                    callbackTiming.setRemainingDelay(callbackTiming.getInitialDelay());
+                    break;
+                case EXECUTION_FAILED:
+                    if (callback.pollOnExecutionFailed()) {
+                        callback.doPolling(cmdId, getChildCommandIds(cmdId));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } catch (Exception ex) {
+            errorInCallback = true;
+            handleError(ex, status, cmdId);
+        } finally {
+            if ((CommandStatus.FAILED == status || (CommandStatus.SUCCEEDED == status && !errorInCallback))
+                    && !runCallbackAgain) {
+                commandsRepository.updateCallbackNotified(cmdId);
+                commandsRepository.removeFromCallbackMap(cmdId);
+                CommandEntity cmdEntity = commandsRepository.getCommandEntity(cmdId);
+                if (cmdEntity != null) {
+                    // When a child finishes, its parent's callback should execute shortly thereafter
+                    commandsRepository.wakeUpCallback(cmdEntity.getRootCommandId());
                 }
+            } else if (status != commandsRepository.getCommandStatus(cmdId)) {
+                callbackTiming.setInitialDelay(pollingRate);
+                commandsRepository.scheduleCallback(cmdId, pollingRate);
+            } else {
+                long maxDelay = Config.<Long>getValue(ConfigValues.AsyncCommandPollingRateInSeconds);
+                callbackTiming.setInitialDelay(Math.min(maxDelay, callbackTiming.getInitialDelay() * 2));
+                commandsRepository.scheduleCallback(cmdId, callbackTiming.getInitialDelay());
             }
         }
-        CorrelationIdTracker.setCorrelationId(null);
-        commandsRepository.markExpiredCommandsAsFailure();
     }
 
     private void handleError(Exception ex, CommandStatus status, Guid cmdId) {
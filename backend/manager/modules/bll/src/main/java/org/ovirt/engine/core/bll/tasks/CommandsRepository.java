@@ -41,6 +41,7 @@ public class CommandsRepository {
 
     private static final Logger log = LoggerFactory.getLogger(CommandsRepository.class);
     private final ConcurrentMap<Guid, CallbackTiming> callbacksTiming;
+    private final CallbackTimingWheel callbacksWheel;
     private final CommandsCache commandsCache;
     private final CommandContextsCache contextsCache;
     private final ConcurrentHashMap<Guid, List<Guid>> childHierarchy;
@@ -56,6 +57,7 @@ public class CommandsRepository {
         this.contextsCache = contextsCache;
 
         callbacksTiming = new ConcurrentHashMap<>();
+        callbacksWheel = new CallbackTimingWheel();
         childHierarchy = new ConcurrentHashMap<>();
         subscriptions = new ConcurrentHashMap<>();
         LOCK = new Object();
@@ -110,6 +112,47 @@ public class CommandsRepository {
 
     public void addToCallbackMap(Guid commandId, CallbackTiming callbackTiming) {
         callbacksTiming.put(commandId, callbackTiming);
+        scheduleCallback(commandId, callbackTiming.getInitialDelay());
+    }
+
+    public void removeFromCallbackMap(Guid commandId) {
+        callbacksTiming.remove(commandId);
+        callbacksWheel.remove(commandId);
+    }
+
+    /**
+     * Schedules the next invocation of the callback of the command
+     *
+     * @param commandId
+     *            the command whose callback is scheduled
+     * @param delay
+     *            the delay in seconds, rounded up to the polling loop of the callbacks
+     */
+    public void scheduleCallback(Guid commandId, long delay) {
+        long pollingRate = Config.<Long>getValue(ConfigValues.AsyncCommandPollingLoopInSeconds);
+        callbacksWheel.schedule(commandId, (delay + pollingRate - 1) / pollingRate);
+    }
+
+    /**
+     * Invokes the callback of the command on the next loop of the callbacks polling, and polls it at the polling loop
+     * rate from then on.
+     */
+    public void wakeUpCallback(Guid commandId) {
+        CallbackTiming callbackTiming = getCallbackTiming(commandId);
+        if (callbackTiming != null) {
+            callbackTiming.setInitialDelay(Config.<Long>getValue(ConfigValues.AsyncCommandPollingLoopInSeconds));
+            callbacksWheel.wakeUp(commandId);
+        }
+    }
+
+    /**
+     * Advances the schedule of the callbacks by one polling loop
+     *
+     * @return the commands whose callbacks are due, they are not scheduled anymore until
+     *         {@link #scheduleCallback(Guid, long)} is called
+     */
+    public List<Guid> pollDueCallbacks() {
+        return callbacksWheel.advance();
     }
 
     public void persistCommand(CommandEntity cmdEntity, CommandContext cmdContext) {
@@ -156,6 +199,18 @@ public class CommandsRepository {
 
     public void updateCommandStatus(final Guid commandId, final CommandStatus status) {
         commandsCache.updateCommandStatus(commandId, status);
+        // the callbacks of the parent and root commands react to the status of their children
+        CommandEntity cmdEntity = getCommandEntity(commandId);
+        if (cmdEntity != null) {
+            wakeUpAncestorCallback(commandId, cmdEntity.getParentCommandId());
+            wakeUpAncestorCallback(commandId, cmdEntity.getRootCommandId());
+        }
+    }
+
+    private void wakeUpAncestorCallback(Guid commandId, Guid ancestorId) {
+        if (!commandId.equals(ancestorId)) {
+            wakeUpCallback(ancestorId);
+        }
     }
 
     private CommandBase<?> retrieveCommand(CommandEntity cmdEntity, CommandContext cmdContext) {
@@ -268,10 +323,6 @@ public class CommandsRepository {
         return Collections.emptyList();
     }
 
-    public ConcurrentMap<Guid, CallbackTiming> getCallbacksTiming() {
-        return callbacksTiming;
-    }
-
     public void persistCommandAssociatedEntities(Collection<CommandAssociatedEntity> cmdAssociatedEntities) {
         commandsCache.persistCommandAssociatedEntities(cmdAssociatedEntities);
     }
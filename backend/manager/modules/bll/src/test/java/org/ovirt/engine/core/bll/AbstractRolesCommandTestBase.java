@@ -25,6 +25,9 @@ public abstract class AbstractRolesCommandTestBase extends BaseCommandTest {
     @Mock
     private RoleGroupMapDao roleGroupMapDaoMock;
 
+    @Mock
+    private PermissionCache permissionCache;
+
     @BeforeEach
     public void setUp() {
         role = new Role();
@@ -0,0 +1,128 @@
+package org.ovirt.engine.core.bll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.VdcObjectType;
+import org.ovirt.engine.core.common.businessentities.ActionGroup;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.PermissionDao;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith({ MockitoExtension.class, MockConfigExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class PermissionCacheTest {
+
+    private static final Guid USER_ID = Guid.newGuid();
+    private static final Guid GROUP_ID = Guid.newGuid();
+    private static final Guid VM_ID = Guid.newGuid();
+    private static final Guid PERMISSION_ID = Guid.newGuid();
+
+    @Mock
+    private PermissionDao permissionDao;
+
+    @InjectMocks
+    private PermissionCache cache = new PermissionCache() {
+        @Override
+        protected void invalidateOnCommit() {
+        }
+    };
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.PermissionCacheEnabled, true),
+                MockConfigDescriptor.of(ConfigValues.PermissionCacheTimeToLiveInSeconds, 60),
+                MockConfigDescriptor.of(ConfigValues.PermissionCacheMaxEntries, 2));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        when(permissionDao.getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM))
+                .thenReturn(PERMISSION_ID);
+        cache.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    public void testFoundPermissionIsCached() {
+        assertEquals(PERMISSION_ID, getPermission(ActionGroup.RUN_VM));
+        assertEquals(PERMISSION_ID, getPermission(ActionGroup.RUN_VM));
+
+        verify(permissionDao).getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testMissingPermissionIsNotCached() {
+        assertNull(getPermission(ActionGroup.DELETE_VM));
+        when(permissionDao.getEntityPermissions(USER_ID, ActionGroup.DELETE_VM, VM_ID, VdcObjectType.VM))
+                .thenReturn(PERMISSION_ID);
+
+        // the permission was granted without invalidating the cache
+        assertEquals(PERMISSION_ID, getPermission(ActionGroup.DELETE_VM));
+        verify(permissionDao, times(2)).getEntityPermissions(USER_ID, ActionGroup.DELETE_VM, VM_ID, VdcObjectType.VM);
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void testDifferentGroupsAreCachedSeparately() {
+        getPermission(ActionGroup.RUN_VM);
+        cache.getEntityPermissions(USER_ID, Collections.emptyList(), ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM);
+
+        verify(permissionDao, times(2)).getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM);
+    }
+
+    @Test
+    public void testInvalidateDropsCachedPermissions() {
+        getPermission(ActionGroup.RUN_VM);
+
+        cache.invalidate();
+        getPermission(ActionGroup.RUN_VM);
+
+        verify(permissionDao, times(2)).getEntityPermissions(USER_ID, ActionGroup.RUN_VM, VM_ID, VdcObjectType.VM);
+        assertEquals(1, cache.getInvalidations());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        when(permissionDao.getEntityPermissions(USER_ID, ActionGroup.DELETE_VM, VM_ID, VdcObjectType.VM))
+                .thenReturn(PERMISSION_ID);
+        when(permissionDao.getEntityPermissions(USER_ID, ActionGroup.EDIT_VM_PROPERTIES, VM_ID, VdcObjectType.VM))
+                .thenReturn(PERMISSION_ID);
+        getPermission(ActionGroup.RUN_VM);
+        getPermission(ActionGroup.DELETE_VM);
+        getPermission(ActionGroup.EDIT_VM_PROPERTIES);
+
+        assertEquals(1, cache.getSize());
+    }
+
+    private Guid getPermission(ActionGroup actionGroup) {
+        return cache.getEntityPermissions(USER_ID,
+                Collections.singletonList(GROUP_ID),
+                actionGroup,
+                VM_ID,
+                VdcObjectType.VM);
+    }
+}
@@ -0,0 +1,131 @@
+package org.ovirt.engine.core.bll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.transaction.TransactionManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.action.ActionType;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.queries.QueryParametersBase;
+import org.ovirt.engine.core.utils.InjectedMock;
+import org.ovirt.engine.core.utils.InjectorExtension;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith({ MockitoExtension.class, MockConfigExtension.class, InjectorExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class QueryResultCacheTest {
+
+    @Mock
+    private PermissionCache permissionCache;
+
+    @Mock
+    @InjectedMock
+    public TransactionManager transactionManager;
+
+    @InjectMocks
+    private QueryResultCache cache = new QueryResultCache();
+
+    private int executions;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.QueryResultCacheEnabled, true),
+                MockConfigDescriptor.of(ConfigValues.QueryResultCacheTimeToLiveInSeconds, 60),
+                MockConfigDescriptor.of(ConfigValues.QueryResultCacheMaxEntries, 10));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        when(permissionCache.getGeneration()).thenReturn(0L);
+        cache.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    public void testResultIsCached() {
+        List<String> first = execute(false);
+        List<String> second = execute(false);
+
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        assertEquals(1, executions);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testCommandInvalidatesResult() {
+        execute(false);
+
+        cache.invalidate(ActionType.RemoveMacPool);
+        execute(false);
+
+        assertEquals(2, executions);
+        assertEquals(1, cache.getInvalidations());
+    }
+
+    @Test
+    public void testUnrelatedCommandKeepsResult() {
+        execute(false);
+
+        cache.invalidate(ActionType.AddVm);
+        execute(false);
+
+        assertEquals(1, executions);
+    }
+
+    @Test
+    public void testFilteredResultDependsOnPermissions() {
+        execute(true);
+        execute(true);
+        assertEquals(1, executions);
+
+        when(permissionCache.getGeneration()).thenReturn(1L);
+        execute(true);
+        assertEquals(2, executions);
+    }
+
+    private List<String> execute(boolean filtered) {
+        QueryParametersBase parameters = new QueryParametersBase();
+        parameters.setFiltered(filtered);
+        TestQuery query = new TestQuery(parameters);
+        query.getQueryReturnValue().setSucceeded(true);
+        cache.execute(query, query::executeQueryCommand);
+        return query.getQueryReturnValue().getReturnValue();
+    }
+
+    @CacheableQuery(invalidatedBy = ActionType.RemoveMacPool)
+    private class TestQuery extends QueriesCommandBase<QueryParametersBase> {
+
+        TestQuery(QueryParametersBase parameters) {
+            super(parameters, null);
+        }
+
+        @Override
+        protected void executeQueryCommand() {
+            executions++;
+            setReturnValue(new ArrayList<>(Collections.singletonList("result")));
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
 import org.ovirt.engine.core.bll.utils.ClusterUtils;
 import org.ovirt.engine.core.bll.utils.GlusterUtil;
 import org.ovirt.engine.core.common.AuditLogType;
@@ -91,6 +92,9 @@ public class RemoveVdsCommandTest extends BaseCommandTest {
     @Mock
     private AuditLogDirector auditLogDirector;
 
+    @Mock
+    private SchedulingManager schedulingManager;
+
     /**
      * The command under test.
      */
@@ -205,6 +209,7 @@ public class RemoveVdsCommandTest extends BaseCommandTest {
         verify(vdsStatisticsDao, times(1)).remove(any());
         verify(volumeDao, never()).removeByClusterId(any());
         verify(hooksDao, never()).removeAllInCluster(any());
+        verify(schedulingManager).hostRemoved(command.getVdsId());
     }
 
     @Test
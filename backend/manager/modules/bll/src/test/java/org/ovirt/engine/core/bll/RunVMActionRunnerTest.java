@@ -0,0 +1,165 @@
+package org.ovirt.engine.core.bll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
+import org.ovirt.engine.core.bll.scheduling.SchedulingPlan;
+import org.ovirt.engine.core.common.action.ActionReturnValue;
+import org.ovirt.engine.core.common.action.ActionType;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.VmStaticDao;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith(MockConfigExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class RunVMActionRunnerTest extends BaseCommandTest {
+
+    @Mock
+    private VmStaticDao vmStaticDao;
+
+    @Mock
+    private SchedulingManager schedulingManager;
+
+    @Mock
+    private NestedCommandFactory commandFactory;
+
+    @InjectMocks
+    private RunVMActionRunner runner =
+            new RunVMActionRunner(ActionType.RunVm, Collections.emptyList(), null, true);
+
+    private final Cluster cluster = createCluster();
+    private final Cluster otherCluster = createCluster();
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.SchedulerBatchSchedulingEnabled, true));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        when(vmStaticDao.getOrderedVmGuidsForRunMultipleActions(anyList())).thenAnswer(invocation -> {
+            Map<Guid, CommandBase<?>> commands = runner.getCommands().stream()
+                    .collect(Collectors.toMap(CommandBase::getVmId, command -> command));
+            // the commands are started in the reverse order of their creation
+            return runner.getCommands().stream()
+                    .map(CommandBase::getVmId)
+                    .sorted((a, b) -> -Integer.compare(indexOf(commands.get(a)), indexOf(commands.get(b))))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    public void vmsOfClusterArePlannedInStartOrder() {
+        RunVmCommand<?> first = createCommand(cluster, true, true);
+        RunVmCommand<?> second = createCommand(cluster, true, true);
+        Guid firstHostId = Guid.newGuid();
+        Guid secondHostId = Guid.newGuid();
+        SchedulingPlan plan = mock(SchedulingPlan.class);
+        when(plan.getHost(first.getVmId())).thenReturn(Optional.of(firstHostId));
+        when(plan.getHost(second.getVmId())).thenReturn(Optional.of(secondHostId));
+        when(schedulingManager.scheduleBatch(eq(cluster), any(), any(), any(), any())).thenReturn(plan);
+        runner.getCommands().addAll(Arrays.asList(first, second));
+
+        runner.sortCommands();
+
+        assertEquals(Arrays.asList(second, first), runner.getCommands());
+        List<VM> vms = Arrays.asList(second.getVm(), first.getVm());
+        verify(schedulingManager).scheduleBatch(eq(cluster),
+                eq(vms),
+                any(),
+                any(),
+                any());
+        verify(first).setPlannedVdsId(firstHostId);
+        verify(second).setPlannedVdsId(secondHostId);
+    }
+
+    @Test
+    public void clustersWithSingleVmAreNotPlanned() {
+        RunVmCommand<?> first = createCommand(cluster, true, true);
+        RunVmCommand<?> second = createCommand(otherCluster, true, true);
+        runner.getCommands().addAll(Arrays.asList(first, second));
+
+        runner.sortCommands();
+
+        verify(schedulingManager, never()).scheduleBatch(any(), any(), any(), any(), any());
+        verify(first, never()).setPlannedVdsId(any());
+        verify(second, never()).setPlannedVdsId(any());
+    }
+
+    @Test
+    public void invalidAndUnplannableVmsAreNotPlanned() {
+        List<RunVmCommand<?>> commands = Arrays.asList(createCommand(cluster, true, true),
+                createCommand(cluster, false, true),
+                createCommand(cluster, true, false));
+        runner.getCommands().addAll(commands);
+
+        runner.sortCommands();
+
+        verify(schedulingManager, never()).scheduleBatch(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void unusedPlannedVdsIsReleasedAfterExecution() {
+        RunVmCommand<?> command = createCommand(cluster, true, true);
+        when(command.executeAction()).thenThrow(new RuntimeException());
+
+        try {
+            runner.executeValidatedCommand(command);
+        } catch (RuntimeException e) {
+            // expected
+        }
+
+        verify(command).releaseUnusedPlannedVds();
+    }
+
+    private int indexOf(CommandBase<?> command) {
+        return runner.getCommands().indexOf(command);
+    }
+
+    private static Cluster createCluster() {
+        Cluster cluster = new Cluster();
+        cluster.setId(Guid.newGuid());
+        return cluster;
+    }
+
+    private static RunVmCommand<?> createCommand(Cluster cluster, boolean valid, boolean plannable) {
+        VM vm = new VM();
+        vm.setId(Guid.newGuid());
+        vm.setClusterId(cluster.getId());
+        ActionReturnValue returnValue = new ActionReturnValue();
+        returnValue.setValid(valid);
+
+        RunVmCommand<?> command = mock(RunVmCommand.class);
+        when(command.getVmId()).thenReturn(vm.getId());
+        when(command.getVm()).thenReturn(vm);
+        when(command.getCluster()).thenReturn(cluster);
+        when(command.getReturnValue()).thenReturn(returnValue);
+        when(command.canPlanVdsToRunOn()).thenReturn(plannable);
+        return command;
+    }
+}
@@ -13,6 +13,8 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.ovirt.engine.core.common.vdscommands.VDSCommandType.ConnectStorageServer;
@@ -22,6 +24,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -36,6 +39,7 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
 import org.ovirt.engine.core.bll.storage.domain.IsoDomainListSynchronizer;
 import org.ovirt.engine.core.bll.validator.RunVmValidator;
 import org.ovirt.engine.core.common.AuditLogType;
@@ -46,6 +50,7 @@ import org.ovirt.engine.core.common.businessentities.Cluster;
 import org.ovirt.engine.core.common.businessentities.Snapshot.SnapshotStatus;
 import org.ovirt.engine.core.common.businessentities.StoragePool;
 import org.ovirt.engine.core.common.businessentities.StorageServerConnections;
+import org.ovirt.engine.core.common.businessentities.VDS;
 import org.ovirt.engine.core.common.businessentities.VM;
 import org.ovirt.engine.core.common.businessentities.VMStatus;
 import org.ovirt.engine.core.common.businessentities.VmDevice;
@@ -66,6 +71,7 @@ import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.compat.Version;
 import org.ovirt.engine.core.dao.SnapshotDao;
 import org.ovirt.engine.core.dao.StorageServerConnectionDao;
+import org.ovirt.engine.core.dao.VdsDao;
 import org.ovirt.engine.core.dao.VmDao;
 import org.ovirt.engine.core.dao.VmDeviceDao;
 import org.ovirt.engine.core.utils.InjectedMock;
@@ -106,6 +112,12 @@ public class RunVmCommandTest extends BaseCommandTest {
     @Mock
     private StorageServerConnectionDao storageServerConnectionDao;
 
+    @Mock
+    private SchedulingManager schedulingManager;
+
+    @Mock
+    private VdsDao vdsDao;
+
     @Spy
     @InjectMocks
     VmHandler vmHandler;
@@ -297,6 +309,37 @@ public class RunVmCommandTest extends BaseCommandTest {
         return vmDao.get(command.getParameters().getVmId());
     }
 
+    @Test
+    public void plannedVdsIsUsedWhenItIsStillValid() {
+        VM vm = mockVm();
+        Guid plannedVdsId = Guid.newGuid();
+        command.setPlannedVdsId(plannedVdsId);
+        when(vdsDao.get(any())).thenReturn(new VDS());
+        when(schedulingManager.isPlannedHostValid(any(), any(), eq(plannedVdsId), any())).thenReturn(true);
+
+        assertTrue(command.getVdsToRunOn());
+        assertEquals(plannedVdsId, command.getVdsId());
+        verify(schedulingManager, never()).clearPendingVm(vm.getStaticData());
+        verify(schedulingManager, never()).schedule(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void vmIsScheduledWhenPlannedVdsCannotRunIt() {
+        VM vm = mockVm();
+        Guid plannedVdsId = Guid.newGuid();
+        Guid vdsId = Guid.newGuid();
+        command.setPlannedVdsId(plannedVdsId);
+        doNothing().when(command).cleanupPassthroughVnics(any(Guid.class));
+        when(vdsDao.get(any())).thenReturn(new VDS());
+        when(schedulingManager.schedule(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Optional.of(vdsId));
+
+        assertTrue(command.getVdsToRunOn());
+        assertEquals(vdsId, command.getVdsId());
+        verify(schedulingManager).clearPendingVm(vm.getStaticData());
+        verify(schedulingManager, times(1)).schedule(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
     /**
      * Mock a VM.
      */
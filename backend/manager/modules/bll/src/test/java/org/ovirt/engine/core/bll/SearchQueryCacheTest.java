@@ -0,0 +1,77 @@
+package org.ovirt.engine.core.bll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.ovirt.engine.core.aaa.QueryData;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith(MockConfigExtension.class)
+public class SearchQueryCacheTest {
+
+    private SearchQueryCache cache;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.SearchQueryCacheMaxEntries, 2),
+                MockConfigDescriptor.of(ConfigValues.SearchQueryCacheTimeToLiveInMinutes, 60));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        cache = new SearchQueryCache();
+        cache.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    public void testCachedQueryIsReturned() {
+        QueryData data = queryData(System.currentTimeMillis());
+        cache.put("Vms: name=a", data);
+
+        assertSame(data, cache.get("Vms: name=a"));
+        assertNull(cache.get("Vms: name=b"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedQueryIsEvicted() {
+        cache.put("a", queryData(System.currentTimeMillis()));
+        cache.put("b", queryData(System.currentTimeMillis()));
+        cache.get("a");
+
+        cache.put("c", queryData(System.currentTimeMillis()));
+
+        assertNull(cache.get("b"));
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testExpiredQueryIsDropped() {
+        cache.put("a", queryData(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(60)));
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.getSize());
+        assertEquals(1, cache.getExpirations());
+    }
+
+    private static QueryData queryData(long date) {
+        return new QueryData("select * from vms", date, null, null);
+    }
+}
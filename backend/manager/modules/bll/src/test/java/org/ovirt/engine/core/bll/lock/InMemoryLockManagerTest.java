@@ -7,6 +7,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -122,4 +125,70 @@ public class InMemoryLockManagerTest {
         lockManager.clear();
         assertTrue(lockManager.showAllLocks().isEmpty());
     }
+
+    @Test
+    public void checkShowLocksSeesWholeLocks() throws InterruptedException {
+        Map<String, Pair<String, String>> regionsMap = new HashMap<>();
+        regionsMap.put(Guid.newGuid().toString(), new Pair<>("1", ERROR1));
+        regionsMap.put(Guid.newGuid().toString(), new Pair<>("2", ERROR2));
+        EngineLock lock = new EngineLock();
+        lock.setExclusiveLocks(regionsMap);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread locker = new Thread(() -> {
+            while (running.get()) {
+                lockManager.acquireLock(lock);
+                lockManager.releaseLock(lock);
+            }
+        });
+        locker.start();
+        try {
+            for (int i = 0; i < 10000; i++) {
+                int size = lockManager.showAllLocks().size();
+                assertTrue(size == 0 || size == 2, "A part of a lock was shown");
+            }
+        } finally {
+            running.set(false);
+            locker.join();
+        }
+    }
+
+    @Test
+    public void checkStatistics() {
+        assertTrue(lockManager.acquireLock(lockLock1).getFirst());
+        assertFalse(lockManager.acquireLock(updateLock1).getFirst());
+        lockManager.releaseLock(lockLock1);
+        assertEquals(1, lockManager.getAcquiredLockCount());
+        assertEquals(1, lockManager.getFailedAcquireCount());
+        assertEquals(0, lockManager.getWaitingThreadCount());
+        assertTrue(lockManager.getAverageHoldTimeMillis() >= 0);
+        lockManager.resetStatistics();
+        assertEquals(0, lockManager.getAcquiredLockCount());
+        assertEquals(0, lockManager.getFailedAcquireCount());
+    }
+
+    @Test
+    public void checkAcquireLockWaitIsWokenByRelease() throws InterruptedException {
+        assertTrue(lockManager.acquireLock(lockLock1).getFirst());
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            lockManager.acquireLockWait(failLockLock);
+            acquired.countDown();
+        });
+        waiter.start();
+        while (lockManager.getWaitingThreadCount() == 0) {
+            Thread.sleep(10);
+        }
+
+        // locks of other entities are not blocked by the waiting thread
+        assertTrue(lockManager.acquireLock(lockLock2).getFirst());
+        lockManager.releaseLock(lockLock2);
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+
+        lockManager.releaseLock(lockLock1);
+        assertTrue(acquired.await(10, TimeUnit.SECONDS));
+        waiter.join();
+        assertEquals(0, lockManager.getWaitingThreadCount());
+        assertFalse(lockManager.acquireLock(lockLock1).getFirst());
+        lockManager.releaseLock(failLockLock);
+    }
 }
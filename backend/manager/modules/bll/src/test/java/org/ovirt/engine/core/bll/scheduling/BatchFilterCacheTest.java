@@ -0,0 +1,111 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingResourceManager;
+import org.ovirt.engine.core.bll.scheduling.policyunits.CPUPolicyUnit;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.scheduling.PerHostMessages;
+import org.ovirt.engine.core.compat.Guid;
+
+public class BatchFilterCacheTest {
+
+    private BatchFilterCache cache;
+    private CPUPolicyUnit unit;
+    private Cluster cluster;
+    private VDS smallHost;
+    private VDS bigHost;
+    private List<VDS> hosts;
+    private List<List<VDS>> evaluated;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new BatchFilterCache();
+        unit = new CPUPolicyUnit(null, new PendingResourceManager());
+        evaluated = new ArrayList<>();
+
+        cluster = new Cluster();
+        cluster.setCountThreadsAsCores(false);
+
+        smallHost = createHost(2);
+        bigHost = createHost(8);
+        hosts = Arrays.asList(smallHost, bigHost);
+    }
+
+    @Test
+    public void testSameShapeIsEvaluatedOnce() {
+        VM vm = createVm(4);
+
+        List<VDS> first = filter(vm, new PerHostMessages());
+        List<VDS> second = filter(createVm(4), new PerHostMessages());
+
+        assertEquals(Collections.singletonList(bigHost), first);
+        assertEquals(first, second);
+        assertEquals(1, evaluated.size());
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testCachedMessagesAreReported() {
+        filter(createVm(4), new PerHostMessages());
+
+        PerHostMessages messages = new PerHostMessages();
+        filter(createVm(4), messages);
+
+        assertThat(messages.getMessages(smallHost.getId())).isNotEmpty();
+        assertThat(messages.getMessages(bigHost.getId())).isEmpty();
+    }
+
+    @Test
+    public void testDifferentShapeIsEvaluated() {
+        filter(createVm(4), new PerHostMessages());
+        List<VDS> result = filter(createVm(1), new PerHostMessages());
+
+        assertEquals(hosts, result);
+        assertEquals(2, evaluated.size());
+    }
+
+    @Test
+    public void testInvalidatedHostIsEvaluatedAgain() {
+        filter(createVm(4), new PerHostMessages());
+        cache.invalidateHost(bigHost.getId());
+        filter(createVm(4), new PerHostMessages());
+
+        assertEquals(2, evaluated.size());
+        assertEquals(Collections.singletonList(bigHost), evaluated.get(1));
+    }
+
+    private List<VDS> filter(VM vm, PerHostMessages messages) {
+        return cache.filter(unit, VmShape.of(vm), hosts, messages, (list, msgs) -> {
+            evaluated.add(list);
+            return unit.filter(cluster, list, vm, null, msgs);
+        });
+    }
+
+    private VDS createHost(int cores) {
+        VDS host = new VDS();
+        host.setId(Guid.newGuid());
+        host.setCpuCores(cores);
+        host.setCpuThreads(cores);
+        return host;
+    }
+
+    private VM createVm(int cpus) {
+        VM vm = new VM();
+        vm.setId(Guid.newGuid());
+        vm.setNumOfSockets(cpus);
+        vm.setCpuPerSocket(1);
+        return vm;
+    }
+}
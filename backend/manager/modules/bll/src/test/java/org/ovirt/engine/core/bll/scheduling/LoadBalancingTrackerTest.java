@@ -0,0 +1,181 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.bll.scheduling.LoadBalancingTracker.Utilization;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.compat.Guid;
+
+public class LoadBalancingTrackerTest {
+
+    private static final int MAX_SKIPPED = 3;
+
+    private LoadBalancingTracker tracker;
+    private Guid clusterId;
+    private VDS host;
+
+    @BeforeEach
+    public void setUp() {
+        tracker = new LoadBalancingTracker(true, 10, 1024, MAX_SKIPPED);
+        clusterId = Guid.newGuid();
+
+        host = new VDS();
+        host.setId(Guid.newGuid());
+        host.setClusterId(clusterId);
+        host.setUsageCpuPercent(50);
+        host.setMemFree(8192L);
+        host.setVmCount(5);
+    }
+
+    @Test
+    public void testNewHostMakesClusterDirty() {
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        assertTrue(tracker.shouldBalance(clusterId));
+        assertFalse(tracker.shouldBalance(clusterId));
+    }
+
+    @Test
+    public void testSmallChangeKeepsClusterClean() {
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        tracker.shouldBalance(clusterId);
+
+        host.setUsageCpuPercent(55);
+        host.setMemFree(8000L);
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        assertFalse(tracker.shouldBalance(clusterId));
+    }
+
+    @Test
+    public void testCpuChangeMakesClusterDirty() {
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        tracker.shouldBalance(clusterId);
+
+        host.setUsageCpuPercent(70);
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        assertTrue(tracker.shouldBalance(clusterId));
+    }
+
+    @Test
+    public void testVmCountChangeMakesClusterDirty() {
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        tracker.shouldBalance(clusterId);
+
+        host.setVmCount(6);
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        assertTrue(tracker.shouldBalance(clusterId));
+    }
+
+    @Test
+    public void testThresholdCrossingMakesClusterDirty() {
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        tracker.shouldBalance(clusterId);
+
+        host.setCpuOverCommitTimestamp(new Date());
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        assertTrue(tracker.shouldBalance(clusterId));
+
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        assertFalse(tracker.shouldBalance(clusterId));
+    }
+
+    @Test
+    public void testOverUtilizedHostKeepsClusterDirty() {
+        host.setCpuOverCommitTimestamp(new Date());
+        for (int i = 0; i < 2 * MAX_SKIPPED; i++) {
+            tracker.hostStatsUpdated(host, Utilization.OVER, Utilization.NORMAL);
+            assertTrue(tracker.shouldBalance(clusterId));
+        }
+    }
+
+    @Test
+    public void testUnderUtilizedHostWithVmsKeepsClusterDirty() {
+        host.setCpuOverCommitTimestamp(new Date());
+        for (int i = 0; i < 2 * MAX_SKIPPED; i++) {
+            tracker.hostStatsUpdated(host, Utilization.UNDER, Utilization.NORMAL);
+            assertTrue(tracker.shouldBalance(clusterId));
+        }
+    }
+
+    @Test
+    public void testUnderUtilizedHostWithoutVmsKeepsClusterClean() {
+        host.setVmCount(0);
+        tracker.hostStatsUpdated(host, Utilization.UNDER, Utilization.NORMAL);
+        tracker.shouldBalance(clusterId);
+
+        tracker.hostStatsUpdated(host, Utilization.UNDER, Utilization.NORMAL);
+        assertFalse(tracker.shouldBalance(clusterId));
+    }
+
+    @Test
+    public void testUnderUtilizationThresholdCrossingMakesClusterDirty() {
+        host.setVmCount(0);
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        tracker.shouldBalance(clusterId);
+
+        tracker.hostStatsUpdated(host, Utilization.UNDER, Utilization.NORMAL);
+        assertTrue(tracker.shouldBalance(clusterId));
+    }
+
+    @Test
+    public void testMemoryLimitCrossingMakesClusterDirty() {
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        tracker.shouldBalance(clusterId);
+
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.UNDER);
+        assertTrue(tracker.shouldBalance(clusterId));
+
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.UNDER);
+        assertFalse(tracker.shouldBalance(clusterId));
+
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.OVER);
+        assertTrue(tracker.shouldBalance(clusterId));
+    }
+
+    @Test
+    public void testCleanClusterIsBalancedAfterMaxSkippedIntervals() {
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        tracker.shouldBalance(clusterId);
+
+        for (int i = 0; i < MAX_SKIPPED; i++) {
+            assertFalse(tracker.shouldBalance(clusterId));
+        }
+        assertTrue(tracker.shouldBalance(clusterId));
+    }
+
+    @Test
+    public void testRemovedHostMakesItsClusterDirty() {
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        tracker.shouldBalance(clusterId);
+
+        tracker.hostRemoved(host.getId());
+        assertTrue(tracker.shouldBalance(clusterId));
+        assertFalse(tracker.shouldBalance(clusterId));
+
+        // the summary of the host was dropped, so the host is tracked as a new one
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        assertTrue(tracker.shouldBalance(clusterId));
+    }
+
+    @Test
+    public void testMarkAllClustersDirty() {
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        tracker.shouldBalance(clusterId);
+
+        tracker.markAllClustersDirty();
+        assertTrue(tracker.shouldBalance(clusterId));
+    }
+
+    @Test
+    public void testDisabledTrackerBalancesEveryRun() {
+        tracker = new LoadBalancingTracker(false, 10, 1024, MAX_SKIPPED);
+        tracker.hostStatsUpdated(host, Utilization.NORMAL, Utilization.NORMAL);
+        for (int i = 0; i < 2 * MAX_SKIPPED; i++) {
+            assertTrue(tracker.shouldBalance(clusterId));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingResourceManager;
+import org.ovirt.engine.core.bll.scheduling.policyunits.CPUPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.EvenDistributionCPUWeightPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.EvenDistributionMemoryWeightPolicyUnit;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.scheduling.PerHostMessages;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+
+@ExtendWith(MockConfigExtension.class)
+public class ParallelPolicyUnitEvaluatorTest {
+
+    private static final int HOST_COUNT = 103;
+
+    private ParallelPolicyUnitEvaluator evaluator;
+    private ExecutorService executorService;
+    private ExecutorService evaluatorExecutor;
+    private PendingResourceManager pendingResourceManager;
+    private Cluster cluster;
+    private VM vm;
+    private List<VDS> hosts;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.MaxSchedulerWeight, 1000),
+                MockConfigDescriptor.of(ConfigValues.VcpuConsumptionPercentage, 10),
+                MockConfigDescriptor.of(ConfigValues.SpmVCpuConsumption, 1)
+        );
+    }
+
+    @BeforeEach
+    public void setUp() {
+        executorService = ThreadPoolUtil.getExecutorService();
+        evaluatorExecutor = Executors.newFixedThreadPool(3);
+        ThreadPoolUtil.setExecutorService(evaluatorExecutor);
+        evaluator = new ParallelPolicyUnitEvaluator(4, 10);
+        pendingResourceManager = new PendingResourceManager();
+
+        cluster = new Cluster();
+        cluster.setId(Guid.newGuid());
+        cluster.setCountThreadsAsCores(false);
+
+        vm = new VM();
+        vm.setCpuPerSocket(2);
+        vm.setNumOfSockets(2);
+
+        hosts = new ArrayList<>();
+        for (int i = 0; i < HOST_COUNT; i++) {
+            VDS host = new VDS();
+            host.setId(Guid.newGuid());
+            host.setVdsName("host" + i);
+            host.setCpuCores(i % 3 == 0 ? 2 : 8);
+            host.setCpuThreads(16);
+            host.setUsageCpuPercent(i % 100);
+            host.setPhysicalMemMb(4096);
+            host.setMemCommited(i * 10);
+            hosts.add(host);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        evaluatorExecutor.shutdown();
+        ThreadPoolUtil.setExecutorService(executorService);
+    }
+
+    @Test
+    public void testPartitionKeepsOrderAndSize() {
+        List<List<VDS>> partitions = evaluator.partition(hosts);
+        assertEquals(4, partitions.size());
+
+        List<VDS> merged = new ArrayList<>();
+        partitions.forEach(merged::addAll);
+        assertEquals(hosts, merged);
+        for (List<VDS> part : partitions) {
+            assertThat(part.size()).isBetween(HOST_COUNT / 4, HOST_COUNT / 4 + 1);
+        }
+    }
+
+    @Test
+    public void testParallelFilterEqualsSequential() {
+        CPUPolicyUnit unit = new CPUPolicyUnit(null, pendingResourceManager);
+        PerHostMessages sequentialMessages = new PerHostMessages();
+        PerHostMessages parallelMessages = new PerHostMessages();
+
+        List<VDS> sequential = unit.filter(cluster, hosts, vm, null, sequentialMessages);
+        List<VDS> parallel = evaluator.filter(unit, cluster, hosts, vm, null, parallelMessages);
+
+        assertEquals(sequential, parallel);
+        assertEquals(sequentialMessages.getMessages(), parallelMessages.getMessages());
+    }
+
+    @Test
+    public void testParallelScoreEqualsSequential() {
+        EvenDistributionCPUWeightPolicyUnit unit = new EvenDistributionCPUWeightPolicyUnit(null, pendingResourceManager);
+
+        List<Pair<Guid, Integer>> sequential = unit.score(cluster, hosts, vm, null);
+        List<Pair<Guid, Integer>> parallel = evaluator.score(unit, cluster, hosts, vm, null);
+
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testHostDependentUnitIsNotPartitioned() {
+        EvenDistributionMemoryWeightPolicyUnit unit =
+                new EvenDistributionMemoryWeightPolicyUnit(null, pendingResourceManager);
+
+        List<Pair<Guid, Integer>> sequential = unit.score(cluster, hosts, vm, null);
+        List<Pair<Guid, Integer>> parallel = evaluator.score(unit, cluster, hosts, vm, null);
+
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testEvaluationDoesNotWaitForBusyPool() {
+        // the partitions submitted to the pool never start, so the calling thread evaluates all of them
+        ThreadPoolUtil.setExecutorService(mock(ExecutorService.class));
+        EvenDistributionCPUWeightPolicyUnit unit = new EvenDistributionCPUWeightPolicyUnit(null, pendingResourceManager);
+
+        List<Pair<Guid, Integer>> sequential = unit.score(cluster, hosts, vm, null);
+        List<Pair<Guid, Integer>> parallel = evaluator.score(unit, cluster, hosts, vm, null);
+
+        assertEquals(sequential, parallel);
+    }
+}
@@ -0,0 +1,289 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.assertj.core.data.MapEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.network.host.VfScheduler;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingCpuCores;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingResourceManager;
+import org.ovirt.engine.core.bll.scheduling.policyunits.CPUPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.RankSelectorPolicyUnit;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.errors.EngineMessage;
+import org.ovirt.engine.core.common.scheduling.ClusterPolicy;
+import org.ovirt.engine.core.common.scheduling.PerHostMessages;
+import org.ovirt.engine.core.common.scheduling.PolicyUnitType;
+import org.ovirt.engine.core.common.scheduling.VmOverheadCalculator;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.VdsDao;
+import org.ovirt.engine.core.dao.VdsNumaNodeDao;
+import org.ovirt.engine.core.dao.VmNumaNodeDao;
+import org.ovirt.engine.core.dao.scheduling.ClusterPolicyDao;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith({MockitoExtension.class, MockConfigExtension.class})
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class SchedulingManagerTest {
+
+    @Mock
+    private VdsDao vdsDao;
+    @Mock
+    private ClusterPolicyDao clusterPolicyDao;
+    @Mock
+    private VmOverheadCalculator vmOverheadCalculator;
+    @Mock
+    private VmNumaNodeDao vmNumaNodeDao;
+    @Mock
+    private VdsNumaNodeDao vdsNumaNodeDao;
+    @Mock
+    private VfScheduler vfScheduler;
+    @Spy
+    private PendingResourceManager pendingResourceManager = new PendingResourceManager();
+    @Spy
+    private ParallelPolicyUnitEvaluator policyUnitEvaluator = new ParallelPolicyUnitEvaluator(1, 100);
+
+    @InjectMocks
+    private SchedulingManager schedulingManager;
+
+    private Cluster cluster;
+    private VDS firstHost;
+    private VDS secondHost;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.ExternalSchedulerEnabled, false),
+                MockConfigDescriptor.of(ConfigValues.SpeedOptimizationSchedulingThreshold, 10)
+        );
+    }
+
+    @BeforeEach
+    public void setUp() {
+        PolicyUnitImpl cpuFilter = new CPUPolicyUnit(null, pendingResourceManager);
+        PolicyUnitImpl pendingCpuFilter = new PendingCpuFilter(pendingResourceManager);
+        schedulingManager.getPolicyUnitsMap().put(cpuFilter.getGuid(), cpuFilter);
+        schedulingManager.getPolicyUnitsMap().put(pendingCpuFilter.getGuid(), pendingCpuFilter);
+        PolicyUnitImpl selector = new RankSelectorPolicyUnit(null, pendingResourceManager);
+        schedulingManager.getPolicyUnitsMap().put(selector.getGuid(), selector);
+
+        ClusterPolicy policy = new ClusterPolicy();
+        policy.setId(Guid.newGuid());
+        policy.setFilters(Arrays.asList(cpuFilter.getGuid(), pendingCpuFilter.getGuid()));
+        policy.setFilterPositionMap(new HashMap<>());
+        policy.setFunctions(new ArrayList<>());
+        schedulingManager.addClusterPolicy(policy);
+
+        cluster = new Cluster();
+        cluster.setId(Guid.newGuid());
+        cluster.setClusterPolicyId(policy.getId());
+        cluster.setCountThreadsAsCores(false);
+
+        firstHost = createHost();
+        secondHost = createHost();
+        when(vdsDao.getAllForClusterWithStatus(cluster.getId(), VDSStatus.Up))
+                .thenAnswer(invocation -> Arrays.asList(copy(firstHost), copy(secondHost)));
+        when(vmNumaNodeDao.getAllVmNumaNodeByVmId(any())).thenReturn(Collections.emptyList());
+        when(vdsNumaNodeDao.getAllVdsNumaNodeByVdsId(any())).thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    public void testBatchPlacementsSeeResourcesOfPreviousPlacements() {
+        List<VM> vms = Arrays.asList(createVm(2), createVm(2), createVm(2));
+
+        SchedulingPlan plan = schedulingManager.scheduleBatch(cluster,
+                vms,
+                Collections.emptyList(),
+                Collections.emptyList(),
+                null);
+
+        assertThat(plan.getPlacements()).containsExactly(
+                placement(vms.get(0), firstHost),
+                placement(vms.get(1), firstHost),
+                placement(vms.get(2), secondHost));
+        assertTrue(plan.getFailures().isEmpty());
+        assertEquals(4, PendingCpuCores.collectForHost(pendingResourceManager, firstHost.getId()));
+        assertEquals(2, PendingCpuCores.collectForHost(pendingResourceManager, secondHost.getId()));
+    }
+
+    @Test
+    public void testBatchReportsVmsThatDoNotFit() {
+        VM bigVm = createVm(8);
+        VM vm = createVm(4);
+
+        SchedulingPlan plan = schedulingManager.scheduleBatch(cluster,
+                Arrays.asList(bigVm, vm),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                null);
+
+        assertEquals(Collections.singletonMap(vm.getId(), firstHost.getId()), plan.getPlacements());
+        assertThat(plan.getFailures().get(bigVm.getId()))
+                .contains(EngineMessage.SCHEDULING_ALL_HOSTS_FILTERED_OUT.name());
+        assertFalse(plan.getHost(bigVm.getId()).isPresent());
+    }
+
+    @Test
+    public void testBatchSkipsBlacklistedHosts() {
+        List<VM> vms = Arrays.asList(createVm(2), createVm(2));
+
+        SchedulingPlan plan = schedulingManager.scheduleBatch(cluster,
+                vms,
+                Collections.singletonList(firstHost.getId()),
+                Collections.emptyList(),
+                null);
+
+        assertThat(plan.getPlacements()).containsExactly(
+                placement(vms.get(0), secondHost),
+                placement(vms.get(1), secondHost));
+    }
+
+    @Test
+    public void testPlannedHostKeepsTheResourcesOfTheVm() {
+        VM plannedVm = createVm(4);
+        SchedulingPlan plan = schedulingManager.scheduleBatch(cluster,
+                Collections.singletonList(plannedVm),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                null);
+        mockPlannedHost(firstHost);
+
+        // another command cannot take the resources reserved for the planned VM
+        assertFalse(schedulingManager.schedule(cluster,
+                createVm(2),
+                Collections.emptyList(),
+                Collections.singletonList(firstHost.getId()),
+                Collections.emptyList(),
+                new ArrayList<>(),
+                new NonWaitingDelayer(),
+                null).isPresent());
+        assertEquals(firstHost.getId(), plan.getHost(plannedVm.getId()).get());
+        assertTrue(schedulingManager.isPlannedHostValid(cluster,
+                plannedVm,
+                firstHost.getId(),
+                Collections.emptyList()));
+    }
+
+    @Test
+    public void testPlannedHostIsNotValidWhenItIsNotUp() {
+        VM plannedVm = createVm(4);
+        schedulingManager.scheduleBatch(cluster,
+                Collections.singletonList(plannedVm),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                null);
+        mockPlannedHost(firstHost).setStatus(VDSStatus.Maintenance);
+
+        assertFalse(schedulingManager.isPlannedHostValid(cluster,
+                plannedVm,
+                firstHost.getId(),
+                Collections.emptyList()));
+    }
+
+    @Test
+    public void testPlannedHostIsNotValidWithoutTheReservation() {
+        VM plannedVm = createVm(4);
+        schedulingManager.scheduleBatch(cluster,
+                Collections.singletonList(plannedVm),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                null);
+        mockPlannedHost(firstHost);
+        schedulingManager.clearPendingVm(plannedVm.getStaticData());
+
+        assertFalse(schedulingManager.isPlannedHostValid(cluster,
+                plannedVm,
+                firstHost.getId(),
+                Collections.emptyList()));
+    }
+
+    private VDS mockPlannedHost(VDS host) {
+        VDS plannedHost = copy(host);
+        plannedHost.setClusterId(cluster.getId());
+        when(vdsDao.get(host.getId())).thenReturn(plannedHost);
+        return plannedHost;
+    }
+
+    private static MapEntry<Guid, Guid> placement(VM vm, VDS host) {
+        return entry(vm.getId(), host.getId());
+    }
+
+    private static VDS createHost() {
+        VDS host = new VDS();
+        host.setId(Guid.newGuid());
+        host.setCpuCores(4);
+        host.setCpuThreads(4);
+        host.setStatus(VDSStatus.Up);
+        return host;
+    }
+
+    private static VDS copy(VDS host) {
+        VDS copy = createHost();
+        copy.setId(host.getId());
+        return copy;
+    }
+
+    private static VM createVm(int cpus) {
+        VM vm = new VM();
+        vm.setId(Guid.newGuid());
+        vm.setNumOfSockets(cpus);
+        vm.setCpuPerSocket(1);
+        vm.setThreadsPerCpu(1);
+        return vm;
+    }
+
+    /**
+     * Filters out the hosts whose cores are taken by the pending VMs.
+     */
+    @SchedulingUnit(
+            guid = "3b7c8a11-8f4e-4e57-a2c3-6b1f2a9d0e44",
+            name = "PendingCpu",
+            type = PolicyUnitType.FILTER
+    )
+    private static class PendingCpuFilter extends PolicyUnitImpl {
+        PendingCpuFilter(PendingResourceManager pendingResourceManager) {
+            super(null, pendingResourceManager);
+        }
+
+        @Override
+        public List<VDS> filter(Cluster cluster,
+                List<VDS> hosts,
+                VM vm,
+                Map<String, String> parameters,
+                PerHostMessages messages) {
+            List<VDS> result = new ArrayList<>();
+            for (VDS host : hosts) {
+                if (host.getPendingVcpusCount() + vm.getNumOfCpus() <= host.getCpuCores()) {
+                    result.add(host);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingCpuCores;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingResourceManager;
+import org.ovirt.engine.core.bll.scheduling.policyunits.EvenDistributionCPUWeightPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.EvenDistributionMemoryWeightPolicyUnit;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith(MockConfigExtension.class)
+public class SchedulingScoreCacheTest {
+
+    private SchedulingScoreCache cache;
+    private PendingResourceManager pendingResourceManager;
+    private Cluster cluster;
+    private List<VDS> hosts;
+    private int evaluations;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.SchedulerScoreCacheEnabled, true),
+                MockConfigDescriptor.of(ConfigValues.MaxSchedulerWeight, 1000),
+                MockConfigDescriptor.of(ConfigValues.VcpuConsumptionPercentage, 10),
+                MockConfigDescriptor.of(ConfigValues.SpmVCpuConsumption, 1)
+        );
+    }
+
+    @BeforeEach
+    public void setUp() {
+        cache = new SchedulingScoreCache();
+        pendingResourceManager = new PendingResourceManager();
+        evaluations = 0;
+
+        cluster = new Cluster();
+        cluster.setId(Guid.newGuid());
+        cluster.setCountThreadsAsCores(false);
+
+        hosts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            VDS host = new VDS();
+            host.setId(Guid.newGuid());
+            host.setCpuCores(8);
+            host.setCpuThreads(8);
+            host.setUsageCpuPercent(20 * i);
+            host.setPhysicalMemMb(4096);
+            hosts.add(host);
+        }
+    }
+
+    @Test
+    public void testSameShapeUsesCachedScores() {
+        EvenDistributionCPUWeightPolicyUnit unit = new EvenDistributionCPUWeightPolicyUnit(null, pendingResourceManager);
+
+        List<Pair<Guid, Integer>> first = score(unit, createVm());
+        List<Pair<Guid, Integer>> second = score(unit, createVm());
+
+        assertEquals(first, second);
+        assertEquals(1, evaluations);
+        assertEquals(hosts.size(), cache.getHits());
+        assertEquals(hosts.size(), cache.getMisses());
+    }
+
+    @Test
+    public void testPendingChangeInvalidatesHost() {
+        EvenDistributionCPUWeightPolicyUnit unit = new EvenDistributionCPUWeightPolicyUnit(null, pendingResourceManager);
+        VM vm = createVm();
+        List<Pair<Guid, Integer>> before = score(unit, vm);
+
+        Guid hostId = hosts.get(0).getId();
+        pendingResourceManager.addPending(new PendingCpuCores(hostId, createVm(), 4));
+        pendingResourceManager.notifyHostManagers(hostId);
+        List<Pair<Guid, Integer>> after = score(unit, vm);
+
+        assertEquals(2, evaluations);
+        assertEquals(hosts.size() + 1, cache.getMisses());
+        assertEquals(before.subList(1, 3), after.subList(1, 3));
+        assertEquals(unit.score(cluster, hosts, vm, null), after);
+    }
+
+    @Test
+    public void testStatsUpdateInvalidatesHost() {
+        EvenDistributionCPUWeightPolicyUnit unit = new EvenDistributionCPUWeightPolicyUnit(null, pendingResourceManager);
+        score(unit, createVm());
+
+        cache.hostStatsUpdated(hosts.get(1).getId());
+        score(unit, createVm());
+
+        assertEquals(hosts.size() + 1, cache.getMisses());
+    }
+
+    @Test
+    public void testClusterChangeIsNotServedFromCache() {
+        EvenDistributionCPUWeightPolicyUnit unit = new EvenDistributionCPUWeightPolicyUnit(null, pendingResourceManager);
+        hosts.forEach(host -> host.setCpuThreads(16));
+        VM vm = createVm();
+        score(unit, vm);
+
+        cluster.setCountThreadsAsCores(true);
+        List<Pair<Guid, Integer>> after = score(unit, vm);
+
+        assertEquals(2, evaluations);
+        assertEquals(0, cache.getHits());
+        assertEquals(unit.score(cluster, hosts, vm, null), after);
+    }
+
+    @Test
+    public void testNotCacheableUnitIsAlwaysEvaluated() {
+        EvenDistributionMemoryWeightPolicyUnit unit =
+                new EvenDistributionMemoryWeightPolicyUnit(null, pendingResourceManager);
+
+        score(unit, createVm());
+        score(unit, createVm());
+
+        assertEquals(2, evaluations);
+        assertEquals(0, cache.getHits());
+    }
+
+    private List<Pair<Guid, Integer>> score(PolicyUnitImpl unit, VM vm) {
+        return cache.score(unit, cluster, hosts, vm, null, pendingResourceManager, list -> {
+            evaluations++;
+            return unit.score(cluster, list, vm, null);
+        });
+    }
+
+    private VM createVm() {
+        VM vm = new VM();
+        vm.setId(Guid.newGuid());
+        vm.setCpuPerSocket(2);
+        vm.setNumOfSockets(1);
+        return vm;
+    }
+}
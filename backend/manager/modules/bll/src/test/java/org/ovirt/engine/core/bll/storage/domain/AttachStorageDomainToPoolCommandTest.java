@@ -19,6 +19,7 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.ovirt.engine.core.bll.BaseCommandTest;
+import org.ovirt.engine.core.bll.PermissionCache;
 import org.ovirt.engine.core.bll.context.CommandContext;
 import org.ovirt.engine.core.bll.context.CompensationContext;
 import org.ovirt.engine.core.bll.interfaces.BackendInternal;
@@ -67,6 +68,8 @@ public class AttachStorageDomainToPoolCommandTest extends BaseCommandTest {
     private VDS vds;
     @Mock
     private StoragePoolStatusHandler storagePoolStatusHandler;
+    @Mock
+    private PermissionCache permissionCache;
     private StoragePoolIsoMap map;
 
     @Spy
@@ -2,9 +2,12 @@ package org.ovirt.engine.core.bll.storage.domain;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
@@ -21,6 +24,7 @@ import org.ovirt.engine.core.bll.CommandAssertUtils;
 import org.ovirt.engine.core.bll.ValidateTestUtils;
 import org.ovirt.engine.core.bll.ValidationResult;
 import org.ovirt.engine.core.bll.storage.connection.IStorageHelper;
+import org.ovirt.engine.core.bll.storage.ovfstore.OvfStoreManifest;
 import org.ovirt.engine.core.bll.validator.storage.StorageDomainToPoolRelationValidator;
 import org.ovirt.engine.core.common.action.RemoveStorageDomainParameters;
 import org.ovirt.engine.core.common.businessentities.StorageDomain;
@@ -56,6 +60,9 @@ public class RemoveStorageDomainCommandTest extends BaseCommandTest {
     @Mock
     private VDSBrokerFrontend vdsBrokerFrontend;
 
+    @Mock
+    private OvfStoreManifest ovfStoreManifest;
+
     private StorageDomain storageDomain;
 
     @BeforeEach
@@ -163,9 +170,11 @@ public class RemoveStorageDomainCommandTest extends BaseCommandTest {
             setUpFormatDomain(shouldFormatFail);
         }
 
+        clearInvocations(ovfStoreManifest);
         command.executeCommand();
 
         CommandAssertUtils.checkSucceeded(command, !shouldFormatFail);
+        verify(ovfStoreManifest, times(shouldFormatFail ? 0 : 1)).clear(storageDomain.getId());
     }
 
     private void setUpStorageHelper() {
@@ -0,0 +1,118 @@
+package org.ovirt.engine.core.bll.storage.ovfstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith(MockConfigExtension.class)
+public class OvfStoreManifestTest {
+
+    private static final int OVF_SIZE = 400 * 1024;
+
+    private final OvfStoreManifest manifest = new OvfStoreManifest();
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.OvfStoreManifestMaxSizeInMB, 1));
+    }
+
+    @Test
+    public void entryOfTheSameOvfIsReused() {
+        Guid id = Guid.newGuid();
+        OvfStoreManifest.Entry previous = OvfStoreManifest.createEntry(id, 1L, "<ovf/>", null);
+
+        OvfStoreManifest.Entry entry = OvfStoreManifest.createEntry(id, 2L, "<ovf/>", previous);
+
+        assertSame(previous.getEncoded(), entry.getEncoded());
+        assertEquals(2L, (long) entry.getGeneration());
+    }
+
+    @Test
+    public void entryOfAChangedOvfIsEncoded() {
+        Guid id = Guid.newGuid();
+        OvfStoreManifest.Entry previous = OvfStoreManifest.createEntry(id, 1L, "<ovf/>", null);
+
+        OvfStoreManifest.Entry entry = OvfStoreManifest.createEntry(id, 2L, "<ovf name=\"vm\"/>", previous);
+
+        assertNotSame(previous.getEncoded(), entry.getEncoded());
+    }
+
+    @Test
+    public void invalidatedEntriesAreRemovedFromAllDomains() {
+        Guid vmId = Guid.newGuid();
+        Guid otherVmId = Guid.newGuid();
+        Map<Guid, OvfStoreManifest.Entry> entries = new HashMap<>();
+        entries.put(vmId, OvfStoreManifest.createEntry(vmId, 1L, "<ovf/>", null));
+        entries.put(otherVmId, OvfStoreManifest.createEntry(otherVmId, 1L, "<ovf/>", null));
+        Guid firstDomainId = Guid.newGuid();
+        Guid secondDomainId = Guid.newGuid();
+        manifest.setEntries(firstDomainId, entries);
+        manifest.setEntries(secondDomainId, entries);
+
+        manifest.invalidate(Collections.singletonList(vmId));
+
+        assertEquals(Collections.singleton(otherVmId), manifest.getEntries(firstDomainId).keySet());
+        assertEquals(Collections.singleton(otherVmId), manifest.getEntries(secondDomainId).keySet());
+    }
+
+    @Test
+    public void clearedDomainHasNoEntries() {
+        Guid domainId = Guid.newGuid();
+        Guid vmId = Guid.newGuid();
+        manifest.setEntries(domainId,
+                Collections.singletonMap(vmId, OvfStoreManifest.createEntry(vmId, 1L, "<ovf/>", null)));
+
+        manifest.clear(domainId);
+
+        assertTrue(manifest.getEntries(domainId).isEmpty());
+    }
+
+    @Test
+    public void leastRecentlyUsedDomainIsDroppedWhenFull() {
+        Guid firstDomainId = Guid.newGuid();
+        Guid secondDomainId = Guid.newGuid();
+        Guid thirdDomainId = Guid.newGuid();
+        manifest.setEntries(firstDomainId, createLargeEntries());
+        manifest.setEntries(secondDomainId, createLargeEntries());
+        manifest.getEntries(firstDomainId);
+
+        manifest.setEntries(thirdDomainId, createLargeEntries());
+
+        assertFalse(manifest.getEntries(firstDomainId).isEmpty());
+        assertTrue(manifest.getEntries(secondDomainId).isEmpty());
+        assertFalse(manifest.getEntries(thirdDomainId).isEmpty());
+    }
+
+    @Test
+    public void entriesLargerThanTheManifestAreNotKept() {
+        Guid domainId = Guid.newGuid();
+        Map<Guid, OvfStoreManifest.Entry> entries = createLargeEntries();
+        entries.putAll(createLargeEntries());
+        entries.putAll(createLargeEntries());
+
+        manifest.setEntries(domainId, entries);
+
+        assertTrue(manifest.getEntries(domainId).isEmpty());
+    }
+
+    private static Map<Guid, OvfStoreManifest.Entry> createLargeEntries() {
+        Guid vmId = Guid.newGuid();
+        Map<Guid, OvfStoreManifest.Entry> entries = new HashMap<>();
+        entries.put(vmId, OvfStoreManifest.createEntry(vmId, 1L, StringUtils.repeat("x", OVF_SIZE), null));
+        return entries;
+    }
+}
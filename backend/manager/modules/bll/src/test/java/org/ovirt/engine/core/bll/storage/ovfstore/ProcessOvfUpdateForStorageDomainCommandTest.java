@@ -0,0 +1,158 @@
+package org.ovirt.engine.core.bll.storage.ovfstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.BaseCommandTest;
+import org.ovirt.engine.core.common.action.ProcessOvfUpdateParameters;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.UnregisteredOVFDataDao;
+import org.ovirt.engine.core.dao.VmAndTemplatesGenerationsDao;
+import org.ovirt.engine.core.dao.VmDynamicDao;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith(MockConfigExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ProcessOvfUpdateForStorageDomainCommandTest extends BaseCommandTest {
+
+    private static final Guid STORAGE_DOMAIN_ID = new Guid("2b4c6d8e-1f3a-4b5c-9d7e-8f0a1b2c3d01");
+
+    @Spy
+    @InjectMocks
+    private ProcessOvfUpdateForStorageDomainCommand<ProcessOvfUpdateParameters> command =
+            new ProcessOvfUpdateForStorageDomainCommand<>(new ProcessOvfUpdateParameters(null, STORAGE_DOMAIN_ID),
+                    null);
+
+    @Mock
+    private VmAndTemplatesGenerationsDao vmAndTemplatesGenerationsDao;
+
+    @Mock
+    private VmDynamicDao vmDynamicDao;
+
+    @Mock
+    private UnregisteredOVFDataDao unregisteredOVFDataDao;
+
+    @Spy
+    private OvfStoreManifest ovfStoreManifest = new OvfStoreManifest();
+
+    private final Guid vmId = Guid.newGuid();
+    private final Guid otherVmId = Guid.newGuid();
+    private final List<Guid> ids = Arrays.asList(vmId, otherVmId);
+    private final Map<Guid, Long> generations = new HashMap<>();
+    private final Map<Guid, String> ovfs = new HashMap<>();
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.OvfStoreManifestMaxSizeInMB, 1));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        doReturn("{}").when(command).generateInfoFileData();
+        setOvf(vmId, 1L, "<ovf name=\"vm\"/>");
+        setOvf(otherVmId, 1L, "<ovf name=\"other\"/>");
+        when(vmAndTemplatesGenerationsDao.loadOvfGenerationsForIds(anyList())).thenAnswer(invocation ->
+                invocation.<List<Guid>> getArgument(0).stream()
+                        .map(id -> new Pair<>(id, generations.get(id)))
+                        .collect(Collectors.toList()));
+        when(vmAndTemplatesGenerationsDao.loadOvfDataForIds(anyList())).thenAnswer(invocation ->
+                invocation.<List<Guid>> getArgument(0).stream()
+                        .map(id -> new Pair<>(id, ovfs.get(id)))
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void unchangedEntriesAreReused() {
+        command.buildOvfStoreEntries(ids);
+        byte[] vmEntry = entryOf(vmId);
+        byte[] otherVmEntry = entryOf(otherVmId);
+
+        List<byte[]> archiveEntries = command.buildOvfStoreEntries(ids);
+
+        // the info file, the OVFs of both VMs and the metadata file
+        assertEquals(4, archiveEntries.size());
+        assertSame(vmEntry, entryOf(vmId));
+        assertSame(otherVmEntry, entryOf(otherVmId));
+        assertArchived(archiveEntries, vmEntry, otherVmEntry);
+        verify(vmAndTemplatesGenerationsDao).loadOvfDataForIds(any());
+    }
+
+    @Test
+    public void onlyChangedEntriesAreLoaded() {
+        command.buildOvfStoreEntries(ids);
+        byte[] vmEntry = entryOf(vmId);
+        byte[] otherVmEntry = entryOf(otherVmId);
+        setOvf(vmId, 2L, "<ovf name=\"renamed\"/>");
+
+        List<byte[]> archiveEntries = command.buildOvfStoreEntries(ids);
+
+        verify(vmAndTemplatesGenerationsDao).loadOvfDataForIds(Collections.singletonList(vmId));
+        assertNotSame(vmEntry, entryOf(vmId));
+        assertSame(otherVmEntry, entryOf(otherVmId));
+        assertArchived(archiveEntries, entryOf(vmId), otherVmEntry);
+    }
+
+    @Test
+    public void newGenerationOfTheSameOvfKeepsItsEncoding() {
+        command.buildOvfStoreEntries(ids);
+        byte[] vmEntry = entryOf(vmId);
+        generations.put(vmId, 2L);
+
+        command.buildOvfStoreEntries(ids);
+
+        assertSame(vmEntry, entryOf(vmId));
+        assertEquals(2L, (long) ovfStoreManifest.getEntries(STORAGE_DOMAIN_ID).get(vmId).getGeneration());
+    }
+
+    @Test
+    public void invalidatedEntriesAreLoaded() {
+        command.buildOvfStoreEntries(ids);
+        ovfStoreManifest.invalidate(Collections.singletonList(otherVmId));
+
+        command.buildOvfStoreEntries(ids);
+
+        verify(vmAndTemplatesGenerationsDao).loadOvfDataForIds(Collections.singletonList(otherVmId));
+        verify(vmAndTemplatesGenerationsDao, never()).loadOvfDataForIds(Collections.singletonList(vmId));
+    }
+
+    private void setOvf(Guid id, long generation, String ovf) {
+        generations.put(id, generation);
+        ovfs.put(id, ovf);
+    }
+
+    private static void assertArchived(List<byte[]> archiveEntries, byte[]... entries) {
+        for (byte[] entry : entries) {
+            assertTrue(archiveEntries.stream().anyMatch(archiveEntry -> archiveEntry == entry));
+        }
+    }
+
+    private byte[] entryOf(Guid id) {
+        return ovfStoreManifest.getEntries(STORAGE_DOMAIN_ID).get(id).getEncoded();
+    }
+}
@@ -115,6 +115,9 @@ public class ProcessOvfUpdateForStoragePoolCommandTest extends BaseCommandTest {
     @Mock
     private OvfHelper ovfHelper;
 
+    @Mock
+    private OvfStoreManifest ovfStoreManifest;
+
     @Spy
     @InjectMocks
     private OvfUpdateProcessHelper ovfUpdateProcessHelper;
@@ -129,7 +132,8 @@ public class ProcessOvfUpdateForStoragePoolCommandTest extends BaseCommandTest {
     public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
         return Stream.of(
             MockConfigDescriptor.of(ConfigValues.StorageDomainOvfStoreCount, 1),
-            MockConfigDescriptor.of(ConfigValues.OvfItemsCountPerUpdate, ITEMS_COUNT_PER_UPDATE)
+            MockConfigDescriptor.of(ConfigValues.OvfItemsCountPerUpdate, ITEMS_COUNT_PER_UPDATE),
+            MockConfigDescriptor.of(ConfigValues.OvfStoreIncrementalUpdate, false)
         );
     }
 
@@ -0,0 +1,106 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.compat.Guid;
+
+public class CallbackTimingWheelTest {
+
+    private static final Guid CMD1 = new Guid("2b8b3d54-7b1e-4e8f-9d5c-4f1c2ab4ad01");
+    private static final Guid CMD2 = new Guid("2b8b3d54-7b1e-4e8f-9d5c-4f1c2ab4ad02");
+
+    private CallbackTimingWheel wheel;
+
+    @BeforeEach
+    public void setUp() {
+        wheel = new CallbackTimingWheel();
+    }
+
+    @Test
+    public void testCallbackIsDueAfterItsTicks() {
+        wheel.schedule(CMD1, 3);
+
+        assertTrue(wheel.advance().isEmpty());
+        assertTrue(wheel.advance().isEmpty());
+        assertEquals(Collections.singletonList(CMD1), wheel.advance());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testCallbacksOfSameTickAreDueInScheduleOrder() {
+        wheel.schedule(CMD2, 1);
+        wheel.schedule(CMD1, 1);
+
+        assertEquals(Arrays.asList(CMD2, CMD1), wheel.advance());
+    }
+
+    @Test
+    public void testCallbackBeyondRevolutionWaitsForItsRound() {
+        wheel.schedule(CMD1, 100);
+
+        assertEquals(99, advance(99));
+        assertEquals(Collections.singletonList(CMD1), wheel.advance());
+    }
+
+    @Test
+    public void testScheduleReplacesPreviousSchedule() {
+        wheel.schedule(CMD1, 1);
+        wheel.schedule(CMD1, 2);
+
+        assertTrue(wheel.advance().isEmpty());
+        assertEquals(Collections.singletonList(CMD1), wheel.advance());
+    }
+
+    @Test
+    public void testWakeUpBringsCallbackForward() {
+        wheel.schedule(CMD1, 10);
+
+        wheel.wakeUp(CMD1);
+
+        assertEquals(Collections.singletonList(CMD1), wheel.advance());
+    }
+
+    @Test
+    public void testWakeUpOfInvokedCallbackShortensItsNextSchedule() {
+        wheel.schedule(CMD1, 1);
+        List<Guid> due = wheel.advance();
+
+        wheel.wakeUp(CMD1);
+        wheel.schedule(due.get(0), 10);
+
+        assertEquals(Collections.singletonList(CMD1), wheel.advance());
+    }
+
+    @Test
+    public void testRemovedCallbackIsNotDue() {
+        wheel.schedule(CMD1, 1);
+        wheel.wakeUp(CMD2);
+
+        wheel.remove(CMD1);
+        wheel.remove(CMD2);
+        wheel.schedule(CMD2, 2);
+
+        assertTrue(wheel.advance().isEmpty());
+        assertEquals(Collections.singletonList(CMD2), wheel.advance());
+    }
+
+    /**
+     * @return the number of ticks which had no callback due
+     */
+    private int advance(int ticks) {
+        int empty = 0;
+        for (int i = 0; i < ticks; i++) {
+            if (wheel.advance().isEmpty()) {
+                empty++;
+            }
+        }
+        return empty;
+    }
+}
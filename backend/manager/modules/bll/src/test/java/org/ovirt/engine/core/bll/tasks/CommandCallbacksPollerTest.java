@@ -0,0 +1,183 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.tasks.interfaces.CommandCallback;
+import org.ovirt.engine.core.bll.tasks.interfaces.CommandContextsCache;
+import org.ovirt.engine.core.common.action.ActionParametersBase;
+import org.ovirt.engine.core.common.businessentities.CommandEntity;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.CommandStatus;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith({MockitoExtension.class, MockConfigExtension.class})
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class CommandCallbacksPollerTest {
+
+    private static final Guid ROOT1 = new Guid("5f0e4d1c-3a2b-4c8d-9e7f-6a5b4c3d2e01");
+    private static final Guid ROOT2 = new Guid("5f0e4d1c-3a2b-4c8d-9e7f-6a5b4c3d2e02");
+    private static final Guid ROOT3 = new Guid("5f0e4d1c-3a2b-4c8d-9e7f-6a5b4c3d2e03");
+
+    @Mock
+    private ManagedScheduledExecutorService executor;
+
+    @Mock
+    private ManagedExecutorService callbacksExecutor;
+
+    private final CommandsCache commandsCache = mock(CommandsCache.class);
+
+    @Spy
+    private CommandsRepository commandsRepository =
+            new CommandsRepository(commandsCache, mock(CommandContextsCache.class));
+
+    @InjectMocks
+    private CommandCallbacksPoller poller;
+
+    private ExecutorService pool;
+
+    private final List<String> invocations = Collections.synchronizedList(new ArrayList<>());
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.AsyncCommandPollingLoopInSeconds, 1L),
+                MockConfigDescriptor.of(ConfigValues.AsyncCommandPollingRateInSeconds, 10L),
+                MockConfigDescriptor.of(ConfigValues.RepeatEndMethodsOnFailMaxRetries, 5),
+                MockConfigDescriptor.of(ConfigValues.AsyncCommandCallbacksParallelism, 2),
+                MockConfigDescriptor.of(ConfigValues.CoCoLifeInMinutes, 3000)
+        );
+    }
+
+    @BeforeEach
+    public void setUp() {
+        poller.init();
+
+        pool = Executors.newFixedThreadPool(2);
+        when(callbacksExecutor.submit(any(Runnable.class)))
+                .thenAnswer(invocation -> pool.submit((Runnable) invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void commandsOfSameRootShareLaneInDueOrder() {
+        Guid first = addCommand(ROOT1);
+        Guid other = addCommand(ROOT2);
+        Guid second = addCommand(ROOT1);
+        Guid third = addCommand(ROOT3);
+
+        List<List<Guid>> lanes = poller.toLanes(Arrays.asList(first, other, second, third));
+
+        assertEquals(Arrays.asList(Arrays.asList(first, second, third), Collections.singletonList(other)), lanes);
+    }
+
+    @Test
+    public void commandWithoutRootIsItsOwnRoot() {
+        Guid root = addCommand(null);
+        Guid child = addCommand(root);
+
+        assertEquals(Collections.singletonList(Arrays.asList(root, child)), poller.toLanes(Arrays.asList(root, child)));
+    }
+
+    @Test
+    public void callbacksOfSameRootAreInvokedInDueOrderOnOneThread() {
+        List<Guid> root1Commands = Arrays.asList(addCommand(ROOT1), addCommand(ROOT1), addCommand(ROOT1));
+        List<Guid> root2Commands = Arrays.asList(addCommand(ROOT2), addCommand(ROOT2), addCommand(ROOT2));
+
+        poller.invokeCallbackMethodsImpl();
+
+        assertEquals(root1Commands, invokedCommands(ROOT1));
+        assertEquals(root2Commands, invokedCommands(ROOT2));
+        assertEquals(1, invokingThreads(ROOT1).size());
+        assertEquals(1, invokingThreads(ROOT2).size());
+    }
+
+    @Test
+    public void callbackIsNotDueWhileItIsInvoked() {
+        Guid cmdId = addCommand(ROOT1);
+        List<Guid> dueWhileInvoked = new ArrayList<>();
+        CommandCallback callback = commandsRepository.getCallbackTiming(cmdId).getCallback();
+        doAnswer(invocation -> {
+            // a child command changes its status while the callback of the command is invoked
+            commandsRepository.wakeUpCallback(cmdId);
+            dueWhileInvoked.addAll(commandsRepository.pollDueCallbacks());
+            return null;
+        }).when(callback).doPolling(eq(cmdId), anyList());
+
+        poller.invokeCallbackMethodsImpl();
+
+        assertFalse(dueWhileInvoked.contains(cmdId));
+        assertEquals(Collections.singletonList(cmdId), commandsRepository.pollDueCallbacks());
+    }
+
+    private Guid addCommand(Guid rootCmdId) {
+        Guid cmdId = Guid.newGuid();
+        CommandEntity cmdEntity = new CommandEntity();
+        cmdEntity.setId(cmdId);
+        cmdEntity.setRootCommandId(rootCmdId);
+        cmdEntity.setCommandStatus(CommandStatus.ACTIVE);
+        cmdEntity.setExecuted(true);
+        cmdEntity.setCreatedAt(new Date());
+        cmdEntity.setCommandParameters(new ActionParametersBase());
+        when(commandsCache.get(cmdId)).thenReturn(cmdEntity);
+
+        CommandCallback callback = mock(CommandCallback.class);
+        doAnswer(invocation -> {
+            invocations.add(rootCmdId + "/" + cmdId + "/" + Thread.currentThread().getName());
+            return null;
+        }).when(callback).doPolling(eq(cmdId), anyList());
+        commandsRepository.addToCallbackMap(cmdId, new CallbackTiming(callback, 1));
+        return cmdId;
+    }
+
+    private List<Guid> invokedCommands(Guid rootCmdId) {
+        return invocations.stream()
+                .map(invocation -> invocation.split("/"))
+                .filter(invocation -> invocation[0].equals(rootCmdId.toString()))
+                .map(invocation -> new Guid(invocation[1]))
+                .collect(Collectors.toList());
+    }
+
+    private List<String> invokingThreads(Guid rootCmdId) {
+        return invocations.stream()
+                .map(invocation -> invocation.split("/"))
+                .filter(invocation -> invocation[0].equals(rootCmdId.toString()))
+                .map(invocation -> invocation[2])
+                .distinct()
+                .collect(Collectors.toList());
+    }
+}
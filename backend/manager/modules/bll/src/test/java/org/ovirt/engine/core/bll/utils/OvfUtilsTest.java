@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.bll.utils;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -19,6 +20,7 @@ import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
 import org.ovirt.engine.core.common.businessentities.storage.UnregisteredDisk;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.utils.OvfUtils;
+import org.ovirt.engine.core.utils.ovf.OvfSummary;
 import org.ovirt.engine.core.utils.ovf.xml.XmlDocument;
 
 public class OvfUtilsTest {
@@ -60,6 +62,16 @@ public class OvfUtilsTest {
         assertFalse(memoryDisks.isEmpty(), "The list of memory disks for snapshot should not be empty");
     }
 
+    @Test
+    public void testOvfSummaryMatchesXmlDocument() throws Exception {
+        String ovfData = getXmlOvfData();
+        XmlDocument xmlDocument = new XmlDocument(ovfData);
+        OvfSummary ovfSummary = OvfSummary.read(ovfData);
+        assertEquals(ovfUtils.fetchVmDisks(xmlDocument), ovfSummary.getDiskIds());
+        assertEquals(ovfUtils.fetchMemoryDisks(xmlDocument), ovfSummary.getMemoryDiskIds());
+        assertEquals("0", ovfSummary.getOrigin());
+    }
+
     @Test
     public void testUpdateUnregisteredDisksWithVMsWithInitializedUnregDisks() throws Exception {
         XmlDocument xmlDocument = new XmlDocument(getXmlOvfData());
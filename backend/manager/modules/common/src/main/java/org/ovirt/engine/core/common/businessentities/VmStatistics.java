@@ -41,6 +41,24 @@ public class VmStatistics implements BusinessEntity<Guid>, Comparable<VmStatisti
         this.vmId = vmId;
     }
 
+    public VmStatistics(VmStatistics template) {
+        cpuSys = template.getCpuSys();
+        cpuUser = template.getCpuUser();
+        elapsedTime = template.getElapsedTime();
+        usageMemPercent = template.getUsageMemPercent();
+        migrationProgressPercent = template.getMigrationProgressPercent();
+        disksUsage = template.getDisksUsage();
+        usageNetworkPercent = template.getUsageNetworkPercent();
+        vmId = template.getId();
+        usageCpuPercent = template.getUsageCpuPercent();
+        guestMemoryCached = template.getGuestMemoryCached();
+        guestMemoryBuffered = template.getGuestMemoryBuffered();
+        guestMemoryFree = template.getGuestMemoryFree();
+        memoryUsageHistory = template.getMemoryUsageHistory();
+        cpuUsageHistory = template.getCpuUsageHistory();
+        networkUsageHistory = template.getNetworkUsageHistory();
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(
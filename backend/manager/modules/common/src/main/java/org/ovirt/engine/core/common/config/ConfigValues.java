@@ -5,6 +5,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
+import org.ovirt.engine.core.common.AuditLogSeverity;
 import org.ovirt.engine.core.common.EngineWorkingMode;
 import org.ovirt.engine.core.common.businessentities.SerialNumberPolicy;
 import org.ovirt.engine.core.compat.Version;
@@ -66,6 +67,13 @@ public enum ConfigValues {
     @TypeConverterAttribute(Long.class)
     AsyncCommandPollingRateInSeconds,
 
+    /**
+     * Maximal number of root commands whose callbacks are invoked in parallel by a tick of the command callbacks
+     * poller. 1 invokes all the callbacks on the poller thread.
+     */
+    @TypeConverterAttribute(Integer.class)
+    AsyncCommandCallbacksParallelism,
+
     /**
      * The rate (in seconds) to refresh the cache that holds the asynchronous tasks' statuses.
      */
@@ -85,6 +93,41 @@ public enum ConfigValues {
     @Reloadable
     @TypeConverterAttribute(Integer.class)
     AuditLogAgingThreshold,
+
+    /**
+     * Whether audit log events are written to the database by a background writer in batches, instead of on the
+     * thread which logged them.
+     */
+    @TypeConverterAttribute(Boolean.class)
+    AuditLogAsyncWriterEnabled,
+
+    /**
+     * Maximal number of audit log events waiting for the background writer, further events are dropped.
+     */
+    @TypeConverterAttribute(Integer.class)
+    AuditLogWriterQueueSize,
+
+    /**
+     * Maximal number of audit log events the background writer inserts in one batch.
+     */
+    @TypeConverterAttribute(Integer.class)
+    AuditLogWriterMaxBatchSize,
+
+    /**
+     * Audit log events of this severity or higher are never dropped, the thread which logged them waits until they
+     * are written to the database.
+     */
+    @Reloadable
+    @TypeConverterAttribute(AuditLogSeverity.class)
+    AuditLogSyncMinSeverity,
+
+    /**
+     * Time in seconds the thread which logged an audit log event waits for the background writer to write it, before
+     * it writes the event by itself.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    AuditLogWriterSyncTimeoutInSeconds,
     @Reloadable
     @TypeConverterAttribute(Integer.class)
     CoCoLifeInMinutes,
@@ -140,6 +183,19 @@ public enum ConfigValues {
     @Reloadable
     @TypeConverterAttribute(Integer.class)
     SearchResultsLimit(ClientAccessLevel.User),
+
+    /**
+     * Maximal number of parsed search expressions kept in the search query cache, the least recently used are evicted.
+     */
+    @TypeConverterAttribute(Integer.class)
+    SearchQueryCacheMaxEntries,
+
+    /**
+     * Time a parsed search expression is kept in the search query cache before it is parsed again.
+     */
+    @TypeConverterAttribute(Integer.class)
+    SearchQueryCacheTimeToLiveInMinutes,
+
     @Reloadable
     @TypeConverterAttribute(Integer.class)
     VDSAttemptsToResetCount,
@@ -204,6 +260,79 @@ public enum ConfigValues {
     MaxNumOfThreadsPerCpu(ClientAccessLevel.User),
     @TypeConverterAttribute(Integer.class)
     NumberVmRefreshesBeforeSave,
+
+    /**
+     * Whether the data collected by VMs monitoring of all hosts is written to the database by a single
+     * writer thread, which coalesces the flushes of many hosts into one transaction.
+     */
+    @TypeConverterAttribute(Boolean.class)
+    VmsMonitoringAggregatedWriterEnabled,
+
+    /**
+     * Maximal number of host flushes waiting for the aggregated VMs monitoring writer, monitoring of
+     * further hosts waits until there is room in the queue.
+     */
+    @TypeConverterAttribute(Integer.class)
+    VmsMonitoringWriterQueueSize,
+
+    /**
+     * Number of rows after which the aggregated VMs monitoring writer stops adding host flushes to a batch.
+     */
+    @TypeConverterAttribute(Integer.class)
+    VmsMonitoringWriterMaxBatchRows,
+
+    /**
+     * Number of seconds the VMs monitoring of a host waits for the aggregated writer to take its data, after
+     * which the monitoring saves the data itself.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    VmsMonitoringWriterTimeoutInSeconds,
+
+    /**
+     * Whether VMs monitoring skips saving the dynamic data and statistics of VMs which did not change since
+     * they were last saved.
+     */
+    @TypeConverterAttribute(Boolean.class)
+    VmsMonitoringSkipUnchangedRows,
+
+    /**
+     * Maximal number of monitoring cycles in a row the statistics of a VM are not saved when only their elapsed
+     * time and usage histories changed.
+     */
+    @TypeConverterAttribute(Integer.class)
+    VmsMonitoringMaxSkippedStatisticsSaves,
+
+    /**
+     * The VDSM verbs whose responses are decoded directly into the engine entities, instead of into nested maps.
+     * Supported for {@code Host.getAllVmStats} and {@code VM.getStats}.
+     */
+    @Reloadable
+    @TypeConverterAttribute(List.class)
+    @OptionBehaviourAttribute(behaviour = OptionBehaviour.CommaSeparatedStringArray)
+    VdsmTypedDecodingVerbs,
+
+    /**
+     * The maximal number of hosts a VDS command that is sent to many hosts at once is running on at the same time.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    VdsCommandFanOutMaxInFlight,
+
+    /**
+     * Maximal factor by which the refresh rate of the VMs of a host is stretched while neither their dynamic data nor
+     * their statistics change. The status of the host is always refreshed at the base rate. 1 disables the
+     * stretching.
+     */
+    @TypeConverterAttribute(Integer.class)
+    VdsRefreshRateMaxStretchFactor,
+
+    /**
+     * Number of refreshes in a row without changes after which the refresh rate of the VMs of a host is stretched.
+     */
+    @TypeConverterAttribute(Integer.class)
+    NumberStableRefreshesBeforeStretch,
+
     @TypeConverterAttribute(Integer.class)
     NumberVdsRefreshesBeforeTryToStartUnknownVms,
     @TypeConverterAttribute(Integer.class)
@@ -274,6 +403,45 @@ public enum ConfigValues {
     @Reloadable
     @TypeConverterAttribute(Boolean.class)
     IsMultilevelAdministrationOn,
+
+    /**
+     * Whether the engine caches the permissions found when checking the authorization of users to run commands.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Boolean.class)
+    PermissionCacheEnabled,
+
+    /**
+     * Time a cached permission check is used before the permissions are checked in the database again.
+     */
+    @TypeConverterAttribute(Integer.class)
+    PermissionCacheTimeToLiveInSeconds,
+
+    /**
+     * Maximal number of permission checks kept in the permission cache.
+     */
+    @TypeConverterAttribute(Integer.class)
+    PermissionCacheMaxEntries,
+
+    /**
+     * Whether the engine caches the results of the queries that return reference data changed only by commands.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Boolean.class)
+    QueryResultCacheEnabled,
+
+    /**
+     * Time a cached query result is used before the query is executed again.
+     */
+    @TypeConverterAttribute(Integer.class)
+    QueryResultCacheTimeToLiveInSeconds,
+
+    /**
+     * Maximal number of query results kept in the query result cache.
+     */
+    @TypeConverterAttribute(Integer.class)
+    QueryResultCacheMaxEntries,
+
     @Reloadable
     @TypeConverterAttribute(Long.class)
     VdsRecoveryTimeoutInMinutes,
@@ -302,6 +470,30 @@ public enum ConfigValues {
     @TypeConverterAttribute(Long.class)
     VdsLoadBalancingIntervalInMinutes,
 
+    /**
+     * Whether the load balancing job skips the clusters whose host load did not change since the last run.
+     */
+    @TypeConverterAttribute(Boolean.class)
+    VdsLoadBalancingEventDriven,
+
+    /**
+     * Change of the host CPU usage (in percent) that triggers load balancing of its cluster.
+     */
+    @TypeConverterAttribute(Integer.class)
+    VdsLoadBalancingCpuDeltaThreshold,
+
+    /**
+     * Change of the host free memory (in MB) that triggers load balancing of its cluster.
+     */
+    @TypeConverterAttribute(Integer.class)
+    VdsLoadBalancingMemoryDeltaThresholdInMB,
+
+    /**
+     * Maximal number of load balancing runs an unchanged cluster is skipped.
+     */
+    @TypeConverterAttribute(Integer.class)
+    VdsLoadBalancingMaxSkippedIntervals,
+
     //AffinityRulesEnforcementManager
     @TypeConverterAttribute(Long.class)
     AffinityRulesEnforcementManagerRegularInterval,
@@ -474,6 +666,23 @@ public enum ConfigValues {
     @TypeConverterAttribute(Integer.class)
     OvfItemsCountPerUpdate,
 
+    /**
+     * Whether the OVFs of the VMs and templates are generated in parallel, and the OVF_STORE archive of each storage
+     * domain is built out of the entries of its previous archive, replacing only the entries of the OVFs that changed.
+     * The entries of the last archive of each storage domain are kept in memory.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Boolean.class)
+    OvfStoreIncrementalUpdate,
+
+    /**
+     * The maximal size of the OVF_STORE entries kept in memory when the OVF_STORE archives are updated incrementally.
+     * The entries of the least recently updated storage domains are dropped first.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    OvfStoreManifestMaxSizeInMB,
+
     @TypeConverterAttribute(String.class)
     DefaultWindowsTimeZone(ClientAccessLevel.Admin),
 
@@ -1135,6 +1344,39 @@ public enum ConfigValues {
     @TypeConverterAttribute(Integer.class)
     SchedulerOverBookingThreshold(ClientAccessLevel.Admin),
 
+    /**
+     * Evaluate host independent filter and weight policy units over partitions of the host list in parallel.
+     */
+    @TypeConverterAttribute(Boolean.class)
+    SchedulerParallelEvaluationEnabled,
+
+    /**
+     * Number of threads used for the parallel evaluation of policy units.
+     */
+    @TypeConverterAttribute(Integer.class)
+    SchedulerParallelEvaluationThreads,
+
+    /**
+     * Minimal number of candidate hosts for which the policy units are evaluated in parallel.
+     */
+    @TypeConverterAttribute(Integer.class)
+    SchedulerParallelEvaluationHostThreshold,
+
+    /**
+     * Whether VMs started together by a multiple RunVm action are placed by a single batch
+     * scheduling pass per cluster.
+     */
+    @TypeConverterAttribute(Boolean.class)
+    SchedulerBatchSchedulingEnabled,
+
+    /**
+     * Whether scores of the weight units that depend only on the host and the VM shape are reused
+     * for VMs of the same shape until the host statistics or pending resources change.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Boolean.class)
+    SchedulerScoreCacheEnabled,
+
     @TypeConverterAttribute(Boolean.class)
     GlusterSupportArbiterVolume,
 
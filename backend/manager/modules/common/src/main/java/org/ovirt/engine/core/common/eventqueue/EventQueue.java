@@ -1,7 +1,10 @@
 package org.ovirt.engine.core.common.eventqueue;
 
+import java.util.Set;
 import java.util.concurrent.Callable;
 
+import org.ovirt.engine.core.compat.Guid;
+
 public interface EventQueue {
 
     /**
@@ -21,4 +24,13 @@ public interface EventQueue {
      */
     EventResult submitEventSync(Event event, Callable<EventResult> callable);
 
+    /**
+     * The following method checks if an event of one of the given types is being executed, or waits to be executed,
+     * for the given pool. Work that is done outside of the queue can use it in order to be skipped like the events
+     * that are skipped while those events run
+     * @param storagePoolId - the pool of the events
+     * @param eventTypes - the types of the events
+     */
+    boolean isEventInProgress(Guid storagePoolId, Set<EventType> eventTypes);
+
 }
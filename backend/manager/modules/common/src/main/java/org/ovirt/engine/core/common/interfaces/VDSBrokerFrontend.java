@@ -1,5 +1,8 @@
 package org.ovirt.engine.core.common.interfaces;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.ovirt.engine.core.common.businessentities.IVdsAsyncCommand;
 import org.ovirt.engine.core.common.vdscommands.FutureVDSCommandType;
 import org.ovirt.engine.core.common.vdscommands.VDSCommandType;
@@ -13,6 +16,15 @@ public interface VDSBrokerFrontend {
 
     VDSReturnValue runVdsCommand(VDSCommandType commandType, VDSParametersBase parameters);
 
+    /**
+     * Runs the given command on many hosts at the same time. Unlike {@link #runVdsCommand}, failures are not thrown,
+     * they are reported in the return value of each host.
+     *
+     * @return the return values of the command by the id of the host, in the order of the given parameters
+     */
+    Map<Guid, VDSReturnValue> runVdsCommandOnHosts(VDSCommandType commandType,
+            Collection<? extends VdsIdVDSCommandParametersBase> parameters);
+
     VDSReturnValue runAsyncVdsCommand(VDSCommandType commandType,
             VdsAndVmIDVDSParametersBase parameters, IVdsAsyncCommand command);
 
@@ -1,6 +1,7 @@
 package org.ovirt.engine.core.common.queries;
 
 import java.io.Serializable;
+import java.util.Set;
 
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
@@ -39,6 +40,12 @@ public class QueryParametersBase implements Serializable, HasCorrelationId {
     @Size(min = 1, max = BusinessEntitiesDefinitions.CORRELATION_ID_SIZE, groups = PreRun.class)
     private String correlationId;
 
+    /**
+     * The names of the fields of the returned entities that the caller needs, or {@code null} if it needs all of
+     * them. Queries may use it to skip loading information that won't be used.
+     */
+    private Set<String> fields;
+
     public QueryParametersBase() {
         refresh = false;
     }
@@ -93,9 +100,25 @@ public class QueryParametersBase implements Serializable, HasCorrelationId {
         this.isFiltered = isFiltered;
     }
 
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    public void setFields(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Checks if the caller needs the given field of the returned entities.
+     */
+    public boolean isFieldRequested(String field) {
+        return fields == null || fields.contains(field);
+    }
+
     protected ToStringBuilder appendAttributes(ToStringBuilder tsb) {
         return tsb.append("refresh", refresh)
-                .append("filtered", isFiltered);
+                .append("filtered", isFiltered)
+                .append("fields", fields);
     }
 
     @Override
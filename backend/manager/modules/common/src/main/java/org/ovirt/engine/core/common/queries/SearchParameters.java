@@ -12,6 +12,7 @@ public class SearchParameters extends QueryParametersBase implements Serializabl
     private SearchType _searchType;
     private int _maxCount;
     private long searchFrom;
+    private String searchAfter;
     private boolean caseSensitive;
 
     public SearchParameters() {
@@ -53,6 +54,18 @@ public class SearchParameters extends QueryParametersBase implements Serializabl
         return searchFrom;
     }
 
+    /**
+     * Sets the primary key of the last entity of the previous page, requesting keyset paging sorted by primary key.
+     * An empty value requests the first page.
+     */
+    public void setSearchAfter(String value) {
+        searchAfter = value;
+    }
+
+    public String getSearchAfter() {
+        return searchAfter;
+    }
+
     public boolean getCaseSensitive() {
         return caseSensitive;
     }
@@ -68,6 +81,7 @@ public class SearchParameters extends QueryParametersBase implements Serializabl
                 .append("searchPattern", getSearchPattern())
                 .append("caseSensitive", getCaseSensitive())
                 .append("from", getSearchFrom())
+                .append("after", getSearchAfter())
                 .append("max", getMaxCount());
     }
 }
@@ -0,0 +1,82 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes a bulk update of many rows of a table, done by copying the rows into a temporary table and merging
+ * them into the table by a single statement, instead of calling an update procedure per row.
+ *
+ * The columns of the temporary table are named as the parameters of the update procedure, so the same
+ * {@link MapSqlParameterMapper} serves both. The procedure is used when the rows are too few to be worth the
+ * overhead of the bulk update, or when the database connection does not support it.
+ *
+ * @see SimpleJdbcCallsHandler#executeBulkUpdate(BulkUpdate, java.util.Collection, MapSqlParameterMapper)
+ */
+public final class BulkUpdate {
+
+    private final String procedureName;
+    private final String tempTableName;
+    private final Map<String, String> columns = new LinkedHashMap<>();
+    private final List<String> statements = new ArrayList<>();
+
+    /**
+     * @param procedureName
+     *            the update procedure of a single row
+     * @param tempTableName
+     *            the temporary table the rows are copied into
+     */
+    public BulkUpdate(String procedureName, String tempTableName) {
+        this.procedureName = procedureName;
+        this.tempTableName = tempTableName;
+    }
+
+    /**
+     * Adds a column of the temporary table, named as the matching procedure parameter without its prefix
+     */
+    public BulkUpdate column(String name, String sqlType) {
+        columns.put(name, sqlType);
+        return this;
+    }
+
+    /**
+     * Adds a statement executed after the rows are copied into the temporary table. The statements are executed
+     * in the order they were added.
+     */
+    public BulkUpdate statement(String sql) {
+        statements.add(sql);
+        return this;
+    }
+
+    public String getProcedureName() {
+        return procedureName;
+    }
+
+    public String getTempTableName() {
+        return tempTableName;
+    }
+
+    public Map<String, String> getColumns() {
+        return Collections.unmodifiableMap(columns);
+    }
+
+    public List<String> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    String getCreateTempTableCommand() {
+        StringBuilder sql = new StringBuilder("CREATE TEMPORARY TABLE IF NOT EXISTS ")
+                .append(tempTableName)
+                .append(" (");
+        columns.forEach((name, type) -> sql.append(name).append(' ').append(type).append(", "));
+        sql.setLength(sql.length() - 2);
+        return sql.append(')').toString();
+    }
+
+    String getCopyCommand() {
+        return "COPY " + tempTableName + " (" + String.join(", ", columns.keySet()) + ") FROM STDIN";
+    }
+}
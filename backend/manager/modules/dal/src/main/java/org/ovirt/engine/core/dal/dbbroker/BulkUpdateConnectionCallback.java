@@ -0,0 +1,161 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.ovirt.engine.core.utils.SerializationFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+/**
+ * Executes a {@link BulkUpdate}: streams the rows into its temporary table by PostgreSQL COPY and executes its
+ * statements. Returns {@code false}, without doing anything, if the connection does not support COPY.
+ */
+public final class BulkUpdateConnectionCallback implements ConnectionCallback<Boolean> {
+    private static final Logger log = LoggerFactory.getLogger(BulkUpdateConnectionCallback.class);
+    private static final String NULL = "\\N";
+
+    private final BulkUpdate bulkUpdate;
+    private final List<MapSqlParameterSource> rows;
+    private final String paramNamePrefix;
+
+    public BulkUpdateConnectionCallback(BulkUpdate bulkUpdate,
+            List<MapSqlParameterSource> rows,
+            String paramNamePrefix) {
+        this.bulkUpdate = bulkUpdate;
+        this.rows = rows;
+        this.paramNamePrefix = paramNamePrefix;
+    }
+
+    @Override
+    public Boolean doInConnection(Connection con) throws SQLException, DataAccessException {
+        if (!con.isWrapperFor(PGConnection.class)) {
+            log.debug("Connection does not support COPY, bulk update into '{}' is not possible",
+                    bulkUpdate.getTempTableName());
+            return false;
+        }
+
+        log.debug("Executing bulk update of {} rows into '{}'", rows.size(), bulkUpdate.getTempTableName());
+        try (Statement stmt = con.createStatement()) {
+            stmt.execute(bulkUpdate.getCreateTempTableCommand());
+            // the temporary table lives as long as the pooled connection, clear rows left by a previous use
+            stmt.execute("TRUNCATE " + bulkUpdate.getTempTableName());
+            copyRows(con.unwrap(PGConnection.class));
+            for (String statement : bulkUpdate.getStatements()) {
+                stmt.execute(statement);
+            }
+            log.debug("Executed bulk update");
+        } catch (SQLException e) {
+            log.error("Can't execute bulk update into '{}': {}", bulkUpdate.getTempTableName(), e.getMessage());
+            log.debug("Exception", e);
+            throw e;
+        }
+
+        return true;
+    }
+
+    private void copyRows(PGConnection con) throws SQLException {
+        CopyIn copyIn = con.getCopyAPI().copyIn(bulkUpdate.getCopyCommand());
+        try {
+            StringBuilder line = new StringBuilder();
+            for (MapSqlParameterSource row : rows) {
+                line.setLength(0);
+                appendRow(line, row.getValues());
+                byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+            }
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * Appends the values of the row in the text format of COPY, ordered as the columns of the bulk update
+     */
+    void appendRow(StringBuilder line, Map<String, Object> values) {
+        boolean first = true;
+        for (Map.Entry<String, String> column : bulkUpdate.getColumns().entrySet()) {
+            if (!first) {
+                line.append('\t');
+            }
+            first = false;
+
+            Object value = values.get(column.getKey());
+            if (value == null) {
+                value = values.get(paramNamePrefix + column.getKey());
+            }
+            if (value == null && "BOOLEAN".equalsIgnoreCase(column.getValue())) {
+                // as the batch procedure calls do
+                value = false;
+            }
+            appendValue(line, toCopyValue(value));
+        }
+        line.append('\n');
+    }
+
+    private static Object toCopyValue(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.getClass().isEnum()) {
+            try {
+                Method method = value.getClass().getMethod("getValue");
+                return method.invoke(value);
+            } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException ex) {
+                log.error("Error mapping enum type '{}': {}", value, ex.getMessage());
+                log.debug("Exception", ex);
+                return null;
+            }
+        }
+        if (value instanceof Date && !(value instanceof Timestamp)) {
+            return new Timestamp(((Date) value).getTime());
+        }
+        if (value instanceof Map) {
+            return SerializationFactory.getSerializer().serialize(value);
+        }
+        return value;
+    }
+
+    private static void appendValue(StringBuilder line, Object value) {
+        if (value == null) {
+            line.append(NULL);
+            return;
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+            case '\\':
+                line.append("\\\\");
+                break;
+            case '\t':
+                line.append("\\t");
+                break;
+            case '\n':
+                line.append("\\n");
+                break;
+            case '\r':
+                line.append("\\r");
+                break;
+            default:
+                line.append(c);
+            }
+        }
+    }
+}
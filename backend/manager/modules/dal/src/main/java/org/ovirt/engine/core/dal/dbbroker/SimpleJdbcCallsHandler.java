@@ -23,6 +23,11 @@ public class SimpleJdbcCallsHandler {
 
     private static final String RETURN_VALUE_PARAMETER = "RETURN_VALUE";
 
+    /**
+     * Below this number of rows a batch of procedure calls is faster than copying the rows to a temporary table
+     */
+    static final int BULK_UPDATE_MIN_ROWS = 50;
+
     private final ConcurrentMap<String, SimpleJdbcCall> callsMap = new ConcurrentHashMap<>();
 
     private final DbEngineDialect dialect;
@@ -72,6 +77,25 @@ public class SimpleJdbcCallsHandler {
         executeStoredProcAsBatch(procedureName, sqlParams);
     }
 
+    /**
+     * Updates many rows by a {@link BulkUpdate}. Falls back to calling the update procedure of the bulk update in a
+     * batch when there are less than {@link #BULK_UPDATE_MIN_ROWS} rows or the database does not support it.
+     * @param bulkUpdate the bulk update to execute
+     * @param paramValues list of objects to be converted to {@link MapSqlParameterSource}
+     * @param mapper mapper to use to convert the param value objects to {@link MapSqlParameterSource}
+     */
+    public <T> void executeBulkUpdate(BulkUpdate bulkUpdate,
+            Collection<T> paramValues,
+            MapSqlParameterMapper<T> mapper) {
+        List<MapSqlParameterSource> sqlParams = paramValues.stream().map(mapper::map).collect(Collectors.toList());
+
+        if (sqlParams.size() < BULK_UPDATE_MIN_ROWS
+                || !Boolean.TRUE.equals(jdbcTemplate.execute(
+                        new BulkUpdateConnectionCallback(bulkUpdate, sqlParams, dialect.getParamNamePrefix())))) {
+            executeStoredProcAsBatch(bulkUpdate.getProcedureName(), sqlParams);
+        }
+    }
+
     public Map<String, Object> executeModification(final String procedureName, final MapSqlParameterSource paramSource) {
         return executeImpl(procedureName, paramSource, createCallForModification(procedureName));
     }
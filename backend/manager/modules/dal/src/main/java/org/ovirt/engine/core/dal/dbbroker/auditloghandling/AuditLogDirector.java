@@ -6,10 +6,11 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.apache.commons.lang.StringUtils;
+import org.ovirt.engine.core.common.AuditLogSeverity;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.common.businessentities.AuditLog;
-import org.ovirt.engine.core.dao.AuditLogDao;
-import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,7 +20,7 @@ public class AuditLogDirector {
     private static final int USERNAME_LENGTH = 255;
 
     @Inject
-    private AuditLogDao auditLogDao;
+    private AuditLogWriter auditLogWriter;
 
     public void log(AuditLogable auditLogable, AuditLogType logType) {
         log(auditLogable, logType, "");
@@ -45,31 +46,31 @@ public class AuditLogDirector {
 
         EventFloodRegulator eventFloodRegulator = new EventFloodRegulator(auditLogable, logType);
         if (eventFloodRegulator.isLegal()) {
-            AuditLog savedAuditLog = saveToDb(auditLogable, logType, message);
-            if (savedAuditLog == null) {
+            AuditLog auditLog = create(auditLogable, logType, message);
+            if (auditLog == null) {
                 log.warn("Unable to create AuditLog");
-            } else {
-                logMessage(savedAuditLog);
+                return;
             }
-        }
-    }
 
-    private AuditLog saveToDb(AuditLogable auditLogable, AuditLogType logType, String loggerString) {
-        AuditLog auditLog = create(auditLogable, logType, loggerString);
+            auditLogable.setPropertiesForAuditLog(auditLog);
+            // truncate user name
+            auditLog.setUserName(StringUtils.abbreviate(auditLog.getUserName(), USERNAME_LENGTH));
 
-        if (auditLog == null) {
-            return null;
+            if (!auditLogWriter.write(auditLog, isWaitForWrite(auditLogable, auditLog))) {
+                // the event was not saved, so it should not prevent the next one from being saved
+                eventFloodRegulator.evict();
+            }
+            logMessage(auditLog);
         }
+    }
 
-        auditLogable.setPropertiesForAuditLog(auditLog);
-        // truncate user name
-        auditLog.setUserName(StringUtils.abbreviate(auditLog.getUserName(), USERNAME_LENGTH));
-
-        TransactionSupport.executeInNewTransaction(() -> {
-            auditLogDao.save(auditLog);
-            return null;
-        });
-        return auditLog;
+    /**
+     * External events are read back by their origin right after they are logged, and events of the configured
+     * severity should not be lost, so the logging thread waits for these to be written.
+     */
+    private boolean isWaitForWrite(AuditLogable auditLogable, AuditLog auditLog) {
+        AuditLogSeverity minSeverity = Config.getValue(ConfigValues.AuditLogSyncMinSeverity);
+        return auditLogable.isExternal() || auditLog.getSeverity().getValue() >= minSeverity.getValue();
     }
 
     private void logMessage(AuditLog auditLog) {
@@ -0,0 +1,357 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.common.businessentities.AuditLog;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.dao.AuditLogDao;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+import org.ovirt.engine.core.utils.transaction.TransactionMethod;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes audit log events to the database.
+ *
+ * The events are queued to a single writer thread, which inserts the events waiting in the queue in one batch,
+ * so the threads which log events do not wait for the database. When the queue is full further events are dropped,
+ * except for the events the logging thread waits for, which wait for room in the queue. As those events are queued
+ * with the others, they are written after the events which were logged before them. If the writer does not take such
+ * an event in {@link ConfigValues#AuditLogWriterSyncTimeoutInSeconds}, the logging thread writes it by itself, ahead
+ * of the events still waiting in the queue.
+ *
+ * If a batch fails, its events are written one by one, so a single bad event does not lose the rest of the batch.
+ */
+@Singleton
+public class AuditLogWriter implements AuditLogWriterMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    @Inject
+    private AuditLogDao auditLogDao;
+
+    private BlockingQueue<PendingAuditLog> queue;
+    private int maxBatchSize;
+    private final AtomicBoolean writerStarted = new AtomicBoolean();
+    private final AtomicBoolean dropping = new AtomicBoolean();
+    private volatile boolean running = true;
+
+    private final LongAdder queuedEvents = new LongAdder();
+    private final LongAdder writtenEvents = new LongAdder();
+    private final LongAdder writtenBatches = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LongAdder failedEvents = new LongAdder();
+    private final LongAccumulator maxQueueSize = new LongAccumulator(Math::max, 0);
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    public void init() {
+        queue = new LinkedBlockingQueue<>(Config.<Integer> getValue(ConfigValues.AuditLogWriterQueueSize));
+        maxBatchSize = Config.<Integer> getValue(ConfigValues.AuditLogWriterMaxBatchSize);
+        try {
+            objectName = new ObjectName("AuditLogWriter:type=" + this.getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            log.debug("Problem during registration of AuditLogWriter into JMX: {}", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            platformMBeanServer.unregisterMBean(this.objectName);
+        } catch (Exception e) {
+            log.debug("Problem during unregistration of AuditLogWriter into JMX: {}", e);
+        }
+    }
+
+    /**
+     * Writes the audit log event to the database
+     *
+     * @param auditLog
+     *            the event to write
+     * @param waitForWrite
+     *            whether to wait until the event is written, such an event is never dropped
+     * @return {@code false} if the event was dropped because the queue of the writer is full
+     */
+    public boolean write(AuditLog auditLog, boolean waitForWrite) {
+        if (!Config.<Boolean> getValue(ConfigValues.AuditLogAsyncWriterEnabled)
+                || !running
+                || !startWriter()) {
+            writeDirectly(auditLog);
+            return true;
+        }
+
+        PendingAuditLog pending = new PendingAuditLog(auditLog);
+        if (!waitForWrite) {
+            if (!queue.offer(pending)) {
+                droppedEvents.increment();
+                if (dropping.compareAndSet(false, true)) {
+                    log.warn("The queue of the audit log writer is full, audit log events are dropped");
+                }
+                return false;
+            }
+            queued();
+            return true;
+        }
+
+        try {
+            long timeout = TimeUnit.SECONDS.toNanos(Config.<Integer> getValue(
+                    ConfigValues.AuditLogWriterSyncTimeoutInSeconds));
+            long deadline = System.nanoTime() + timeout;
+            if (queue.offer(pending, timeout, TimeUnit.NANOSECONDS)) {
+                queued();
+                if (pending.await(deadline - System.nanoTime())) {
+                    return true;
+                }
+            }
+            if (pending.cancel()) {
+                log.warn("The audit log writer did not write the event in time, writing it directly");
+                writeDirectly(auditLog);
+                return true;
+            }
+            // the writer took the event already, so it is written or failed as soon as its batch is
+            pending.await(Long.MAX_VALUE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the audit log writer", e);
+        }
+        return true;
+    }
+
+    private void writeDirectly(AuditLog auditLog) {
+        executeInNewTransaction(() -> {
+            auditLogDao.save(auditLog);
+            return null;
+        });
+        writtenEvents.increment();
+    }
+
+    private void queued() {
+        queuedEvents.increment();
+        maxQueueSize.accumulate(queue.size());
+    }
+
+    private boolean startWriter() {
+        if (writerStarted.get() || !writerStarted.compareAndSet(false, true)) {
+            return true;
+        }
+        try {
+            ThreadPoolUtil.execute(this::writeLoop);
+            return true;
+        } catch (RejectedExecutionException e) {
+            writerStarted.set(false);
+            return false;
+        }
+    }
+
+    /**
+     * Writes the queued events until the writer is shut down. Should the loop end unexpectedly, the writer is started
+     * again by the next event which is written.
+     */
+    private void writeLoop() {
+        log.info("Audit log writer started");
+        try {
+            while (running || !queue.isEmpty()) {
+                List<PendingAuditLog> batch = new ArrayList<>();
+                try {
+                    PendingAuditLog pending = queue.poll(1, TimeUnit.SECONDS);
+                    while (pending != null) {
+                        if (pending.take()) {
+                            batch.add(pending);
+                        }
+                        pending = batch.size() < maxBatchSize ? queue.poll() : null;
+                    }
+                    if (batch.isEmpty()) {
+                        continue;
+                    }
+                    writeBatch(batch);
+                    if (queue.isEmpty() && dropping.compareAndSet(true, false)) {
+                        log.info("The audit log writer caught up, audit log events are no longer dropped");
+                    }
+                } catch (InterruptedException e) {
+                    log.debug("Audit log writer was interrupted");
+                } catch (Throwable t) {
+                    log.error("Unexpected failure of audit log writer: {}", t.getMessage());
+                    log.debug("Exception", t);
+                    // release the threads waiting for the events of the batch
+                    RuntimeException failure = new RuntimeException("Failed to write audit log event", t);
+                    batch.forEach(pending -> pending.failed(failure));
+                }
+            }
+        } finally {
+            writerStarted.set(false);
+            log.info("Audit log writer stopped");
+        }
+    }
+
+    void writeBatch(List<PendingAuditLog> batch) {
+        try {
+            executeInNewTransaction(() -> {
+                auditLogDao.saveAll(batch.stream().map(PendingAuditLog::getAuditLog).collect(Collectors.toList()));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                log.error("Failed to write audit log event '{}': {}",
+                        batch.get(0).getAuditLog().getMessage(),
+                        e.getMessage());
+                log.debug("Exception", e);
+                failedEvents.increment();
+                batch.get(0).failed(e);
+                return;
+            }
+            log.warn("Failed to write {} audit log events together, writing them separately: {}",
+                    batch.size(),
+                    e.getMessage());
+            log.debug("Exception", e);
+            batch.forEach(pending -> writeBatch(Collections.singletonList(pending)));
+            return;
+        }
+
+        batch.forEach(PendingAuditLog::written);
+        writtenEvents.add(batch.size());
+        writtenBatches.increment();
+    }
+
+    protected <T> T executeInNewTransaction(TransactionMethod<T> code) {
+        return TransactionSupport.executeInNewTransaction(code);
+    }
+
+    @Override
+    public long getQueuedEvents() {
+        return queuedEvents.sum();
+    }
+
+    @Override
+    public long getWrittenEvents() {
+        return writtenEvents.sum();
+    }
+
+    @Override
+    public long getWrittenBatches() {
+        return writtenBatches.sum();
+    }
+
+    @Override
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    @Override
+    public long getFailedEvents() {
+        return failedEvents.sum();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public long getMaxQueueSize() {
+        return maxQueueSize.get();
+    }
+
+    @Override
+    public void resetStatistics() {
+        queuedEvents.reset();
+        writtenEvents.reset();
+        writtenBatches.reset();
+        droppedEvents.reset();
+        failedEvents.reset();
+        maxQueueSize.reset();
+    }
+
+    /**
+     * An audit log event waiting for the writer. The event is either taken by the writer or cancelled by the thread
+     * which waits for it, so it is never written twice.
+     */
+    static class PendingAuditLog {
+
+        private static final int QUEUED = 0;
+        private static final int TAKEN = 1;
+        private static final int CANCELLED = 2;
+
+        private final AuditLog auditLog;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private final CountDownLatch written = new CountDownLatch(1);
+        private volatile RuntimeException failure;
+
+        PendingAuditLog(AuditLog auditLog) {
+            this.auditLog = auditLog;
+        }
+
+        AuditLog getAuditLog() {
+            return auditLog;
+        }
+
+        /**
+         * @return {@code true} if the writer should write the event, {@code false} if it was cancelled
+         */
+        boolean take() {
+            return state.compareAndSet(QUEUED, TAKEN);
+        }
+
+        /**
+         * @return {@code true} if the writer will not write the event, {@code false} if it took it already
+         */
+        boolean cancel() {
+            return state.compareAndSet(QUEUED, CANCELLED);
+        }
+
+        void written() {
+            written.countDown();
+        }
+
+        void failed(RuntimeException failure) {
+            if (written.getCount() > 0) {
+                this.failure = failure;
+                written.countDown();
+            }
+        }
+
+        /**
+         * Waits until the event is written, rethrows the failure of the write if it failed
+         *
+         * @param timeout
+         *            the time to wait in nanoseconds
+         * @return {@code false} if the event was not written in time
+         */
+        boolean await(long timeout) throws InterruptedException {
+            if (!written.await(timeout, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface AuditLogWriterMXBean {
+
+    /**
+     * Number of audit log events queued for the writer since the statistics were reset
+     */
+    long getQueuedEvents();
+
+    /**
+     * Number of audit log events written since the statistics were reset
+     */
+    long getWrittenEvents();
+
+    /**
+     * Number of batches the audit log events were written in
+     */
+    long getWrittenBatches();
+
+    /**
+     * Number of audit log events dropped because the queue was full
+     */
+    long getDroppedEvents();
+
+    /**
+     * Number of audit log events which failed to be written
+     */
+    long getFailedEvents();
+
+    /**
+     * Number of audit log events waiting for the writer
+     */
+    int getQueueSize();
+
+    /**
+     * Maximal number of audit log events which waited for the writer since the statistics were reset
+     */
+    long getMaxQueueSize();
+
+    void resetStatistics();
+}
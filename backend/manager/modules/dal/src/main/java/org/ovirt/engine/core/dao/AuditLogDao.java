@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.dao;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -114,6 +115,16 @@ public interface AuditLogDao extends Dao, SearchDao<AuditLog> {
      */
     void save(AuditLog entry);
 
+    /**
+     * Saves the provided audit logs in a batch. The ids of the saved entries are not set, as the id of an entry is
+     * returned by the INOUT parameter of InsertAuditLog, which a batch does not read back. Use {@link #save(AuditLog)}
+     * for the entries whose id is needed.
+     *
+     * @param entries
+     *            the entries
+     */
+    void saveAll(Collection<AuditLog> entries);
+
     /**
      * Updates the provided audit log entry.
      *
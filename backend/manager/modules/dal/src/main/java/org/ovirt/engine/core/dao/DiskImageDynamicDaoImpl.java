@@ -1,8 +1,6 @@
 package org.ovirt.engine.core.dao;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
 
 import javax.inject.Named;
@@ -11,6 +9,7 @@ import javax.inject.Singleton;
 import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dal.dbbroker.BulkUpdate;
 import org.ovirt.engine.core.dal.dbbroker.MapSqlParameterMapper;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -23,6 +22,36 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 public class DiskImageDynamicDaoImpl extends MassOperationsGenericDao<DiskImageDynamic, Guid>
         implements DiskImageDynamicDao {
 
+    private static final BulkUpdate BULK_UPDATE_BY_DISK_ID_AND_VM_ID =
+            new BulkUpdate("Updatedisk_image_dynamic_by_disk_id_and_vm_id", "bulk_disk_image_dynamic")
+                    .column("image_group_id", "UUID")
+                    .column("vm_id", "UUID")
+                    .column("read_rate", "INT")
+                    .column("write_rate", "INT")
+                    .column("actual_size", "BIGINT")
+                    .column("read_latency_seconds", "NUMERIC(18, 9)")
+                    .column("write_latency_seconds", "NUMERIC(18, 9)")
+                    .column("flush_latency_seconds", "NUMERIC(18, 9)")
+                    // lock the rows by the order of their disks to prevent deadlocks with concurrent updates
+                    .statement("SELECT t.image_id FROM disk_image_dynamic AS t "
+                            + "JOIN images AS i ON i.image_guid = t.image_id AND i.active = true "
+                            + "JOIN bulk_disk_image_dynamic AS s ON s.image_group_id = i.image_group_id "
+                            + "ORDER BY i.image_group_id FOR UPDATE OF t")
+                    .statement("UPDATE disk_image_dynamic AS t "
+                            + "SET read_rate = s.read_rate, "
+                            + "write_rate = s.write_rate, "
+                            + "actual_size = s.actual_size, "
+                            + "read_latency_seconds = s.read_latency_seconds, "
+                            + "write_latency_seconds = s.write_latency_seconds, "
+                            + "flush_latency_seconds = s.flush_latency_seconds, "
+                            + "_update_date = LOCALTIMESTAMP "
+                            + "FROM bulk_disk_image_dynamic AS s "
+                            + "JOIN images AS i ON i.image_group_id = s.image_group_id AND i.active = true "
+                            + "JOIN vm_device AS vmd ON vmd.vm_id = s.vm_id "
+                            + "AND vmd.device_id = s.image_group_id "
+                            + "AND vmd.snapshot_id IS NULL "
+                            + "WHERE t.image_id = i.image_guid");
+
     public DiskImageDynamicDaoImpl() {
         super("disk_image_dynamic");
         setProcedureNameForGet("Getdisk_image_dynamicByimage_id");
@@ -80,17 +109,21 @@ public class DiskImageDynamicDaoImpl extends MassOperationsGenericDao<DiskImageD
         };
     }
 
+    /**
+     * Sorts the disks by their ids and keeps only the last reported dynamic data of each disk, e.g. of a shared disk
+     * that is reported by several VMs
+     */
     public static List<Pair<Guid, DiskImageDynamic>> sortDiskImageDynamicForUpdate(Collection<Pair<Guid,
             DiskImageDynamic>> diskImageDynamicForVm) {
-        List<Pair<Guid, DiskImageDynamic>> sortedDisks = new ArrayList<>();
-        sortedDisks.addAll(diskImageDynamicForVm);
-        sortedDisks.sort(Comparator.comparing(x -> x.getSecond().getId()));
-        return sortedDisks;
+        return sortedLastByKey(diskImageDynamicForVm, x -> x.getSecond().getId());
     }
 
     @Override
     public void updateAllDiskImageDynamicWithDiskIdByVmId(Collection<Pair<Guid, DiskImageDynamic>> diskImageDynamicForVm) {
-        getCallsHandler().executeStoredProcAsBatch("Updatedisk_image_dynamic_by_disk_id_and_vm_id",
+        if (diskImageDynamicForVm.isEmpty()) {
+            return;
+        }
+        getCallsHandler().executeBulkUpdate(BULK_UPDATE_BY_DISK_ID_AND_VM_ID,
                 sortDiskImageDynamicForUpdate(diskImageDynamicForVm), getBatchImageGroupMapper());
     }
 }
@@ -5,6 +5,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
 
 import org.ovirt.engine.core.common.businessentities.BusinessEntity;
 import org.ovirt.engine.core.common.businessentities.comparators.BusinessEntityComparator;
@@ -46,6 +49,16 @@ public abstract class MassOperationsGenericDao<T extends BusinessEntity<ID>, ID
         }
     }
 
+    /**
+     * Returns the given rows sorted by their keys, keeping only the last row of each key. A bulk update joins its rows
+     * to the updated table, and a table row that is joined to several rows is updated by an arbitrary one of them.
+     */
+    protected static <R, K extends Comparable<K>> List<R> sortedLastByKey(Collection<R> rows, Function<R, K> key) {
+        Map<K, R> lastByKey = new TreeMap<>();
+        rows.forEach(row -> lastByKey.put(key.apply(row), row));
+        return new ArrayList<>(lastByKey.values());
+    }
+
     /**
      * Enables to send update procedure name as a parameter that overrides the default one. In case this parameter is
      * null the default procedure is used.
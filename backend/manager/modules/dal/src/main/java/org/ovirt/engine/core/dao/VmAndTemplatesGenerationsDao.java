@@ -38,6 +38,11 @@ public interface VmAndTemplatesGenerationsDao extends Dao {
      */
     public List<Pair<Guid, String>> loadOvfDataForIds(List<Guid> ids);
 
+    /**
+     * Get the ovf generations of the given ids, without their ovf data
+     */
+    public List<Pair<Guid, Long>> loadOvfGenerationsForIds(List<Guid> ids);
+
     /**
      * Get ids for ovf deletion from storage
      */
@@ -67,4 +67,14 @@ public class VmAndTemplatesGenerationsImpl extends BaseDao implements VmAndTempl
                 ovfDataRowMapper,
                 getCustomMapSqlParameterSource().addValue("ids", StringUtils.join(ids, ',')));
     }
+
+    private static final RowMapper<Pair<Guid, Long>> ovfGenerationRowMapper =
+            (resultSet, i) -> new Pair<>(getGuid(resultSet, "vm_guid"), resultSet.getLong("ovf_generation"));
+
+    @Override
+    public List<Pair<Guid, Long>> loadOvfGenerationsForIds(List<Guid> ids) {
+        return getCallsHandler().executeReadList("LoadOvfGenerationsForIds",
+                ovfGenerationRowMapper,
+                getCustomMapSqlParameterSource().addValue("ids", StringUtils.join(ids, ',')));
+    }
 }
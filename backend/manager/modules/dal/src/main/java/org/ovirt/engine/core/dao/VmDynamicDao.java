@@ -76,6 +76,16 @@ public interface VmDynamicDao extends GenericDao<VmDynamic, Guid>, StatusAwareDa
      */
     boolean updateConsoleUserWithOptimisticLocking(VmDynamic vm);
 
+    /**
+     * Returns the values that {@link #update(VmDynamic)} writes to the columns of the dynamic vm, keyed by the
+     * parameter names of the columns. Two dynamic vms with equal values are persisted the same way.
+     *
+     * @param vm
+     *            the dynamic data of the virtual machine
+     * @return the values of the persisted columns
+     */
+    Map<String, Object> getPersistedValues(VmDynamic vm);
+
     void clearMigratingToVds(Guid id);
 
 
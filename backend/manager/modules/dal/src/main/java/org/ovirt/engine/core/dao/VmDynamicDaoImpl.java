@@ -154,6 +154,11 @@ public class VmDynamicDaoImpl extends MassOperationsGenericDao<VmDynamic, Guid>
         return getCustomMapSqlParameterSource().addValue("vm_guid", id);
     }
 
+    @Override
+    public Map<String, Object> getPersistedValues(VmDynamic vm) {
+        return createFullParametersMapper(vm).getValues();
+    }
+
     /**
      * Note: we intentionally don't update lease_info here because it
      * should only be updated using {@link #updateVmLeaseInfo(Guid, Map)}
@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import javax.inject.Named;
@@ -7,6 +8,7 @@ import javax.inject.Singleton;
 
 import org.ovirt.engine.core.common.businessentities.VmStatistics;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dal.dbbroker.BulkUpdate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
@@ -15,6 +17,35 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 public class VmStatisticsDaoImpl extends MassOperationsGenericDao<VmStatistics, Guid>
         implements VmStatisticsDao {
 
+    private static final BulkUpdate BULK_UPDATE = new BulkUpdate("UpdateVmStatistics", "bulk_vm_statistics")
+            .column("vm_guid", "UUID")
+            .column("cpu_sys", "DECIMAL(18, 0)")
+            .column("cpu_user", "DECIMAL(18, 0)")
+            .column("elapsed_time", "DECIMAL(18, 0)")
+            .column("usage_cpu_percent", "INT")
+            .column("usage_mem_percent", "INT")
+            .column("usage_network_percent", "INT")
+            .column("disks_usage", "TEXT")
+            .column("guest_mem_buffered", "BIGINT")
+            .column("guest_mem_cached", "BIGINT")
+            // lock the rows by the order of their ids to prevent deadlocks with concurrent updates
+            .statement("SELECT vm_guid FROM vm_statistics "
+                    + "WHERE vm_guid IN (SELECT vm_guid FROM bulk_vm_statistics) "
+                    + "ORDER BY vm_guid FOR UPDATE")
+            .statement("UPDATE vm_statistics AS t "
+                    + "SET cpu_sys = s.cpu_sys, "
+                    + "cpu_user = s.cpu_user, "
+                    + "elapsed_time = s.elapsed_time, "
+                    + "usage_cpu_percent = s.usage_cpu_percent, "
+                    + "usage_mem_percent = s.usage_mem_percent, "
+                    + "usage_network_percent = s.usage_network_percent, "
+                    + "disks_usage = s.disks_usage, "
+                    + "guest_mem_buffered = s.guest_mem_buffered, "
+                    + "guest_mem_cached = s.guest_mem_cached, "
+                    + "_update_date = LOCALTIMESTAMP "
+                    + "FROM bulk_vm_statistics AS s "
+                    + "WHERE t.vm_guid = s.vm_guid");
+
     public VmStatisticsDaoImpl() {
         super("VmStatistics");
         setProcedureNameForGet("GetVmStatisticsByVmGuid");
@@ -25,6 +56,15 @@ public class VmStatisticsDaoImpl extends MassOperationsGenericDao<VmStatistics,
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void updateAllInBatch(Collection<VmStatistics> statistics) {
+        if (statistics.isEmpty()) {
+            return;
+        }
+        List<VmStatistics> sortedStatistics = sortedLastByKey(statistics, VmStatistics::getId);
+        getCallsHandler().executeBulkUpdate(BULK_UPDATE, sortedStatistics, getBatchMapper());
+    }
+
     @Override
     protected MapSqlParameterSource createIdParameterMapper(Guid id) {
         return getCustomMapSqlParameterSource().addValue("vm_guid", id);
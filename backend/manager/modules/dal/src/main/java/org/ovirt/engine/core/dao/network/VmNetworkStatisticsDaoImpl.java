@@ -1,11 +1,13 @@
 package org.ovirt.engine.core.dao.network;
 
+import java.util.Collection;
 import java.util.List;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.dal.dbbroker.BulkUpdate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
@@ -14,6 +16,40 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 public class VmNetworkStatisticsDaoImpl extends NetworkStatisticsDaoImpl<VmNetworkStatistics>
         implements VmNetworkStatisticsDao {
 
+    private static final BulkUpdate BULK_UPDATE =
+            new BulkUpdate("Updatevm_interface_statistics", "bulk_vm_interface_statistics")
+                    .column("id", "UUID")
+                    .column("rx_drop", "DECIMAL(18, 4)")
+                    .column("rx_rate", "DECIMAL(18, 4)")
+                    .column("rx_total", "BIGINT")
+                    .column("rx_offset", "BIGINT")
+                    .column("tx_drop", "DECIMAL(18, 4)")
+                    .column("tx_rate", "DECIMAL(18, 4)")
+                    .column("tx_total", "BIGINT")
+                    .column("tx_offset", "BIGINT")
+                    .column("iface_status", "INT")
+                    .column("sample_time", "FLOAT")
+                    .column("vm_id", "UUID")
+                    // lock the rows by the order of their ids to prevent deadlocks with concurrent updates
+                    .statement("SELECT id FROM vm_interface_statistics "
+                            + "WHERE id IN (SELECT id FROM bulk_vm_interface_statistics) "
+                            + "ORDER BY id FOR UPDATE")
+                    .statement("UPDATE vm_interface_statistics AS t "
+                            + "SET rx_drop = s.rx_drop, "
+                            + "rx_rate = s.rx_rate, "
+                            + "rx_total = s.rx_total, "
+                            + "rx_offset = s.rx_offset, "
+                            + "tx_drop = s.tx_drop, "
+                            + "tx_rate = s.tx_rate, "
+                            + "tx_total = s.tx_total, "
+                            + "tx_offset = s.tx_offset, "
+                            + "vm_id = s.vm_id, "
+                            + "iface_status = s.iface_status, "
+                            + "sample_time = s.sample_time, "
+                            + "_update_date = LOCALTIMESTAMP "
+                            + "FROM bulk_vm_interface_statistics AS s "
+                            + "WHERE t.id = s.id");
+
     public VmNetworkStatisticsDaoImpl() {
         super("vm_interface_statistics");
         setProcedureNameForGet("Getvm_interface_statisticsById");
@@ -24,6 +60,15 @@ public class VmNetworkStatisticsDaoImpl extends NetworkStatisticsDaoImpl<VmNetwo
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void updateAllInBatch(Collection<VmNetworkStatistics> statistics) {
+        if (statistics.isEmpty()) {
+            return;
+        }
+        List<VmNetworkStatistics> sortedStatistics = sortedLastByKey(statistics, VmNetworkStatistics::getId);
+        getCallsHandler().executeBulkUpdate(BULK_UPDATE, sortedStatistics, getBatchMapper());
+    }
+
     @Override
     protected MapSqlParameterSource createFullParametersMapper(VmNetworkStatistics stats) {
         return super.createFullParametersMapper(stats)
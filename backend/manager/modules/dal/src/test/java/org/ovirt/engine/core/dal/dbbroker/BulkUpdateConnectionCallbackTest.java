@@ -0,0 +1,127 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.compat.Guid;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+public class BulkUpdateConnectionCallbackTest {
+
+    private static final Guid ID = new Guid("b7dfe5e6-5667-4e40-8ecb-6d97c8df504c");
+
+    private BulkUpdate bulkUpdate;
+
+    public enum TestEnum {
+        ONE;
+
+        public int getValue() {
+            return 7;
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        bulkUpdate = new BulkUpdate("UpdateTest", "bulk_test")
+                .column("id", "UUID")
+                .column("name", "TEXT")
+                .column("status", "INT")
+                .column("active", "BOOLEAN")
+                .column("update_time", "TIMESTAMP")
+                .statement("UPDATE test AS t SET name = s.name FROM bulk_test AS s WHERE t.id = s.id");
+    }
+
+    @Test
+    public void testCommands() {
+        assertEquals("CREATE TEMPORARY TABLE IF NOT EXISTS bulk_test "
+                + "(id UUID, name TEXT, status INT, active BOOLEAN, update_time TIMESTAMP)",
+                bulkUpdate.getCreateTempTableCommand());
+        assertEquals("COPY bulk_test (id, name, status, active, update_time) FROM STDIN",
+                bulkUpdate.getCopyCommand());
+    }
+
+    @Test
+    public void testRowIsEncodedInColumnsOrder() {
+        Timestamp time = new Timestamp(0);
+        Map<String, Object> values = new HashMap<>();
+        values.put("v_update_time", time);
+        values.put("v_status", TestEnum.ONE);
+        values.put("v_name", "a\tb\\c\nd");
+        values.put("v_id", ID);
+
+        assertEquals(ID + "\ta\\tb\\\\c\\nd\t7\tfalse\t" + time + "\n", encode(values));
+    }
+
+    @Test
+    public void testNullIsEncoded() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", ID);
+        values.put("active", true);
+
+        assertEquals(ID + "\t\\N\t\\N\ttrue\t\\N\n", encode(values));
+    }
+
+    @Test
+    public void testConnectionWithoutCopy() throws SQLException {
+        Connection con = mock(Connection.class);
+        when(con.isWrapperFor(PGConnection.class)).thenReturn(false);
+
+        assertFalse(new BulkUpdateConnectionCallback(bulkUpdate, Collections.emptyList(), "v_").doInConnection(con));
+        verify(con, never()).createStatement();
+    }
+
+    @Test
+    public void testFewRowsAreUpdatedByProcedure() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        SimpleJdbcCallsHandler handler = new SimpleJdbcCallsHandler(new PostgresDbEngineDialect(), jdbcTemplate);
+
+        handler.executeBulkUpdate(bulkUpdate, Collections.singletonList(ID), this::map);
+
+        verify(jdbcTemplate, never()).execute(any(BulkUpdateConnectionCallback.class));
+        verify(jdbcTemplate).execute(any(BatchProcedureExecutionConnectionCallback.class));
+    }
+
+    @Test
+    public void testProcedureIsUsedWhenBulkUpdateIsNotPossible() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.execute(any(BulkUpdateConnectionCallback.class))).thenReturn(false);
+        SimpleJdbcCallsHandler handler = new SimpleJdbcCallsHandler(new PostgresDbEngineDialect(), jdbcTemplate);
+        List<Guid> ids = IntStream.range(0, SimpleJdbcCallsHandler.BULK_UPDATE_MIN_ROWS)
+                .mapToObj(i -> Guid.newGuid())
+                .collect(Collectors.toList());
+
+        handler.executeBulkUpdate(bulkUpdate, ids, this::map);
+
+        verify(jdbcTemplate).execute(any(BulkUpdateConnectionCallback.class));
+        verify(jdbcTemplate).execute(any(BatchProcedureExecutionConnectionCallback.class));
+    }
+
+    private MapSqlParameterSource map(Guid id) {
+        return new MapSqlParameterSource().addValue("id", id);
+    }
+
+    private String encode(Map<String, Object> values) {
+        StringBuilder line = new StringBuilder();
+        new BulkUpdateConnectionCallback(bulkUpdate, Collections.emptyList(), "v_").appendRow(line, values);
+        return line.toString();
+    }
+}
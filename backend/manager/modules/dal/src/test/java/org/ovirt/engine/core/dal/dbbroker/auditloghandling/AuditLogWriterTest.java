@@ -0,0 +1,183 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.businessentities.AuditLog;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogWriter.PendingAuditLog;
+import org.ovirt.engine.core.dao.AuditLogDao;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+import org.ovirt.engine.core.utils.transaction.TransactionMethod;
+
+@ExtendWith({ MockitoExtension.class, MockConfigExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class AuditLogWriterTest {
+
+    @Mock
+    private AuditLogDao auditLogDao;
+
+    @InjectMocks
+    private AuditLogWriter writer = new AuditLogWriter() {
+        @Override
+        protected <T> T executeInNewTransaction(TransactionMethod<T> code) {
+            return code.runInTransaction();
+        }
+    };
+
+    private ExecutorService executorService;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.AuditLogAsyncWriterEnabled, true),
+                MockConfigDescriptor.of(ConfigValues.AuditLogWriterQueueSize, 1),
+                MockConfigDescriptor.of(ConfigValues.AuditLogWriterMaxBatchSize, 10),
+                MockConfigDescriptor.of(ConfigValues.AuditLogWriterSyncTimeoutInSeconds, 1));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        executorService = ThreadPoolUtil.getExecutorService();
+        // the writer thread never runs, so the queued events stay in the queue
+        ThreadPoolUtil.setExecutorService(mock(ExecutorService.class));
+        writer.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        writer.shutdown();
+        ThreadPoolUtil.setExecutorService(executorService);
+    }
+
+    @Test
+    public void testEventsAreDroppedWhenQueueIsFull() {
+        assertTrue(writer.write(new AuditLog(), false));
+        assertFalse(writer.write(new AuditLog(), false));
+
+        assertEquals(1, writer.getQueuedEvents());
+        assertEquals(1, writer.getDroppedEvents());
+        assertEquals(1, writer.getQueueSize());
+        verify(auditLogDao, never()).save(any());
+    }
+
+    @Test
+    public void testEventsAreWrittenDirectlyWhenWriterIsDisabled() {
+        writer.shutdown();
+
+        assertTrue(writer.write(new AuditLog(), false));
+
+        verify(auditLogDao).save(any());
+        assertEquals(0, writer.getQueuedEvents());
+        assertEquals(1, writer.getWrittenEvents());
+    }
+
+    @Test
+    public void testSyncEventIsWrittenDirectlyWhenNotWrittenInTime() {
+        AuditLog auditLog = new AuditLog();
+
+        assertTrue(writer.write(auditLog, true));
+
+        verify(auditLogDao).save(auditLog);
+        assertEquals(1, writer.getQueuedEvents());
+        assertEquals(1, writer.getWrittenEvents());
+    }
+
+    @Test
+    public void testSyncEventIsWrittenDirectlyWhenQueueIsFull() {
+        AuditLog auditLog = new AuditLog();
+        writer.write(new AuditLog(), false);
+
+        assertTrue(writer.write(auditLog, true));
+
+        verify(auditLogDao).save(auditLog);
+        assertEquals(1, writer.getQueuedEvents());
+    }
+
+    @Test
+    public void testCancelledEventIsNotTaken() {
+        PendingAuditLog pending = new PendingAuditLog(new AuditLog());
+
+        assertTrue(pending.cancel());
+        assertFalse(pending.take());
+    }
+
+    @Test
+    public void testTakenEventIsNotCancelled() {
+        PendingAuditLog pending = new PendingAuditLog(new AuditLog());
+
+        assertTrue(pending.take());
+        assertFalse(pending.cancel());
+    }
+
+    @Test
+    public void testWriterSurvivesErrors() {
+        ExecutorService writerExecutor = Executors.newSingleThreadExecutor();
+        ThreadPoolUtil.setExecutorService(writerExecutor);
+        AuditLog failing = new AuditLog();
+        failing.setMessage("failing");
+        AuditLog auditLog = new AuditLog();
+        doThrow(new LinkageError()).when(auditLogDao).saveAll(Collections.singletonList(failing));
+
+        try {
+            RuntimeException failure = assertThrows(RuntimeException.class, () -> writer.write(failing, true));
+            assertTrue(failure.getCause() instanceof LinkageError);
+            assertTrue(writer.write(auditLog, true));
+        } finally {
+            writer.shutdown();
+            writerExecutor.shutdown();
+        }
+
+        verify(auditLogDao).saveAll(Collections.singletonList(auditLog));
+        verify(auditLogDao, never()).save(any());
+    }
+
+    @Test
+    public void testBatchIsWrittenTogether() {
+        writer.writeBatch(Arrays.asList(new PendingAuditLog(new AuditLog()), new PendingAuditLog(new AuditLog())));
+
+        verify(auditLogDao).saveAll(argThat(events -> events.size() == 2));
+        assertEquals(2, writer.getWrittenEvents());
+        assertEquals(1, writer.getWrittenBatches());
+    }
+
+    @Test
+    public void testFailedBatchIsWrittenSeparately() {
+        AuditLog bad = new AuditLog();
+        bad.setMessage("bad");
+        doThrow(new RuntimeException()).when(auditLogDao).saveAll(argThat(events -> events.contains(bad)));
+
+        writer.writeBatch(Arrays.asList(new PendingAuditLog(new AuditLog()), new PendingAuditLog(bad)));
+
+        verify(auditLogDao, times(3)).saveAll(anyCollection());
+        verify(auditLogDao).saveAll(Collections.singletonList(bad));
+        assertEquals(1, writer.getWrittenEvents());
+        assertEquals(1, writer.getFailedEvents());
+    }
+}
@@ -108,4 +108,17 @@ public class DiskImageDynamicDaoTest extends BaseGenericDaoTestCase<Guid, DiskIm
         Collections.reverse(diskImageDynamicForVm);
         assertEquals(diskImageDynamicForVm, sortedList);
     }
+
+    @Test
+    public void sortDiskImageDynamicForUpdateKeepsLastOfDisk() {
+        Guid diskId = Guid.createGuidFromString("11111111-1111-1111-1111-111111111111");
+        Pair<Guid, DiskImageDynamic> first = new Pair<>(Guid.newGuid(), createDiskImageDynamic(diskId));
+        Pair<Guid, DiskImageDynamic> other = new Pair<>(Guid.newGuid(), createDiskImageDynamic(Guid.Empty));
+        Pair<Guid, DiskImageDynamic> last = new Pair<>(Guid.newGuid(), createDiskImageDynamic(diskId));
+
+        List<Pair<Guid, DiskImageDynamic>> sortedList =
+                DiskImageDynamicDaoImpl.sortDiskImageDynamicForUpdate(Arrays.asList(first, other, last));
+
+        assertEquals(Arrays.asList(other, last), sortedList);
+    }
 }
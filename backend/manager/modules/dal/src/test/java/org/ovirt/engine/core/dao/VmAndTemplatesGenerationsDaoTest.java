@@ -13,6 +13,7 @@ import java.util.List;
 import javax.inject.Inject;
 
 import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
 
 public class VmAndTemplatesGenerationsDaoTest extends BaseDaoTestCase<VmAndTemplatesGenerationsDao> {
@@ -28,6 +29,21 @@ public class VmAndTemplatesGenerationsDaoTest extends BaseDaoTestCase<VmAndTempl
         assertEquals(1, value.longValue(), "ovf generation was retrieved but it's value isn't as expected");
     }
 
+    @Test
+    public void testLoadOvfGenerationsForIds() {
+        dao.updateOvfGenerations(Collections.singletonList(FixturesTool.VM_RHEL5_POOL_51),
+                Collections.singletonList(1001L),
+                Collections.singletonList("a"));
+
+        List<Pair<Guid, Long>> generations = dao.loadOvfGenerationsForIds(
+                Arrays.asList(FixturesTool.VM_RHEL5_POOL_50, FixturesTool.VM_RHEL5_POOL_51));
+        assertEquals(2, generations.size(), "wrong number of ovf generations retrieved");
+        assertTrue(generations.contains(new Pair<>(FixturesTool.VM_RHEL5_POOL_50, 1L)),
+                "ovf generation of the first vm wasn't retrieved");
+        assertTrue(generations.contains(new Pair<>(FixturesTool.VM_RHEL5_POOL_51, 1001L)),
+                "updated ovf generation of the second vm wasn't retrieved");
+    }
+
     @Test
     public void testUpdateOvfGenerations() {
         List<Guid> vmsGuids = new LinkedList<>();
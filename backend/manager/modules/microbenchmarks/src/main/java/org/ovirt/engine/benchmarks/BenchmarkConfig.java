@@ -0,0 +1,49 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.config.IConfigUtilsInterface;
+
+/**
+ * In-memory {@link IConfigUtilsInterface} used by benchmarks that exercise backend code
+ * reading {@link Config} values without a database.
+ */
+public class BenchmarkConfig implements IConfigUtilsInterface {
+
+    private final Map<ConfigValues, Object> values = new HashMap<>();
+
+    public static BenchmarkConfig install() {
+        BenchmarkConfig config = new BenchmarkConfig();
+        Config.setConfigUtils(config);
+        return config;
+    }
+
+    public BenchmarkConfig with(ConfigValues key, Object value) {
+        values.put(key, value);
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(ConfigValues configValue, String version) {
+        return (T) values.get(configValue);
+    }
+
+    @Override
+    public void refresh() {
+    }
+
+    @Override
+    public <T> Map<String, T> getValuesForAllVersions(ConfigValues configValue) {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public boolean valueExists(ConfigValues configValue, String version) {
+        return values.containsKey(configValue);
+    }
+}
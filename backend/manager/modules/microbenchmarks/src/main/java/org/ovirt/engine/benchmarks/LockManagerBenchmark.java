@@ -0,0 +1,159 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.bll.lock.InMemoryLockManager;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.lock.EngineLock;
+
+/**
+ * <p> Benchmarks the throughput of the engine's {@link InMemoryLockManager} with 1 to 64 threads.</p>
+ * <p> Every thread acquires and releases an exclusive lock of its own entity, together with a shared lock
+ * of an entity common to all threads, the way commands on different VMs of the same storage domain do.<br/>
+ * The <b>exclusive</b> benchmarks use only the exclusive lock, so threads never contend for the same key.</p>
+ *
+ * @see InMemoryLockManager
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LockManagerBenchmark {
+
+    @Benchmark
+    @Threads(1)
+    public void exclusive01(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        exclusive(manager, thread, blackhole);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void exclusive02(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        exclusive(manager, thread, blackhole);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void exclusive04(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        exclusive(manager, thread, blackhole);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void exclusive08(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        exclusive(manager, thread, blackhole);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void exclusive16(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        exclusive(manager, thread, blackhole);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void exclusive32(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        exclusive(manager, thread, blackhole);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void exclusive64(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        exclusive(manager, thread, blackhole);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void sharedAndExclusive01(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        sharedAndExclusive(manager, thread, blackhole);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void sharedAndExclusive02(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        sharedAndExclusive(manager, thread, blackhole);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void sharedAndExclusive04(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        sharedAndExclusive(manager, thread, blackhole);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void sharedAndExclusive08(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        sharedAndExclusive(manager, thread, blackhole);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void sharedAndExclusive16(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        sharedAndExclusive(manager, thread, blackhole);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void sharedAndExclusive32(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        sharedAndExclusive(manager, thread, blackhole);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void sharedAndExclusive64(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        sharedAndExclusive(manager, thread, blackhole);
+    }
+
+    private static void exclusive(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        blackhole.consume(manager.lockManager.acquireLock(thread.exclusiveLock));
+        manager.lockManager.releaseLock(thread.exclusiveLock);
+    }
+
+    private static void sharedAndExclusive(LockManagerState manager, ThreadState thread, Blackhole blackhole) {
+        blackhole.consume(manager.lockManager.acquireLock(thread.sharedAndExclusiveLock));
+        manager.lockManager.releaseLock(thread.sharedAndExclusiveLock);
+    }
+
+    @State(Scope.Benchmark)
+    public static class LockManagerState {
+
+        private InMemoryLockManager lockManager;
+        private String sharedEntity;
+
+        @Setup
+        public void setup() {
+            lockManager = new InMemoryLockManager();
+            sharedEntity = Guid.newGuid().toString();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        private EngineLock exclusiveLock;
+        private EngineLock sharedAndExclusiveLock;
+
+        @Setup
+        public void setup(LockManagerState manager) {
+            Pair<String, String> exclusive = new Pair<>("VM", "ACTION_TYPE_FAILED_VM_IS_LOCKED");
+            Pair<String, String> shared = new Pair<>("STORAGE", "ACTION_TYPE_FAILED_OBJECT_LOCKED");
+            String entity = Guid.newGuid().toString();
+            exclusiveLock = new EngineLock(Collections.singletonMap(entity, exclusive), null);
+            sharedAndExclusiveLock = new EngineLock(Collections.singletonMap(entity, exclusive),
+                    Collections.singletonMap(manager.sharedEntity, shared));
+        }
+    }
+}
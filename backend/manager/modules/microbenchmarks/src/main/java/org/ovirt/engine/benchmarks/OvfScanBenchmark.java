@@ -0,0 +1,128 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.OvfUtils;
+import org.ovirt.engine.core.utils.ovf.OvfSummary;
+import org.ovirt.engine.core.utils.ovf.xml.XmlDocument;
+import org.ovirt.engine.core.utils.ovf.xml.XmlNode;
+
+/**
+ * <p> Benchmarks reading the parts of a VM OVF that are needed when the OVF_STORE of a storage domain is scanned, for
+ * VMs with 10, 100 and 1000 disks and as many snapshots with memory:
+ * <ul>
+ *     <li><b>documentScan</b> builds the {@link XmlDocument} of the OVF and selects the parts with XPath, the way it
+ *     was done before {@link OvfSummary}</li>
+ *     <li><b>streamingScan</b> reads the parts in a single pass with {@link OvfSummary}</li>
+ * </ul>
+ * Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm} to see the allocations per OVF.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OvfScanBenchmark {
+
+    @Benchmark
+    public void documentScan(BenchmarkState state, Blackhole blackhole) throws Exception {
+        XmlDocument xmlDocument = new XmlDocument(state.ovf);
+        for (XmlNode section : xmlDocument.selectSingleNode("//*/Content").selectNodes("Section")) {
+            if (section.attributes.get("xsi:type").getValue().equals("ovf:OperatingSystemSection_Type")) {
+                blackhole.consume(section.innerText);
+                break;
+            }
+        }
+        blackhole.consume(state.ovfUtils.isExternalVM(xmlDocument));
+        blackhole.consume(state.ovfUtils.fetchVmDisks(xmlDocument));
+    }
+
+    @Benchmark
+    public void streamingScan(BenchmarkState state, Blackhole blackhole) throws Exception {
+        OvfSummary ovfSummary = OvfSummary.read(state.ovf);
+        blackhole.consume(ovfSummary.getOsSectionText());
+        blackhole.consume(ovfSummary.getOrigin());
+        blackhole.consume(ovfSummary.getDiskIds());
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({"10", "100", "1000"})
+        private int diskCount;
+
+        private OvfUtils ovfUtils;
+        private String ovf;
+
+        @Setup
+        public void setup() throws Exception {
+            ovfUtils = new OvfUtils();
+            ovf = createOvf();
+
+            // paranoia check
+            if (!ovfUtils.fetchVmDisks(new XmlDocument(ovf)).equals(OvfSummary.read(ovf).getDiskIds())) {
+                throw new IllegalStateException("This benchmark is illegal because "
+                        + " the scans yield different disks");
+            }
+        }
+
+        private String createOvf() {
+            StringBuilder ovf = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+                    .append("<ovf:Envelope xmlns:ovf=\"http://schemas.dmtf.org/ovf/envelope/1/\"")
+                    .append(" xmlns:rasd=\"http://schemas.dmtf.org/wbem/wscim/1/cim-schema/2/")
+                    .append("CIM_ResourceAllocationSettingData\"")
+                    .append(" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" ovf:version=\"4.3.0.0\">");
+            Guid[] diskIds = new Guid[diskCount];
+            Guid[] imageIds = new Guid[diskCount];
+            ovf.append("<References>");
+            for (int i = 0; i < diskCount; i++) {
+                diskIds[i] = Guid.newGuid();
+                imageIds[i] = Guid.newGuid();
+                ovf.append("<File ovf:href=\"").append(diskIds[i]).append('/').append(imageIds[i])
+                        .append("\" ovf:id=\"").append(imageIds[i]).append("\" ovf:size=\"10737418240\"/>");
+            }
+            ovf.append("</References><Section xsi:type=\"ovf:DiskSection_Type\"><Info>List of Virtual Disks</Info>");
+            for (int i = 0; i < diskCount; i++) {
+                ovf.append("<Disk ovf:diskId=\"").append(imageIds[i]).append("\" ovf:size=\"10\" ovf:fileRef=\"")
+                        .append(diskIds[i]).append('/').append(imageIds[i])
+                        .append("\" ovf:volume-format=\"COW\" ovf:volume-type=\"Sparse\"")
+                        .append(" ovf:disk-interface=\"VirtIO_SCSI\" ovf:disk-alias=\"vm_Disk").append(i)
+                        .append("\"/>");
+            }
+            ovf.append("</Section><Content ovf:id=\"out\" xsi:type=\"ovf:VirtualSystem_Type\">")
+                    .append("<Name>vm</Name><Origin>0</Origin><Generation>1</Generation>")
+                    .append("<Section xsi:type=\"ovf:OperatingSystemSection_Type\" ovf:required=\"false\">")
+                    .append("<Info>Guest Operating System</Info><Description>rhel_7x64</Description></Section>")
+                    .append("<Section xsi:type=\"ovf:VirtualHardwareSection_Type\"><Info>1 CPU, 1024 Memory</Info>");
+            for (int i = 0; i < diskCount; i++) {
+                ovf.append("<Item><rasd:Caption>vm_Disk").append(i).append("</rasd:Caption>")
+                        .append("<rasd:InstanceId>").append(imageIds[i]).append("</rasd:InstanceId>")
+                        .append("<rasd:ResourceType>17</rasd:ResourceType>")
+                        .append("<rasd:HostResource>").append(diskIds[i]).append('/').append(imageIds[i])
+                        .append("</rasd:HostResource><rasd:Parent>00000000-0000-0000-0000-000000000000</rasd:Parent>")
+                        .append("</Item>");
+            }
+            ovf.append("</Section><Section xsi:type=\"ovf:SnapshotsSection_Type\">");
+            for (int i = 0; i < diskCount; i++) {
+                ovf.append("<Snapshot ovf:id=\"").append(Guid.newGuid()).append("\"><Type>REGULAR</Type>")
+                        .append("<Description>snapshot ").append(i).append("</Description><Memory>");
+                for (int j = 0; j < 6; j++) {
+                    ovf.append(j == 0 ? "" : ",").append(Guid.newGuid());
+                }
+                ovf.append("</Memory></Snapshot>");
+            }
+            return ovf.append("</Section></Content></ovf:Envelope>").toString();
+        }
+    }
+}
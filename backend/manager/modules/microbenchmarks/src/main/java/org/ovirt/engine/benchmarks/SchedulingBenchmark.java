@@ -0,0 +1,161 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.bll.scheduling.ParallelPolicyUnitEvaluator;
+import org.ovirt.engine.core.bll.scheduling.PolicyUnitImpl;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingResourceManager;
+import org.ovirt.engine.core.bll.scheduling.policyunits.CPUPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.CpuOverloadPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.EvenDistributionCPUWeightPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.EvenDistributionMemoryWeightPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.HugePagesFilterPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.RankSelectorPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.SwapFilterPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.selector.SelectorInstance;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.scheduling.PerHostMessages;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * <p> Benchmarks the filter and weight phase of the scheduler over synthetic clusters.</p>
+ * <p> The benchmark runs the same steps the {@code SchedulingManager} runs for a single VM once
+ * the candidate hosts are loaded: internal filters, internal weight functions and the rank selector.
+ * It compares the sequential evaluation with the partitioned, parallel one.</p>
+ *
+ * @see ParallelPolicyUnitEvaluator
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchedulingBenchmark {
+
+    @Benchmark
+    public void schedule(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(state.schedule());
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({"50", "200", "1000"})
+        private int hostCount;
+
+        @Param({"1", "4"})
+        private int threads;
+
+        private ParallelPolicyUnitEvaluator evaluator;
+        private PolicyUnitImpl selector;
+        private List<PolicyUnitImpl> filters;
+        private List<Pair<PolicyUnitImpl, Integer>> functions;
+        private Cluster cluster;
+        private VM vm;
+        private List<VDS> hosts;
+
+        @Setup
+        public void setup() {
+            BenchmarkConfig.install()
+                    .with(ConfigValues.MaxSchedulerWeight, 1000)
+                    .with(ConfigValues.VcpuConsumptionPercentage, 10)
+                    .with(ConfigValues.SpmVCpuConsumption, 1)
+                    .with(ConfigValues.HighUtilizationForScheduling, 90)
+                    .with(ConfigValues.CpuOverCommitDurationMinutes, 2)
+                    .with(ConfigValues.EnableSwapCheck, true)
+                    .with(ConfigValues.BlockMigrationOnSwapUsagePercentage, 0);
+
+            PendingResourceManager pendingResourceManager = new PendingResourceManager();
+            evaluator = new ParallelPolicyUnitEvaluator(threads, 2);
+            selector = new RankSelectorPolicyUnit(null, pendingResourceManager);
+            filters = Arrays.asList(
+                    new CPUPolicyUnit(null, pendingResourceManager),
+                    new CpuOverloadPolicyUnit(null, pendingResourceManager),
+                    new SwapFilterPolicyUnit(null, pendingResourceManager),
+                    new HugePagesFilterPolicyUnit(null, pendingResourceManager));
+            functions = Arrays.asList(
+                    new Pair<>(new EvenDistributionCPUWeightPolicyUnit(null, pendingResourceManager), 1),
+                    new Pair<>(new EvenDistributionMemoryWeightPolicyUnit(null, pendingResourceManager), 1));
+
+            cluster = new Cluster();
+            cluster.setId(Guid.newGuid());
+            cluster.setCountThreadsAsCores(false);
+
+            vm = new VM();
+            vm.setId(Guid.newGuid());
+            vm.setCpuPerSocket(2);
+            vm.setNumOfSockets(2);
+            vm.setVmMemSizeMb(4096);
+
+            Random random = new Random(hostCount);
+            hosts = new ArrayList<>(hostCount);
+            for (int i = 0; i < hostCount; i++) {
+                VDS host = new VDS();
+                host.setId(Guid.newGuid());
+                host.setVdsName("host" + i);
+                host.setClusterId(cluster.getId());
+                host.setCpuCores(random.nextInt(4) == 0 ? 2 : 16);
+                host.setCpuThreads(32);
+                host.setUsageCpuPercent(random.nextInt(100));
+                host.setPhysicalMemMb(256 * 1024);
+                host.setMemCommited(random.nextInt(200 * 1024));
+                host.setMemFree((long) random.nextInt(128 * 1024));
+                host.setSwapTotal(8192L);
+                host.setSwapFree(8192L);
+                host.setHugePages(Collections.emptyList());
+                hosts.add(host);
+            }
+        }
+
+        @TearDown
+        public void teardown() {
+            evaluator.shutdown();
+        }
+
+        public Optional<Guid> schedule() {
+            Map<String, String> parameters = Collections.emptyMap();
+            PerHostMessages messages = new PerHostMessages();
+
+            List<VDS> candidates = hosts;
+            for (PolicyUnitImpl filter : filters) {
+                candidates = evaluator.filter(filter, cluster, candidates, vm, parameters, messages);
+            }
+
+            SelectorInstance selectorInstance = selector.selector(parameters);
+            selectorInstance.init(functions.stream()
+                            .map(f -> new Pair<>(f.getFirst().getPolicyUnit().getId(), f.getSecond()))
+                            .collect(Collectors.toList()),
+                    candidates.stream().map(VDS::getId).collect(Collectors.toList()));
+            for (Pair<PolicyUnitImpl, Integer> function : functions) {
+                PolicyUnitImpl unit = function.getFirst();
+                for (Pair<Guid, Integer> score : evaluator.score(unit, cluster, candidates, vm, parameters)) {
+                    selectorInstance.record(unit.getPolicyUnit().getId(), score.getFirst(), score.getSecond());
+                }
+            }
+            return selectorInstance.best();
+        }
+    }
+}
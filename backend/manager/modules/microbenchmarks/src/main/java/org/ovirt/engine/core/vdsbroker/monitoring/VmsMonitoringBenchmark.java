@@ -0,0 +1,338 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.benchmarks.BenchmarkConfig;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.compat.Version;
+import org.ovirt.engine.core.dal.dbbroker.DbEngineDialect;
+import org.ovirt.engine.core.dal.dbbroker.PostgresDbEngineDialect;
+import org.ovirt.engine.core.dao.VdsDynamicDao;
+import org.ovirt.engine.core.dao.VmDynamicDao;
+import org.ovirt.engine.core.dao.VmDynamicDaoImpl;
+import org.ovirt.engine.core.dao.network.VmNetworkInterfaceDao;
+import org.ovirt.engine.core.vdsbroker.ResourceManager;
+import org.ovirt.engine.core.vdsbroker.VdsManager;
+import org.ovirt.engine.core.vdsbroker.VmManager;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsBrokerObjectsBuilder;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsProperties;
+
+/**
+ * <p> Benchmarks the VMs monitoring hot path of a single host with 10, 100 and 1000 VMs.</p>
+ * <p> The host reports synthetic VDSM stats payloads of running VMs which did not change since the previous
+ * poll, which is the common case of a stable host:
+ * <ul>
+ *     <li><b>parse</b> builds the VMs out of the payloads with {@link VdsBrokerObjectsBuilder}, the way
+ *     {@code VmStatsVdsBrokerCommand} does</li>
+ *     <li><b>analyze</b> runs a {@link VmAnalyzer} for every VM and collects the rows to save into a
+ *     {@link VmsMonitoringFlush}</li>
+ *     <li><b>devices</b> checks the devices hashes of the VMs with {@link VmDevicesMonitoring}</li>
+ *     <li><b>poll</b> runs all of the above in a row</li>
+ * </ul>
+ * The DAOs are stubbed and the rows are not written, so the numbers do not include the database.
+ * Run with {@code -prof gc} to report the allocation rate as well.</p>
+ * <p> The benchmark lives in the package of the monitoring to reach its package private parts.</p>
+ *
+ * @see VmsMonitoring
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VmsMonitoringBenchmark {
+
+    @Benchmark
+    public void parse(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(state.parse());
+    }
+
+    @Benchmark
+    public void analyze(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(state.analyze(state.vdsmVms));
+    }
+
+    @Benchmark
+    public void devices(BenchmarkState state) {
+        state.processDevices(state.vdsmVms);
+    }
+
+    @Benchmark
+    public void poll(BenchmarkState state, Blackhole blackhole) {
+        List<VdsmVm> vdsmVms = state.parse();
+        blackhole.consume(state.analyze(vdsmVms));
+        state.processDevices(vdsmVms);
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({"10", "100", "1000"})
+        private int vmCount;
+
+        private VdsBrokerObjectsBuilder builder;
+        private VDS host;
+        private VdsManager vdsManager;
+        private VmDynamicDao vmDynamicDao;
+        private VdsDynamicDao vdsDynamicDao;
+        private VmNetworkInterfaceDao vmNetworkInterfaceDao;
+        private VmDevicesMonitoring vmDevicesMonitoring;
+
+        private List<Map<String, Object>> payloads;
+        private List<VdsmVm> vdsmVms;
+        private Map<Guid, VmDynamic> dbVms;
+        private Map<Guid, VmManager> vmManagers;
+        private Map<Guid, List<VmNetworkInterface>> dbNics;
+
+        @Setup
+        public void setup() {
+            BenchmarkConfig.install()
+                    .with(ConfigValues.VdsRefreshRate, 2L)
+                    .with(ConfigValues.NumberVmRefreshesBeforeSave, 5)
+                    .with(ConfigValues.UsageHistoryLimit, 40)
+                    .with(ConfigValues.GuestNicNamesBlacklist, Collections.singletonList("lo"))
+                    .with(ConfigValues.VmsMonitoringSkipUnchangedRows, true)
+                    .with(ConfigValues.VmsMonitoringMaxSkippedStatisticsSaves, 4);
+
+            builder = new VdsBrokerObjectsBuilder();
+            host = new VDS();
+            host.setId(Guid.newGuid());
+            host.setVdsName("host");
+            host.setBalloonEnabled(true);
+            vdsManager = newInstance(VdsManager.class,
+                    new Class<?>[] { VDS.class, ResourceManager.class },
+                    host,
+                    null);
+            vdsManager.setInitialized(true);
+
+            Random random = new Random(vmCount);
+            payloads = new ArrayList<>(vmCount);
+            dbNics = new HashMap<>();
+            for (int i = 0; i < vmCount; i++) {
+                Guid vmId = Guid.newGuid();
+                String macAddress = String.format("56:6f:%02x:%02x:%02x:%02x",
+                        (i >> 24) & 0xff, (i >> 16) & 0xff, (i >> 8) & 0xff, i & 0xff);
+                payloads.add(createPayload(vmId, i, macAddress, random));
+                dbNics.put(vmId, Collections.singletonList(createDbNic(vmId, macAddress)));
+            }
+
+            vdsmVms = parse();
+            dbVms = new HashMap<>();
+            vmManagers = new HashMap<>();
+            for (VdsmVm vdsmVm : vdsmVms) {
+                VmDynamic dbVm = new VmDynamic(vdsmVm.getVmDynamic());
+                dbVm.setRunOnVds(host.getId());
+                dbVms.put(dbVm.getId(), dbVm);
+                VmManager vmManager = newInstance(VmManager.class, new Class<?>[] { Guid.class }, dbVm.getId());
+                vmManager.setClusterCompatibilityVersion(Version.getLast());
+                vmManagers.put(dbVm.getId(), vmManager);
+            }
+
+            vdsDynamicDao = stub(VdsDynamicDao.class, "get", args -> host.getDynamicData());
+            vmNetworkInterfaceDao = stub(VmNetworkInterfaceDao.class,
+                    "getAllForMonitoredVm",
+                    args -> dbNics.get(args[0]));
+            vmDynamicDao = new VmDynamicDaoImpl() {
+                private final DbEngineDialect dialect = new PostgresDbEngineDialect();
+
+                @Override
+                protected DbEngineDialect getDialect() {
+                    return dialect;
+                }
+
+                @Override
+                public List<Pair<Guid, String>> getAllDevicesHashes() {
+                    return vdsmVms.stream()
+                            .map(vm -> new Pair<>(vm.getId(), vm.getDevicesHash()))
+                            .collect(Collectors.toList());
+                }
+            };
+            vmDevicesMonitoring = new VmDevicesMonitoring() {
+                @Override
+                VmDynamicDao getVmDynamicDao() {
+                    return vmDynamicDao;
+                }
+            };
+            vmDevicesMonitoring.initDevicesStatuses(System.nanoTime());
+        }
+
+        public List<VdsmVm> parse() {
+            List<VdsmVm> vms = new ArrayList<>(payloads.size());
+            for (Map<String, Object> struct : payloads) {
+                VmDynamic vmDynamic = builder.buildVMDynamicData(struct, host);
+                Guid vmId = vmDynamic.getId();
+                vms.add(new VdsmVm(builder.getVdsmCallTimestamp(struct))
+                        .setVmDynamic(vmDynamic)
+                        .setDevicesHash(builder.getVmDevicesHash(struct))
+                        .setVmStatistics(builder.buildVMStatisticsData(struct))
+                        .setVmJobs(builder.buildVmJobsData(struct))
+                        .setInterfaceStatistics(builder.buildInterfaceStatisticsData(struct))
+                        .setVmBalloonInfo(builder.buildVmBalloonInfo(struct))
+                        .setVmGuestAgentInterfaces(builder.buildVmGuestAgentInterfacesData(vmId, struct))
+                        .setLunsMap(builder.buildVmLunDisksData(struct))
+                        .setDiskStatistics(builder.buildVmDiskStatistics(struct)));
+            }
+            return vms;
+        }
+
+        public VmsMonitoringFlush analyze(List<VdsmVm> vms) {
+            List<VmAnalyzer> vmAnalyzers = new ArrayList<>(vms.size());
+            for (VdsmVm vdsmVm : vms) {
+                VmAnalyzer vmAnalyzer = createVmAnalyzer(dbVms.get(vdsmVm.getId()), vdsmVm);
+                vmAnalyzer.analyze();
+                vmAnalyzers.add(vmAnalyzer);
+            }
+            VmsMonitoringFlush flush = VmsMonitoringFlush.of(vmAnalyzers, true, 4);
+            flush.getVmStatistics().forEach(stats -> vmManagers.get(stats.getId()).statisticsSaved(stats));
+            return flush;
+        }
+
+        public void processDevices(List<VdsmVm> vms) {
+            VmDevicesMonitoring.Change change = vmDevicesMonitoring.createChange(host.getId(), System.nanoTime());
+            vms.stream()
+                    .sorted(Comparator.comparing(VdsmVm::getId))
+                    .forEach(vm -> change.updateVm(vm.getId(), vm.getDevicesHash()));
+            change.flush();
+        }
+
+        private VmAnalyzer createVmAnalyzer(VmDynamic dbVm, VdsmVm vdsmVm) {
+            VmManager vmManager = vmManagers.get(dbVm.getId());
+            return new VmAnalyzer(dbVm,
+                    vdsmVm,
+                    true,
+                    true,
+                    vdsManager,
+                    null,
+                    null,
+                    vmDynamicDao,
+                    vdsDynamicDao,
+                    vmNetworkInterfaceDao) {
+                @Override
+                protected VmManager getVmManager() {
+                    return vmManager;
+                }
+            };
+        }
+
+        private static Map<String, Object> createPayload(Guid vmId, int index, String macAddress, Random random) {
+            Map<String, Object> struct = new HashMap<>();
+            struct.put(VdsProperties.vm_guid, vmId.toString());
+            struct.put(VdsProperties.status, "Up");
+            struct.put(VdsProperties.statusTime, "4295739630");
+            struct.put(VdsProperties.hash, Integer.toString(random.nextInt()));
+            struct.put(VdsProperties.session, "Unknown");
+            struct.put(VdsProperties.elapsed_time, Integer.toString(random.nextInt(1000000)));
+            struct.put(VdsProperties.cpu_sys, String.format("%.2f", random.nextDouble()));
+            struct.put(VdsProperties.cpu_user, String.format("%.2f", 10 * random.nextDouble()));
+            struct.put(VdsProperties.vm_usage_mem_percent, Integer.toString(random.nextInt(100)));
+            struct.put(VdsProperties.VM_FQDN, "vm" + index + ".example.com");
+            struct.put(VdsProperties.guest_os, "3.10.0-862.el7.x86_64");
+
+            Map<String, Object> memoryStats = new HashMap<>();
+            memoryStats.put(VdsProperties.vm_guest_mem_buffered, "2048");
+            memoryStats.put(VdsProperties.vm_guest_mem_cached, "524288");
+            memoryStats.put(VdsProperties.vm_guest_mem_free, Integer.toString(random.nextInt(1048576)));
+            struct.put(VdsProperties.vm_guest_mem_stats, memoryStats);
+
+            Map<String, Object> display = new HashMap<>();
+            display.put(VdsProperties.type, "spice");
+            display.put(VdsProperties.ipAddress, "10.35.0.1");
+            display.put(VdsProperties.port, Integer.toString(5900 + 2 * index));
+            display.put(VdsProperties.tlsPort, Integer.toString(5901 + 2 * index));
+            struct.put(VdsProperties.displayInfo, new Object[] { display });
+
+            Map<String, Object> nic = new HashMap<>();
+            nic.put(VdsProperties.VM_INTERFACE_NAME, "vnet" + index);
+            nic.put(VdsProperties.MAC_ADDR, macAddress);
+            nic.put(VdsProperties.INTERFACE_SPEED, "1000");
+            nic.put(VdsProperties.rx_dropped, "0");
+            nic.put(VdsProperties.tx_dropped, "0");
+            nic.put(VdsProperties.rx_total, Long.toString(random.nextInt(Integer.MAX_VALUE)));
+            nic.put(VdsProperties.tx_total, Long.toString(random.nextInt(Integer.MAX_VALUE)));
+            nic.put(VdsProperties.sample_time, "4295739.63");
+            struct.put(VdsProperties.VM_NETWORK, Collections.singletonMap("vnet" + index, nic));
+
+            Map<String, Object> disk = new HashMap<>();
+            disk.put(VdsProperties.image_group_id, Guid.newGuid().toString());
+            disk.put(VdsProperties.vm_disk_read_rate, Integer.toString(random.nextInt(1024)));
+            disk.put(VdsProperties.vm_disk_write_rate, Integer.toString(random.nextInt(1024)));
+            disk.put(VdsProperties.disk_true_size, "10737418240");
+            disk.put(VdsProperties.vm_disk_read_latency, "120000");
+            disk.put(VdsProperties.vm_disk_write_latency, "240000");
+            disk.put(VdsProperties.vm_disk_flush_latency, "80000");
+            struct.put(VdsProperties.vm_disks, Collections.singletonMap("vda", disk));
+
+            Map<String, Object> balloonInfo = new HashMap<>();
+            balloonInfo.put(VdsProperties.vm_balloon_cur, "4194304");
+            balloonInfo.put(VdsProperties.vm_balloon_max, "4194304");
+            balloonInfo.put(VdsProperties.vm_balloon_min, "2097152");
+            balloonInfo.put(VdsProperties.vm_balloon_target, "4194304");
+            struct.put(VdsProperties.vm_balloonInfo, balloonInfo);
+            return struct;
+        }
+
+        private static VmNetworkInterface createDbNic(Guid vmId, String macAddress) {
+            VmNetworkInterface nic = new VmNetworkInterface();
+            nic.setId(Guid.newGuid());
+            nic.setVmId(vmId);
+            nic.setMacAddress(macAddress);
+            nic.setSpeed(1000);
+            nic.getStatistics().setId(nic.getId());
+            nic.getStatistics().setVmId(vmId);
+            return nic;
+        }
+
+        /**
+         * Creates a DAO which answers the given method and fails on any other
+         */
+        @SuppressWarnings("unchecked")
+        private static <T> T stub(Class<T> dao, String methodName, Function<Object[], Object> answer) {
+            return (T) Proxy.newProxyInstance(dao.getClassLoader(), new Class<?>[] { dao }, (proxy, method, args) -> {
+                if (method.getName().equals(methodName)) {
+                    return answer.apply(args);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        }
+
+        /**
+         * The managers are created by CDI in the engine, they are created directly here without their
+         * injected members
+         */
+        private static <T> T newInstance(Class<T> type, Class<?>[] parameterTypes, Object... args) {
+            try {
+                Constructor<T> constructor = type.getDeclaredConstructor(parameterTypes);
+                constructor.setAccessible(true);
+                return constructor.newInstance(args);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.ovirt.engine.core.vdsbroker.vdsbroker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.benchmarks.BenchmarkConfig;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.vdsbroker.monitoring.VdsmVm;
+import org.ovirt.vdsm.jsonrpc.client.JsonRpcResponse;
+import org.ovirt.vdsm.jsonrpc.client.ResponseDecomposer;
+
+/**
+ * <p> Benchmarks the decoding of the {@code Host.getAllVmStats} responses of a host with 10, 100 and 1000 VMs:
+ * <ul>
+ *     <li><b>mapDecoding</b> decomposes the response into nested maps and builds the VMs out of them with
+ *     {@link VdsBrokerObjectsBuilder}</li>
+ *     <li><b>typedDecoding</b> decodes the response with {@link VmStatsDecoder}, the way it is done when the verb is
+ *     listed in {@link ConfigValues#VdsmTypedDecodingVerbs}</li>
+ * </ul>
+ * The response is parsed into a tree once, as the client library does before the engine gets it.
+ * Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm} to see the allocations per poll.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VmStatsDecodingBenchmark {
+
+    @SuppressWarnings("unchecked")
+    @Benchmark
+    public void mapDecoding(BenchmarkState state, Blackhole blackhole) {
+        Object[] structs = (Object[]) new ResponseDecomposer(state.response).decomposeResponse(Object[].class);
+        List<VdsmVm> vms = new ArrayList<>(structs.length);
+        for (Object struct : structs) {
+            vms.add(state.createVdsmVm((Map<String, Object>) struct));
+        }
+        blackhole.consume(vms);
+    }
+
+    @Benchmark
+    public void typedDecoding(BenchmarkState state, Blackhole blackhole) throws IOException {
+        List<VmStatsDecoder.DecodedVm> decodedVms = VmStatsDecoder.decode(state.response.getResult());
+        List<VdsmVm> vms = new ArrayList<>(decodedVms.size());
+        for (VmStatsDecoder.DecodedVm decodedVm : decodedVms) {
+            vms.add(state.createVdsmVm(decodedVm));
+        }
+        blackhole.consume(vms);
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({"10", "100", "1000"})
+        private int vmCount;
+
+        private VdsBrokerObjectsBuilder builder;
+        private VDS host;
+        private JsonRpcResponse response;
+
+        @Setup
+        public void setup() throws IOException {
+            BenchmarkConfig.install()
+                    .with(ConfigValues.GuestNicNamesBlacklist, Collections.singletonList("lo"));
+
+            builder = new VdsBrokerObjectsBuilder();
+            host = new VDS();
+            host.setId(Guid.newGuid());
+            host.setVdsName("host");
+
+            Random random = new Random(vmCount);
+            List<Map<String, Object>> payloads = new ArrayList<>(vmCount);
+            for (int i = 0; i < vmCount; i++) {
+                payloads.add(createPayload(i, random));
+            }
+            ObjectMapper mapper = new ObjectMapper();
+            ObjectNode message = mapper.createObjectNode();
+            message.put("jsonrpc", "2.0");
+            message.put("id", Guid.newGuid().toString());
+            message.put("result", mapper.valueToTree(payloads));
+            response = JsonRpcResponse.fromJsonNode(mapper.readTree(mapper.writeValueAsString(message)));
+        }
+
+        public VdsmVm createVdsmVm(Map<String, Object> struct) {
+            VmDynamic vmDynamic = builder.buildVMDynamicData(struct, host);
+            return new VdsmVm(builder.getVdsmCallTimestamp(struct))
+                    .setVmDynamic(vmDynamic)
+                    .setDevicesHash(builder.getVmDevicesHash(struct))
+                    .setVmStatistics(builder.buildVMStatisticsData(struct))
+                    .setVmJobs(builder.buildVmJobsData(struct))
+                    .setInterfaceStatistics(builder.buildInterfaceStatisticsData(struct))
+                    .setVmBalloonInfo(builder.buildVmBalloonInfo(struct))
+                    .setVmGuestAgentInterfaces(builder.buildVmGuestAgentInterfacesData(vmDynamic.getId(), struct))
+                    .setLunsMap(builder.buildVmLunDisksData(struct))
+                    .setDiskStatistics(builder.buildVmDiskStatistics(struct));
+        }
+
+        public VdsmVm createVdsmVm(VmStatsDecoder.DecodedVm decodedVm) {
+            Map<String, Object> struct = decodedVm.getStruct();
+            VmDynamic vmDynamic = builder.buildVMDynamicData(struct, host);
+            return decodedVm.getVdsmVm()
+                    .setVmDynamic(vmDynamic)
+                    .setVmJobs(builder.buildVmJobsData(struct))
+                    .setVmGuestAgentInterfaces(builder.buildVmGuestAgentInterfacesData(vmDynamic.getId(), struct));
+        }
+
+        private static Map<String, Object> createPayload(int index, Random random) {
+            Map<String, Object> struct = new HashMap<>();
+            struct.put(VdsProperties.vm_guid, Guid.newGuid().toString());
+            struct.put(VdsProperties.status, "Up");
+            struct.put(VdsProperties.statusTime, "4295739630");
+            struct.put(VdsProperties.hash, Integer.toString(random.nextInt()));
+            struct.put(VdsProperties.session, "Unknown");
+            struct.put(VdsProperties.elapsed_time, Integer.toString(random.nextInt(1000000)));
+            struct.put(VdsProperties.cpu_sys, String.format("%.2f", random.nextDouble()));
+            struct.put(VdsProperties.cpu_user, String.format("%.2f", 10 * random.nextDouble()));
+            struct.put(VdsProperties.vm_usage_mem_percent, Integer.toString(random.nextInt(100)));
+            struct.put(VdsProperties.VM_FQDN, "vm" + index + ".example.com");
+            struct.put(VdsProperties.guest_os, "3.10.0-862.el7.x86_64");
+
+            Map<String, Object> memoryStats = new HashMap<>();
+            memoryStats.put(VdsProperties.vm_guest_mem_buffered, "2048");
+            memoryStats.put(VdsProperties.vm_guest_mem_cached, "524288");
+            memoryStats.put(VdsProperties.vm_guest_mem_free, Integer.toString(random.nextInt(1048576)));
+            struct.put(VdsProperties.vm_guest_mem_stats, memoryStats);
+
+            Map<String, Object> display = new HashMap<>();
+            display.put(VdsProperties.type, "spice");
+            display.put(VdsProperties.ipAddress, "10.35.0.1");
+            display.put(VdsProperties.port, Integer.toString(5900 + 2 * index));
+            display.put(VdsProperties.tlsPort, Integer.toString(5901 + 2 * index));
+            struct.put(VdsProperties.displayInfo, Collections.singletonList(display));
+
+            Map<String, Object> nic = new HashMap<>();
+            nic.put(VdsProperties.VM_INTERFACE_NAME, "vnet" + index);
+            nic.put(VdsProperties.MAC_ADDR, String.format("56:6f:%02x:%02x:%02x:%02x",
+                    (index >> 24) & 0xff, (index >> 16) & 0xff, (index >> 8) & 0xff, index & 0xff));
+            nic.put(VdsProperties.INTERFACE_SPEED, "1000");
+            nic.put(VdsProperties.rx_dropped, "0");
+            nic.put(VdsProperties.tx_dropped, "0");
+            nic.put(VdsProperties.rx_total, Long.toString(random.nextInt(Integer.MAX_VALUE)));
+            nic.put(VdsProperties.tx_total, Long.toString(random.nextInt(Integer.MAX_VALUE)));
+            nic.put(VdsProperties.sample_time, "4295739.63");
+            struct.put(VdsProperties.VM_NETWORK, Collections.singletonMap("vnet" + index, nic));
+
+            Map<String, Object> disk = new HashMap<>();
+            disk.put(VdsProperties.image_group_id, Guid.newGuid().toString());
+            disk.put(VdsProperties.vm_disk_read_rate, Integer.toString(random.nextInt(1024)));
+            disk.put(VdsProperties.vm_disk_write_rate, Integer.toString(random.nextInt(1024)));
+            disk.put(VdsProperties.disk_true_size, "10737418240");
+            disk.put(VdsProperties.vm_disk_read_latency, "120000");
+            disk.put(VdsProperties.vm_disk_write_latency, "240000");
+            disk.put(VdsProperties.vm_disk_flush_latency, "80000");
+            struct.put(VdsProperties.vm_disks, Collections.singletonMap("vda", disk));
+
+            Map<String, Object> balloonInfo = new HashMap<>();
+            balloonInfo.put(VdsProperties.vm_balloon_cur, "4194304");
+            balloonInfo.put(VdsProperties.vm_balloon_max, "4194304");
+            balloonInfo.put(VdsProperties.vm_balloon_min, "2097152");
+            balloonInfo.put(VdsProperties.vm_balloon_target, "4194304");
+            struct.put(VdsProperties.vm_balloonInfo, balloonInfo);
+            return struct;
+        }
+    }
+}
@@ -39,6 +39,12 @@ public class LocalConfig {
     private static final String DEFAULT_VERSION = "ENGINE_API_DEFAULT_VERSION";
     private static final String FILTER_BY_DEFAULT = "ENGINE_API_FILTER_BY_DEFAULT";
     private static final String EXPLORER_DIRECTORY = "ENGINE_API_EXPLORER_DIRECTORY";
+    private static final String REQUEST_POOLS = "ENGINE_API_REQUEST_POOLS";
+    private static final String READ_POOL_SIZE = "ENGINE_API_READ_POOL_SIZE";
+    private static final String READ_QUEUE_SIZE = "ENGINE_API_READ_QUEUE_SIZE";
+    private static final String WRITE_POOL_SIZE = "ENGINE_API_WRITE_POOL_SIZE";
+    private static final String WRITE_QUEUE_SIZE = "ENGINE_API_WRITE_QUEUE_SIZE";
+    private static final String QUEUE_TIMEOUT = "ENGINE_API_QUEUE_TIMEOUT";
 
     // Reference to the engine local configuration, as that is what is used to actually read the configuration:
     private EngineLocalConfig config;
@@ -109,4 +115,47 @@ public class LocalConfig {
     public String getExplorerDirectory() {
         return config.getProperty(EXPLORER_DIRECTORY);
     }
+
+    /**
+     * Returns a boolean that indicates if the number of requests that are executed simultaneously should be limited
+     * separately for requests that read information and for requests that modify it.
+     */
+    public boolean getRequestPools() {
+        return config.getBoolean(REQUEST_POOLS, false);
+    }
+
+    /**
+     * Returns the maximum number of requests that only read information that can be executed simultaneously.
+     */
+    public int getReadPoolSize() {
+        return config.getInteger(READ_POOL_SIZE, 50);
+    }
+
+    /**
+     * Returns the maximum number of requests that only read information that can be waiting to be executed.
+     */
+    public int getReadQueueSize() {
+        return config.getInteger(READ_QUEUE_SIZE, 50);
+    }
+
+    /**
+     * Returns the maximum number of requests that modify information that can be executed simultaneously.
+     */
+    public int getWritePoolSize() {
+        return config.getInteger(WRITE_POOL_SIZE, 20);
+    }
+
+    /**
+     * Returns the maximum number of requests that modify information that can be waiting to be executed.
+     */
+    public int getWriteQueueSize() {
+        return config.getInteger(WRITE_QUEUE_SIZE, 20);
+    }
+
+    /**
+     * Returns the maximum time, in milliseconds, that a request can be waiting to be executed.
+     */
+    public long getQueueTimeout() {
+        return config.getLong(QUEUE_TIMEOUT, 5000L);
+    }
 }
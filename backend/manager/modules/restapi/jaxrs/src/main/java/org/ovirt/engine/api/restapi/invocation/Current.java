@@ -16,6 +16,7 @@ limitations under the License.
 
 package org.ovirt.engine.api.restapi.invocation;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -48,6 +49,11 @@ public class Current {
      */
     private String prefix;
 
+    /**
+     * The HTTP method of the current request, for example {@code GET}.
+     */
+    private String method;
+
     /**
      * The relative path of the current request, without the prefix of the application, for example
      * {@code /vms/123/disks}.
@@ -80,6 +86,16 @@ public class Current {
      */
     private BackendLocal backend;
 
+    /**
+     * The link to the next page of the collection returned by the current request, if it is paged by key.
+     */
+    private URI nextPage;
+
+    /**
+     * The entity tag of the document returned by the current request, if it supports conditional requests.
+     */
+    private String entityTag;
+
     /**
      * Returns the request version of the API.
      */
@@ -125,6 +141,17 @@ public class Current {
         this.prefix = prefix;
     }
 
+    /**
+     * Returns the HTTP method of the current request.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
     /**
      * Return the relative path of the current request, without the prefix of the application, for example
      * {@code /vms/123/disks}.
@@ -238,4 +265,28 @@ public class Current {
     public BackendLocal getBackend() {
         return backend;
     }
+
+    /**
+     * Returns the link to the next page of the collection returned by the current request, or {@code null} if there
+     * is no next page.
+     */
+    public URI getNextPage() {
+        return nextPage;
+    }
+
+    public void setNextPage(URI nextPage) {
+        this.nextPage = nextPage;
+    }
+
+    /**
+     * Returns the entity tag of the document returned by the current request, or {@code null} if it doesn't have
+     * one.
+     */
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    public void setEntityTag(String entityTag) {
+        this.entityTag = entityTag;
+    }
 }
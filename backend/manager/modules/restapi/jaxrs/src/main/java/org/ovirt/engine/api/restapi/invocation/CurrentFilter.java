@@ -106,6 +106,7 @@ public class CurrentFilter implements Filter {
         current.setUser(findPrincipal(sessionId));
         current.setRoot(getRoot(request));
         current.setPrefix(getPrefix(request));
+        current.setMethod(request.getMethod());
         current.setPath(getPath(request));
         current.setBackend(backend);
         String correlationId = getCorrelationId(request);
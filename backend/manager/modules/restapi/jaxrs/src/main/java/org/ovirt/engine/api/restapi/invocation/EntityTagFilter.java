@@ -0,0 +1,43 @@
+/*
+Copyright (c) 2018 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.engine.api.restapi.invocation;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * This filter adds to the response the {@code ETag} header containing the tag of the returned document, when the
+ * resource supports conditional requests, so that the caller can later send it in the {@code If-None-Match} header.
+ */
+@Provider
+public class EntityTagFilter implements ContainerResponseFilter {
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Current current = CurrentManager.get();
+        if (current != null && current.getEntityTag() != null
+                && response.getStatus() == Response.Status.OK.getStatusCode()
+                && !response.getHeaders().containsKey(HttpHeaders.ETAG)) {
+            EntityTag tag = new EntityTag(current.getEntityTag(), true);
+            response.getHeaders().add(HttpHeaders.ETAG, tag.toString());
+        }
+    }
+}
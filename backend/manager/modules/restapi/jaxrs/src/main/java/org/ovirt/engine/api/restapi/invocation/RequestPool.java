@@ -0,0 +1,163 @@
+/*
+Copyright (c) 2018 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.engine.api.restapi.invocation;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class limits the number of API requests of one kind that are executed simultaneously. Requests that exceed
+ * that number wait in a bounded queue, and when the queue is full, or when they waited too long, they are rejected.
+ * Waiting requests still hold their container threads, so this only bounds the number of container threads that
+ * each kind of request can take: the size of the pool plus the size of the queue.
+ */
+public class RequestPool implements RequestPoolMXBean {
+    /**
+     * The name of the pool, for example {@code read}.
+     */
+    private final String name;
+
+    /**
+     * The permits of the requests that can be executed simultaneously.
+     */
+    private final Semaphore permits;
+
+    /**
+     * The maximum number of requests that can be waiting.
+     */
+    private final int maxQueued;
+
+    /**
+     * The maximum time, in milliseconds, that a request can be waiting.
+     */
+    private final long maxWait;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitTime = new LongAdder();
+    private final LongAdder latency = new LongAdder();
+    private final LongAccumulator maxLatency = new LongAccumulator(Long::max, 0);
+
+    public RequestPool(String name, int maxActive, int maxQueued, long maxWait) {
+        this.name = name;
+        this.permits = new Semaphore(maxActive, true);
+        this.maxQueued = maxQueued;
+        this.maxWait = maxWait;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Waits till the request can be executed.
+     *
+     * @return the time, in nanoseconds, when the request started to execute, or -1 if it has been rejected, in which
+     *     case {@link #release(long)} must not be called
+     */
+    public long acquire() throws InterruptedException {
+        long start = System.nanoTime();
+        if (!permits.tryAcquire()) {
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                rejected.increment();
+                return -1;
+            }
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS);
+            } finally {
+                queued.decrementAndGet();
+            }
+            if (!acquired) {
+                rejected.increment();
+                return -1;
+            }
+        }
+        active.incrementAndGet();
+        long now = System.nanoTime();
+        waitTime.add(now - start);
+        return now;
+    }
+
+    /**
+     * Indicates that the execution of the request finished, so that the next one can start.
+     *
+     * @param start the value returned by {@link #acquire()}
+     */
+    public void release(long start) {
+        active.decrementAndGet();
+        permits.release();
+        long elapsed = System.nanoTime() - start;
+        completed.increment();
+        latency.add(elapsed);
+        maxLatency.accumulate(elapsed);
+    }
+
+    @Override
+    public int getActive() {
+        return active.get();
+    }
+
+    @Override
+    public int getQueued() {
+        return queued.get();
+    }
+
+    @Override
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    @Override
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public double getAverageWaitTime() {
+        return average(waitTime.sum(), completed.sum());
+    }
+
+    @Override
+    public double getAverageLatency() {
+        return average(latency.sum(), completed.sum());
+    }
+
+    @Override
+    public long getMaxLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatency.get());
+    }
+
+    @Override
+    public void resetStatistics() {
+        completed.reset();
+        rejected.reset();
+        waitTime.reset();
+        latency.reset();
+        maxLatency.reset();
+    }
+
+    private static double average(long nanos, long count) {
+        return count == 0 ? 0 : nanos / 1e6 / count;
+    }
+}
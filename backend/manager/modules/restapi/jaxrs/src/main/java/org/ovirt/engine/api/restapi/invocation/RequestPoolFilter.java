@@ -0,0 +1,144 @@
+/*
+Copyright (c) 2018 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.engine.api.restapi.invocation;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.ovirt.engine.api.restapi.LocalConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This filter limits separately the number of requests that only read information and of requests that modify it
+ * that are executed simultaneously, so that a burst of slow actions, for example disk operations waiting for locks,
+ * can't use all the threads of the container. Requests that exceed the limit wait in a bounded queue, and when the
+ * queue is full, or when they waited too long, they are rejected with code 503 (service unavailable) and a
+ * {@code Retry-After} header. The requests run, and wait, in the container threads, so this isn't an asynchronous
+ * execution of the requests, it only bounds the number of container threads that each kind of request can take. It
+ * is disabled by default, see {@link LocalConfig#getRequestPools()}.
+ */
+public class RequestPoolFilter implements Filter {
+    private static final Logger log = LoggerFactory.getLogger(RequestPoolFilter.class);
+
+    /**
+     * The number of seconds that the caller is asked to wait before retrying a rejected request.
+     */
+    private static final String RETRY_AFTER = "5";
+
+    private RequestPool readPool;
+    private RequestPool writePool;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        LocalConfig config = LocalConfig.getInstance();
+        if (!config.getRequestPools()) {
+            return;
+        }
+        readPool = new RequestPool("read", config.getReadPoolSize(), config.getReadQueueSize(),
+                config.getQueueTimeout());
+        writePool = new RequestPool("write", config.getWritePoolSize(), config.getWriteQueueSize(),
+                config.getQueueTimeout());
+        register(readPool);
+        register(writePool);
+    }
+
+    @Override
+    public void destroy() {
+        if (readPool == null) {
+            return;
+        }
+        unregister(readPool);
+        unregister(writePool);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (readPool == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        doFilter((HttpServletRequest) request, (HttpServletResponse) response, chain);
+    }
+
+    private void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        RequestPool pool = isRead(request.getMethod()) ? readPool : writePool;
+        long start;
+        try {
+            start = pool.acquire();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            start = -1;
+        }
+        if (start == -1) {
+            log.warn(
+                "Request '{} {}' has been rejected because the '{}' pool is busy.",
+                request.getMethod(), request.getRequestURI(), pool.getName()
+            );
+            response.setHeader("Retry-After", RETRY_AFTER);
+            response.sendError(
+                HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                "The server is too busy to process the request, try again later."
+            );
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            pool.release(start);
+        }
+    }
+
+    private static boolean isRead(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    private static void register(RequestPool pool) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(pool, getObjectName(pool));
+        } catch (Exception e) {
+            log.debug("Problem during registration of request pool '{}' into JMX: {}", pool.getName(), e);
+        }
+    }
+
+    private static void unregister(RequestPool pool) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.unregisterMBean(getObjectName(pool));
+        } catch (Exception e) {
+            log.debug("Problem during unregistration of request pool '{}' from JMX: {}", pool.getName(), e);
+        }
+    }
+
+    private static ObjectName getObjectName(RequestPool pool) throws Exception {
+        return new ObjectName("RestApiRequestPool:type=" + RequestPool.class.getName() + ",name=" + pool.getName());
+    }
+}
@@ -0,0 +1,60 @@
+/*
+Copyright (c) 2018 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.engine.api.restapi.invocation;
+
+/**
+ * The statistics of a pool of API requests, exposed via JMX.
+ */
+public interface RequestPoolMXBean {
+    /**
+     * Returns the number of requests currently being executed.
+     */
+    int getActive();
+
+    /**
+     * Returns the number of requests currently waiting to be executed.
+     */
+    int getQueued();
+
+    /**
+     * Returns the number of requests that have been executed.
+     */
+    long getCompleted();
+
+    /**
+     * Returns the number of requests that have been rejected because the queue was full or because
+     * they waited too long.
+     */
+    long getRejected();
+
+    /**
+     * Returns the average time, in milliseconds, that requests waited before being executed.
+     */
+    double getAverageWaitTime();
+
+    /**
+     * Returns the average time, in milliseconds, that requests took to execute.
+     */
+    double getAverageLatency();
+
+    /**
+     * Returns the maximum time, in milliseconds, that a request took to execute.
+     */
+    long getMaxLatency();
+
+    void resetStatistics();
+}
@@ -24,11 +24,11 @@ import org.codehaus.jackson.map.ser.CustomSerializerFactory;
 import org.codehaus.jackson.xc.JaxbAnnotationIntrospector;
 
 public class CustomObjectMapper extends ObjectMapper {
-    public static CustomObjectMapper get() {
+    public static CustomObjectMapper get(boolean indent) {
         CustomObjectMapper mapper = new CustomObjectMapper();
         mapper.setSerializer(new CustomBeanFactory())
                 .includeDefaults(false)
-                .indent(true)
+                .indent(indent)
                 .addSerializationConfig();
         return mapper;
     }
@@ -21,11 +21,16 @@ import java.lang.reflect.Type;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.Provider;
 
 import org.codehaus.jackson.jaxrs.JacksonJsonProvider;
+import org.codehaus.jackson.map.ObjectMapper;
 import org.ovirt.engine.api.restapi.invocation.CurrentManager;
+import org.ovirt.engine.api.restapi.util.FormatHelper;
 
 @Provider
 @Consumes(MediaType.APPLICATION_JSON)
@@ -34,9 +39,26 @@ public class JSONProvider extends JacksonJsonProvider {
     // The version of the API supported by this provider:
     public static final String SUPPORTED_VERSION = "4";
 
+    // The mapper used when the client asks for an indented document, the default mapper doesn't indent:
+    private final ObjectMapper prettyMapper = CustomObjectMapper.get(true);
+
+    @Context
+    private HttpHeaders httpHeaders;
+
+    @Context
+    private UriInfo uriInfo;
+
     public JSONProvider() {
         super();
-        setMapper(CustomObjectMapper.get());
+        setMapper(CustomObjectMapper.get(false));
+    }
+
+    @Override
+    public ObjectMapper locateMapper(Class<?> type, MediaType mediaType) {
+        if (FormatHelper.isPretty(httpHeaders, uriInfo)) {
+            return prettyMapper;
+        }
+        return super.locateMapper(type, mediaType);
     }
 
     @Override
@@ -4,15 +4,21 @@ import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import javax.ws.rs.core.Response;
 
 import org.ovirt.engine.api.model.ActionableResource;
 import org.ovirt.engine.api.model.BaseResource;
 import org.ovirt.engine.api.model.CreationStatus;
+import org.ovirt.engine.api.restapi.invocation.Current;
+import org.ovirt.engine.api.restapi.invocation.CurrentManager;
 import org.ovirt.engine.api.restapi.util.ExpectationHelper;
+import org.ovirt.engine.api.restapi.util.FieldsHelper;
 import org.ovirt.engine.api.restapi.util.LinkHelper;
 import org.ovirt.engine.api.restapi.util.ParametersHelper;
 import org.ovirt.engine.api.restapi.util.QueryHelper;
@@ -33,9 +39,15 @@ public abstract class AbstractBackendCollectionResource<R extends BaseResource,
     private static final String BLOCKING_EXPECTATION = "201-created";
     private static final String CREATION_STATUS_REL = "creation_status";
     public static final String FROM_CONSTRAINT_PARAMETER = "from";
+    public static final String AFTER_CONSTRAINT_PARAMETER = "after";
     public static final String CASE_SENSITIVE_CONSTRAINT_PARAMETER = "case_sensitive";
+    private static final Pattern SORTED_OR_PAGED_PATTERN =
+            Pattern.compile("(^|\\s)(sortby|page)(\\s|$)", Pattern.CASE_INSENSITIVE);
     private static final Logger log = LoggerFactory.getLogger(AbstractBackendCollectionResource.class);
 
+    private Set<String> fields;
+    private boolean fieldsParsed;
+
     protected AbstractBackendCollectionResource(Class<R> modelType, Class<Q> entityType) {
         super(modelType, entityType);
     }
@@ -45,9 +57,12 @@ public abstract class AbstractBackendCollectionResource<R extends BaseResource,
     }
 
     protected List<Q> getBackendCollection(SearchType searchType, String constraint) {
-        return getBackendCollection(entityType,
-                QueryType.Search,
-                getSearchParameters(searchType, constraint));
+        SearchParameters searchParams = getSearchParameters(searchType, constraint);
+        List<Q> entities = getBackendCollection(entityType, QueryType.Search, searchParams);
+        if (searchParams.getSearchAfter() != null) {
+            setNextPage(entities, searchParams.getMaxCount());
+        }
+        return entities;
     }
 
     private SearchParameters getSearchParameters(SearchType searchType, String constraint) {
@@ -55,15 +70,92 @@ public abstract class AbstractBackendCollectionResource<R extends BaseResource,
         boolean caseSensitive = ParametersHelper.getBooleanParameter(httpHeaders, uriInfo, CASE_SENSITIVE_CONSTRAINT_PARAMETER, true, false);
         int from = ParametersHelper.getIntegerParameter(httpHeaders, uriInfo, FROM_CONSTRAINT_PARAMETER, -1, -1);
         int max = ParametersHelper.getIntegerParameter(httpHeaders, uriInfo, MAX, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        String after = ParametersHelper.getParameter(httpHeaders, uriInfo, AFTER_CONSTRAINT_PARAMETER);
 
         searchParams.setCaseSensitive(caseSensitive);
         if (from != -1) {
             searchParams.setSearchFrom(from);
         }
+        if (after != null) {
+            // the pages are sorted by id, and the next one is found with the id of the last entity of the previous
+            // one, so they can't be sorted by other fields or skipped
+            if (constraint != null && SORTED_OR_PAGED_PATTERN.matcher(constraint).find()) {
+                badRequest("The parameter \"" + AFTER_CONSTRAINT_PARAMETER
+                        + "\" can't be used with a search that contains \"sortby\" or \"page\".");
+            }
+            searchParams.setSearchAfter(decodePageToken(after));
+        }
         searchParams.setMaxCount(max);
+        searchParams.setFields(getFields());
         return searchParams;
     }
 
+    /**
+     * Returns the names of the fields requested by the caller with the {@code fields} parameter, so that the
+     * collection resources can avoid loading and returning the others.
+     *
+     * @return the names of the requested fields, or {@code null} if all the fields should be returned
+     */
+    protected Set<String> getFields() {
+        // checked for every field of every returned entity, so the parameter is parsed once per request, which is
+        // the life time of the resource
+        if (!fieldsParsed) {
+            fields = FieldsHelper.getFields(httpHeaders, uriInfo);
+            fieldsParsed = true;
+        }
+        return fields;
+    }
+
+    /**
+     * Checks if the given field has been requested by the caller with the {@code fields} parameter.
+     */
+    protected boolean isFieldRequested(String field) {
+        Set<String> fields = getFields();
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * When the collection is paged by key and the page is full, remembers the link to the next page, so that it is
+     * returned to the client in the {@code Link} header of the response. The link contains the {@code after} parameter
+     * with an opaque token built from the key of the last entity of the page, see {@link #getPageKey(Object)}.
+     */
+    private void setNextPage(List<Q> entities, int max) {
+        if (max == Integer.MAX_VALUE || entities.isEmpty() || entities.size() < max) {
+            return;
+        }
+        Object key = getPageKey(entities.get(entities.size() - 1));
+        Current current = CurrentManager.get();
+        if (key == null || current == null) {
+            return;
+        }
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                key.toString().getBytes(StandardCharsets.UTF_8));
+        current.setNextPage(uriInfo.getRequestUriBuilder()
+                .replaceQueryParam(AFTER_CONSTRAINT_PARAMETER, token)
+                .build());
+    }
+
+    /**
+     * Obtains the key used to find the next page of a collection paged by key, which must be the primary key of the
+     * search of the collection. By default it is the id returned by {@link #getId(Object)}, and it should be overridden
+     * by resources whose entities use a different id, for example the disks, whose id is the id of their image.
+     *
+     * @param entity the last entity of the page
+     * @return the key of the entity, or {@code null} if the entity doesn't have one
+     */
+    protected Object getPageKey(Q entity) {
+        return getId(entity);
+    }
+
+    private String decodePageToken(String token) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException exception) {
+            badRequest("The value \"" + token + "\" of parameter \"" + AFTER_CONSTRAINT_PARAMETER + "\" isn't valid.");
+            return null;
+        }
+    }
+
     protected List<Q> getBackendCollection(QueryType query, QueryParametersBase queryParams) {
         return getBackendCollection(entityType, query, queryParams);
     }
@@ -6,6 +6,7 @@ import javax.ws.rs.core.Response;
 import org.ovirt.engine.api.common.util.MutabilityAssertor;
 import org.ovirt.engine.api.model.BaseResource;
 import org.ovirt.engine.api.restapi.logging.Messages;
+import org.ovirt.engine.api.restapi.util.EntityTagHelper;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
@@ -32,9 +33,30 @@ public abstract class AbstractBackendSubResource<R extends BaseResource, Q /* ex
 
     protected R performGet(QueryType query, QueryParametersBase params, Class<? extends BaseResource> suggestedParentType) {
         Q entity = getEntity(entityType, query, params, id, true);
+        if (isConditionalGetSupported()) {
+            checkNotModified(getEntityVersion(entity));
+        }
         return addLinks(populate(map(entity, null), entity), suggestedParentType);
     }
 
+    /**
+     * Indicates if this resource answers {@code GET} requests with entity tags, and supports the
+     * {@code If-None-Match} header. Resources should only enable it when the returned document depends only on the
+     * backend entity returned by the query.
+     */
+    protected boolean isConditionalGetSupported() {
+        return false;
+    }
+
+    /**
+     * Returns the version of the given backend entity, used to compute its entity tag. Resources that support
+     * conditional {@code GET} return one of the versions computed by {@link EntityTagHelper}, by default there is
+     * none and no tag is computed.
+     */
+    protected Object getEntityVersion(Q entity) {
+        return null;
+    }
+
     protected <T> Q getEntity(EntityIdResolver<T> entityResolver, boolean notFoundAs404) {
         try {
             return entityResolver.resolve((T) guid);
@@ -136,6 +136,12 @@ public class BackendDisksResource
         return collection;
     }
 
+    @Override
+    protected Object getPageKey(org.ovirt.engine.core.common.businessentities.storage.Disk entity) {
+        // the id of the disk images is the id of the image, but the disks are searched and paged by the id of the disk
+        return entity.getId();
+    }
+
     @Override
     protected Disk addLinks(Disk model, Class<? extends BaseResource> suggestedParent, String... subCollectionMembersToExclude) {
         // Currently the method that adds the links doesn't take into account that links need to be added also to
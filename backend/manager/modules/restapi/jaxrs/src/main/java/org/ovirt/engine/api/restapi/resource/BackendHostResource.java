@@ -38,6 +38,7 @@ import org.ovirt.engine.api.resource.UnmanagedNetworksResource;
 import org.ovirt.engine.api.resource.externalhostproviders.KatelloErrataResource;
 import org.ovirt.engine.api.restapi.resource.externalhostproviders.BackendHostKatelloErrataResource;
 import org.ovirt.engine.api.restapi.types.Mapper;
+import org.ovirt.engine.api.restapi.util.EntityTagHelper;
 import org.ovirt.engine.api.restapi.util.ParametersHelper;
 import org.ovirt.engine.core.common.VdcObjectType;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
@@ -94,6 +95,16 @@ public class BackendHostResource extends AbstractBackendActionableResource<Host,
         this.parent = parent;
     }
 
+    @Override
+    protected boolean isConditionalGetSupported() {
+        return true;
+    }
+
+    @Override
+    protected Object getEntityVersion(VDS entity) {
+        return EntityTagHelper.versionOf(entity);
+    }
+
     @Override
     public Host get() {
         return getVdsByVdsId();
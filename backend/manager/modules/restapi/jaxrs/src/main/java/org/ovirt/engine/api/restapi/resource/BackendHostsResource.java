@@ -12,6 +12,7 @@ import org.ovirt.engine.api.model.HostedEngine;
 import org.ovirt.engine.api.model.Hosts;
 import org.ovirt.engine.api.resource.HostResource;
 import org.ovirt.engine.api.resource.HostsResource;
+import org.ovirt.engine.api.restapi.util.EntityTagHelper;
 import org.ovirt.engine.api.restapi.util.ParametersHelper;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.action.VdsOperationActionParameters;
@@ -118,6 +119,7 @@ public class BackendHostsResource extends AbstractBackendCollectionResource<Host
     }
 
     private Hosts mapCollection(List<VDS> entities) {
+        checkNotModified(entities.stream().map(EntityTagHelper::versionOf).collect(Collectors.toList()));
         Hosts collection = new Hosts();
         for (VDS entity : entities) {
             collection.getHosts().add(addLinks(populate(map(entity), entity)));
@@ -126,6 +128,7 @@ public class BackendHostsResource extends AbstractBackendCollectionResource<Host
     }
 
     private Hosts mapGlusterOnlyCollection(List<VDS> entities) {
+        checkNotModified(entities.stream().map(EntityTagHelper::versionOf).collect(Collectors.toList()));
         Hosts collection = new Hosts();
         for (VDS entity : entities) {
             collection.getHosts().add(addLinks(populate(map(entity), entity), GLUSTERONLY_MODE_COLLECTIONS_TO_HIDE));
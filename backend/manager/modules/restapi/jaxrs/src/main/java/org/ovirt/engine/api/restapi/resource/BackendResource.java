@@ -7,11 +7,16 @@ import java.util.List;
 import java.util.Set;
 
 import javax.ws.rs.GET;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.Response;
 
 import org.ovirt.engine.api.model.Action;
 import org.ovirt.engine.api.model.CreationStatus;
 import org.ovirt.engine.api.model.Job;
+import org.ovirt.engine.api.restapi.invocation.Current;
+import org.ovirt.engine.api.restapi.util.EntityTagHelper;
 import org.ovirt.engine.api.restapi.util.ErrorMessageHelper;
 import org.ovirt.engine.api.restapi.util.ExpectationHelper;
 import org.ovirt.engine.api.restapi.util.LinkHelper;
@@ -21,6 +26,7 @@ import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.ActionReturnValue;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.action.RunAsyncActionParameters;
+import org.ovirt.engine.core.common.businessentities.aaa.DbUser;
 import org.ovirt.engine.core.common.config.ConfigCommon;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.interfaces.BackendLocal;
@@ -216,6 +222,35 @@ public class BackendResource extends BaseBackendResource {
         throw new WebFaultException(null, message, Response.Status.BAD_REQUEST);
     }
 
+    /**
+     * Computes the entity tag of the document that will be returned for the given backend entity, or collection of
+     * entities, and if the caller already has that version of the document, as indicated by the {@code If-None-Match}
+     * header, stops processing the request, answering with {@code 304 Not Modified}. Otherwise remembers the tag, so
+     * that it is returned in the {@code ETag} header of the response. This should be called before mapping the
+     * entities, so that mapping and marshalling are avoided when the document didn't change.
+     *
+     * Only plain {@code GET} requests are considered. When {@code All-Content} is requested, or links are followed,
+     * the document contains information loaded by additional queries, not reflected in the backend entities, so no
+     * tag is computed.
+     *
+     * @param version the version of the backend entity, or the list of versions of the entities, that will be
+     *     returned, see {@link EntityTagHelper}
+     */
+    protected void checkNotModified(Object version) {
+        Current current = getCurrent();
+        if (version == null || current == null || !HttpMethod.GET.equals(current.getMethod())
+                || current.getEntityTag() != null || isPopulate() || isFollow()) {
+            return;
+        }
+        DbUser user = current.getUser();
+        String variant = current.getVersion() + ":" + (user != null ? user.getId() : null);
+        String tag = EntityTagHelper.getTag(version, httpHeaders, uriInfo, variant);
+        if (EntityTagHelper.matches(httpHeaders, tag)) {
+            throw new WebApplicationException(Response.notModified(new EntityTag(tag, true)).build());
+        }
+        current.setEntityTag(tag);
+    }
+
     protected boolean expectNonBlocking() {
         Set<String> expectations = ExpectationHelper.getExpectations(httpHeaders);
         return expectations.contains(NON_BLOCKING_EXPECTATION);
@@ -295,6 +330,14 @@ public class BackendResource extends BaseBackendResource {
         return null;
     }
 
+    /**
+     * @return true if the request asks to follow links with the {@code follow} parameter
+     */
+    protected boolean isFollow() {
+        String follow = ParametersHelper.getParameter(httpHeaders, uriInfo, FOLLOW);
+        return follow != null && !follow.isEmpty();
+    }
+
     /**
      * @return true if request header contains [All-Content='true']
      */
@@ -32,6 +32,7 @@ import org.ovirt.engine.api.resource.StorageDomainResource;
 import org.ovirt.engine.api.resource.StorageDomainServerConnectionsResource;
 import org.ovirt.engine.api.resource.StorageDomainTemplatesResource;
 import org.ovirt.engine.api.resource.StorageDomainVmsResource;
+import org.ovirt.engine.api.restapi.util.EntityTagHelper;
 import org.ovirt.engine.api.restapi.util.ParametersHelper;
 import org.ovirt.engine.api.restapi.util.StorageDomainHelper;
 import org.ovirt.engine.core.common.VdcObjectType;
@@ -74,6 +75,16 @@ public class BackendStorageDomainResource
         return parent;
     }
 
+    @Override
+    protected boolean isConditionalGetSupported() {
+        return true;
+    }
+
+    @Override
+    protected Object getEntityVersion(org.ovirt.engine.core.common.businessentities.StorageDomain entity) {
+        return EntityTagHelper.versionOf(entity);
+    }
+
     @Override
     public StorageDomain get() {
         StorageDomain storageDomain = performGet(QueryType.GetStorageDomainById, new IdQueryParameters(guid));
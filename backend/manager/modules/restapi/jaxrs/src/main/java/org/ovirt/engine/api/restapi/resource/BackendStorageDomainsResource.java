@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
@@ -22,6 +23,7 @@ import org.ovirt.engine.api.model.VolumeGroup;
 import org.ovirt.engine.api.resource.StorageDomainResource;
 import org.ovirt.engine.api.resource.StorageDomainsResource;
 import org.ovirt.engine.api.restapi.types.StorageDomainMapper;
+import org.ovirt.engine.api.restapi.util.EntityTagHelper;
 import org.ovirt.engine.api.restapi.util.StorageDomainHelper;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.action.AddSANStorageDomainParameters;
@@ -430,6 +432,7 @@ public class BackendStorageDomainsResource
     }
 
     private StorageDomains mapCollection(List<org.ovirt.engine.core.common.businessentities.StorageDomain> entities) {
+        checkNotModified(entities.stream().map(EntityTagHelper::versionOf).collect(Collectors.toList()));
         StorageDomains collection = new StorageDomains();
         for (org.ovirt.engine.core.common.businessentities.StorageDomain entity : entities) {
             StorageDomain storageDomain = map(entity);
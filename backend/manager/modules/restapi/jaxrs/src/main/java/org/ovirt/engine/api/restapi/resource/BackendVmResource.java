@@ -58,6 +58,7 @@ import org.ovirt.engine.api.restapi.types.InitializationMapper;
 import org.ovirt.engine.api.restapi.types.RngDeviceMapper;
 import org.ovirt.engine.api.restapi.types.VmMapper;
 import org.ovirt.engine.api.restapi.util.DisplayHelper;
+import org.ovirt.engine.api.restapi.util.EntityTagHelper;
 import org.ovirt.engine.api.restapi.util.IconHelper;
 import org.ovirt.engine.api.restapi.util.LinkHelper;
 import org.ovirt.engine.api.restapi.util.ParametersHelper;
@@ -119,6 +120,16 @@ public class BackendVmResource
         return ParametersHelper.getBooleanParameter(httpHeaders, uriInfo, NEXT_RUN, true, false);
     }
 
+    @Override
+    protected boolean isConditionalGetSupported() {
+        return true;
+    }
+
+    @Override
+    protected Object getEntityVersion(org.ovirt.engine.core.common.businessentities.VM entity) {
+        return EntityTagHelper.versionOf(entity);
+    }
+
     @Override
     public Vm get() {
         Vm vm;
@@ -55,6 +55,8 @@ import org.ovirt.engine.api.restapi.types.DiskMapper;
 import org.ovirt.engine.api.restapi.types.RngDeviceMapper;
 import org.ovirt.engine.api.restapi.types.VmMapper;
 import org.ovirt.engine.api.restapi.util.DisplayHelper;
+import org.ovirt.engine.api.restapi.util.EntityTagHelper;
+import org.ovirt.engine.api.restapi.util.FieldsHelper;
 import org.ovirt.engine.api.restapi.util.IconHelper;
 import org.ovirt.engine.api.restapi.util.ParametersHelper;
 import org.ovirt.engine.api.restapi.util.QueryHelper;
@@ -114,7 +116,9 @@ public class BackendVmsResource extends
             if (isSortedAndMaxResults()) { //Specific use-case of ovirt-web-ui
                 return getVmsFilteredAndSorted();
             } else {
-                return mapCollection(getBackendCollection(QueryType.GetAllVms, new QueryParametersBase(), SearchType.VM));
+                QueryParametersBase params = new QueryParametersBase();
+                params.setFields(getFields());
+                return mapCollection(getBackendCollection(QueryType.GetAllVms, params, SearchType.VM));
             }
         } else {
             return mapCollection(getBackendCollection(SearchType.VM));
@@ -605,12 +609,14 @@ public class BackendVmsResource extends
     }
 
     protected Vms mapCollection(List<org.ovirt.engine.core.common.businessentities.VM> entities) {
+        checkNotModified(entities.stream().map(EntityTagHelper::versionOf).collect(Collectors.toList()));
         Set<String> details = DetailHelper.getDetails(httpHeaders, uriInfo);
         boolean includeData = details.contains(DetailHelper.MAIN);
         boolean includeSize = details.contains("size");
 
+        Set<String> fields = getFields();
         List<Guid> vmIds = entities.stream().map(VM::getId).collect(Collectors.toList());
-        if (includeData) {
+        if (includeData && isFieldRequested("initialization")) {
             // Fill VmInit for entities - the search query no join the VmInit to Vm
             IdsQueryParameters params = new IdsQueryParameters();
             params.setId(vmIds);
@@ -627,14 +633,17 @@ public class BackendVmsResource extends
         Vms collection = new Vms();
         if (includeData) {
             // optimization of DB access: retrieve GraphicsDevices for all VMs at once
-            Map<Guid, List<GraphicsDevice>> vmsGraphicsDevices =
-                    DisplayHelper.getGraphicsDevicesForMultipleEntities(this, vmIds);
+            boolean includeDisplay = isFieldRequested("display");
+            Map<Guid, List<GraphicsDevice>> vmsGraphicsDevices = includeDisplay ?
+                    DisplayHelper.getGraphicsDevicesForMultipleEntities(this, vmIds) : null;
 
             for (org.ovirt.engine.core.common.businessentities.VM entity : entities) {
                 Vm vm = map(entity);
-                DisplayHelper.adjustDisplayData(this, vm, vmsGraphicsDevices, false);
+                if (includeDisplay) {
+                    DisplayHelper.adjustDisplayData(this, vm, vmsGraphicsDevices, false);
+                }
                 removeRestrictedInfo(vm);
-                collection.getVms().add(addLinks(populate(vm, entity)));
+                collection.getVms().add(addLinks(FieldsHelper.prune(populate(vm, entity), fields)));
             }
         }
         if (includeSize) {
@@ -705,7 +714,7 @@ public class BackendVmsResource extends
     @Override
     protected Vm deprecatedPopulate(Vm model, org.ovirt.engine.core.common.businessentities.VM entity) {
         Set<String> details = DetailHelper.getDetails(httpHeaders, uriInfo);
-        if (details.contains("statistics")) {
+        if (details.contains("statistics") && isFieldRequested("statistics")) {
             addInlineStatistics(model);
         }
         return model;
@@ -713,14 +722,31 @@ public class BackendVmsResource extends
 
     @Override
     protected Vm doPopulate(Vm model, org.ovirt.engine.core.common.businessentities.VM entity) {
-        BackendVmDeviceHelper.setPayload(this, model);
-        MemoryPolicyHelper.setupMemoryBalloon(model, this);
-        BackendVmDeviceHelper.setConsoleDevice(this, model);
-        BackendVmDeviceHelper.setVirtioScsiController(this, model);
-        BackendVmDeviceHelper.setSoundcard(this, model);
-        BackendVmDeviceHelper.setCertificateInfo(this, model);
-        BackendVmDeviceHelper.setRngDevice(this, model);
-        setVmOvfConfiguration(model, entity);
+        // Each of these runs additional queries, so skip the ones that populate fields that weren't requested:
+        if (isFieldRequested("payloads")) {
+            BackendVmDeviceHelper.setPayload(this, model);
+        }
+        if (isFieldRequested("memory_policy")) {
+            MemoryPolicyHelper.setupMemoryBalloon(model, this);
+        }
+        if (isFieldRequested("console")) {
+            BackendVmDeviceHelper.setConsoleDevice(this, model);
+        }
+        if (isFieldRequested("virtio_scsi")) {
+            BackendVmDeviceHelper.setVirtioScsiController(this, model);
+        }
+        if (isFieldRequested("soundcard_enabled")) {
+            BackendVmDeviceHelper.setSoundcard(this, model);
+        }
+        if (isFieldRequested("display")) {
+            BackendVmDeviceHelper.setCertificateInfo(this, model);
+        }
+        if (isFieldRequested("rng_device")) {
+            BackendVmDeviceHelper.setRngDevice(this, model);
+        }
+        if (isFieldRequested("initialization")) {
+            setVmOvfConfiguration(model, entity);
+        }
         return model;
     }
 
@@ -0,0 +1,182 @@
+/*
+* Copyright (c) 2018 Red Hat, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*           http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.ovirt.engine.api.restapi.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.UriInfo;
+
+import org.ovirt.engine.core.common.businessentities.StorageDomain;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VM;
+
+/**
+ * This class is a helper that computes the entity tags returned in the {@code ETag} header and checks them against
+ * the {@code If-None-Match} header sent by the caller.
+ *
+ * The tags are computed from the versions of the backend entities, before they are converted into the API model, so
+ * that when the caller already has the current version of the document it is possible to answer with
+ * {@code 304 Not Modified} without mapping and marshalling it. The version of an entity is made of its id, of its
+ * generation when it has one, and of the hash codes of its parts, completed with the fields those hash codes leave
+ * out. As different versions may have the same hash codes, these are weak validators, so the tags are weak as well.
+ */
+public class EntityTagHelper {
+    /**
+     * The HTTP headers, other than the path and query, that change the content of the returned document.
+     */
+    private static final String[] VARIANT_HEADERS = {
+        HttpHeaders.ACCEPT,
+        "Filter",
+        "All-Content",
+    };
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private EntityTagHelper() {
+        // No instances allowed.
+    }
+
+    /**
+     * Returns the version of a virtual machine. The configuration, including the devices, is covered by the
+     * generation of the virtual machine, which is increased whenever it changes, the run time data by the hash code.
+     */
+    public static Object versionOf(VM vm) {
+        return Arrays.asList(
+            vm.getId(),
+            vm.getDbGeneration(),
+            vm.hashCode(),
+            Objects.hash(vm.getGuestCpuCount(), vm.getGuestAgentNicsHash(), vm.isNextRunConfigurationExists())
+        );
+    }
+
+    /**
+     * Returns the version of a host. Hosts have no generation, so the version is made of the hash codes of the
+     * static data, the dynamic data and the statistics.
+     */
+    public static Object versionOf(VDS host) {
+        return Arrays.asList(
+            host.getId(),
+            host.hashCode(),
+            Objects.hashCode(host.getDynamicData()),
+            Objects.hashCode(host.getStatisticsData()),
+            Objects.hash(
+                host.getComment(),
+                host.getVdsSpmPriority(),
+                host.isAutoRecoverable(),
+                host.getSshKeyFingerprint(),
+                host.getFenceProxySources(),
+                host.getExternalStatus(),
+                host.getLibrbdVersion(),
+                host.getGlusterfsCliVersion(),
+                host.getOvsVersion(),
+                host.getSupportedEmulatedMachines(),
+                host.getNumaNodeList(),
+                host.getUsageMemPercent()
+            )
+        );
+    }
+
+    /**
+     * Returns the version of a storage domain. Storage domains have no generation, so the version is made of the
+     * hash code of the storage domain.
+     */
+    public static Object versionOf(StorageDomain storageDomain) {
+        return Arrays.asList(
+            storageDomain.getId(),
+            storageDomain.hashCode(),
+            Objects.hash(
+                storageDomain.getComment(),
+                storageDomain.getLastTimeUsedAsMaster(),
+                storageDomain.getVdoSavings()
+            )
+        );
+    }
+
+    /**
+     * Computes the tag for the document that results from the given version of a backend entity, or collection of
+     * entities.
+     *
+     * @param version the version of the entity, or the list of versions of the entities, that will be returned, as
+     *     returned by the {@code versionOf} methods
+     * @param headers the HTTP headers of the request, may be {@code null}
+     * @param uri the URI information of the request, may be {@code null}
+     * @param variant additional information that changes the content of the document, like the API version or the
+     *     user, may be {@code null}
+     * @return the value of the tag, without quotes
+     */
+    public static String getTag(Object version, HttpHeaders headers, UriInfo uri, Object variant) {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append(version);
+        if (uri != null) {
+            buffer.append('\n').append(uri.getRequestUri());
+        }
+        if (headers != null) {
+            for (String name : VARIANT_HEADERS) {
+                buffer.append('\n').append(headers.getRequestHeader(name));
+            }
+        }
+        buffer.append('\n').append(variant);
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+        byte[] hash = digest.digest(buffer.toString().getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * Checks if any of the tags sent by the caller in the {@code If-None-Match} header matches the given tag.
+     *
+     * @param headers the HTTP headers of the request, may be {@code null}
+     * @param tag the value of the tag of the current version of the document, without quotes
+     * @return {@code true} if the caller already has the current version of the document, {@code false} otherwise
+     */
+    public static boolean matches(HttpHeaders headers, String tag) {
+        if (headers == null) {
+            return false;
+        }
+        List<String> values = headers.getRequestHeader(HttpHeaders.IF_NONE_MATCH);
+        if (values == null) {
+            return false;
+        }
+        for (String value : values) {
+            for (String candidate : value.split(",")) {
+                candidate = candidate.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.length() >= 2 && candidate.startsWith("\"") && candidate.endsWith("\"")) {
+                    candidate = candidate.substring(1, candidate.length() - 1);
+                }
+                if (candidate.equals("*") || candidate.equals(tag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
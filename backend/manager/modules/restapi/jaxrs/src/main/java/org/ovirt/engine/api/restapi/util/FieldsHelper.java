@@ -0,0 +1,147 @@
+/*
+* Copyright (c) 2018 Red Hat, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*           http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.ovirt.engine.api.restapi.util;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.UriInfo;
+
+/**
+ * This class is responsible for determining what fields of the returned objects the caller is interested on. The
+ * fields are specified using the {@code fields} parameter, as a list of names separated by commas. For example, to
+ * request only the name and the status of the virtual machines:
+ *
+ * <pre>
+ * GET /vms?fields=name,status HTTP/1.1
+ * </pre>
+ *
+ * When the parameter isn't specified all the fields are returned. The {@code id} and {@code href} attributes, and the
+ * links to the sub-collections, are always returned.
+ */
+public class FieldsHelper {
+    /**
+     * The name of the parameter that contains the list of fields to return.
+     */
+    public static final String FIELDS = "fields";
+
+    /**
+     * The names of the fields that are always returned, regardless of the value of the parameter.
+     */
+    private static final Set<String> ALWAYS = new HashSet<>(Arrays.asList("id", "href", "actions"));
+
+    /**
+     * Cache of the field setters of each model class, indexed by class and then by field name.
+     */
+    private static final Map<Class<?>, Map<String, Method>> SETTERS = new ConcurrentHashMap<>();
+
+    private FieldsHelper() {
+        // No instances allowed.
+    }
+
+    /**
+     * Returns the set of fields requested by the caller.
+     *
+     * @param headers the HTTP headers of the request, may be {@code null}
+     * @param uri the URI information of the request, may be {@code null}
+     * @return the names of the requested fields, or {@code null} if all the fields should be returned
+     */
+    public static Set<String> getFields(HttpHeaders headers, UriInfo uri) {
+        String value = ParametersHelper.getParameter(headers, uri, FIELDS);
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        Set<String> fields = new HashSet<>();
+        for (String field : value.split(",")) {
+            field = field.trim();
+            if (!field.isEmpty()) {
+                fields.add(field);
+            }
+        }
+        return Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * Removes from the given object all the fields that haven't been requested.
+     *
+     * @param model the object to prune
+     * @param fields the names of the requested fields, or {@code null} if all of them were requested
+     * @return the same object, for convenience
+     */
+    public static <T> T prune(T model, Set<String> fields) {
+        if (model == null || fields == null) {
+            return model;
+        }
+        for (Map.Entry<String, Method> entry : getSetters(model.getClass()).entrySet()) {
+            if (!fields.contains(entry.getKey()) && !ALWAYS.contains(entry.getKey())) {
+                try {
+                    entry.getValue().invoke(model, (Object) null);
+                } catch (ReflectiveOperationException exception) {
+                    throw new IllegalStateException(
+                        "Can't remove field \"" + entry.getKey() + "\" of class \"" + model.getClass().getName() +
+                        "\".",
+                        exception
+                    );
+                }
+            }
+        }
+        return model;
+    }
+
+    private static Map<String, Method> getSetters(Class<?> type) {
+        return SETTERS.computeIfAbsent(type, FieldsHelper::findSetters);
+    }
+
+    private static Map<String, Method> findSetters(Class<?> type) {
+        Map<String, Method> setters = new ConcurrentHashMap<>();
+        for (Method method : type.getMethods()) {
+            String name = method.getName();
+            if (name.length() > 3 && name.startsWith("set") && !Modifier.isStatic(method.getModifiers())
+                    && method.getParameterCount() == 1 && !method.getParameterTypes()[0].isPrimitive()) {
+                setters.put(toFieldName(name.substring(3)), method);
+            }
+        }
+        return setters;
+    }
+
+    /**
+     * Converts a property name, as used in the names of the setters of the model classes, to the name of the
+     * corresponding field as used in the documents, for example {@code MemoryPolicy} to {@code memory_policy}.
+     */
+    static String toFieldName(String property) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (char c : property.toCharArray()) {
+            if (Character.isUpperCase(c) && word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+            word.append(Character.toLowerCase(c));
+        }
+        words.add(word.toString());
+        return String.join("_", words);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+* Copyright (c) 2018 Red Hat, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*           http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.ovirt.engine.api.restapi.util;
+
+import java.util.List;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.UriInfo;
+
+/**
+ * This class is a helper that decides how the documents returned by the API should be formatted.
+ */
+public class FormatHelper {
+    /**
+     * The name of the parameter that indicates if the returned document should be indented.
+     */
+    public static final String PRETTY = "pretty";
+
+    private FormatHelper() {
+        // No instances allowed.
+    }
+
+    /**
+     * Checks if the document returned for the current request should be indented. Indenting makes documents larger
+     * and slower to generate, so it is only done if explicitly requested with the {@code pretty} parameter, or when
+     * the request comes from a browser, which is detected because it explicitly accepts HTML.
+     *
+     * @param headers the HTTP headers of the request, may be {@code null}
+     * @param uri the URI information of the request, may be {@code null}
+     * @return {@code true} if the document should be indented, {@code false} otherwise
+     */
+    public static boolean isPretty(HttpHeaders headers, UriInfo uri) {
+        Boolean pretty = ParametersHelper.getBooleanParameter(headers, uri, PRETTY, true, null);
+        if (pretty != null) {
+            return pretty;
+        }
+        if (headers != null) {
+            List<MediaType> types = headers.getAcceptableMediaTypes();
+            if (types != null) {
+                for (MediaType type : types) {
+                    if (MediaType.TEXT_HTML_TYPE.getType().equals(type.getType())
+                            && MediaType.TEXT_HTML_TYPE.getSubtype().equals(type.getSubtype())) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -29,8 +29,11 @@ import java.util.Map;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
@@ -41,12 +44,15 @@ import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.ValidationEventHandler;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.ovirt.engine.api.model.Api;
 import org.ovirt.engine.api.model.ObjectFactory;
 import org.ovirt.engine.api.restapi.invocation.CurrentManager;
+import org.ovirt.engine.api.restapi.util.FormatHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -74,6 +80,12 @@ public class JAXBProvider implements MessageBodyReader<Object>, MessageBodyWrite
      */
     private static final Package typesPackage = Api.class.getPackage();
 
+    /**
+     * The number of objects written between flushes of the output, so that large collections are sent to the client
+     * while they are being written instead of accumulating in the buffers.
+     */
+    private static final int FLUSH_INTERVAL = 100;
+
     /**
      * The factory used to create JAXB elements.
      */
@@ -89,6 +101,11 @@ public class JAXBProvider implements MessageBodyReader<Object>, MessageBodyWrite
      */
     private XMLInputFactory parserFactory;
 
+    /**
+     * The factory used to create XML document writers.
+     */
+    private XMLOutputFactory writerFactory;
+
     /**
      * The JAXB jaxbContext used to convert XML documents into the corresponding model objects.
      */
@@ -99,6 +116,12 @@ public class JAXBProvider implements MessageBodyReader<Object>, MessageBodyWrite
      */
     private ValidationEventHandler jaxbHandler = new JAXBValidationEventHandler();
 
+    @Context
+    private HttpHeaders httpHeaders;
+
+    @Context
+    private UriInfo uriInfo;
+
     public JAXBProvider() {
         // In order to create the JAXB element that wraps the object we need to call the method of the object factory
         // that uses the correct element name, and in order to avoid doing this with every request we populate this
@@ -116,6 +139,9 @@ public class JAXBProvider implements MessageBodyReader<Object>, MessageBodyWrite
         parserFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
         parserFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
 
+        // Create a factory that will produce XML writers:
+        writerFactory = XMLOutputFactory.newFactory();
+
         // Create a JAXB context for the tyeps package:
         try {
             jaxbContext = JAXBContext.newInstance(typesPackage.getName());
@@ -216,14 +242,69 @@ public class JAXBProvider implements MessageBodyReader<Object>, MessageBodyWrite
             throw new IOException("Error invoking factory method for type \"" +  type.getName() + "\".", exception);
         }
 
-        // Marshal the element:
+        // Indented documents are only generated for humans, so they are marshalled directly to the output stream, as
+        // this is the only way to get the JAXB indentation. Otherwise the element is marshalled to a XML stream writer
+        // that is flushed periodically, so that the client receives large collections as they are written:
         try {
             Marshaller marshaller = jaxbContext.createMarshaller();
             marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-            marshaller.marshal(element, entityStream);
+            if (FormatHelper.isPretty(httpHeaders, uriInfo)) {
+                marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+                marshaller.marshal(element, entityStream);
+            } else {
+                writeTo(marshaller, element, entityStream);
+            }
         } catch(JAXBException exception) {
             throw new IOException("Can't marshall JAXB element of type \"" + type.getName() + "\".", exception);
         }
     }
+
+    /**
+     * Marshals the given element to the given stream using a XML stream writer that is flushed after every few
+     * objects.
+     */
+    private void writeTo(Marshaller marshaller, JAXBElement<Object> element, OutputStream entityStream)
+            throws IOException, JAXBException {
+        XMLStreamWriter writer = null;
+        try {
+            writer = writerFactory.createXMLStreamWriter(entityStream, "UTF-8");
+            marshaller.setListener(new FlushingListener(writer));
+            marshaller.marshal(element, writer);
+            writer.flush();
+        } catch(XMLStreamException exception) {
+            throw new IOException(exception);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (XMLStreamException exception) {
+                    log.warn("Can't close XML stream writer.", exception);
+                }
+            }
+        }
+    }
+
+    /**
+     * This listener flushes the XML stream writer every time that {@link #FLUSH_INTERVAL} objects have been completely
+     * marshalled.
+     */
+    private static class FlushingListener extends Marshaller.Listener {
+        private final XMLStreamWriter writer;
+        private int count;
+
+        FlushingListener(XMLStreamWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void afterMarshal(Object source) {
+            if (++count % FLUSH_INTERVAL == 0) {
+                try {
+                    writer.flush();
+                } catch (XMLStreamException exception) {
+                    throw new IllegalStateException(exception);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,64 @@
+package org.ovirt.engine.api.restapi.invocation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class NextPageFilterTest {
+    private static final String NEXT_PAGE = "http://localhost:8080/ovirt-engine/api/vms?max=10&after=YWJj";
+
+    private final NextPageFilter filter = new NextPageFilter();
+    private final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+    private ContainerResponseContext response;
+
+    @BeforeEach
+    public void setUp() {
+        response = mock(ContainerResponseContext.class);
+        when(response.getHeaders()).thenReturn(headers);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        CurrentManager.remove();
+    }
+
+    @Test
+    public void testLinkIsAddedWhenThereIsNextPage() {
+        Current current = new Current();
+        current.setNextPage(URI.create(NEXT_PAGE));
+        CurrentManager.put(current);
+
+        filter.filter(mock(ContainerRequestContext.class), response);
+
+        assertEquals("<" + NEXT_PAGE + ">; rel=\"next\"", headers.getFirst(HttpHeaders.LINK));
+    }
+
+    @Test
+    public void testLinkIsNotAddedWithoutNextPage() {
+        CurrentManager.put(new Current());
+
+        filter.filter(mock(ContainerRequestContext.class), response);
+
+        assertFalse(headers.containsKey(HttpHeaders.LINK));
+    }
+
+    @Test
+    public void testLinkIsNotAddedWithoutCurrentRequest() {
+        filter.filter(mock(ContainerRequestContext.class), response);
+
+        assertFalse(headers.containsKey(HttpHeaders.LINK));
+    }
+}
@@ -0,0 +1,73 @@
+package org.ovirt.engine.api.restapi.invocation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class RequestPoolTest {
+
+    @Test
+    public void testRequestsAreExecuted() throws Exception {
+        RequestPool pool = new RequestPool("read", 2, 0, 0);
+
+        long first = pool.acquire();
+        long second = pool.acquire();
+        assertNotEquals(-1, first);
+        assertNotEquals(-1, second);
+        assertEquals(2, pool.getActive());
+
+        pool.release(first);
+        pool.release(second);
+        assertEquals(0, pool.getActive());
+        assertEquals(2, pool.getCompleted());
+    }
+
+    @Test
+    public void testRequestIsRejectedWhenQueueIsFull() throws Exception {
+        RequestPool pool = new RequestPool("write", 1, 0, 1000);
+
+        long first = pool.acquire();
+        assertEquals(-1, pool.acquire());
+        assertEquals(1, pool.getRejected());
+
+        pool.release(first);
+        assertNotEquals(-1, pool.acquire());
+    }
+
+    @Test
+    public void testRequestIsRejectedAfterWaiting() throws Exception {
+        RequestPool pool = new RequestPool("write", 1, 1, 10);
+
+        pool.acquire();
+        assertEquals(-1, pool.acquire());
+        assertEquals(0, pool.getQueued());
+        assertEquals(1, pool.getRejected());
+    }
+
+    @Test
+    public void testQueuedRequestIsExecutedWhenPoolIsReleased() throws Exception {
+        RequestPool pool = new RequestPool("read", 1, 1, 10000);
+
+        long first = pool.acquire();
+        CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.acquire();
+            } catch (InterruptedException exception) {
+                throw new RuntimeException(exception);
+            }
+        });
+        while (pool.getQueued() == 0) {
+            Thread.sleep(10);
+        }
+        assertEquals(-1, pool.acquire());
+
+        pool.release(first);
+        assertNotEquals(-1, (long) second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, pool.getActive());
+        assertEquals(1, pool.getRejected());
+    }
+}
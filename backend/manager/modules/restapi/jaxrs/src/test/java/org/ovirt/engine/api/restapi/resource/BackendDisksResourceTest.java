@@ -4,13 +4,18 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.UriInfo;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -19,6 +24,7 @@ import org.ovirt.engine.api.model.Disk;
 import org.ovirt.engine.api.model.DiskFormat;
 import org.ovirt.engine.api.model.StorageDomain;
 import org.ovirt.engine.api.model.StorageDomains;
+import org.ovirt.engine.api.restapi.invocation.CurrentManager;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.action.AddDiskParameters;
 import org.ovirt.engine.core.common.businessentities.AsyncTaskStatus;
@@ -166,6 +172,23 @@ public class BackendDisksResourceTest extends AbstractBackendCollectionResourceT
         return model;
     }
 
+    @Test
+    public void testListAfterReturnsLinkWithDiskId() throws Exception {
+        UriInfo uriInfo = setUpUriExpectations(QUERY);
+        when(uriInfo.getRequestUriBuilder()).thenReturn(UriBuilder.fromUri(URI_BASE + "/disks?max=3"));
+        CurrentManager.get().getParameters().put("after", "");
+        CurrentManager.get().getParameters().put("max", String.valueOf(NAMES.length));
+
+        setUpQueryExpectations(QUERY);
+        collection.setUriInfo(uriInfo);
+        verifyCollection(getCollection());
+
+        // the disks are paged by the id of the disk, not by the id of the image
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                GUIDS[2].toString().getBytes(StandardCharsets.UTF_8));
+        assertEquals(URI_BASE + "/disks?max=3&after=" + token, CurrentManager.get().getNextPage().toString());
+    }
+
     @Override
     protected void verifyModel(Disk model, int index) {
         verifyModelSpecific(model, index);
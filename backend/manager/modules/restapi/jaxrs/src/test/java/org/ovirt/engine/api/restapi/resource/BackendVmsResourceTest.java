@@ -5,14 +5,20 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -20,6 +26,7 @@ import java.util.Map;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 
 import org.junit.jupiter.api.Test;
@@ -39,6 +46,7 @@ import org.ovirt.engine.api.model.StorageDomain;
 import org.ovirt.engine.api.model.Template;
 import org.ovirt.engine.api.model.Vm;
 import org.ovirt.engine.api.model.VmPlacementPolicy;
+import org.ovirt.engine.api.restapi.invocation.CurrentManager;
 import org.ovirt.engine.api.restapi.utils.OsTypeMockUtils;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.action.AddVmFromSnapshotParameters;
@@ -71,6 +79,7 @@ import org.ovirt.engine.core.common.queries.IdsQueryParameters;
 import org.ovirt.engine.core.common.queries.NameQueryParameters;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.common.queries.QueryType;
+import org.ovirt.engine.core.common.queries.SearchParameters;
 import org.ovirt.engine.core.common.utils.SimpleDependencyInjector;
 import org.ovirt.engine.core.common.utils.VmDeviceType;
 import org.ovirt.engine.core.compat.Guid;
@@ -1215,6 +1224,69 @@ public class BackendVmsResourceTest
         verifyCollection(getCollection());
     }
 
+    @Test
+    public void testListAfterReturnsLinkToNextPage() throws Exception {
+        UriInfo uriInfo = setUpUriExpectations(null);
+        when(uriInfo.getRequestUriBuilder()).thenReturn(
+                UriBuilder.fromUri(URI_BASE + "/vms?max=3&after=" + getPageToken(GUIDS[0])));
+        setUpPageParameters(getPageToken(GUIDS[0]), NAMES.length);
+
+        setUpGetGraphicsMultipleExpectations(3);
+        setUpQueryExpectations("");
+        collection.setUriInfo(uriInfo);
+        verifyCollection(getCollection());
+
+        verify(backend).runQuery(eq(QueryType.Search),
+                argThat(params -> params instanceof SearchParameters
+                        && GUIDS[0].toString().equals(((SearchParameters) params).getSearchAfter())));
+        assertEquals(URI_BASE + "/vms?max=3&after=" + getPageToken(GUIDS[2]),
+                CurrentManager.get().getNextPage().toString());
+    }
+
+    @Test
+    public void testListAfterLastPageReturnsNoLink() throws Exception {
+        UriInfo uriInfo = setUpUriExpectations(null);
+        setUpPageParameters(getPageToken(GUIDS[0]), NAMES.length + 1);
+
+        setUpGetGraphicsMultipleExpectations(3);
+        setUpQueryExpectations("");
+        collection.setUriInfo(uriInfo);
+        verifyCollection(getCollection());
+
+        assertNull(CurrentManager.get().getNextPage());
+    }
+
+    @Test
+    public void testListAfterWithSortByIsRejected() {
+        setUriInfo(setUpUriExpectations(null));
+        setUpPageParameters(getPageToken(GUIDS[0]), NAMES.length);
+        CurrentManager.get().getParameters().put("search", "name=s* sortby name");
+
+        WebApplicationException wae = assertThrows(WebApplicationException.class, this::getCollection);
+        assertEquals(400, wae.getResponse().getStatus());
+        verify(backend, never()).runQuery(eq(QueryType.Search), any());
+    }
+
+    @Test
+    public void testListAfterWithInvalidTokenIsRejected() {
+        setUriInfo(setUpUriExpectations(null));
+        setUpPageParameters("not a token", NAMES.length);
+
+        WebApplicationException wae = assertThrows(WebApplicationException.class, this::getCollection);
+        assertEquals(400, wae.getResponse().getStatus());
+    }
+
+    private void setUpPageParameters(String after, int max) {
+        Map<String, String> parameters = CurrentManager.get().getParameters();
+        parameters.put("after", after);
+        parameters.put("max", String.valueOf(max));
+    }
+
+    private static String getPageToken(Guid id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
     private void doTestBadAdd(boolean valid, boolean success, String detail) {
         setUpEntityQueryExpectations(QueryType.GetVmTemplate,
                                      GetVmTemplateParameters.class,
@@ -0,0 +1,121 @@
+package org.ovirt.engine.api.restapi.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.ws.rs.core.HttpHeaders;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.StorageDomain;
+import org.ovirt.engine.core.common.businessentities.StorageDomainStatus;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.compat.Guid;
+
+public class EntityTagHelperTest {
+
+    @Test
+    public void testSameEntitiesSameTag() {
+        assertEquals(
+            EntityTagHelper.getTag(Arrays.asList("a", "b"), null, null, "4"),
+            EntityTagHelper.getTag(Arrays.asList("a", "b"), null, null, "4")
+        );
+    }
+
+    @Test
+    public void testChangedEntitiesChangeTag() {
+        String tag = EntityTagHelper.getTag(Arrays.asList("a", "b"), null, null, "4");
+        assertNotEquals(tag, EntityTagHelper.getTag(Arrays.asList("a", "c"), null, null, "4"));
+        assertNotEquals(tag, EntityTagHelper.getTag(Collections.singletonList("a"), null, null, "4"));
+        assertNotEquals(tag, EntityTagHelper.getTag(Arrays.asList("a", "b"), null, null, "3"));
+    }
+
+    @Test
+    public void testHostStatusChangesTag() {
+        VDS host = createHost();
+        String tag = EntityTagHelper.getTag(EntityTagHelper.versionOf(host), null, null, "4");
+        assertEquals(tag, EntityTagHelper.getTag(EntityTagHelper.versionOf(createHost()), null, null, "4"));
+
+        host.setStatus(VDSStatus.Maintenance);
+        assertNotEquals(tag, EntityTagHelper.getTag(EntityTagHelper.versionOf(host), null, null, "4"));
+    }
+
+    @Test
+    public void testHostCommentChangesTag() {
+        VDS host = createHost();
+        String tag = EntityTagHelper.getTag(EntityTagHelper.versionOf(host), null, null, "4");
+
+        host.setComment("comment");
+        assertNotEquals(tag, EntityTagHelper.getTag(EntityTagHelper.versionOf(host), null, null, "4"));
+    }
+
+    @Test
+    public void testVmGenerationChangesTag() {
+        VM vm = createVm();
+        String tag = EntityTagHelper.getTag(EntityTagHelper.versionOf(vm), null, null, "4");
+        assertEquals(tag, EntityTagHelper.getTag(EntityTagHelper.versionOf(createVm()), null, null, "4"));
+
+        vm.setDbGeneration(2);
+        assertNotEquals(tag, EntityTagHelper.getTag(EntityTagHelper.versionOf(vm), null, null, "4"));
+    }
+
+    @Test
+    public void testVmGuestCpuCountChangesTag() {
+        VM vm = createVm();
+        String tag = EntityTagHelper.getTag(EntityTagHelper.versionOf(vm), null, null, "4");
+
+        vm.setGuestCpuCount(4);
+        assertNotEquals(tag, EntityTagHelper.getTag(EntityTagHelper.versionOf(vm), null, null, "4"));
+    }
+
+    @Test
+    public void testStorageDomainStatusChangesTag() {
+        StorageDomain storageDomain = new StorageDomain();
+        storageDomain.setId(Guid.Empty);
+        storageDomain.setStatus(StorageDomainStatus.Active);
+        String tag = EntityTagHelper.getTag(EntityTagHelper.versionOf(storageDomain), null, null, "4");
+
+        storageDomain.setStatus(StorageDomainStatus.Maintenance);
+        assertNotEquals(tag, EntityTagHelper.getTag(EntityTagHelper.versionOf(storageDomain), null, null, "4"));
+    }
+
+    @Test
+    public void testMatches() {
+        assertTrue(EntityTagHelper.matches(headers("W/\"1f\""), "1f"));
+        assertTrue(EntityTagHelper.matches(headers("\"2a\", W/\"1f\""), "1f"));
+        assertTrue(EntityTagHelper.matches(headers("*"), "1f"));
+        assertFalse(EntityTagHelper.matches(headers("W/\"2a\""), "1f"));
+        assertFalse(EntityTagHelper.matches(headers(null), "1f"));
+    }
+
+    private static HttpHeaders headers(String ifNoneMatch) {
+        HttpHeaders headers = mock(HttpHeaders.class);
+        when(headers.getRequestHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(
+            ifNoneMatch != null ? Collections.singletonList(ifNoneMatch) : null
+        );
+        return headers;
+    }
+
+    private static VM createVm() {
+        VM vm = new VM();
+        vm.setId(Guid.Empty);
+        vm.setDbGeneration(1);
+        return vm;
+    }
+
+    private static VDS createHost() {
+        VDS host = new VDS();
+        host.setId(Guid.Empty);
+        host.setVdsName("host");
+        host.setStatus(VDSStatus.Up);
+        return host;
+    }
+}
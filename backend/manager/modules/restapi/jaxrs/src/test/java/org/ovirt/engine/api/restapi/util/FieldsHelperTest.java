@@ -0,0 +1,103 @@
+package org.ovirt.engine.api.restapi.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.jupiter.api.Test;
+
+public class FieldsHelperTest {
+
+    @Test
+    public void testAllFieldsByDefault() {
+        assertNull(FieldsHelper.getFields(null, uriInfo(null)));
+        assertNull(FieldsHelper.getFields(null, uriInfo("")));
+    }
+
+    @Test
+    public void testFieldsAreSplit() {
+        Set<String> fields = FieldsHelper.getFields(null, uriInfo("name, status,,memory_policy"));
+        assertEquals(new HashSet<>(Arrays.asList("name", "status", "memory_policy")), fields);
+    }
+
+    @Test
+    public void testFieldName() {
+        assertEquals("name", FieldsHelper.toFieldName("Name"));
+        assertEquals("memory_policy", FieldsHelper.toFieldName("MemoryPolicy"));
+    }
+
+    @Test
+    public void testPrune() {
+        Model model = new Model();
+        model.setId("123");
+        model.setName("myvm");
+        model.setMemoryPolicy("ballooning");
+        model.setMemory(1024);
+
+        FieldsHelper.prune(model, Collections.singleton("name"));
+
+        assertEquals("123", model.getId());
+        assertEquals("myvm", model.getName());
+        assertNull(model.getMemoryPolicy());
+        assertEquals(1024, model.getMemory());
+    }
+
+    private static UriInfo uriInfo(String fields) {
+        UriInfo uriInfo = mock(UriInfo.class);
+        MultivaluedMap<String, String> queries = mock(MultivaluedMap.class);
+        when(queries.containsKey(FieldsHelper.FIELDS)).thenReturn(fields != null);
+        when(queries.getFirst(FieldsHelper.FIELDS)).thenReturn(fields);
+        when(queries.isEmpty()).thenReturn(false);
+        when(uriInfo.getQueryParameters()).thenReturn(queries);
+        when(uriInfo.getPathSegments()).thenReturn(Collections.emptyList());
+        return uriInfo;
+    }
+
+    public static class Model {
+        private String id;
+        private String name;
+        private String memoryPolicy;
+        private int memory;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getMemoryPolicy() {
+            return memoryPolicy;
+        }
+
+        public void setMemoryPolicy(String memoryPolicy) {
+            this.memoryPolicy = memoryPolicy;
+        }
+
+        public int getMemory() {
+            return memory;
+        }
+
+        public void setMemory(int memory) {
+            this.memory = memory;
+        }
+    }
+}
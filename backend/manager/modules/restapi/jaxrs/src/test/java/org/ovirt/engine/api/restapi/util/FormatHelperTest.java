@@ -0,0 +1,54 @@
+package org.ovirt.engine.api.restapi.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.jupiter.api.Test;
+
+public class FormatHelperTest {
+
+    @Test
+    public void testNotPrettyByDefault() {
+        assertFalse(FormatHelper.isPretty(headers(MediaType.APPLICATION_XML_TYPE), uriInfo(null)));
+    }
+
+    @Test
+    public void testPrettyWhenRequested() {
+        assertTrue(FormatHelper.isPretty(headers(MediaType.APPLICATION_XML_TYPE), uriInfo("true")));
+        assertTrue(FormatHelper.isPretty(headers(MediaType.APPLICATION_XML_TYPE), uriInfo("")));
+    }
+
+    @Test
+    public void testPrettyForBrowsers() {
+        HttpHeaders headers = headers(MediaType.TEXT_HTML_TYPE, MediaType.APPLICATION_XML_TYPE);
+        assertTrue(FormatHelper.isPretty(headers, uriInfo(null)));
+        assertFalse(FormatHelper.isPretty(headers, uriInfo("false")));
+    }
+
+    private static HttpHeaders headers(MediaType... types) {
+        HttpHeaders headers = mock(HttpHeaders.class);
+        when(headers.getAcceptableMediaTypes()).thenReturn(Arrays.asList(types));
+        return headers;
+    }
+
+    private static UriInfo uriInfo(String pretty) {
+        UriInfo uriInfo = mock(UriInfo.class);
+        MultivaluedMap<String, String> queries = mock(MultivaluedMap.class);
+        when(queries.containsKey(FormatHelper.PRETTY)).thenReturn(pretty != null);
+        when(queries.getFirst(FormatHelper.PRETTY)).thenReturn(pretty);
+        when(queries.isEmpty()).thenReturn(false);
+        when(uriInfo.getQueryParameters()).thenReturn(queries);
+        when(uriInfo.getPathSegments()).thenReturn(Collections.emptyList());
+        return uriInfo;
+    }
+}
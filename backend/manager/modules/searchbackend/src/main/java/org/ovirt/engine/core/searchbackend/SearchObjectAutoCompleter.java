@@ -3,8 +3,10 @@ package org.ovirt.engine.core.searchbackend;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.ovirt.engine.core.compat.StringFormat;
 import org.ovirt.engine.core.searchbackend.gluster.GlusterVolumeConditionFieldAutoCompleter;
@@ -489,6 +491,32 @@ public class SearchObjectAutoCompleter extends SearchObjectsBaseAutoCompleter {
                 }
             });
 
+    /**
+     * The search objects that can be paged by key: those whose primary key is unique and is also the id of the
+     * entities returned by the search. Others, like the network interfaces, whose primary key is the id of the host,
+     * or the images of the storage domains, whose primary key is the id of the image and not of the disk, can't.
+     */
+    private static final Set<String> keysetPagingObjects = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            SearchObjects.AUDIT_OBJ_NAME,
+            SearchObjects.TEMPLATE_OBJ_NAME,
+            SearchObjects.INSTANCE_TYPE_OBJ_NAME,
+            SearchObjects.IMAGE_TYPE_OBJ_NAME,
+            SearchObjects.VDC_USER_OBJ_NAME,
+            SearchObjects.VDC_GROUP_OBJ_NAME,
+            SearchObjects.VDS_OBJ_NAME,
+            SearchObjects.VM_OBJ_NAME,
+            SearchObjects.VDC_CLUSTER_OBJ_NAME,
+            SearchObjects.QUOTA_OBJ_NAME,
+            SearchObjects.VDC_STORAGE_POOL_OBJ_NAME,
+            SearchObjects.DISK_OBJ_NAME,
+            SearchObjects.VDC_STORAGE_DOMAIN_OBJ_NAME,
+            SearchObjects.GLUSTER_VOLUME_OBJ_NAME,
+            SearchObjects.VDC_POOL_OBJ_NAME,
+            SearchObjects.NETWORK_OBJ_NAME,
+            SearchObjects.PROVIDER_OBJ_NAME,
+            SearchObjects.SESSION_OBJ_NAME,
+            SearchObjects.JOB_OBJ_NAME)));
+
     static EntitySearchInfo getEntitySearchInfo(String key) {
         return entitySearchInfo.get(singular(key));
     }
@@ -615,6 +643,10 @@ public class SearchObjectAutoCompleter extends SearchObjectsBaseAutoCompleter {
         return null;
     }
 
+    public boolean isKeysetPagingSupported(String obj) {
+        return obj != null && keysetPagingObjects.contains(singular(obj));
+    }
+
     public boolean isUsingDistinct(String obj) {
         if (getEntitySearchInfo(obj) != null) {
             return getEntitySearchInfo(obj).usingDistinct;
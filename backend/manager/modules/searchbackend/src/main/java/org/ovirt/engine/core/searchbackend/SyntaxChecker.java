@@ -43,6 +43,7 @@ public class SyntaxChecker implements ISyntaxChecker {
 
     private final Regex firstDQRegexp;
     private final Regex nonSpaceRegexp;
+    private final Regex searchAfterRegexp;
     private SqlInjectionChecker sqlInjectionChecker;
 
     public SyntaxChecker() {
@@ -58,6 +59,7 @@ public class SyntaxChecker implements ISyntaxChecker {
         dotAC = new BaseAutoCompleter(".");
 
         firstDQRegexp = new Regex("^\\s*\"$");
+        searchAfterRegexp = new Regex("^[\\w.:@-]+$");
         nonSpaceRegexp = new Regex("^\\S+$");
 
         stateMap = new HashMap<>();
@@ -837,7 +839,14 @@ public class SyntaxChecker implements ISyntaxChecker {
                 }
             }
 
-            if (sortByElements != null) {
+            // keyset paging sorts by primary key, so that the next page can be found with a condition on the key of
+            // the last entity of the previous one instead of by skipping all the previous pages
+            String searchAfter = syntax.getSearchAfter();
+            boolean keysetPaging = searchAfter != null;
+            if (keysetPaging) {
+                checkKeysetPaging(searchObjStr, sortByElements != null || !pageNumber.isEmpty());
+                sortByPhrase = " ORDER BY " + searchObjectAC.getPrimeryKeyName(searchObjStr) + " ASC";
+            } else if (sortByElements != null) {
                 StringBuilder builder = new StringBuilder();
                 builder.append(" ORDER BY ");
                 for(SortByElement sortByElement: sortByElements) {
@@ -877,6 +886,10 @@ public class SyntaxChecker implements ISyntaxChecker {
                 whereBuilder.add("not deleted");
             }
 
+            if (keysetPaging && !searchAfter.isEmpty()) {
+                whereBuilder.add(getSearchAfterCondition(searchObjStr, searchAfter, useTags));
+            }
+
             // adding WHERE if required and All implicit AND
             StringBuilder wherePhrase = new StringBuilder();
             if (whereBuilder.size() > 0) {
@@ -896,7 +909,7 @@ public class SyntaxChecker implements ISyntaxChecker {
                 sortByPhrase = " ORDER BY " + searchObjectAC.getDefaultSort(searchObjStr);
             }
             // adding the paging phrase
-            String pagePhrase = getPagePhrase(syntax, pageNumber);
+            String pagePhrase = getPagePhrase(syntax, keysetPaging ? "" : pageNumber);
             String primeryKey = searchObjectAC.getPrimeryKeyName(searchObjStr);
             String tableName = searchObjectAC.getRelatedTableName(searchObjStr, useTags);
             boolean usingDistinct = searchObjectAC.isUsingDistinct(searchObjStr);
@@ -904,7 +917,7 @@ public class SyntaxChecker implements ISyntaxChecker {
             // adding a secondary default sort by entity name
             StringBuilder sortExpr = new StringBuilder();
             sortExpr.append(sortByPhrase);
-            if (!sortByPhrase.contains(searchObjectAC.getDefaultSort(searchObjStr))) {
+            if (!keysetPaging && !sortByPhrase.contains(searchObjectAC.getDefaultSort(searchObjStr))) {
                 sortExpr.append(",");
                 sortExpr.append(searchObjectAC.getDefaultSort(searchObjStr));
             }
@@ -945,6 +958,26 @@ public class SyntaxChecker implements ISyntaxChecker {
         return retval;
     }
 
+    private void checkKeysetPaging(String searchObjStr, boolean sortedOrPaged) {
+        if (!searchObjectAC.isKeysetPagingSupported(searchObjStr)) {
+            throw new IllegalArgumentException(
+                    StringFormat.format("Searches of '%1$s' can't be paged by key", searchObjStr));
+        }
+        if (sortedOrPaged) {
+            throw new IllegalArgumentException("Searches paged by key can't contain 'sortby' or 'page'");
+        }
+    }
+
+    private String getSearchAfterCondition(String searchObjStr, String searchAfter, boolean useTags) {
+        if (!searchAfterRegexp.isMatch(searchAfter)) {
+            throw new SqlInjectionException();
+        }
+        return StringFormat.format(" %1$s.%2$s > '%3$s' ",
+                searchObjectAC.getRelatedTableName(searchObjStr, useTags),
+                searchObjectAC.getPrimeryKeyName(searchObjStr),
+                searchAfter);
+    }
+
     private String getInnerQuery(String tableName, String primeryKey, String fromStatement, StringBuilder wherePhrase, StringBuilder sortExpr, boolean useDistinct) {
         // prevent using distinct when the sort expression has a function call since when distinct is used it is performed first and sorting
         // is done on the result, so all fields in the sort clause should appear in the result set after distinct is applied
@@ -18,6 +18,7 @@ public class SyntaxContainer implements Iterable<SyntaxObject> {
     private final int[] errorPos = new int[2];
     private int privateMaxCount;
     private long searchFrom = 0;
+    private String searchAfter;
     private boolean caseSensitive=true;
 
     /**
@@ -50,6 +51,19 @@ public class SyntaxContainer implements Iterable<SyntaxObject> {
         searchFrom = value;
     }
 
+    /**
+     * When not {@code null} the results are sorted by primary key and only those whose primary key is greater than
+     * this value are returned, so that a collection can be paged without skipping the previous pages. An empty value
+     * returns the first page.
+     */
+    public String getSearchAfter() {
+        return searchAfter;
+    }
+
+    public void setSearchAfter(String value) {
+        searchAfter = value;
+    }
+
     public boolean getvalid() {
         return valid;
     }
@@ -52,4 +52,14 @@ public class SearchObjectAutoCompleterTest {
                 SearchObjectAutoCompleter.getEntitySearchInfo(SearchObjects.AUDIT_OBJ_NAME));
         assertNull(SearchObjectAutoCompleter.getEntitySearchInfo("RANDOM_NOTEXISTING_KEY"));
     }
+
+    @Test
+    public void testIsKeysetPagingSupported() {
+        assertTrue(comp.isKeysetPagingSupported(SearchObjects.VM_PLU_OBJ_NAME), "VMS");
+        assertTrue(comp.isKeysetPagingSupported(SearchObjects.DISK_OBJ_NAME), "DISK");
+        assertFalse(comp.isKeysetPagingSupported(SearchObjects.VDS_NETWORK_INTERFACE_OBJ_NAME), "Host interfaces");
+        assertFalse(comp.isKeysetPagingSupported(SearchObjects.VM_NETWORK_INTERFACE_OBJ_NAME), "VM interfaces");
+        assertFalse(comp.isKeysetPagingSupported(SearchObjects.VDC_STORAGE_DOMAIN_IMAGE_OBJ_NAME), "Images");
+        assertFalse(comp.isKeysetPagingSupported(null), "Null");
+    }
 }
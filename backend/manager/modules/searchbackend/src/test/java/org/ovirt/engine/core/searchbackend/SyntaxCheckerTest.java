@@ -2,6 +2,7 @@ package org.ovirt.engine.core.searchbackend;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -15,6 +16,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.ovirt.engine.core.common.businessentities.Tags;
 import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.errors.SqlInjectionException;
 import org.ovirt.engine.core.common.interfaces.ITagsHandler;
 import org.ovirt.engine.core.utils.MockConfigDescriptor;
 import org.ovirt.engine.core.utils.MockConfigExtension;
@@ -217,6 +219,33 @@ public class SyntaxCheckerTest {
                 "SELECT * FROM ((SELECT  distinct  vms.* FROM  vms   LEFT OUTER JOIN vm_templates_storage_domain ON vms.vmt_guid=vm_templates_storage_domain.vmt_guid    WHERE  vm_templates_storage_domain.name LIKE temp1 )  ORDER BY vm_name ASC ) as T1 OFFSET (1 -1) LIMIT 0");
     }
 
+    @Test
+    public void testVmsSearchAfter() {
+        testValidSql("Vms:", "",
+                "SELECT * FROM ((SELECT  vms.* FROM  vms  )  ORDER BY vm_guid ASC) as T1 OFFSET (1 -1) LIMIT 0");
+        testValidSql("Vms: status=Up", "6f4b1a9c-1d3e-4c1a-9e33-0d2f6e1b7a10",
+                "SELECT * FROM ((SELECT  vms.* FROM  vms   WHERE  vms.status = '1'  AND  vms.vm_guid > "
+                        + "'6f4b1a9c-1d3e-4c1a-9e33-0d2f6e1b7a10' )  ORDER BY vm_guid ASC) as T1 OFFSET (1 -1) LIMIT 0");
+    }
+
+    @Test
+    public void testSearchAfterWithSortByIsRejected() {
+        assertSearchAfterIsRejected("Vms: status=Up sortby cpu_usage desc");
+    }
+
+    @Test
+    public void testSearchAfterWithPageIsRejected() {
+        assertSearchAfterIsRejected("Vms: status=Up page 3");
+    }
+
+    @Test
+    public void testSearchAfterInjection() {
+        ISyntaxChecker curSyntaxChecker = SyntaxCheckerFactory.createBackendSyntaxChecker("foo");
+        SyntaxContainer res = curSyntaxChecker.analyzeSyntaxState("Vms:", true);
+        res.setSearchAfter("1' or '1'='1");
+        assertThrows(SqlInjectionException.class, () -> new SyntaxChecker().generateQueryFromSyntaxContainer(res, true));
+    }
+
     @Test
     public void testEvent() {
         testValidSql("Event: ",
@@ -500,11 +529,25 @@ public class SyntaxCheckerTest {
     }
 
     private void testValidSql(String dynamicQuery, String exepctedSQLResult) {
+        testValidSql(dynamicQuery, null, exepctedSQLResult);
+    }
+
+    private void testValidSql(String dynamicQuery, String searchAfter, String exepctedSQLResult) {
         SyntaxChecker chkr = new SyntaxChecker();
         ISyntaxChecker curSyntaxChecker = SyntaxCheckerFactory.createBackendSyntaxChecker("foo");
         SyntaxContainer res = curSyntaxChecker.analyzeSyntaxState(dynamicQuery, true);
         assertTrue(res.getvalid(), "Invalid syntax: " + dynamicQuery);
+        res.setSearchAfter(searchAfter);
         String query = chkr.generateQueryFromSyntaxContainer(res, true);
         assertEquals(exepctedSQLResult, query);
     }
+
+    private void assertSearchAfterIsRejected(String dynamicQuery) {
+        ISyntaxChecker curSyntaxChecker = SyntaxCheckerFactory.createBackendSyntaxChecker("foo");
+        SyntaxContainer res = curSyntaxChecker.analyzeSyntaxState(dynamicQuery, true);
+        assertTrue(res.getvalid(), "Invalid syntax: " + dynamicQuery);
+        res.setSearchAfter("6f4b1a9c-1d3e-4c1a-9e33-0d2f6e1b7a10");
+        assertThrows(IllegalArgumentException.class,
+                () -> new SyntaxChecker().generateQueryFromSyntaxContainer(res, true));
+    }
 }
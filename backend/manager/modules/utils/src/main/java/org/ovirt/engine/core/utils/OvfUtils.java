@@ -27,6 +27,7 @@ import org.ovirt.engine.core.common.osinfo.OsRepository;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.utils.archivers.tar.TarInMemoryExport;
 import org.ovirt.engine.core.utils.ovf.OvfInfoFileConstants;
+import org.ovirt.engine.core.utils.ovf.OvfSummary;
 import org.ovirt.engine.core.utils.ovf.xml.XmlDocument;
 import org.ovirt.engine.core.utils.ovf.xml.XmlNode;
 import org.ovirt.engine.core.utils.ovf.xml.XmlNodeList;
@@ -206,9 +207,9 @@ public class OvfUtils {
         Guid entityId = getEntityId(fileEntry.getKey());
         String vmName = getEntityName(ovfData);
         try {
-            XmlDocument xmlDocument = new XmlDocument(ovfData);
-            archType = getOsSection(xmlDocument);
-            if (isExternalVM(xmlDocument)) {
+            OvfSummary ovfSummary = OvfSummary.read(ovfData);
+            archType = getArchitecture(ovfSummary.getOsSectionText());
+            if (isExternalVM(ovfSummary.getOrigin())) {
                 log.warn(
                         "Retrieve an external OVF Entity from storage domain ID '{}' for entity ID '{}'," +
                                 " entity name '{}' and VM Type of '{}'." +
@@ -219,7 +220,7 @@ public class OvfUtils {
                         vmType.name());
                 return;
             }
-            updateUnregisteredDisksWithVMs(unregisteredDisks, entityId, vmName, xmlDocument);
+            updateUnregisteredDisksWithVMs(unregisteredDisks, entityId, vmName, ovfSummary.getDiskIds());
         } catch (Exception e) {
             log.error("Could not parse VM's disks or architecture, file name: {}, content size: {}, error: {}",
                     fileEntry.getKey(),
@@ -251,20 +252,22 @@ public class OvfUtils {
         for (int i = 0; i < nodeList.getLength(); i++) {
             Node node = nodeList.item(i);
             if (node.getNodeName().equals(VM_ORIGIN) && node.getChildNodes().item(0) != null) {
-                Integer originType = Integer.valueOf(node.getChildNodes().item(0).getNodeValue());
-                return OriginType.EXTERNAL == OriginType.forValue(originType);
+                return isExternalVM(node.getChildNodes().item(0).getNodeValue());
             }
         }
         return false;
     }
 
+    private static boolean isExternalVM(String origin) {
+        return origin != null && OriginType.EXTERNAL == OriginType.forValue(Integer.valueOf(origin));
+    }
+
     public static Guid fetchLeaseDomainId(String ovfData) {
         Guid leaseDomainId = null;
         try {
-            XmlDocument xmlDocument = new XmlDocument(ovfData);
-            XmlNode xmlNode = xmlDocument.selectSingleNode("//*/Content").selectSingleNode("LeaseDomainId");
-            if (xmlNode != null) {
-                leaseDomainId = Guid.createGuidFromString(xmlNode.innerText);
+            String leaseDomain = OvfSummary.read(ovfData).getLeaseDomainId();
+            if (leaseDomain != null) {
+                leaseDomainId = Guid.createGuidFromString(leaseDomain);
             }
         } catch (Exception e) {
             log.debug("failed to parse a given ovf configuration: \n" + ovfData, e);
@@ -276,7 +279,14 @@ public class OvfUtils {
             Guid entityId,
             String vmName,
             XmlDocument xmlDocument) {
-        for (Guid diskId : fetchVmDisks(xmlDocument)) {
+        updateUnregisteredDisksWithVMs(unregisteredDisks, entityId, vmName, fetchVmDisks(xmlDocument));
+    }
+
+    public void updateUnregisteredDisksWithVMs(List<UnregisteredDisk> unregisteredDisks,
+            Guid entityId,
+            String vmName,
+            Set<Guid> diskIds) {
+        for (Guid diskId : diskIds) {
             UnregisteredDisk unregisterDisk = unregisteredDisks.stream()
                     .filter(unregrDisk -> diskId.equals(unregrDisk.getDiskId()))
                     .findAny()
@@ -290,25 +300,11 @@ public class OvfUtils {
         }
     }
 
-    private ArchitectureType getOsSection(XmlDocument xmlDocument) {
-        ArchitectureType archType = null;
-        XmlNode content = xmlDocument.selectSingleNode("//*/Content");
-        XmlNodeList nodeList = content.selectNodes("Section");
-        XmlNode selectedSection = null;
-        if (nodeList != null) {
-            for (XmlNode section : nodeList) {
-                String value = section.attributes.get("xsi:type").getValue();
-
-                if (value.equals("ovf:OperatingSystemSection_Type")) {
-                    selectedSection = section;
-                    break;
-                }
-            }
-            if (selectedSection != null) {
-                int osId = osRepository.getOsIdByUniqueName(selectedSection.innerText);
-                archType = osRepository.getArchitectureFromOS(osId);
-            }
+    private ArchitectureType getArchitecture(String osSectionText) {
+        if (osSectionText == null) {
+            return null;
         }
-        return archType;
+        int osId = osRepository.getOsIdByUniqueName(osSectionText);
+        return osRepository.getArchitectureFromOS(osId);
     }
 }
@@ -0,0 +1,57 @@
+package org.ovirt.engine.core.utils.archivers.tar;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+
+/**
+ * Encodes tar entries one by one, so an archive can be put together out of entries that were encoded before, in the
+ * same format {@link InMemoryTar} writes.
+ */
+public final class TarEntries {
+    // The default record size for GNU tar is 20 blocks of 512 bytes
+    private static final int RECORD_SIZE = 10240;
+    private static final int BLOCK_SIZE = 512;
+
+    private TarEntries() {
+    }
+
+    /**
+     * @return the header and the data of the entry, padded to a whole number of blocks
+     */
+    public static byte[] encode(String name, byte[] data) {
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(data.length);
+        byte[] encoded = new byte[BLOCK_SIZE + padToBlock(data.length)];
+        entry.writeEntryHeader(encoded);
+        System.arraycopy(data, 0, encoded, BLOCK_SIZE, data.length);
+        return encoded;
+    }
+
+    /**
+     * @return the size of the archive of the given encoded entries, including its end of archive blocks
+     */
+    public static long archiveSize(List<byte[]> entries) {
+        long size = entries.stream().mapToLong(entry -> entry.length).sum() + 2 * BLOCK_SIZE;
+        return (size + RECORD_SIZE - 1) / RECORD_SIZE * RECORD_SIZE;
+    }
+
+    /**
+     * Opens the archive of the given encoded entries, without copying them.
+     */
+    public static InputStream openArchive(List<byte[]> entries) {
+        long entriesSize = entries.stream().mapToLong(entry -> entry.length).sum();
+        List<InputStream> streams = entries.stream().map(ByteArrayInputStream::new).collect(Collectors.toList());
+        streams.add(new ByteArrayInputStream(new byte[(int) (archiveSize(entries) - entriesSize)]));
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
+
+    private static int padToBlock(int size) {
+        return (size + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE;
+    }
+}
@@ -58,6 +58,11 @@ import org.slf4j.LoggerFactory;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+/**
+ * Reads the entities of an OVF from its {@link XmlDocument}, the DOM tree of the whole document. Scans that need only
+ * the disks, operating system, origin or lease domain of an OVF use {@link OvfSummary}, which streams the document
+ * instead. Reading the full entities with a streaming reader as well is left to a follow-up change.
+ */
 public abstract class OvfReader implements IOvfBuilder {
     private static final Logger log = LoggerFactory.getLogger(OvfReader.class);
 
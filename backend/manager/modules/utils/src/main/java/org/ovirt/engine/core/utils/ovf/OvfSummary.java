@@ -0,0 +1,250 @@
+package org.ovirt.engine.core.utils.ovf;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * The parts of an OVF that are needed when scanning the OVFs of a storage domain, read in a single pass over the
+ * document with a StAX reader, without building its DOM tree. The values are the same as the ones that are selected
+ * from the {@link org.ovirt.engine.core.utils.ovf.xml.XmlDocument} of the OVF.
+ */
+public final class OvfSummary {
+    private static final String REFERENCES = "References";
+    private static final String FILE = "File";
+    private static final String CONTENT = "Content";
+    private static final String SECTION = "Section";
+    private static final String SNAPSHOT = "Snapshot";
+    private static final String MEMORY = "Memory";
+    private static final String ORIGIN = "Origin";
+    private static final String LEASE_DOMAIN_ID = "LeaseDomainId";
+    private static final String OS_SECTION_TYPE = "ovf:OperatingSystemSection_Type";
+    private static final String SNAPSHOTS_SECTION_TYPE = "ovf:SnapshotsSection_Type";
+    private static final int GUID_LENGTH = Guid.Empty.toString().length();
+
+    // the depths of the elements of the scanned paths, where the root element is at depth 1
+    private static final int ENVELOPE_CHILD = 2;
+    private static final int CONTENT_CHILD = 3;
+    private static final int SECTION_CHILD = 4;
+    private static final int SNAPSHOT_CHILD = 5;
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final Set<Guid> diskIds = new HashSet<>();
+    private final Set<Guid> memoryDiskIds = new HashSet<>();
+    private String osSectionText;
+    private String origin;
+    private String leaseDomainId;
+
+    private OvfSummary() {
+    }
+
+    /**
+     * @return the ids of the disks in the references of the OVF and of the memory disks of its snapshots
+     */
+    public Set<Guid> getDiskIds() {
+        Set<Guid> ids = new HashSet<>(diskIds);
+        ids.addAll(memoryDiskIds);
+        return ids;
+    }
+
+    /**
+     * @return the ids of the memory dump and metadata disks of the snapshots in the OVF
+     */
+    public Set<Guid> getMemoryDiskIds() {
+        return Collections.unmodifiableSet(memoryDiskIds);
+    }
+
+    /**
+     * @return the text content of the operating system section, {@code null} if the OVF has none
+     */
+    public String getOsSectionText() {
+        return osSectionText;
+    }
+
+    /**
+     * @return the origin of the entity, {@code null} if it is not set in the OVF
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * @return the id of the storage domain of the VM lease, {@code null} if it is not set in the OVF
+     */
+    public String getLeaseDomainId() {
+        return leaseDomainId;
+    }
+
+    public static OvfSummary read(String ovfData) throws XMLStreamException, OvfReaderException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(ovfData));
+        try {
+            return new Scanner(reader).scan();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private enum Text {
+        OS_SECTION,
+        MEMORY,
+        ORIGIN,
+        LEASE_DOMAIN_ID
+    }
+
+    private static class Scanner {
+        private final XMLStreamReader reader;
+        private final OvfSummary summary = new OvfSummary();
+        private int depth;
+        private boolean referencesFound;
+        private boolean contentFound;
+        private boolean inReferences;
+        private boolean inContent;
+        private boolean inSnapshotsSection;
+        private boolean inSnapshot;
+        private boolean memoryFoundInSnapshot;
+        private Text text;
+        private int textDepth;
+        private StringBuilder textBuilder;
+
+        Scanner(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        OvfSummary scan() throws XMLStreamException, OvfReaderException {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    startElement(reader.getLocalName());
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    endElement();
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (text != null) {
+                        textBuilder.append(reader.getText());
+                    }
+                    break;
+                default:
+                    break;
+                }
+            }
+            if (!referencesFound || !contentFound) {
+                throw new OvfReaderException("The OVF has no References or Content element");
+            }
+            return summary;
+        }
+
+        private void startElement(String name) {
+            if (text != null) {
+                return;
+            }
+            switch (depth) {
+            case ENVELOPE_CHILD:
+                inSnapshotsSection = false;
+                inReferences = !referencesFound && REFERENCES.equals(name);
+                inContent = !contentFound && CONTENT.equals(name);
+                referencesFound |= inReferences;
+                contentFound |= inContent;
+                break;
+            case CONTENT_CHILD:
+                if (inReferences && FILE.equals(name)) {
+                    String href = attribute("ovf", "href");
+                    summary.diskIds.add(Guid.createGuidFromString(href.substring(0, GUID_LENGTH)));
+                } else if (inContent) {
+                    startContentChild(name);
+                }
+                break;
+            case SECTION_CHILD:
+                inSnapshot = inSnapshotsSection && SNAPSHOT.equals(name);
+                memoryFoundInSnapshot = false;
+                break;
+            case SNAPSHOT_CHILD:
+                if (inSnapshot && !memoryFoundInSnapshot && MEMORY.equals(name)) {
+                    memoryFoundInSnapshot = true;
+                    startText(Text.MEMORY);
+                }
+                break;
+            default:
+                break;
+            }
+        }
+
+        private void startContentChild(String name) {
+            inSnapshotsSection = false;
+            if (SECTION.equals(name)) {
+                String type = attribute("xsi", "type");
+                if (OS_SECTION_TYPE.equals(type) && summary.osSectionText == null) {
+                    startText(Text.OS_SECTION);
+                } else {
+                    inSnapshotsSection = SNAPSHOTS_SECTION_TYPE.equals(type);
+                }
+            } else if (ORIGIN.equals(name) && summary.origin == null) {
+                startText(Text.ORIGIN);
+            } else if (LEASE_DOMAIN_ID.equals(name) && summary.leaseDomainId == null) {
+                startText(Text.LEASE_DOMAIN_ID);
+            }
+        }
+
+        private void endElement() {
+            if (text == null || depth != textDepth) {
+                return;
+            }
+            String value = textBuilder.toString();
+            switch (text) {
+            case OS_SECTION:
+                summary.osSectionText = value;
+                break;
+            case MEMORY:
+                List<Guid> guids = Guid.createGuidListFromString(value);
+                summary.memoryDiskIds.add(guids.get(2));
+                summary.memoryDiskIds.add(guids.get(4));
+                break;
+            case ORIGIN:
+                // an empty origin is skipped, like the DOM lookup does
+                summary.origin = value.isEmpty() ? null : value;
+                break;
+            case LEASE_DOMAIN_ID:
+                summary.leaseDomainId = value;
+                break;
+            }
+            text = null;
+            textBuilder = null;
+        }
+
+        private void startText(Text text) {
+            this.text = text;
+            textDepth = depth;
+            textBuilder = new StringBuilder();
+        }
+
+        private String attribute(String prefix, String localName) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                if (prefix.equals(reader.getAttributePrefix(i)) && localName.equals(reader.getAttributeLocalName(i))) {
+                    return reader.getAttributeValue(i);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.ovirt.engine.core.utils.ovf.xml;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathFactory;
+
+/**
+ * Looks up the XPath factory once per thread instead of once per expression, since the lookup goes through the
+ * service loader while the factory itself is not thread safe.
+ */
+final class XPaths {
+    private static final ThreadLocal<XPathFactory> FACTORY = ThreadLocal.withInitial(XPathFactory::newInstance);
+
+    private XPaths() {
+    }
+
+    static XPath newXPath() {
+        return FACTORY.get().newXPath();
+    }
+}
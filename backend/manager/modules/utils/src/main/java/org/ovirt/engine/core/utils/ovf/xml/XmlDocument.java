@@ -6,7 +6,6 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
 
 import org.ovirt.engine.core.uutils.xml.SecureDocumentBuilderFactory;
 import org.w3c.dom.Document;
@@ -17,7 +16,6 @@ import org.xml.sax.InputSource;
 public class XmlDocument {
 
     private String outerXml;
-    public XmlNode[] childNodes;
 
     private Document doc;
 
@@ -35,20 +33,12 @@ public class XmlDocument {
         DocumentBuilder builder = fact.newDocumentBuilder();
         doc = builder.parse(new InputSource(new StringReader(ovfstring)));
 
-        // initialize all the child nodes
-        NodeList list = doc.getElementsByTagName("*");
-        childNodes = new XmlNode[list.getLength()];
-        for (int i = 0; i < list.getLength(); i++) {
-            childNodes[i] = new XmlNode(list.item(i));
-        }
-
         outerXml = ovfstring;
     }
 
     public XmlNode selectSingleNode(String string) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
+            XPath xPath = XPaths.newXPath();
             Object o = xPath.evaluate(string, doc, XPathConstants.NODE);
             return o != null ? new XmlNode((Node) o) : null;
         } catch (Exception e) {
@@ -58,8 +48,7 @@ public class XmlDocument {
 
     public XmlNode selectSingleNode(String string, XmlNamespaceManager _xmlns) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
+            XPath xPath = XPaths.newXPath();
             xPath.setNamespaceContext(_xmlns);
             Object o = xPath.evaluate(string, doc, XPathConstants.NODE);
             return o != null ? new XmlNode((Node) o) : null;
@@ -70,8 +59,7 @@ public class XmlDocument {
 
     public XmlNodeList selectNodes(String string) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
+            XPath xPath = XPaths.newXPath();
             Object o = xPath.evaluate(string, doc, XPathConstants.NODESET);
             return new XmlNodeList((NodeList) o);
         } catch (Exception e) {
@@ -81,8 +69,7 @@ public class XmlDocument {
 
     public XmlNodeList selectNodes(String string, XmlNamespaceManager _xmlns) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
+            XPath xPath = XPaths.newXPath();
             xPath.setNamespaceContext(_xmlns);
             Object o = xPath.evaluate(string, doc, XPathConstants.NODESET);
             return new XmlNodeList((NodeList) o);
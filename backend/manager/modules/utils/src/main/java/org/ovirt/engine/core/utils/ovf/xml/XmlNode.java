@@ -2,7 +2,6 @@ package org.ovirt.engine.core.utils.ovf.xml;
 
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -22,8 +21,7 @@ public class XmlNode {
 
     public XmlNode selectSingleNode(String string, XmlNamespaceManager _xmlns) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
+            XPath xPath = XPaths.newXPath();
             xPath.setNamespaceContext(_xmlns);
             Object o = xPath.evaluate(string, node, XPathConstants.NODE);
             return o != null ? new XmlNode((Node) o) : null;
@@ -34,8 +32,7 @@ public class XmlNode {
 
     public XmlNode selectSingleNode(String string) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
+            XPath xPath = XPaths.newXPath();
             Object o = xPath.evaluate(string, node, XPathConstants.NODE);
             return o != null ? new XmlNode((Node) o) : null;
         } catch (Exception e) {
@@ -45,8 +42,7 @@ public class XmlNode {
 
     public XmlNodeList selectNodes(String string) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
+            XPath xPath = XPaths.newXPath();
             Object o = xPath.evaluate(string, node, XPathConstants.NODESET);
             return new XmlNodeList((NodeList) o);
         } catch (Exception e) {
@@ -56,8 +52,7 @@ public class XmlNode {
 
     public XmlNodeList selectNodes(String string, XmlNamespaceManager xmlns) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
+            XPath xPath = XPaths.newXPath();
             xPath.setNamespaceContext(xmlns);
             Object o = xPath.evaluate(string, node, XPathConstants.NODESET);
             return new XmlNodeList((NodeList) o);
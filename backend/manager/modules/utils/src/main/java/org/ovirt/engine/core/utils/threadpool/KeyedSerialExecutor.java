@@ -0,0 +1,46 @@
+package org.ovirt.engine.core.utils.threadpool;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks on the given executor one at a time and in the order they were submitted for each key, while the tasks
+ * of different keys run in parallel. A failed task doesn't prevent the next tasks of its key from running.
+ *
+ * @param <K>
+ *            the type of the keys the tasks are serialized by
+ */
+public class KeyedSerialExecutor<K> {
+
+    private final Executor executor;
+    private final ConcurrentMap<K, CompletableFuture<?>> lastTasks = new ConcurrentHashMap<>();
+
+    public KeyedSerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Submits the given task to run after all the tasks previously submitted for the same key.
+     *
+     * @return the future result of the task
+     */
+    public <T> CompletableFuture<T> submit(K key, Supplier<T> task) {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<T> future = (CompletableFuture<T>) lastTasks.compute(key,
+                (k, lastTask) -> lastTask == null
+                        ? CompletableFuture.supplyAsync(task, executor)
+                        : lastTask.handle((result, error) -> null).thenApplyAsync(result -> task.get(), executor));
+        future.whenComplete((result, error) -> lastTasks.remove(key, future));
+        return future;
+    }
+
+    /**
+     * @return {@code true} if there are tasks of the given key that didn't finish yet
+     */
+    public boolean isBusy(K key) {
+        return lastTasks.containsKey(key);
+    }
+}
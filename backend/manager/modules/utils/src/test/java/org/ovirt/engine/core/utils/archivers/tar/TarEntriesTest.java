@@ -0,0 +1,82 @@
+package org.ovirt.engine.core.utils.archivers.tar;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class TarEntriesTest {
+
+    private static final byte[] INFO = "info".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OVF = ovf();
+    private static final byte[] EMPTY = new byte[0];
+
+    @Test
+    public void archiveHasTheSizeOfInMemoryTar() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (InMemoryTar inMemoryTar = new InMemoryTar(outputStream)) {
+            inMemoryTar.addTarEntry(INFO, "info.json");
+            inMemoryTar.addTarEntry(OVF, "vm.ovf");
+            inMemoryTar.addTarEntry(EMPTY, "empty.ovf");
+        }
+
+        List<byte[]> entries = Arrays.asList(TarEntries.encode("info.json", INFO),
+                TarEntries.encode("vm.ovf", OVF),
+                TarEntries.encode("empty.ovf", EMPTY));
+        byte[] archive = readAll(TarEntries.openArchive(entries));
+
+        assertEquals(outputStream.size(), archive.length);
+        assertEquals(archive.length, TarEntries.archiveSize(entries));
+    }
+
+    @Test
+    public void archiveIsReadable() throws Exception {
+        List<byte[]> entries = Arrays.asList(TarEntries.encode("info.json", INFO),
+                TarEntries.encode("vm.ovf", OVF),
+                TarEntries.encode("empty.ovf", EMPTY));
+
+        try (InputStream archive = TarEntries.openArchive(entries);
+                TarInMemoryExport tar = new TarInMemoryExport(archive)) {
+            Map<String, ByteBuffer> files = tar.unTar();
+            assertEquals(3, files.size());
+            assertArrayEquals(INFO, files.get("info.json").array());
+            assertArrayEquals(OVF, files.get("vm.ovf").array());
+            assertArrayEquals(EMPTY, files.get("empty.ovf").array());
+        }
+    }
+
+    @Test
+    public void emptyArchiveIsOneRecord() throws Exception {
+        List<byte[]> entries = Collections.emptyList();
+        try (TarInMemoryExport tar = new TarInMemoryExport(TarEntries.openArchive(entries))) {
+            assertEquals(0, tar.unTar().size());
+        }
+        assertEquals(10240, TarEntries.archiveSize(entries));
+        assertEquals(10240, readAll(TarEntries.openArchive(entries)).length);
+    }
+
+    private static byte[] ovf() {
+        byte[] ovf = new byte[1500];
+        Arrays.fill(ovf, (byte) 'a');
+        return ovf;
+    }
+
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int read = inputStream.read(buffer); read != -1; read = inputStream.read(buffer)) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,98 @@
+package org.ovirt.engine.core.utils.ovf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.OvfUtils;
+import org.ovirt.engine.core.utils.ovf.xml.XmlDocument;
+
+public class OvfSummaryTest {
+
+    private static final Guid LEASE_DOMAIN_ID = Guid.newGuid();
+
+    private final OvfUtils ovfUtils = new OvfUtils();
+
+    @Test
+    public void summaryMatchesDocument() throws Exception {
+        List<Guid> diskIds = newGuids(5);
+        List<Guid> memory = newGuids(6);
+        String ovf = ovf(diskIds, memory, "0", LEASE_DOMAIN_ID.toString());
+        XmlDocument document = new XmlDocument(ovf);
+
+        OvfSummary summary = OvfSummary.read(ovf);
+
+        assertEquals(ovfUtils.fetchVmDisks(document), summary.getDiskIds());
+        assertEquals(ovfUtils.fetchMemoryDisks(document), summary.getMemoryDiskIds());
+        assertEquals(new HashSet<>(Arrays.asList(memory.get(2), memory.get(4))), summary.getMemoryDiskIds());
+        assertTrue(summary.getDiskIds().containsAll(diskIds));
+        assertEquals(document.selectSingleNode("//*/Content/Section[2]").innerText, summary.getOsSectionText());
+        assertEquals("0", summary.getOrigin());
+        assertFalse(ovfUtils.isExternalVM(document));
+        assertEquals(LEASE_DOMAIN_ID, OvfUtils.fetchLeaseDomainId(ovf));
+    }
+
+    @Test
+    public void optionalElementsAreMissing() throws Exception {
+        String ovf = ovf(newGuids(1), null, null, null);
+
+        OvfSummary summary = OvfSummary.read(ovf);
+
+        assertTrue(summary.getMemoryDiskIds().isEmpty());
+        assertNull(summary.getOrigin());
+        assertNull(summary.getLeaseDomainId());
+        assertNull(OvfUtils.fetchLeaseDomainId(ovf));
+    }
+
+    @Test
+    public void ovfWithoutContentIsRejected() {
+        String ovf = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><ovf:Envelope "
+                + "xmlns:ovf=\"http://schemas.dmtf.org/ovf/envelope/1/\"><References/></ovf:Envelope>";
+        assertThrows(OvfReaderException.class, () -> OvfSummary.read(ovf));
+    }
+
+    private static List<Guid> newGuids(int count) {
+        List<Guid> guids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            guids.add(Guid.newGuid());
+        }
+        return guids;
+    }
+
+    private static String ovf(List<Guid> diskIds, List<Guid> memory, String origin, String leaseDomainId) {
+        StringBuilder ovf = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+                .append("<ovf:Envelope xmlns:ovf=\"http://schemas.dmtf.org/ovf/envelope/1/\"")
+                .append(" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" ovf:version=\"4.3.0.0\">")
+                .append("<References>");
+        diskIds.forEach(id -> ovf.append("<File ovf:href=\"").append(id).append('/').append(Guid.newGuid())
+                .append("\" ovf:id=\"").append(Guid.newGuid()).append("\"/>"));
+        ovf.append("</References><Section xsi:type=\"ovf:DiskSection_Type\"><Info>List of Virtual Disks</Info>")
+                .append("</Section><Content ovf:id=\"out\" xsi:type=\"ovf:VirtualSystem_Type\"><Name>vm</Name>");
+        if (origin != null) {
+            ovf.append("<Origin/><Origin>").append(origin).append("</Origin>");
+        }
+        if (leaseDomainId != null) {
+            ovf.append("<LeaseDomainId>").append(leaseDomainId).append("</LeaseDomainId>");
+        }
+        ovf.append("<Section xsi:type=\"ovf:NetworkSection_Type\"><Info>List of networks</Info></Section>")
+                .append("<Section xsi:type=\"ovf:OperatingSystemSection_Type\" ovf:required=\"false\">")
+                .append("<Info>Guest Operating System</Info><Description>rhel_7x64</Description></Section>")
+                .append("<Section xsi:type=\"ovf:SnapshotsSection_Type\">")
+                .append("<Snapshot ovf:id=\"").append(Guid.newGuid()).append("\"><Type>ACTIVE</Type></Snapshot>");
+        if (memory != null) {
+            ovf.append("<Snapshot ovf:id=\"").append(Guid.newGuid()).append("\"><Type>REGULAR</Type><Memory>")
+                    .append(memory.stream().map(Guid::toString).reduce((a, b) -> a + "," + b).get())
+                    .append("</Memory></Snapshot>");
+        }
+        return ovf.append("</Section></Content></ovf:Envelope>").toString();
+    }
+}
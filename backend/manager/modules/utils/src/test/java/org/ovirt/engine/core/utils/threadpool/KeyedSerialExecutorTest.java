@@ -0,0 +1,104 @@
+package org.ovirt.engine.core.utils.threadpool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class KeyedSerialExecutorTest {
+
+    private ExecutorService executorService;
+    private KeyedSerialExecutor<String> executor;
+
+    @BeforeEach
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+        executor = new KeyedSerialExecutor<>(executorService);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testTasksOfKeyRunInOrder() throws Exception {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int index = i;
+            futures.add(executor.submit("key", () -> {
+                order.add(index);
+                return index;
+            }));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) order.get(i));
+            assertEquals(i, (int) futures.get(i).get());
+        }
+    }
+
+    @Test
+    public void testTasksOfDifferentKeysRunInParallel() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        CompletableFuture<Boolean> first = executor.submit("first", () -> awaitBoth(started));
+        CompletableFuture<Boolean> second = executor.submit("second", () -> awaitBoth(started));
+
+        assertTrue(first.get(10, TimeUnit.SECONDS));
+        assertTrue(second.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailedTaskDoesNotStopItsKey() throws Exception {
+        CompletableFuture<Integer> failed = executor.submit("key", () -> {
+            throw new IllegalStateException();
+        });
+        CompletableFuture<Integer> next = executor.submit("key", () -> 1);
+
+        assertEquals(1, (int) next.get(10, TimeUnit.SECONDS));
+        assertTrue(failed.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testKeyIsReleasedWhenTasksFinish() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> future = executor.submit("key", () -> await(release));
+        assertTrue(executor.isBusy("key"));
+
+        release.countDown();
+        future.get(10, TimeUnit.SECONDS);
+        // the key is released right after the task completes
+        for (int i = 0; i < 100 && executor.isBusy("key"); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(executor.isBusy("key"));
+    }
+
+    private static boolean awaitBoth(CountDownLatch started) {
+        started.countDown();
+        return await(started);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.ovirt.engine.core.vdsbroker;
 
 import java.lang.reflect.Constructor;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -8,6 +9,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
@@ -51,6 +53,7 @@ import org.ovirt.engine.core.dao.VmDynamicDao;
 import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
 import org.ovirt.engine.core.di.Injector;
 import org.ovirt.engine.core.utils.ReflectionUtils;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.FutureVDSCommand;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsCommandExecutor;
@@ -399,6 +402,31 @@ public class ResourceManager implements BackendService {
         return null;
     }
 
+    /**
+     * Runs the given command on many hosts at the same time, instead of one host after the other, and waits until all
+     * of them answered or timed out. A failure of the command on a host is reported in its return value and doesn't
+     * affect the other hosts.
+     *
+     * Every host is waited for twice {@link ConfigValues#vdsTimeout}. The calls to VDSM fail by themselves after
+     * {@code vdsTimeout}, so that timeout wins for the calls that were sent, and the longer one only fails the calls
+     * that are held up before or after that.
+     *
+     * @param commandType
+     *            the command to run
+     * @param parameters
+     *            the parameters of the command, one per host
+     * @return the return values of the command by the id of the host, in the order of the given parameters
+     * @see VdsCommandFanOut
+     */
+    public <P extends VdsIdVDSCommandParametersBase> Map<Guid, VDSReturnValue> runVdsCommandOnHosts(
+            VDSCommandType commandType, Collection<P> parameters) {
+        VdsCommandFanOut<P> fanOut = new VdsCommandFanOut<>(ThreadPoolUtil.getExecutorService(),
+                Config.<Integer> getValue(ConfigValues.VdsCommandFanOutMaxInFlight),
+                2 * Config.<Integer> getValue(ConfigValues.vdsTimeout),
+                TimeUnit.SECONDS);
+        return fanOut.run(parameters, hostParameters -> runVdsCommand(commandType, hostParameters));
+    }
+
     public <P extends VDSParametersBase> VDSAsyncReturnValue runAsyncVdsCommand(VDSCommandType commandType, P parameters) {
         VDSCommandBase<P> command = createCommand(commandType, parameters);
 
@@ -0,0 +1,182 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.ovirt.engine.core.common.errors.EngineError;
+import org.ovirt.engine.core.common.errors.EngineException;
+import org.ovirt.engine.core.common.errors.VDSError;
+import org.ovirt.engine.core.common.vdscommands.VDSReturnValue;
+import org.ovirt.engine.core.common.vdscommands.VdsIdVDSCommandParametersBase;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.CorrelationIdTracker;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VDSExceptionBase;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VDSGenericException;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VDSNetworkException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a VDS command on many hosts at the same time and collects the return values by host.
+ *
+ * The commands wait for the answers of VDSM, so every host takes a thread of the executor while its call is in flight,
+ * and the calls go through the JSON-RPC clients the hosts are already connected with. At most {@code maxInFlight}
+ * hosts are called at the same time, and the next host is called as soon as one of them answers. A host that doesn't
+ * answer within the timeout gets a failed return value with a network error, and its call is cancelled.
+ *
+ * @param <P>
+ *            the type of the parameters of the command, one per host
+ */
+public class VdsCommandFanOut<P extends VdsIdVDSCommandParametersBase> {
+
+    private static final Logger log = LoggerFactory.getLogger(VdsCommandFanOut.class);
+
+    private final Executor executor;
+    private final int maxInFlight;
+    private final long timeout;
+
+    public VdsCommandFanOut(Executor executor, int maxInFlight, long timeout, TimeUnit unit) {
+        this.executor = executor;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.timeout = unit.toNanos(timeout);
+    }
+
+    /**
+     * Runs the command with each of the given parameters and waits until all the hosts answered or timed out.
+     *
+     * @param parameters
+     *            the parameters of the command, one per host
+     * @param command
+     *            runs the command with the given parameters and returns its return value
+     * @return the return values of the command by the id of the host, in the order of the given parameters
+     */
+    public Map<Guid, VDSReturnValue> run(Collection<P> parameters, Function<P, VDSReturnValue> command) {
+        Map<Guid, VDSReturnValue> results = new LinkedHashMap<>();
+        Map<Future<VDSReturnValue>, Call> calls = new HashMap<>();
+        ExecutorCompletionService<VDSReturnValue> completionService = new ExecutorCompletionService<>(executor);
+        String correlationId = CorrelationIdTracker.getCorrelationId();
+        Iterator<P> pending = parameters.iterator();
+        try {
+            while (pending.hasNext() || !calls.isEmpty()) {
+                while (pending.hasNext() && calls.size() < maxInFlight) {
+                    P hostParameters = pending.next();
+                    Guid vdsId = hostParameters.getVdsId();
+                    results.put(vdsId, null);
+                    try {
+                        Future<VDSReturnValue> future = completionService.submit(() -> {
+                            CorrelationIdTracker.setCorrelationId(correlationId);
+                            try {
+                                return command.apply(hostParameters);
+                            } finally {
+                                CorrelationIdTracker.clean();
+                            }
+                        });
+                        calls.put(future, new Call(vdsId, System.nanoTime() + timeout));
+                    } catch (RejectedExecutionException e) {
+                        log.warn("The thread pool is out of limit, the call to host '{}' was rejected", vdsId);
+                        results.put(vdsId, failure(new VDSGenericException(e)));
+                    }
+                }
+                if (calls.isEmpty()) {
+                    continue;
+                }
+
+                Future<VDSReturnValue> future = completionService.poll(getWaitTime(calls), TimeUnit.NANOSECONDS);
+                if (future != null) {
+                    // calls that timed out are already removed
+                    Call call = calls.remove(future);
+                    if (call != null) {
+                        results.put(call.vdsId, getReturnValue(future));
+                    }
+                } else {
+                    expireCalls(calls, results);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            calls.values().forEach(call -> results.put(call.vdsId, failure("Interrupted while waiting for the host")));
+            calls.keySet().forEach(future -> future.cancel(true));
+            pending.forEachRemaining(hostParameters -> results.put(hostParameters.getVdsId(),
+                    failure("Interrupted before calling the host")));
+        }
+        return results;
+    }
+
+    private static long getWaitTime(Map<Future<VDSReturnValue>, Call> calls) {
+        long now = System.nanoTime();
+        long waitTime = Long.MAX_VALUE;
+        for (Call call : calls.values()) {
+            waitTime = Math.min(waitTime, call.deadline - now);
+        }
+        return Math.max(waitTime, 0);
+    }
+
+    private static void expireCalls(Map<Future<VDSReturnValue>, Call> calls, Map<Guid, VDSReturnValue> results) {
+        long now = System.nanoTime();
+        for (Iterator<Map.Entry<Future<VDSReturnValue>, Call>> it = calls.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Future<VDSReturnValue>, Call> entry = it.next();
+            Call call = entry.getValue();
+            if (call.deadline - now <= 0) {
+                log.error("Timeout waiting for host '{}' to answer", call.vdsId);
+                entry.getKey().cancel(true);
+                results.put(call.vdsId, failure("Timeout during rpc call"));
+                it.remove();
+            }
+        }
+    }
+
+    private static VDSReturnValue getReturnValue(Future<VDSReturnValue> future) throws InterruptedException {
+        try {
+            VDSReturnValue returnValue = future.get();
+            return returnValue != null ? returnValue : failure("The command could not be created");
+        } catch (ExecutionException e) {
+            log.error("Failed to call the host: {}", e.getCause().getMessage());
+            log.debug("Exception", e.getCause());
+            VDSGenericException exception = new VDSGenericException(e.getCause());
+            if (e.getCause() instanceof EngineException) {
+                // the callers may handle some of the errors reported by the host
+                exception.setVdsError(((EngineException) e.getCause()).getVdsError());
+            }
+            return failure(exception);
+        }
+    }
+
+    private static VDSReturnValue failure(String message) {
+        VDSNetworkException exception = new VDSNetworkException(message);
+        exception.setVdsError(new VDSError(EngineError.VDS_NETWORK_ERROR, message));
+        return failure(exception);
+    }
+
+    private static VDSReturnValue failure(VDSExceptionBase exception) {
+        if (exception.getVdsError() == null) {
+            exception.setVdsError(new VDSError(EngineError.ENGINE, exception.getMessage()));
+        }
+        VDSReturnValue returnValue = new VDSReturnValue();
+        returnValue.setSucceeded(false);
+        returnValue.setExceptionString(exception.toString());
+        returnValue.setExceptionObject(exception);
+        returnValue.setVdsError(exception.getVdsError());
+        return returnValue;
+    }
+
+    private static class Call {
+
+        private final Guid vdsId;
+        private final long deadline;
+
+        Call(Guid vdsId, long deadline) {
+            this.vdsId = vdsId;
+            this.deadline = deadline;
+        }
+    }
+}
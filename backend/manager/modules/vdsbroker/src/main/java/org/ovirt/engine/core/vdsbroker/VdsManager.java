@@ -214,6 +214,7 @@ public class VdsManager {
     public void scheduleJobs() {
         long refreshRate = Config.<Long> getValue(ConfigValues.VdsRefreshRate) * 1000;
 
+        // the status of the host is polled at a fixed rate, only the monitoring of its VMs may be stretched
         registeredJobs.add(executor.scheduleWithFixedDelay(
                 this::refresh,
                 refreshRate,
@@ -258,6 +259,16 @@ public class VdsManager {
         }
     }
 
+    /**
+     * Returns the monitoring of the VMs of the host to its base refresh rate, after it was stretched while the VMs
+     * did not change
+     */
+    public void monitoringActivity() {
+        if (vmsRefresher != null) {
+            vmsRefresher.onVmsChanged();
+        }
+    }
+
     public void refreshImpl() {
         boolean releaseLock = true;
         if (lockManager.acquireLock(monitoringLock).getFirst()) {
@@ -690,6 +701,7 @@ public class VdsManager {
                 vds = vdsDao.get(getVdsId());
             }
             if (vds.getStatus() != status) {
+                monitoringActivity();
                 if (status == VDSStatus.PreparingForMaintenance) {
                     calculateNextMaintenanceAttemptTime();
                 }
@@ -1018,8 +1030,13 @@ public class VdsManager {
             job.cancel(true);
         }
 
-        vmsRefresher.stopMonitoring();
-        hostRefresher.stop();
+        // the jobs are not scheduled yet when the host is disposed before its monitoring started
+        if (vmsRefresher != null) {
+            vmsRefresher.stopMonitoring();
+        }
+        if (hostRefresher != null) {
+            hostRefresher.stop();
+        }
         vdsProxy.close();
     }
 
@@ -55,6 +55,9 @@ public class VmManager {
     private Double lastStatusEventTimestamp;
     private Guid lastStatusEventReporterId;
     private VmStatistics statistics;
+    /** A copy of the statistics last saved to the database */
+    private VmStatistics savedStatistics;
+    private int skippedStatisticsSaves;
 
     private boolean coldReboot;
 
@@ -146,6 +149,7 @@ public class VmManager {
     public void update(VmStatistics statistics) {
         vmStatisticsDao.update(statistics);
         setStatistics(statistics);
+        statisticsSaved(statistics);
     }
 
     public void update(VmNetworkStatistics networkStatistics) {
@@ -244,6 +248,40 @@ public class VmManager {
         this.statistics = statistics;
     }
 
+    /**
+     * Returns whether the statistics should be saved to the database. The statistics are not saved when they
+     * differ from the last saved statistics only in the elapsed time and the usage histories, unless such
+     * saves were skipped for more than the given number of times.
+     */
+    public boolean isStatisticsSaveNeeded(VmStatistics statistics, int maxSkippedSaves) {
+        if (skippedStatisticsSaves >= maxSkippedSaves || isStatisticsChanged(statistics)) {
+            return true;
+        }
+        skippedStatisticsSaves++;
+        return false;
+    }
+
+    /**
+     * Returns whether the statistics differ from the last saved statistics in more than the elapsed time and the
+     * usage histories
+     */
+    public boolean isStatisticsChanged(VmStatistics statistics) {
+        if (savedStatistics == null) {
+            return true;
+        }
+        VmStatistics comparedStatistics = new VmStatistics(statistics);
+        comparedStatistics.setElapsedTime(savedStatistics.getElapsedTime());
+        comparedStatistics.setCpuUsageHistory(savedStatistics.getCpuUsageHistory());
+        comparedStatistics.setMemoryUsageHistory(savedStatistics.getMemoryUsageHistory());
+        comparedStatistics.setNetworkUsageHistory(savedStatistics.getNetworkUsageHistory());
+        return !comparedStatistics.equals(savedStatistics);
+    }
+
+    public void statisticsSaved(VmStatistics statistics) {
+        savedStatistics = new VmStatistics(statistics);
+        skippedStatisticsSaves = 0;
+    }
+
     public String getName() {
         return name;
     }
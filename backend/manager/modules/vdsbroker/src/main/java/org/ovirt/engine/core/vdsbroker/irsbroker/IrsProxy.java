@@ -8,15 +8,17 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
@@ -85,6 +87,7 @@ import org.ovirt.engine.core.dao.VdsSpmIdMapDao;
 import org.ovirt.engine.core.dao.VdsStaticDao;
 import org.ovirt.engine.core.utils.lock.EngineLock;
 import org.ovirt.engine.core.utils.lock.LockManager;
+import org.ovirt.engine.core.utils.threadpool.KeyedSerialExecutor;
 import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.ovirt.engine.core.utils.timer.OnTimerMethodAnnotation;
@@ -1139,11 +1142,23 @@ public class IrsProxy {
         currentVdsId = null;
     }
 
-    private final Map<Guid, HashSet<Guid>> domainsInProblem = new ConcurrentHashMap<>();
-    private final Map<Guid, HashSet<Guid>> _domainsInMaintenance = new ConcurrentHashMap<>();
+    // The state of each domain is changed by its own serial executor, so the reports of the hosts on different domains
+    // are applied in parallel. Changes made from other threads must change the sets of a domain with the atomic
+    // operations of the maps.
+    private final ConcurrentMap<Guid, Set<Guid>> domainsInProblem = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Guid, Set<Guid>> _domainsInMaintenance = new ConcurrentHashMap<>();
     private final Map<Guid, Guid> vdsReportsOnUnseenDomain = new ConcurrentHashMap<>();
     private final Map<Guid, Guid> vdsHandeledReportsOnUnseenDomains = new ConcurrentHashMap<>();
-        private final Map<Guid, ScheduledFuture> timersMap = new HashMap<>();
+    private final Map<Guid, ScheduledFuture> timersMap = new ConcurrentHashMap<>();
+    private final Map<Guid, CompletableFuture<Void>> vdsReportsInProgress = new ConcurrentHashMap<>();
+    private final KeyedSerialExecutor<Guid> domainsExecutor = new KeyedSerialExecutor<>(ThreadPoolUtil::execute);
+    // changed when the cache is cleared, and per host when the host is cleared from it, so the parts of the reports in
+    // progress at that time that didn't start yet are dropped, and what the rest added is cleared once they are done
+    private final AtomicLong domainsCacheGeneration = new AtomicLong();
+    private final Map<Guid, Long> vdsCacheGenerations = new ConcurrentHashMap<>();
+    // the domains reports are skipped while these run, as they were when they were submitted to the event queue
+    private static final Set<EventType> eventsSkippingDomainsReports =
+            Collections.unmodifiableSet(EnumSet.of(EventType.RECONSTRUCT, EventType.RECOVERY));
 
     public void updateVdsDomainsData(VDS vds,
                                      final ArrayList<VDSDomainsData> data) {
@@ -1151,6 +1166,19 @@ public class IrsProxy {
             return;
         }
 
+        CompletableFuture<Void> previousReport = vdsReportsInProgress.get(vds.getId());
+        if (previousReport != null && !previousReport.isDone()) {
+            log.debug("The previous domains report of host '{}' is still in progress, skipping the current one",
+                    vds.getName());
+            return;
+        }
+
+        if (isDomainsReportSkipped()) {
+            log.debug("Reconstruct or recovery is running now for pool '{}', skipping the domains report of host '{}'",
+                    storagePoolId, vds.getName());
+            return;
+        }
+
         StoragePool storagePool =
                 storagePoolDao.get(storagePoolId);
         if (storagePool != null
@@ -1295,16 +1323,77 @@ public class IrsProxy {
         return domainsProblematicReportInfo;
     }
 
-    private void updateDomainInProblem(final Guid vdsId, final String vdsName, final Map<Guid, DomainMonitoringResult> domainsInProblem,
-                                       final Set<Guid> domainsInMaintenance) {
-        getEventQueue().submitEventSync(new Event(storagePoolId,
-                null, vdsId, EventType.DOMAINMONITORING, ""),
-                () -> {
-                    EventResult result = new EventResult(true, EventType.DOMAINMONITORING);
-                    updateProblematicVdsData(vdsId, vdsName, domainsInProblem);
-                    updateMaintenanceVdsData(vdsId, vdsName, domainsInMaintenance);
-                    return result;
+    /**
+     * Applies the report of the host to each of the domains it affects, without waiting for it. The domains are updated
+     * by their serial executors, in parallel with each other and with the reports of other hosts. The storage access
+     * problems of the host are updated once all its domains are.
+     */
+    private void updateDomainInProblem(final Guid vdsId, final String vdsName,
+            final Map<Guid, DomainMonitoringResult> problematicDomains, final Set<Guid> domainsInMaintenance) {
+        Set<Guid> affectedDomains = new HashSet<>(problematicDomains.keySet());
+        affectedDomains.addAll(domainsInMaintenance);
+        domainsInProblem.forEach((domainId, hosts) -> {
+            if (hosts.contains(vdsId)) {
+                affectedDomains.add(domainId);
+            }
+        });
+        _domainsInMaintenance.forEach((domainId, hosts) -> {
+            if (hosts.contains(vdsId)) {
+                affectedDomains.add(domainId);
+            }
+        });
+
+        long generation = domainsCacheGeneration.get();
+        long vdsGeneration = getVdsCacheGeneration(vdsId);
+        List<CompletableFuture<Boolean>> domainUpdates = new ArrayList<>(affectedDomains.size());
+        for (Guid domainId : affectedDomains) {
+            domainUpdates.add(domainsExecutor.submit(domainId,
+                    () -> isReportCurrent(vdsId, generation, vdsGeneration)
+                            && !isDomainsReportSkipped()
+                            && updateDomainData(domainId,
+                                    vdsId,
+                                    vdsName,
+                                    problematicDomains.get(domainId),
+                                    domainsInMaintenance.contains(domainId))));
+        }
+
+        CompletableFuture<Void> report = CompletableFuture
+                .allOf(domainUpdates.toArray(new CompletableFuture<?>[domainUpdates.size()]))
+                .thenRun(() -> {
+                    if (isReportCurrent(vdsId, generation, vdsGeneration)) {
+                        updateUnseenDomainsReport(vdsId,
+                                problematicDomains,
+                                domainUpdates.stream().anyMatch(CompletableFuture::join));
+                    }
                 });
+        vdsReportsInProgress.put(vdsId, report);
+        report.whenComplete((result, error) -> {
+            if (!isReportCurrent(vdsId, generation, vdsGeneration)) {
+                log.info("The cache of pool '{}' was cleared while the domains report of host '{}' was applied,"
+                        + " clearing the host from it again", storagePoolId, vdsName);
+                clearDomainFromCache(null, Collections.singletonList(vdsId));
+            }
+            vdsReportsInProgress.remove(vdsId, report);
+            if (error != null) {
+                log.error("error in updateVdsDomainsData of host '{}': {}", vdsName, error.getMessage());
+                log.debug("Exception", error);
+            }
+        });
+    }
+
+    private boolean isDomainsReportSkipped() {
+        return getEventQueue().isEventInProgress(storagePoolId, eventsSkippingDomainsReports);
+    }
+
+    private long getVdsCacheGeneration(Guid vdsId) {
+        return vdsCacheGenerations.getOrDefault(vdsId, 0L);
+    }
+
+    /**
+     * @return {@code true} if neither the cache nor the host were cleared from it since the report started
+     */
+    private boolean isReportCurrent(Guid vdsId, long generation, long vdsGeneration) {
+        return generation == domainsCacheGeneration.get() && vdsGeneration == getVdsCacheGeneration(vdsId);
     }
 
     private void logDelayedDomain(String vdsName, String domainName, double delay) {
@@ -1402,59 +1491,66 @@ public class IrsProxy {
         return vdsReportsOnUnseenDomain.remove(vdsId);
     }
 
-    private void updateMaintenanceVdsData(final Guid vdsId, final String vdsName, Set<Guid> domainsInMaintenance) {
-        for (Guid domainId : domainsInMaintenance) {
-            Set<Guid> vdsSet = _domainsInMaintenance.get(domainId);
-            if (vdsSet == null) {
-                log.info("Adding domain '{}' to the domains in maintenance cache", domainId);
-                _domainsInMaintenance.put(domainId, new HashSet<>(Arrays.asList(vdsId)));
-            } else {
-                vdsSet.add(vdsId);
+    /**
+     * Updates the state of the domain according to the report of the host, called by the executor of the domain.
+     *
+     * @param domainMonitoringResult
+     *            the problem the host reported for the domain, {@code null} if it didn't report a problem
+     * @param inMaintenance
+     *            whether the domain is in maintenance and isn't monitored by the host anymore
+     * @return {@code true} if the host can't access the domain anymore, and didn't report it before
+     */
+    private boolean updateDomainData(Guid domainId, Guid vdsId, String vdsName,
+            DomainMonitoringResult domainMonitoringResult, boolean inMaintenance) {
+        updateMaintenanceVdsData(domainId, vdsId, inMaintenance);
+
+        Set<Guid> hostsReportedDomainAsProblematic = domainsInProblem.get(domainId);
+        if (domainMonitoringResult == null) {
+            if (hostsReportedDomainAsProblematic != null && hostsReportedDomainAsProblematic.contains(vdsId)) {
+                domainRecoveredFromProblem(domainId, vdsId, vdsName);
             }
+            return false;
         }
-        Set<Guid> maintenanceDomainsByHost = new HashSet<>(_domainsInMaintenance.keySet());
-        maintenanceDomainsByHost.removeAll(domainsInMaintenance);
-        for (Guid domainId : maintenanceDomainsByHost) {
-            Set<Guid> vdsForDomain = _domainsInMaintenance.get(domainId);
-            if (vdsForDomain != null && vdsForDomain.contains(vdsId)) {
-                vdsForDomain.remove(vdsId);
-                if (vdsForDomain.isEmpty()) {
-                    log.info("Removing domain '{}' from the domains in maintenance cache", domainId);
-                    _domainsInMaintenance.remove(domainId);
-                }
-            }
+
+        boolean domainNotFound = domainMonitoringResult == DomainMonitoringResult.STORAGE_ACCCESS_ERROR;
+        boolean newDomainUnreachableByHost = domainNotFound
+                && (hostsReportedDomainAsProblematic == null || !hostsReportedDomainAsProblematic.contains(vdsId));
+        Set<Guid> hosts = domainsInProblem.computeIfPresent(domainId, (id, problematicHosts) -> {
+            problematicHosts.add(vdsId);
+            return problematicHosts;
+        });
+        if (hosts != null) {
+            // existing domains in problem
+            log.debug("domain '{}' still in problem '{}'. vds: '{}'", getDomainIdTuple(domainId),
+                    domainMonitoringResult, vdsName);
+        } else {
+            // new domains in problems
+            addDomainInProblemData(domainId, vdsId, vdsName, domainMonitoringResult);
         }
+        return newDomainUnreachableByHost;
     }
 
-    private void updateProblematicVdsData(final Guid vdsId, final String vdsName, Map<Guid, DomainMonitoringResult> problematicDomains) {
-        // for all problematic domains
-        // update cache of domainsInProblem
-        // and _vdssInProblem and add a new
-        // timer for new domains in problem
-        boolean newDomainUnreachableByHost = false;
-        List<Guid> domainsUnreachableByHost = new LinkedList<>();
-        for (Map.Entry<Guid, DomainMonitoringResult> entry : problematicDomains.entrySet()) {
-            Guid domainId = entry.getKey();
-            DomainMonitoringResult domainMonitoringResult = entry.getValue();
-            Set<Guid> hostsReportedDomainAsProblematic = domainsInProblem.get(domainId);
-            boolean domainNotFound = domainMonitoringResult == DomainMonitoringResult.STORAGE_ACCCESS_ERROR;
-            if (domainNotFound) {
-                domainsUnreachableByHost.add(domainId);
-            }
-            if (hostsReportedDomainAsProblematic != null) {
-                if (!hostsReportedDomainAsProblematic.contains(vdsId) && domainNotFound) {
-                    newDomainUnreachableByHost = true;
-                }
-                // existing domains in problem
-                updateDomainInProblemData(domainId, vdsId, vdsName, domainMonitoringResult);
-            } else {
-                if (domainNotFound) {
-                    newDomainUnreachableByHost = true;
+    private void updateMaintenanceVdsData(Guid domainId, Guid vdsId, boolean inMaintenance) {
+        if (inMaintenance) {
+            _domainsInMaintenance.compute(domainId, (id, hosts) -> {
+                if (hosts == null) {
+                    log.info("Adding domain '{}' to the domains in maintenance cache", domainId);
+                    hosts = ConcurrentHashMap.newKeySet();
                 }
-                // new domains in problems
-                addDomainInProblemData(domainId, vdsId, vdsName, domainMonitoringResult);
-            }
+                hosts.add(vdsId);
+                return hosts;
+            });
+        } else if (removeHosts(_domainsInMaintenance, domainId, Collections.singleton(vdsId))) {
+            log.info("Removing domain '{}' from the domains in maintenance cache", domainId);
         }
+    }
+
+    private void updateUnseenDomainsReport(Guid vdsId, Map<Guid, DomainMonitoringResult> problematicDomains,
+            boolean newDomainUnreachableByHost) {
+        List<Guid> domainsUnreachableByHost = problematicDomains.entrySet().stream()
+                .filter(entry -> entry.getValue() == DomainMonitoringResult.STORAGE_ACCCESS_ERROR)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
 
         if (domainsUnreachableByHost.isEmpty()) {
             Guid clearedReport = clearVdsReportInfoOnUnseenDomain(vdsId);
@@ -1473,32 +1569,42 @@ public class IrsProxy {
                     newReportId);
             vdsReportsOnUnseenDomain.put(vdsId, newReportId);
         }
-
-        Set<Guid> notReportedDomainsByHost = new HashSet<>(domainsInProblem.keySet());
-        notReportedDomainsByHost.removeAll(problematicDomains.keySet());
-        for (Guid domainId : notReportedDomainsByHost) {
-            Set<Guid> vdsForDomain = domainsInProblem.get(domainId);
-            if (vdsForDomain != null && vdsForDomain.contains(vdsId)) {
-                domainRecoveredFromProblem(domainId, vdsId, vdsName);
-            }
-        }
     }
 
     private void domainRecoveredFromProblem(Guid domainId, Guid vdsId, String vdsName) {
         String domainIdTuple = getDomainIdTuple(domainId);
         log.info("Domain '{}' recovered from problem. vds: '{}'", domainIdTuple, vdsName);
-        domainsInProblem.get(domainId).remove(vdsId);
-        if (domainsInProblem.get(domainId).size() == 0) {
+        if (removeHosts(domainsInProblem, domainId, Collections.singleton(vdsId))) {
             log.info("Domain '{}' has recovered from problem. No active host in the DC is reporting it as" +
                     " problematic, so clearing the domain recovery timer.", domainIdTuple);
-            domainsInProblem.remove(domainId);
             clearTimer(domainId);
         }
     }
 
+    /**
+     * Removes the given hosts from the ones of the domain, and the domain if no host is left.
+     *
+     * @return {@code true} if the domain was removed
+     */
+    private static boolean removeHosts(ConcurrentMap<Guid, Set<Guid>> hostsByDomain, Guid domainId,
+            Collection<Guid> vdsIds) {
+        List<Guid> removedDomains = new ArrayList<>(1);
+        hostsByDomain.computeIfPresent(domainId, (id, hosts) -> {
+            hosts.removeAll(vdsIds);
+            if (hosts.isEmpty()) {
+                removedDomains.add(id);
+                return null;
+            }
+            return hosts;
+        });
+        return !removedDomains.isEmpty();
+    }
+
     private void addDomainInProblemData(Guid domainId, Guid vdsId, String vdsName,
                                         DomainMonitoringResult domainMonitoringResult) {
-        domainsInProblem.put(domainId, new HashSet<>(Arrays.asList(vdsId)));
+        Set<Guid> hosts = ConcurrentHashMap.newKeySet();
+        hosts.add(vdsId);
+        domainsInProblem.put(domainId, hosts);
         log.warn("domain '{}' in problem '{}'. vds: '{}'", getDomainIdTuple(domainId), domainMonitoringResult,
                 vdsName);
         ScheduledFuture job = schedulerService.schedule(() -> addDomainData(domainId),
@@ -1513,9 +1619,10 @@ public class IrsProxy {
                 domainId, null, EventType.DOMAINFAILOVER, ""),
                 () -> {
                     EventResult result = null;
-                    if (domainsInProblem.containsKey(domainId)) {
+                    Set<Guid> hostsReportedDomainAsProblematic = domainsInProblem.get(domainId);
+                    if (hostsReportedDomainAsProblematic != null) {
                         log.info("starting processDomainRecovery for domain '{}'.", getDomainIdTuple(domainId));
-                        result = processDomainRecovery(domainId);
+                        result = processDomainRecovery(domainId, new HashSet<>(hostsReportedDomainAsProblematic));
                     }
                     timersMap.remove(domainId);
                     return result;
@@ -1566,7 +1673,7 @@ public class IrsProxy {
         }
 
         List<Callable<Void>> connectStorageTasks = new ArrayList<>();
-        final List<Callable<Void>> refreshStoragePoolTasks = new ArrayList<>();
+        final List<VDS> hostsToRefresh = new ArrayList<>();
         final StoragePool storagePool = storagePoolDao.get(storagePoolId);
         final Guid masterDomainId =
                 storageDomainDao.getMasterStorageDomainIdForPool(storagePoolId);
@@ -1599,15 +1706,15 @@ public class IrsProxy {
 
                 acquiredLocks.putAll(lockMap);
 
+                // Connecting the host runs the ConnectHostToStoragePoolServers backend command, which validates
+                // the connections and sends a ConnectStorageServer per storage type, so unlike the pool refresh it
+                // can't be sent to all the hosts as a single VDS command:
                 connectStorageTasks.add(() -> {
                     getEventListener().connectHostToDomainsInActiveOrUnknownStatus(vds);
                     return null;
                 });
 
-                refreshStoragePoolTasks.add(() -> {
-                    storagePoolDomainHelper.refreshHostPoolMetadata(vds, storagePool, masterDomainId, storagePoolIsoMap);
-                    return null;
-                });
+                hostsToRefresh.add(vds);
             }
 
             final Set<String> handledHosts = acquiredLocks.keySet();
@@ -1622,7 +1729,10 @@ public class IrsProxy {
                             ""),
                     () -> {
                         log.info("Running storage pool metadata refresh for hosts '{}'", handledHosts);
-                        ThreadPoolUtil.invokeAll(refreshStoragePoolTasks);
+                        storagePoolDomainHelper.refreshHostsPoolMetadata(hostsToRefresh,
+                                storagePool,
+                                masterDomainId,
+                                storagePoolIsoMap);
                         return new EventResult(true, EventType.POOLREFRESH);
                     });
         } finally {
@@ -1632,14 +1742,7 @@ public class IrsProxy {
         }
     }
 
-    private void updateDomainInProblemData(Guid domainId, Guid vdsId, String vdsName,
-                                           DomainMonitoringResult domainMonitoringResult) {
-        log.debug("domain '{}' still in problem '{}'. vds: '{}'", getDomainIdTuple(domainId),
-                domainMonitoringResult, vdsName);
-        domainsInProblem.get(domainId).add(vdsId);
-    }
-
-    private EventResult processDomainRecovery(final Guid domainId) {
+    private EventResult processDomainRecovery(final Guid domainId, Set<Guid> hostsThatReportedDomainAsInProblem) {
         EventResult result = null;
         // build a list of all the hosts in status UP in
         // Pool.
@@ -1660,7 +1763,6 @@ public class IrsProxy {
         // on this domain as in problem.
         // Mark the above list as hosts we suspect are in
         // problem.
-        Set<Guid> hostsThatReportedDomainAsInProblem = domainsInProblem.get(domainId);
         List<Guid> vdssInProblem = new ArrayList<>();
         for (Guid tempVDSId : vdssInPool) {
             if (!hostsThatReportedDomainAsInProblem.contains(tempVDSId)) {
@@ -1684,7 +1786,7 @@ public class IrsProxy {
                 // Moving all the hosts which reported on
                 // this domain as in problem to non
                 // operational.
-                for (final Guid vdsId : domainsInProblem.get(domainId)) {
+                for (final Guid vdsId : hostsThatReportedDomainAsInProblem) {
                     VDS vds = vdsMap.get(vdsId);
                     if (vds == null) {
                         log.warn(
@@ -1771,17 +1873,12 @@ public class IrsProxy {
     }
 
     private void removeVdsAsProblematic(List<Guid> nonOpVdss) {
-        Iterator<Map.Entry<Guid, HashSet<Guid>>> iterDomainsInProblem = domainsInProblem.entrySet().iterator();
-        while (iterDomainsInProblem.hasNext()) {
-            Map.Entry<Guid, HashSet<Guid>> entry = iterDomainsInProblem.next();
-            entry.getValue().removeAll(nonOpVdss);
-            if (entry.getValue().isEmpty()) {
-                iterDomainsInProblem.remove();
-                clearTimer(entry.getKey());
+        for (Guid domainId : domainsInProblem.keySet()) {
+            if (removeHosts(domainsInProblem, domainId, nonOpVdss)) {
+                clearTimer(domainId);
                 log.info("Domain '{}' has recovered from problem. No active host in the DC is reporting it as poblematic, so clearing the domain recovery timer.",
-                        getDomainIdTuple(entry.getKey()));
+                        getDomainIdTuple(domainId));
             }
-
         }
     }
 
@@ -1794,13 +1891,8 @@ public class IrsProxy {
 
     private void removeVdsFromDomainMaintenance(List<Guid> nonOpVdss) {
         log.info("Removing vds '{}' from the domain in maintenance cache", nonOpVdss);
-        Iterator<Map.Entry<Guid, HashSet<Guid>>> iterDomainsInProblem = _domainsInMaintenance.entrySet().iterator();
-        while (iterDomainsInProblem.hasNext()) {
-            Map.Entry<Guid, HashSet<Guid>> entry = iterDomainsInProblem.next();
-            entry.getValue().removeAll(nonOpVdss);
-            if (entry.getValue().isEmpty()) {
-                iterDomainsInProblem.remove();
-            }
+        for (Guid domainId : _domainsInMaintenance.keySet()) {
+            removeHosts(_domainsInMaintenance, domainId, nonOpVdss);
         }
     }
 
@@ -1810,6 +1902,7 @@ public class IrsProxy {
     public void clearCache() {
         log.info("clearing cache for problematic entities in pool '{}'.", storagePoolId);
         // clear lists
+        domainsCacheGeneration.incrementAndGet();
         timersMap.clear();
         domainsInProblem.clear();
     }
@@ -1838,6 +1931,8 @@ public class IrsProxy {
         log.info("Clearing cache of pool: '{}' for problematic entities of VDS: '{}'.",
                 storagePoolId, vdsName);
 
+        // the report in progress, if any, must not add the host back once it is cleared
+        vdsCacheGenerations.merge(vdsId, 1L, Long::sum);
         clearDomainFromCache(null, Arrays.asList(vdsId));
     }
 
@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.vdsbroker.jsonrpc;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -52,6 +53,7 @@ public class FutureMap implements Map<String, Object> {
     };
     private Class<?> clazz = STATUS_DONE.getClass();
     private Class<?> subTypeClazz;
+    private ResponseDecoder decoder;
     private boolean ignoreResponseKey = false;
     private long timeout = 0;
     private TimeUnit unit = TimeUnit.MILLISECONDS;
@@ -128,6 +130,13 @@ public class FutureMap implements Map<String, Object> {
         ResponseDecomposer decomposer = new ResponseDecomposer(response);
         if (decomposer.isError()) {
             this.responseMap = decomposer.decomposeError();
+        } else if (this.decoder != null) {
+            try {
+                updateResponse(this.decoder.decode(response.getResult()));
+            } catch (IOException e) {
+                log.error("Exception occured during response decoding", e);
+                throw new IllegalStateException(e);
+            }
         } else if (Object[].class.equals(clazz) && this.subtypeKey != null && !this.subtypeKey.trim().isEmpty()
                 && this.subTypeClazz != null) {
             Object[] array = (Object[]) decomposer.decomposeResponse(this.clazz);
@@ -288,6 +297,16 @@ public class FutureMap implements Map<String, Object> {
         return this;
     }
 
+    /**
+     * @param decoder - Decoder which turns the result directly into its final type, instead of decomposing it
+     *            into a <code>Map</code> or into the response type.
+     * @return this <code>FutureMap</code>.
+     */
+    public FutureMap withResponseDecoder(ResponseDecoder decoder) {
+        this.decoder = decoder;
+        return this;
+    }
+
     /**
      * @param subTypeKey - Key which is used to put subtype to result map.
      * @return this <code>FutureMap</code>.
@@ -12,6 +12,8 @@ import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.httpclient.HttpClient;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.ovirt.engine.core.vdsbroker.HttpUtils;
@@ -76,6 +78,7 @@ import org.ovirt.engine.core.vdsbroker.vdsbroker.VMListReturn;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VMNamesListReturn;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsProperties;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VmInfoReturn;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VmStatsDecoder;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VolumeInfoReturn;
 import org.ovirt.vdsm.jsonrpc.client.BrokerCommandCallback;
 import org.ovirt.vdsm.jsonrpc.client.ClientConnectionException;
@@ -366,20 +369,32 @@ public class JsonRpcVdsServer implements IVdsServer {
     @Override
     public VMInfoListReturn getVmStats(String vmId) {
         JsonRpcRequest request = new RequestBuilder("VM.getStats").withParameter("vmID", vmId).build();
-        Map<String, Object> response =
+        FutureMap response =
                 new FutureMap(this.client, request).withResponseKey("statsList");
+        if (isTypedDecodingEnabled("VM.getStats")) {
+            response.withResponseDecoder(VmStatsDecoder::decode);
+        }
         return new VMInfoListReturn(response);
     }
 
     @Override
     public VMInfoListReturn getAllVmStats() {
         JsonRpcRequest request = new RequestBuilder("Host.getAllVmStats").build();
-        Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("statsList")
-                        .withResponseType(Object[].class);
+        FutureMap response =
+                new FutureMap(this.client, request).withResponseKey("statsList");
+        if (isTypedDecodingEnabled("Host.getAllVmStats")) {
+            response.withResponseDecoder(VmStatsDecoder::decode);
+        } else {
+            response.withResponseType(Object[].class);
+        }
         return new VMInfoListReturn(response);
     }
 
+    private static boolean isTypedDecodingEnabled(String verb) {
+        List<String> verbs = Config.getValue(ConfigValues.VdsmTypedDecodingVerbs);
+        return verbs != null && verbs.contains(verb);
+    }
+
     @Override
     public HostDevListReturn hostDevListByCaps() {
         JsonRpcRequest request = new RequestBuilder("Host.hostdevListByCaps").build();
@@ -0,0 +1,20 @@
+package org.ovirt.engine.core.vdsbroker.jsonrpc;
+
+import java.io.IOException;
+
+import org.codehaus.jackson.JsonNode;
+
+/**
+ * Decodes the result of a response directly into the objects expected by the engine, instead of the nested maps
+ * produced by default.
+ */
+@FunctionalInterface
+public interface ResponseDecoder {
+
+    /**
+     * @param result - the result of a successful response.
+     * @return the decoded result, stored in the <code>FutureMap</code> under its response key.
+     * @throws IOException when the result can't be decoded.
+     */
+    Object decode(JsonNode result) throws IOException;
+}
@@ -0,0 +1,120 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A periodic monitoring job of a host whose interval adapts to the activity of the host.
+ *
+ * The job runs with the base interval. After {@link ConfigValues#NumberStableRefreshesBeforeStretch} runs in a
+ * row which reported {@link #stable()}, the interval is doubled, up to the base interval multiplied by
+ * {@link ConfigValues#VdsRefreshRateMaxStretchFactor}. Any {@link #activity()} restores the base interval and
+ * brings the next run forward if it was scheduled later than that.
+ */
+public class AdaptiveMonitoringJob {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveMonitoringJob.class);
+
+    private final String name;
+    private final ScheduledExecutorService executor;
+    private final Runnable task;
+    private final long baseInterval;
+    private final int maxStretchFactor;
+    private final int stableRunsBeforeStretch;
+
+    private int stretchFactor = 1;
+    private int stableRuns;
+    private ScheduledFuture<?> nextRun;
+    private boolean stopped = true;
+
+    public AdaptiveMonitoringJob(String name, ScheduledExecutorService executor, Runnable task, long baseInterval) {
+        this(name,
+                executor,
+                task,
+                baseInterval,
+                Config.<Integer> getValue(ConfigValues.VdsRefreshRateMaxStretchFactor),
+                Config.<Integer> getValue(ConfigValues.NumberStableRefreshesBeforeStretch));
+    }
+
+    AdaptiveMonitoringJob(String name,
+            ScheduledExecutorService executor,
+            Runnable task,
+            long baseInterval,
+            int maxStretchFactor,
+            int stableRunsBeforeStretch) {
+        this.name = name;
+        this.executor = executor;
+        this.task = task;
+        this.baseInterval = baseInterval;
+        this.maxStretchFactor = Math.max(1, maxStretchFactor);
+        this.stableRunsBeforeStretch = Math.max(1, stableRunsBeforeStretch);
+    }
+
+    public synchronized void start() {
+        stopped = false;
+        schedule(baseInterval);
+    }
+
+    public synchronized void stop() {
+        stopped = true;
+        if (nextRun != null) {
+            nextRun.cancel(true);
+        }
+    }
+
+    /**
+     * Reports that the current run found nothing changed
+     */
+    public synchronized void stable() {
+        if (stretchFactor >= maxStretchFactor || ++stableRuns < stableRunsBeforeStretch) {
+            return;
+        }
+        stableRuns = 0;
+        stretchFactor = Math.min(stretchFactor * 2, maxStretchFactor);
+        log.debug("Stretched the interval of '{}' to {} ms", name, getInterval());
+    }
+
+    /**
+     * Reports a change, the job returns to its base interval
+     */
+    public synchronized void activity() {
+        stableRuns = 0;
+        if (stretchFactor == 1) {
+            return;
+        }
+        stretchFactor = 1;
+        log.debug("Restored the interval of '{}' to {} ms", name, baseInterval);
+        // a run which is further than the base interval has not started yet, so it can be safely replaced
+        if (!stopped && nextRun != null
+                && nextRun.getDelay(TimeUnit.MILLISECONDS) > baseInterval
+                && nextRun.cancel(false)) {
+            schedule(baseInterval);
+        }
+    }
+
+    public synchronized long getInterval() {
+        return baseInterval * stretchFactor;
+    }
+
+    private void run() {
+        try {
+            task.run();
+        } finally {
+            synchronized (this) {
+                if (!stopped) {
+                    schedule(getInterval());
+                }
+            }
+        }
+    }
+
+    private void schedule(long delay) {
+        nextRun = executor.schedule(this::run, delay, TimeUnit.MILLISECONDS);
+    }
+}
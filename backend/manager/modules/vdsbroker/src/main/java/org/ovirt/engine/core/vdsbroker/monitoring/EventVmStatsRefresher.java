@@ -58,6 +58,8 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
                     printEventInDebug(map);
                     List<Pair<VmDynamic, VdsmVm>> vms = convertEvent(map);
                     if (!vms.isEmpty()) {
+                        // VMs which change their status are likely to change further
+                        vdsManager.monitoringActivity();
                         getVmsMonitoring().perform(vms, fetchTime, vdsManager, false);
                         processDevices(vms.stream().map(Pair::getSecond), fetchTime);
                     }
@@ -122,6 +124,11 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
         });
     }
 
+    @Override
+    public void onVmsChanged() {
+        allVmStatsOnlyRefresher.onVmsChanged();
+    }
+
     @Override
     public void stopMonitoring() {
         allVmStatsOnlyRefresher.stopMonitoring();
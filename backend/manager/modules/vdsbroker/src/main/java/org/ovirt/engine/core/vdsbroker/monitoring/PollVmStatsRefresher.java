@@ -1,8 +1,6 @@
 package org.ovirt.engine.core.vdsbroker.monitoring;
 
 import java.util.List;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
@@ -29,7 +27,7 @@ public class PollVmStatsRefresher extends VmStatsRefresher {
     @Inject
     @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
     private ManagedScheduledExecutorService schedulerService;
-    private ScheduledFuture vmsMonitoringJob;
+    private AdaptiveMonitoringJob vmsMonitoringJob;
 
     public PollVmStatsRefresher(VdsManager vdsManager) {
         super(vdsManager);
@@ -42,7 +40,11 @@ public class PollVmStatsRefresher extends VmStatsRefresher {
 
             long fetchTime = System.nanoTime();
             if (fetcher.fetch()) {
-                getVmsMonitoring().perform(fetcher.getChangedVms(), fetchTime, vdsManager, true);
+                if (getVmsMonitoring().perform(fetcher.getChangedVms(), fetchTime, vdsManager, true)) {
+                    vdsManager.monitoringActivity();
+                } else if (vmsMonitoringJob != null) {
+                    vmsMonitoringJob.stable();
+                }
                 Stream<VdsmVm> vdsmVmsToMonitor = filterVmsToDevicesMonitoring(fetcher.getChangedVms());
                 processDevices(vdsmVmsToMonitor, fetchTime);
             } else {
@@ -59,17 +61,23 @@ public class PollVmStatsRefresher extends VmStatsRefresher {
     }
 
     public void startMonitoring() {
-        vmsMonitoringJob =
-                schedulerService.scheduleWithFixedDelay(
-                        this::poll,
-                        VMS_REFRESH_RATE * NUMBER_VMS_REFRESHES_BEFORE_SAVE,
-                        VMS_REFRESH_RATE * NUMBER_VMS_REFRESHES_BEFORE_SAVE,
-                        TimeUnit.MILLISECONDS);
+        vmsMonitoringJob = new AdaptiveMonitoringJob("VMs monitoring of host " + vdsManager.getVdsName(),
+                schedulerService,
+                this::poll,
+                VMS_REFRESH_RATE * NUMBER_VMS_REFRESHES_BEFORE_SAVE);
+        vmsMonitoringJob.start();
+    }
+
+    @Override
+    public void onVmsChanged() {
+        if (vmsMonitoringJob != null) {
+            vmsMonitoringJob.activity();
+        }
     }
 
     public void stopMonitoring() {
         try {
-            vmsMonitoringJob.cancel(true);
+            vmsMonitoringJob.stop();
         } catch (Throwable t) {
             log.debug("Exception stopping VM monitoring: {}", ExceptionUtils.getRootCauseMessage(t));
         }
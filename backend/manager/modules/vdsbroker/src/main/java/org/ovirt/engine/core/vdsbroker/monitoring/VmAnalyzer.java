@@ -20,6 +20,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.ovirt.engine.core.common.AuditLogType;
+import org.ovirt.engine.core.common.businessentities.GraphicsInfo;
 import org.ovirt.engine.core.common.businessentities.OriginType;
 import org.ovirt.engine.core.common.businessentities.UnchangeableByVdsm;
 import org.ovirt.engine.core.common.businessentities.VDSStatus;
@@ -49,6 +50,7 @@ import org.ovirt.engine.core.compat.Version;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogableBase;
 import org.ovirt.engine.core.dao.VdsDynamicDao;
+import org.ovirt.engine.core.dao.VmDynamicDao;
 import org.ovirt.engine.core.dao.network.VmNetworkInterfaceDao;
 import org.ovirt.engine.core.di.Injector;
 import org.ovirt.engine.core.utils.NetworkUtils;
@@ -66,6 +68,8 @@ import org.slf4j.LoggerFactory;
 public class VmAnalyzer {
 
     private final VmDynamic dbVm;
+    /** A copy of the VM dynamic data as loaded from the database, {@code null} if its changes are not tracked */
+    private final VmDynamic dbVmSnapshot;
     private final VdsmVm vdsmVm;
 
     private VmDynamic vmDynamicToSave;
@@ -106,6 +110,7 @@ public class VmAnalyzer {
 
     private final boolean updateStatistics;
 
+    private VmDynamicDao vmDynamicDao;
     private VdsDynamicDao vdsDynamicDao;
     private VmNetworkInterfaceDao vmNetworkInterfaceDao;
 
@@ -113,17 +118,21 @@ public class VmAnalyzer {
             VmDynamic dbVm,
             VdsmVm vdsmVm,
             boolean updateStatistics,
+            boolean trackChanges,
             VdsManager vdsManager,
             AuditLogDirector auditLogDirector,
             ResourceManager resourceManager,
+            VmDynamicDao vmDynamicDao,
             VdsDynamicDao vdsDynamicDao,
             VmNetworkInterfaceDao vmNetworkInterfaceDao) {
         this.dbVm = dbVm;
+        this.dbVmSnapshot = trackChanges && dbVm != null ? copyOf(dbVm) : null;
         this.vdsmVm = vdsmVm;
         this.updateStatistics = updateStatistics;
         this.vdsManager = vdsManager;
         this.auditLogDirector = auditLogDirector;
         this.resourceManager = resourceManager;
+        this.vmDynamicDao = vmDynamicDao;
         this.vdsDynamicDao = vdsDynamicDao;
         this.vmNetworkInterfaceDao = vmNetworkInterfaceDao;
     }
@@ -435,6 +444,30 @@ public class VmAnalyzer {
         return vmDynamicToSave;
     }
 
+    /**
+     * Returns whether the VM dynamic data to save differs from the data loaded from the database in any of the
+     * persisted columns. The data is considered changed if its changes are not tracked.
+     */
+    public boolean isVmDynamicChanged() {
+        if (vmDynamicToSave == null) {
+            return false;
+        }
+        return vmDynamicToSave != dbVm
+                || dbVmSnapshot == null
+                || !vmDynamicDao.getPersistedValues(dbVmSnapshot).equals(vmDynamicDao.getPersistedValues(dbVm));
+    }
+
+    private static VmDynamic copyOf(VmDynamic vm) {
+        VmDynamic copy = new VmDynamic(vm);
+        copy.setRuntimeName(vm.getRuntimeName());
+        copy.setGraphicsInfos(vm.getGraphicsInfos().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> new GraphicsInfo()
+                        .setIp(entry.getValue().getIp())
+                        .setPort(entry.getValue().getPort())
+                        .setTlsPort(entry.getValue().getTlsPort()))));
+        return copy;
+    }
+
     public List<VmNetworkStatistics> getVmNetworkStatistics() {
         return ifaces != null ?
                 ifaces.stream().map(VmNetworkInterface::getStatistics).collect(Collectors.toList())
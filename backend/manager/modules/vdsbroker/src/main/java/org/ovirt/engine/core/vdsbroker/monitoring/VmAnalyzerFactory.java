@@ -13,6 +13,7 @@ public class VmAnalyzerFactory {
 
     private final VdsManager vdsManager;
     private final boolean updateStatistics;
+    private final boolean trackChanges;
 
     private AuditLogDirector auditLogDirector;
     private ResourceManager resourceManager;
@@ -24,6 +25,7 @@ public class VmAnalyzerFactory {
     public VmAnalyzerFactory(
             VdsManager vdsManager,
             boolean updateStatistics,
+            boolean trackChanges,
             AuditLogDirector auditLogDirector,
             ResourceManager resourceManager,
             VmDynamicDao vmDynamicDao,
@@ -31,6 +33,7 @@ public class VmAnalyzerFactory {
             VdsDynamicDao vdsDynamicDao) {
         this.vdsManager = vdsManager;
         this.updateStatistics = updateStatistics;
+        this.trackChanges = trackChanges;
         this.auditLogDirector = auditLogDirector;
         this.resourceManager = resourceManager;
         this.vmDynamicDao = vmDynamicDao;
@@ -50,9 +53,11 @@ public class VmAnalyzerFactory {
                 dbVm,
                 vdsmVm,
                 updateStatistics,
+                trackChanges,
                 vdsManager,
                 auditLogDirector,
                 resourceManager,
+                vmDynamicDao,
                 vdsDynamicDao,
                 vmNetworkInterfaceDao);
     }
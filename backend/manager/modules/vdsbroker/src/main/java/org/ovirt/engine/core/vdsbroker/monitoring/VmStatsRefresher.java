@@ -39,6 +39,12 @@ public abstract class VmStatsRefresher {
      */
     public abstract void stopMonitoring();
 
+    /**
+     * Notifies that the VMs are changing, so their monitoring should not be stretched
+     */
+    public void onVmsChanged() {
+    }
+
     protected void processDevices(Stream<VdsmVm> vms, long fetchTime) {
         VmDevicesMonitoring.Change deviceChange = getVmDevicesMonitoring().createChange(vdsManager.getVdsId(), fetchTime);
         vms.filter(vm -> vm.getVmDynamic() != null && vm.getVmDynamic().getStatus() != VMStatus.MigratingTo)
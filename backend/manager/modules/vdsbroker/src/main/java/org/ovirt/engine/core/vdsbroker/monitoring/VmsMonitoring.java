@@ -13,19 +13,14 @@ import javax.inject.Singleton;
 
 import org.ovirt.engine.core.common.businessentities.IVdsEventListener;
 import org.ovirt.engine.core.common.businessentities.VmDynamic;
-import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
-import org.ovirt.engine.core.compat.TransactionScopeOption;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
-import org.ovirt.engine.core.dao.DiskImageDynamicDao;
 import org.ovirt.engine.core.dao.VdsDynamicDao;
 import org.ovirt.engine.core.dao.VmDynamicDao;
-import org.ovirt.engine.core.dao.VmGuestAgentInterfaceDao;
-import org.ovirt.engine.core.dao.VmStatisticsDao;
 import org.ovirt.engine.core.dao.network.VmNetworkInterfaceDao;
-import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
-import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.VdsManager;
 import org.ovirt.engine.core.vdsbroker.VmManager;
@@ -50,18 +45,12 @@ public class VmsMonitoring {
     private LunDisksMonitoring lunDisksMonitoring;
     @Inject
     private VmJobsMonitoring vmJobsMonitoring;
-
     @Inject
-    private DiskImageDynamicDao diskImageDynamicDao;
+    private VmsMonitoringWriter vmsMonitoringWriter;
+
     @Inject
     private VmDynamicDao vmDynamicDao;
     @Inject
-    private VmNetworkStatisticsDao vmNetworkStatisticsDao;
-    @Inject
-    private VmStatisticsDao vmStatisticsDao;
-    @Inject
-    private VmGuestAgentInterfaceDao vmGuestAgentInterfaceDao;
-    @Inject
     private VmNetworkInterfaceDao vmNetworkInterfaceDao;
     @Inject
     private VdsDynamicDao vdsDynamicDao;
@@ -79,14 +68,15 @@ public class VmsMonitoring {
      * @param fetchTime When the VMs were fetched
      * @param vdsManager The manager of the monitored host
      * @param updateStatistics Whether or not this monitoring should include VM statistics
+     * @return Whether the dynamic data or the statistics of any VM changed, or the monitoring failed
      */
-    public void perform(
+    public boolean perform(
             List<Pair<VmDynamic, VdsmVm>> monitoredVms,
             long fetchTime,
             VdsManager vdsManager,
             boolean updateStatistics) {
         if (monitoredVms.isEmpty()) {
-            return;
+            return false;
         }
 
         List<VmAnalyzer> vmAnalyzers = Collections.emptyList();
@@ -94,12 +84,14 @@ public class VmsMonitoring {
             vmAnalyzers = analyzeVms(monitoredVms, fetchTime, vdsManager, updateStatistics);
             // It is important to add the unmanaged VMs before flushing the dynamic data into the database
             addUnmanagedVms(vmAnalyzers, vdsManager.getVdsId());
-            flush(vmAnalyzers);
+            boolean changed = flush(vmAnalyzers, vdsManager);
             postFlush(vmAnalyzers, vdsManager, fetchTime);
             vdsManager.vmsMonitoringInitFinished();
+            return changed;
         } catch (RuntimeException ex) {
             log.error("Failed during vms monitoring on host {} error is: {}", vdsManager.getVdsName(), ex);
             log.error("Exception:", ex);
+            return true;
         } finally {
             unlockVms(vmAnalyzers);
         }
@@ -153,6 +145,7 @@ public class VmsMonitoring {
         return new VmAnalyzerFactory(
                 vdsManager,
                 statistics,
+                isTrackingChanges(),
                 auditLogDirector,
                 resourceManager,
                 vmDynamicDao,
@@ -160,6 +153,14 @@ public class VmsMonitoring {
                 vdsDynamicDao);
     }
 
+    /**
+     * The changes of the VM dynamic data are needed only to skip saving unchanged rows or to stretch the VMs poll
+     */
+    private static boolean isTrackingChanges() {
+        return Config.<Boolean> getValue(ConfigValues.VmsMonitoringSkipUnchangedRows)
+                || Config.<Integer> getValue(ConfigValues.VdsRefreshRateMaxStretchFactor) > 1;
+    }
+
     private boolean shouldAnalyzeVm(Pair<VmDynamic, VdsmVm> pair, long fetchTime, Guid vdsId) {
         Guid vmId = getVmId(pair.getFirst(), pair.getSecond());
         VmManager vmManager = getVmManager(vmId);
@@ -280,42 +281,23 @@ public class VmsMonitoring {
                 vmIdsWithGuestAgentDownAndBalloonInfalted);
     }
 
-    private void flush(List<VmAnalyzer> vmAnalyzers) {
-        saveVmDynamic(vmAnalyzers);
-        saveVmStatistics(vmAnalyzers);
-        saveVmInterfaceStatistics(vmAnalyzers);
-        saveVmDiskImageStatistics(vmAnalyzers);
-        saveVmGuestAgentNetworkDevices(vmAnalyzers);
-    }
-
-    private void saveVmDiskImageStatistics(List<VmAnalyzer> vmAnalyzers) {
-        diskImageDynamicDao.updateAllDiskImageDynamicWithDiskIdByVmId(vmAnalyzers.stream()
-                .map(VmAnalyzer::getVmDiskImageDynamicToSave)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList()));
-    }
-
-    private void saveVmDynamic(List<VmAnalyzer> vmAnalyzers) {
-        vmDynamicDao.updateAllInBatch(vmAnalyzers.stream()
-                .map(VmAnalyzer::getVmDynamicToSave)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList()));
-    }
-
-    private void saveVmInterfaceStatistics(List<VmAnalyzer> vmAnalyzers) {
-        vmNetworkStatisticsDao.updateAllInBatch(vmAnalyzers.stream()
-                .map(VmAnalyzer::getVmNetworkStatistics)
-                .flatMap(List::stream)
-                .collect(Collectors.toList()));
-    }
-
-    private void saveVmStatistics(List<VmAnalyzer> vmAnalyzers) {
-        List<VmStatistics> statistics = vmAnalyzers.stream()
+    /**
+     * @return Whether the dynamic data or the statistics of any VM changed
+     */
+    private boolean flush(List<VmAnalyzer> vmAnalyzers, VdsManager vdsManager) {
+        VmsMonitoringFlush flush = VmsMonitoringFlush.of(vmAnalyzers,
+                Config.<Boolean> getValue(ConfigValues.VmsMonitoringSkipUnchangedRows),
+                Config.<Integer> getValue(ConfigValues.VmsMonitoringMaxSkippedStatisticsSaves));
+        log.debug("Skipped saving {} unchanged rows of VMs on host '{}'",
+                flush.getSuppressedRows(),
+                vdsManager.getVdsName());
+        vmsMonitoringWriter.save(flush);
+        vmAnalyzers.stream()
                 .map(VmAnalyzer::getVmStatisticsToSave)
                 .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-        vmStatisticsDao.updateAllInBatch(statistics);
-        statistics.forEach(stats -> getVmManager(stats.getId()).setStatistics(stats));
+                .forEach(stats -> getVmManager(stats.getId()).setStatistics(stats));
+        flush.getVmStatistics().forEach(stats -> getVmManager(stats.getId()).statisticsSaved(stats));
+        return flush.isChanged();
     }
 
     protected void addUnmanagedVms(List<VmAnalyzer> vmAnalyzers, Guid vdsId) {
@@ -326,30 +308,6 @@ public class VmsMonitoring {
         getVdsEventListener().addUnmanagedVms(vdsId, unmanagedVmIds);
     }
 
-    // ***** DB interaction *****
-
-    private void saveVmGuestAgentNetworkDevices(List<VmAnalyzer> vmAnalyzers) {
-        List<VmAnalyzer> analyzersWithChangeGuestAgentNics = vmAnalyzers.stream()
-                .filter(analyzer -> analyzer.getVmGuestAgentNics() != null)
-                .collect(Collectors.toList());
-        if (analyzersWithChangeGuestAgentNics.isEmpty()) {
-            return;
-        }
-
-        TransactionSupport.executeInScope(TransactionScopeOption.Required, () -> {
-            List<Guid> vmIds = analyzersWithChangeGuestAgentNics.stream()
-                    .map(VmAnalyzer::getVmId)
-                    .collect(Collectors.toList());
-            vmGuestAgentInterfaceDao.removeAllForVms(vmIds);
-
-            analyzersWithChangeGuestAgentNics.stream()
-                .map(VmAnalyzer::getVmGuestAgentNics)
-                .flatMap(List::stream)
-                .forEach(nic -> vmGuestAgentInterfaceDao.save(nic));
-            return null;
-        });
-    }
-
     // ***** Helpers and sub-methods *****
 
     static Guid getVmId(VmDynamic dbVm, VdsmVm vdsmVm) {
@@ -0,0 +1,199 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.businessentities.VmGuestAgentInterface;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.vdsbroker.VmManager;
+
+/**
+ * The data of a single VMs monitoring cycle of a host which has to be saved to the database.
+ */
+class VmsMonitoringFlush {
+
+    private final List<VmDynamic> vmDynamic;
+    private final List<VmStatistics> vmStatistics;
+    private final List<VmNetworkStatistics> vmNetworkStatistics;
+    private final List<Pair<Guid, DiskImageDynamic>> diskImageDynamic;
+    /** VMs whose guest agent NICs are replaced by {@link #guestAgentNics} **/
+    private final List<Guid> guestAgentNicsVmIds;
+    private final List<VmGuestAgentInterface> guestAgentNics;
+    /** Number of rows which were not changed and are not saved **/
+    private int suppressedRows;
+    /** Whether the dynamic data or the statistics of any VM changed since they were saved **/
+    private boolean changed;
+
+    private final long created = System.nanoTime();
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private final CountDownLatch saved = new CountDownLatch(1);
+    private volatile RuntimeException failure;
+
+    VmsMonitoringFlush(List<VmDynamic> vmDynamic,
+            List<VmStatistics> vmStatistics,
+            List<VmNetworkStatistics> vmNetworkStatistics,
+            List<Pair<Guid, DiskImageDynamic>> diskImageDynamic,
+            List<Guid> guestAgentNicsVmIds,
+            List<VmGuestAgentInterface> guestAgentNics) {
+        this.vmDynamic = vmDynamic;
+        this.vmStatistics = vmStatistics;
+        this.vmNetworkStatistics = vmNetworkStatistics;
+        this.diskImageDynamic = diskImageDynamic;
+        this.guestAgentNicsVmIds = guestAgentNicsVmIds;
+        this.guestAgentNics = guestAgentNics;
+    }
+
+    /**
+     * Collects the data of the analyzers to save.
+     *
+     * @param skipUnchanged whether to skip the dynamic data and statistics of VMs which did not change
+     *                      since they were saved
+     * @param maxSkippedStatisticsSaves see {@link VmManager#isStatisticsSaveNeeded(VmStatistics, int)}
+     */
+    static VmsMonitoringFlush of(List<VmAnalyzer> vmAnalyzers, boolean skipUnchanged, int maxSkippedStatisticsSaves) {
+        List<VmAnalyzer> analyzersWithDynamic = vmAnalyzers.stream()
+                .filter(analyzer -> analyzer.getVmDynamicToSave() != null)
+                .collect(Collectors.toList());
+        List<VmAnalyzer> analyzersWithChangedDynamic = analyzersWithDynamic.stream()
+                .filter(VmAnalyzer::isVmDynamicChanged)
+                .collect(Collectors.toList());
+        List<VmAnalyzer> analyzersWithStatistics = vmAnalyzers.stream()
+                .filter(analyzer -> analyzer.getVmStatisticsToSave() != null)
+                .collect(Collectors.toList());
+        List<VmAnalyzer> analyzersWithChangedGuestAgentNics = vmAnalyzers.stream()
+                .filter(analyzer -> analyzer.getVmGuestAgentNics() != null)
+                .collect(Collectors.toList());
+        VmsMonitoringFlush flush = new VmsMonitoringFlush(
+                (skipUnchanged ? analyzersWithChangedDynamic : analyzersWithDynamic).stream()
+                        .map(VmAnalyzer::getVmDynamicToSave)
+                        .collect(Collectors.toList()),
+                analyzersWithStatistics.stream()
+                        .filter(analyzer -> !skipUnchanged || analyzer.getVmManager()
+                                .isStatisticsSaveNeeded(analyzer.getVmStatisticsToSave(), maxSkippedStatisticsSaves))
+                        .map(VmAnalyzer::getVmStatisticsToSave)
+                        .collect(Collectors.toList()),
+                vmAnalyzers.stream()
+                        .map(VmAnalyzer::getVmNetworkStatistics)
+                        .flatMap(List::stream)
+                        .collect(Collectors.toList()),
+                vmAnalyzers.stream()
+                        .map(VmAnalyzer::getVmDiskImageDynamicToSave)
+                        .flatMap(Collection::stream)
+                        .collect(Collectors.toList()),
+                analyzersWithChangedGuestAgentNics.stream()
+                        .map(VmAnalyzer::getVmId)
+                        .collect(Collectors.toList()),
+                analyzersWithChangedGuestAgentNics.stream()
+                        .map(VmAnalyzer::getVmGuestAgentNics)
+                        .flatMap(List::stream)
+                        .collect(Collectors.toList()));
+        flush.suppressedRows = analyzersWithDynamic.size() - flush.vmDynamic.size()
+                + analyzersWithStatistics.size() - flush.vmStatistics.size();
+        flush.changed = !analyzersWithChangedDynamic.isEmpty()
+                || analyzersWithStatistics.stream().anyMatch(analyzer -> analyzer.getVmManager()
+                        .isStatisticsChanged(analyzer.getVmStatisticsToSave()));
+        return flush;
+    }
+
+    public List<VmDynamic> getVmDynamic() {
+        return vmDynamic;
+    }
+
+    public List<VmStatistics> getVmStatistics() {
+        return vmStatistics;
+    }
+
+    public List<VmNetworkStatistics> getVmNetworkStatistics() {
+        return vmNetworkStatistics;
+    }
+
+    public List<Pair<Guid, DiskImageDynamic>> getDiskImageDynamic() {
+        return diskImageDynamic;
+    }
+
+    public List<Guid> getGuestAgentNicsVmIds() {
+        return guestAgentNicsVmIds;
+    }
+
+    public List<VmGuestAgentInterface> getGuestAgentNics() {
+        return guestAgentNics;
+    }
+
+    /**
+     * Returns the number of rows the flush writes
+     */
+    public int getRows() {
+        return vmDynamic.size()
+                + vmStatistics.size()
+                + vmNetworkStatistics.size()
+                + diskImageDynamic.size()
+                + guestAgentNicsVmIds.size()
+                + guestAgentNics.size();
+    }
+
+    public int getSuppressedRows() {
+        return suppressedRows;
+    }
+
+    /**
+     * Returns whether the dynamic data or the statistics of any VM changed since they were saved, regardless of
+     * whether unchanged rows are skipped
+     */
+    public boolean isChanged() {
+        return changed;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * Claims the flush for saving. Only the first claim succeeds, so the writer and the monitoring thread
+     * which gave up waiting for it never save the same flush both.
+     */
+    boolean claim() {
+        return claimed.compareAndSet(false, true);
+    }
+
+    synchronized void saved() {
+        saved.countDown();
+    }
+
+    synchronized void failed(RuntimeException failure) {
+        if (saved.getCount() > 0) {
+            this.failure = failure;
+            saved.countDown();
+        }
+    }
+
+    /**
+     * Waits until the flush is saved, rethrows the failure of the save if it failed
+     *
+     * @return {@code false} if the flush was not saved within the timeout
+     */
+    boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!saved.await(timeout, unit)) {
+            return false;
+        }
+        rethrowFailure();
+        return true;
+    }
+
+    /**
+     * Rethrows the failure of the save if it failed
+     */
+    void rethrowFailure() {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
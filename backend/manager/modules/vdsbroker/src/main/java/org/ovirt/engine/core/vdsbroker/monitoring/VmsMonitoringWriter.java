@@ -0,0 +1,359 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.common.businessentities.BusinessEntity;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.DiskImageDynamicDao;
+import org.ovirt.engine.core.dao.VmDynamicDao;
+import org.ovirt.engine.core.dao.VmGuestAgentInterfaceDao;
+import org.ovirt.engine.core.dao.VmStatisticsDao;
+import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+import org.ovirt.engine.core.utils.transaction.TransactionMethod;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Saves the data collected by VMs monitoring to the database.
+ *
+ * The flushes of the monitoring cycles of all hosts are queued to a single writer thread, which coalesces
+ * the flushes waiting in the queue into one batch per table, saved in one transaction. The monitoring
+ * thread of a host waits until its flush is saved, so the data is in the database before the monitoring
+ * acts upon it and unlocks the VMs, as when each host saved its own data. When the queue is full the
+ * monitoring threads wait for the writer. A monitoring thread waits for the writer at most
+ * {@link ConfigValues#VmsMonitoringWriterTimeoutInSeconds}, then it saves its data itself, unless the writer
+ * is already saving it. The writer runs on a thread of the engine thread pool, and is started again by the next
+ * flush if its loop ends. The flushes still queued when the writer is shut down fail.
+ *
+ * If a batch fails, its flushes are saved one by one, so a failure is reported only to the host whose
+ * data caused it.
+ */
+@Singleton
+public class VmsMonitoringWriter implements VmsMonitoringWriterMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(VmsMonitoringWriter.class);
+    private static final long RATE_WINDOW = TimeUnit.SECONDS.toNanos(10);
+
+    @Inject
+    private DiskImageDynamicDao diskImageDynamicDao;
+    @Inject
+    private VmDynamicDao vmDynamicDao;
+    @Inject
+    private VmNetworkStatisticsDao vmNetworkStatisticsDao;
+    @Inject
+    private VmStatisticsDao vmStatisticsDao;
+    @Inject
+    private VmGuestAgentInterfaceDao vmGuestAgentInterfaceDao;
+
+    private BlockingQueue<VmsMonitoringFlush> queue;
+    private int maxBatchRows;
+    private final AtomicBoolean writerStarted = new AtomicBoolean();
+    private volatile boolean running = true;
+
+    private final LongAdder savedFlushes = new LongAdder();
+    private final LongAdder savedBatches = new LongAdder();
+    private final LongAdder savedRows = new LongAdder();
+    private final LongAdder suppressedRows = new LongAdder();
+    private final LongAdder timedOutFlushes = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+    private long rateWindowStart = System.nanoTime();
+    private long rateWindowRows;
+    private volatile double rowsPerSecond;
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    public void init() {
+        queue = new LinkedBlockingQueue<>(Config.<Integer> getValue(ConfigValues.VmsMonitoringWriterQueueSize));
+        maxBatchRows = Config.<Integer> getValue(ConfigValues.VmsMonitoringWriterMaxBatchRows);
+        try {
+            objectName = new ObjectName("VmsMonitoringWriter:type=" + this.getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            log.debug("Problem during registration of Monitoring into JMX: {}", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        failQueuedFlushes();
+        try {
+            platformMBeanServer.unregisterMBean(this.objectName);
+        } catch (Exception e) {
+            log.debug("Problem during unregistration of Monitoring into JMX: {}", e);
+        }
+    }
+
+    /**
+     * Saves the flush and waits until it is saved.
+     */
+    public void save(VmsMonitoringFlush flush) {
+        if (!Config.<Boolean> getValue(ConfigValues.VmsMonitoringAggregatedWriterEnabled)
+                || !running
+                || !startWriter()) {
+            saveDirectly(flush);
+            return;
+        }
+
+        int timeout = Config.<Integer> getValue(ConfigValues.VmsMonitoringWriterTimeoutInSeconds);
+        try {
+            if (!queue.offer(flush, timeout, TimeUnit.SECONDS)) {
+                log.warn("The queue of the VMs monitoring writer is full, the monitoring saves its data itself");
+                timedOutFlushes.increment();
+                saveDirectly(flush);
+                return;
+            }
+            if (flush.await(timeout, TimeUnit.SECONDS)) {
+                return;
+            }
+            if (flush.claim()) {
+                log.warn("The VMs monitoring writer did not take the data within {} seconds,"
+                        + " the monitoring saves its data itself",
+                        timeout);
+                timedOutFlushes.increment();
+                saveDirectly(flush);
+                return;
+            }
+            // the writer is saving the flush already, it completes the flush even if it fails
+            while (!flush.await(timeout, TimeUnit.SECONDS)) {
+                log.warn("Still waiting for the VMs monitoring writer to save the data");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for VMs monitoring data to be saved", e);
+        }
+    }
+
+    private void saveDirectly(VmsMonitoringFlush flush) {
+        flush.claim();
+        saveBatch(Collections.singletonList(flush));
+        flush.rethrowFailure();
+    }
+
+    /**
+     * Starts the writer, or starts it again if its loop ended.
+     *
+     * @return {@code false} if the writer could not be started
+     */
+    private boolean startWriter() {
+        if (writerStarted.get() || !writerStarted.compareAndSet(false, true)) {
+            return true;
+        }
+        try {
+            ThreadPoolUtil.execute(this::writeLoop);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.error("Failed to start VMs monitoring writer: {}", e.getMessage());
+            log.debug("Exception", e);
+            writerStarted.set(false);
+            return false;
+        }
+    }
+
+    private void writeLoop() {
+        log.info("VMs monitoring writer started");
+        try {
+            while (running) {
+                List<VmsMonitoringFlush> batch = new ArrayList<>();
+                try {
+                    VmsMonitoringFlush flush = queue.poll(1, TimeUnit.SECONDS);
+                    int rows = 0;
+                    while (flush != null) {
+                        // a flush the monitoring gave up waiting for is saved by the monitoring
+                        if (flush.claim()) {
+                            batch.add(flush);
+                            rows += flush.getRows();
+                        }
+                        flush = rows < maxBatchRows ? queue.poll() : null;
+                    }
+                    if (!batch.isEmpty()) {
+                        saveBatch(batch);
+                    }
+                } catch (InterruptedException e) {
+                    log.debug("VMs monitoring writer was interrupted");
+                } catch (Throwable t) {
+                    log.error("Unexpected failure of VMs monitoring writer: {}", t.getMessage());
+                    log.debug("Exception", t);
+                    RuntimeException failure = new RuntimeException("VMs monitoring writer failed", t);
+                    batch.forEach(flush -> flush.failed(failure));
+                }
+            }
+        } finally {
+            writerStarted.set(false);
+            log.info("VMs monitoring writer stopped");
+        }
+    }
+
+    private void failQueuedFlushes() {
+        List<VmsMonitoringFlush> flushes = new ArrayList<>();
+        queue.drainTo(flushes);
+        RuntimeException failure = new IllegalStateException("VMs monitoring writer was shut down");
+        flushes.stream().filter(VmsMonitoringFlush::claim).forEach(flush -> flush.failed(failure));
+    }
+
+    void saveBatch(List<VmsMonitoringFlush> batch) {
+        try {
+            executeInNewTransaction(() -> {
+                persist(batch);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).failed(e);
+                return;
+            }
+            log.warn("Failed to save VMs monitoring data of {} hosts together, saving them separately: {}",
+                    batch.size(),
+                    e.getMessage());
+            log.debug("Exception", e);
+            batch.forEach(flush -> saveBatch(Collections.singletonList(flush)));
+            return;
+        }
+
+        long now = System.nanoTime();
+        int rows = 0;
+        for (VmsMonitoringFlush flush : batch) {
+            long latency = now - flush.getCreated();
+            totalLatencyNanos.add(latency);
+            maxLatencyNanos.accumulate(latency);
+            rows += flush.getRows();
+            suppressedRows.add(flush.getSuppressedRows());
+        }
+        savedFlushes.add(batch.size());
+        savedBatches.increment();
+        savedRows.add(rows);
+        updateRate(now, rows);
+        batch.forEach(VmsMonitoringFlush::saved);
+    }
+
+    private void persist(List<VmsMonitoringFlush> batch) {
+        // rows are sorted by their ids so concurrent transactions lock them in the same order
+        vmDynamicDao.updateAllInBatch(collectSorted(batch, VmsMonitoringFlush::getVmDynamic));
+        vmStatisticsDao.updateAllInBatch(collectSorted(batch, VmsMonitoringFlush::getVmStatistics));
+        vmNetworkStatisticsDao.updateAllInBatch(collectSorted(batch, VmsMonitoringFlush::getVmNetworkStatistics));
+        diskImageDynamicDao.updateAllDiskImageDynamicWithDiskIdByVmId(batch.stream()
+                .map(VmsMonitoringFlush::getDiskImageDynamic)
+                .flatMap(List::stream)
+                .collect(Collectors.toList()));
+
+        List<Guid> guestAgentNicsVmIds = batch.stream()
+                .map(VmsMonitoringFlush::getGuestAgentNicsVmIds)
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        if (!guestAgentNicsVmIds.isEmpty()) {
+            vmGuestAgentInterfaceDao.removeAllForVms(guestAgentNicsVmIds);
+            batch.stream()
+                    .map(VmsMonitoringFlush::getGuestAgentNics)
+                    .flatMap(List::stream)
+                    .forEach(nic -> vmGuestAgentInterfaceDao.save(nic));
+        }
+    }
+
+    private static <T extends BusinessEntity<Guid>> List<T> collectSorted(List<VmsMonitoringFlush> batch,
+            Function<VmsMonitoringFlush, List<T>> rows) {
+        return batch.stream()
+                .map(rows)
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(BusinessEntity::getId))
+                .collect(Collectors.toList());
+    }
+
+    private synchronized void updateRate(long now, int rows) {
+        rateWindowRows += rows;
+        long elapsed = now - rateWindowStart;
+        if (elapsed >= RATE_WINDOW) {
+            rowsPerSecond = rateWindowRows * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+            rateWindowStart = now;
+            rateWindowRows = 0;
+        }
+    }
+
+    protected <T> T executeInNewTransaction(TransactionMethod<T> code) {
+        return TransactionSupport.executeInNewTransaction(code);
+    }
+
+    @Override
+    public long getSavedFlushes() {
+        return savedFlushes.sum();
+    }
+
+    @Override
+    public long getSavedBatches() {
+        return savedBatches.sum();
+    }
+
+    @Override
+    public long getSavedRows() {
+        return savedRows.sum();
+    }
+
+    @Override
+    public long getSuppressedRows() {
+        return suppressedRows.sum();
+    }
+
+    @Override
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    @Override
+    public double getAverageFlushLatencyMillis() {
+        long flushes = savedFlushes.sum();
+        return flushes == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalLatencyNanos.sum()) / 1000.0 / flushes;
+    }
+
+    @Override
+    public long getMaxFlushLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+
+    @Override
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public long getTimedOutFlushes() {
+        return timedOutFlushes.sum();
+    }
+
+    @Override
+    public void resetStatistics() {
+        savedFlushes.reset();
+        timedOutFlushes.reset();
+        savedBatches.reset();
+        savedRows.reset();
+        suppressedRows.reset();
+        totalLatencyNanos.reset();
+        maxLatencyNanos.reset();
+    }
+}
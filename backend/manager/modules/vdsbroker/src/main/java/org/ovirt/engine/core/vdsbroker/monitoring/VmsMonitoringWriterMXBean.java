@@ -0,0 +1,54 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface VmsMonitoringWriterMXBean {
+
+    /**
+     * Number of host flushes saved since the statistics were reset
+     */
+    long getSavedFlushes();
+
+    /**
+     * Number of transactions the host flushes were saved in
+     */
+    long getSavedBatches();
+
+    /**
+     * Number of rows saved since the statistics were reset
+     */
+    long getSavedRows();
+
+    /**
+     * Number of rows not saved because they did not change since they were last saved
+     */
+    long getSuppressedRows();
+
+    /**
+     * Rows saved per second, measured over the last few seconds
+     */
+    double getRowsPerSecond();
+
+    /**
+     * Average time from a flush being requested until it is saved, in milliseconds
+     */
+    double getAverageFlushLatencyMillis();
+
+    /**
+     * Maximal time from a flush being requested until it is saved, in milliseconds
+     */
+    long getMaxFlushLatencyMillis();
+
+    /**
+     * Number of host flushes waiting for the writer
+     */
+    int getQueueSize();
+
+    /**
+     * Number of host flushes the monitoring saved itself because the writer did not take them in time
+     */
+    long getTimedOutFlushes();
+
+    void resetStatistics();
+}
@@ -1,7 +1,10 @@
 package org.ovirt.engine.core.vdsbroker.storage;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -16,7 +19,6 @@ import org.ovirt.engine.core.common.businessentities.StoragePoolIsoMap;
 import org.ovirt.engine.core.common.businessentities.VDS;
 import org.ovirt.engine.core.common.businessentities.VDSStatus;
 import org.ovirt.engine.core.common.errors.EngineError;
-import org.ovirt.engine.core.common.errors.EngineException;
 import org.ovirt.engine.core.common.errors.VDSError;
 import org.ovirt.engine.core.common.vdscommands.ConnectStoragePoolVDSCommandParameters;
 import org.ovirt.engine.core.common.vdscommands.VDSCommandType;
@@ -56,52 +58,67 @@ public class StoragePoolDomainHelper {
     }
 
     /**
-     * Refreshes the given vds pool metadata, if the host isn't connected to the pool it'll be connected.
+     * Refreshes the pool metadata of the given hosts, all of them at the same time, the hosts that aren't connected to
+     * the pool are connected.
      *
-     * @return boolean indicating whether the host pool metadata was "refreshed" succesfully (either by refresh or
-     *         connect)
+     * @return the ids of the hosts whose pool metadata was "refreshed" successfully (either by refresh or connect)
      */
-    public boolean refreshHostPoolMetadata(VDS vds, StoragePool storagePool, Guid masterDomainId, List<StoragePoolIsoMap> storagePoolIsoMaps) {
-        try {
-            resourceManager.runVdsCommand(
-                    VDSCommandType.ConnectStoragePool,
-                    new ConnectStoragePoolVDSCommandParameters(vds,
-                            storagePool,
-                            masterDomainId, storagePoolIsoMaps, true));
-        } catch (EngineException ex) {
-            VDSError error = ex.getVdsError();
-            if (error.getCode() != EngineError.StoragePoolUnknown) {
+    public Set<Guid> refreshHostsPoolMetadata(Collection<VDS> hosts,
+            StoragePool storagePool,
+            Guid masterDomainId,
+            List<StoragePoolIsoMap> storagePoolIsoMaps) {
+        Map<Guid, VDS> hostsById = hosts.stream().collect(Collectors.toMap(VDS::getId, vds -> vds));
+        Set<Guid> refreshedHosts = new HashSet<>();
+        List<ConnectStoragePoolVDSCommandParameters> connectParameters = new ArrayList<>();
+        Map<Guid, VDSReturnValue> refreshResults = resourceManager.runVdsCommandOnHosts(
+                VDSCommandType.ConnectStoragePool,
+                hosts.stream()
+                        .map(vds -> new ConnectStoragePoolVDSCommandParameters(vds,
+                                storagePool,
+                                masterDomainId, storagePoolIsoMaps, true))
+                        .collect(Collectors.toList()));
+        for (Map.Entry<Guid, VDSReturnValue> entry : refreshResults.entrySet()) {
+            VDS vds = hostsById.get(entry.getKey());
+            VDSError error = getError(entry.getValue());
+            if (error == null) {
+                refreshedHosts.add(vds.getId());
+            } else if (error.getCode() != EngineError.StoragePoolUnknown) {
                 log.info("Failed to refresh host '{}' pool '{}' metadata with error '{}': {}",
                         vds.getName(),
                         storagePool.getId(), error.getCode(), error.getMessage());
-                log.debug("Exception", ex);
-                return false;
-            }
-
-            error = null;
-
-            try {
-                VDSReturnValue vdsReturnValue = resourceManager.runVdsCommand(
-                        VDSCommandType.ConnectStoragePool,
-                        new ConnectStoragePoolVDSCommandParameters(vds,
-                                storagePool,
-                                masterDomainId, storagePoolIsoMaps, false));
-                if (!vdsReturnValue.getSucceeded()) {
-                    error = vdsReturnValue.getVdsError();
-                }
-            } catch (EngineException e) {
-                error = e.getVdsError();
+            } else {
+                connectParameters.add(new ConnectStoragePoolVDSCommandParameters(vds,
+                        storagePool,
+                        masterDomainId, storagePoolIsoMaps, false));
             }
+        }
 
-            if (error != null) {
+        if (connectParameters.isEmpty()) {
+            return refreshedHosts;
+        }
+        Map<Guid, VDSReturnValue> connectResults =
+                resourceManager.runVdsCommandOnHosts(VDSCommandType.ConnectStoragePool, connectParameters);
+        for (Map.Entry<Guid, VDSReturnValue> entry : connectResults.entrySet()) {
+            VDS vds = hostsById.get(entry.getKey());
+            VDSError error = getError(entry.getValue());
+            if (error == null) {
+                refreshedHosts.add(vds.getId());
+            } else {
                 log.info("Failed to connect host '{}' to pool '{}' with error '{}': {}",
                         vds.getName(),
                         storagePool.getId(), error.getCode(), error.getMessage());
-                return false;
             }
         }
+        return refreshedHosts;
+    }
 
-        return true;
+    private static VDSError getError(VDSReturnValue returnValue) {
+        if (returnValue.getSucceeded()) {
+            return null;
+        }
+        return returnValue.getVdsError() != null
+                ? returnValue.getVdsError()
+                : new VDSError(EngineError.ENGINE, returnValue.getExceptionString());
     }
 
     public void updateApplicablePoolDomainsStatuses(Guid storagePoolId,
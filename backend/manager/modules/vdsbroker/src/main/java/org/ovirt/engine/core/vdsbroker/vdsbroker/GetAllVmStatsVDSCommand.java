@@ -3,6 +3,7 @@ package org.ovirt.engine.core.vdsbroker.vdsbroker;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.ovirt.engine.core.common.vdscommands.VdsIdVDSCommandParametersBase;
 import org.ovirt.engine.core.compat.Guid;
@@ -21,9 +22,10 @@ public class GetAllVmStatsVDSCommand<P extends VdsIdVDSCommandParametersBase> ex
     protected void executeVdsBrokerCommand() {
         vmListReturn = getBroker().getAllVmStats();
         proceedProxyReturnValue();
-        Map<Guid, VdsmVm> returnVMs = Arrays.stream(vmListReturn.infoList)
-                .map(this::createVdsmVm)
-                .collect(Collectors.toMap(vm -> vm.getVmDynamic().getId(), vm -> vm));
+        Stream<VdsmVm> vms = vmListReturn.decodedList != null
+                ? vmListReturn.decodedList.stream().map(this::createVdsmVm)
+                : Arrays.stream(vmListReturn.infoList).map(this::createVdsmVm);
+        Map<Guid, VdsmVm> returnVMs = vms.collect(Collectors.toMap(vm -> vm.getVmDynamic().getId(), vm -> vm));
         setReturnValue(returnVMs);
     }
 
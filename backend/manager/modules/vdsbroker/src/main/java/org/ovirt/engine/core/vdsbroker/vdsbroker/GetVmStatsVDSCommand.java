@@ -15,6 +15,8 @@ public class GetVmStatsVDSCommand<P extends GetVmStatsVDSCommandParameters> exte
     protected void executeVdsBrokerCommand() {
         vmListReturn = getBroker().getVmStats(getParameters().getVmId().toString());
         proceedProxyReturnValue();
-        setReturnValue(createVdsmVm(vmListReturn.infoList[0]));
+        setReturnValue(vmListReturn.decodedList != null
+                ? createVdsmVm(vmListReturn.decodedList.get(0))
+                : createVdsmVm(vmListReturn.infoList[0]));
     }
 }
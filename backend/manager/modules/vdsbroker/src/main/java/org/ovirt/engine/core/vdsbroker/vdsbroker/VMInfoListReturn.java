@@ -1,6 +1,7 @@
 package org.ovirt.engine.core.vdsbroker.vdsbroker;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @SuppressWarnings("unchecked")
@@ -10,10 +11,16 @@ public final class VMInfoListReturn {
 
     public Status status;
     public Map<String, Object>[] infoList;
+    public List<VmStatsDecoder.DecodedVm> decodedList;
 
     public VMInfoListReturn(Map<String, Object> innerMap) {
         status = new Status((Map<String, Object>) innerMap.get(STATUS));
-        Object[] temp = (Object[]) innerMap.get(STATS_LIST);
+        Object stats = innerMap.get(STATS_LIST);
+        if (stats instanceof List) {
+            decodedList = (List<VmStatsDecoder.DecodedVm>) stats;
+            return;
+        }
+        Object[] temp = (Object[]) stats;
         if (temp != null) {
             infoList = new HashMap[temp.length];
             for (int i = 0; i < temp.length; i++) {
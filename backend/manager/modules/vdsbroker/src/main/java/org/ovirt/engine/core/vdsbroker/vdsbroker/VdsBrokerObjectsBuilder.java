@@ -134,7 +134,7 @@ public class VdsBrokerObjectsBuilder {
     private static final Logger log = LoggerFactory.getLogger(VdsBrokerObjectsBuilder.class);
 
     private static final int VNC_START_PORT = 5900;
-    private static final double NANO_SECONDS = 1000000000;
+    static final double NANO_SECONDS = 1000000000;
 
     private static final Comparator<VdsNumaNode> numaNodeComparator = Comparator.comparing(VdsNumaNode::getIndex);
     private static final Pattern IPV6_ADDRESS_CAPTURE_PREFIX_PATTERN = Pattern.compile("^.*?/(\\d+)?$");
@@ -1567,7 +1567,10 @@ public class VdsBrokerObjectsBuilder {
     }
 
     private static Double assignDoubleValue(Map<String, Object> input, String name) {
-        Object value = input.get(name);
+        return toDouble(input.get(name));
+    }
+
+    static Double toDouble(Object value) {
         if (value instanceof Double) {
             return (Double) value;
         } else if (value instanceof String) {
@@ -1589,20 +1592,25 @@ public class VdsBrokerObjectsBuilder {
 
     private static Integer assignIntValue(Map input, String name) {
         if (input.containsKey(name)) {
-            if (input.get(name) instanceof Integer) {
-                return (Integer) input.get(name);
-            }
-            String stringValue = (String) input.get(name);
-            if (StringUtils.isNotEmpty(stringValue)) { // in case the input
-                                                       // is decimal and we
-                                                       // need int.
-                stringValue = stringValue.split("[.]", -1)[0];
+            return toInteger(name, input.get(name));
+        }
+        return null;
+    }
 
-                try {
-                    return Integer.parseInt(stringValue);
-                } catch (NumberFormatException nfe) {
-                    log.error("Failed to parse '{}' value '{}' to integer: {}", name, stringValue, nfe.getMessage());
-                }
+    static Integer toInteger(String name, Object value) {
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        String stringValue = (String) value;
+        if (StringUtils.isNotEmpty(stringValue)) { // in case the input
+                                                   // is decimal and we
+                                                   // need int.
+            stringValue = stringValue.split("[.]", -1)[0];
+
+            try {
+                return Integer.parseInt(stringValue);
+            } catch (NumberFormatException nfe) {
+                log.error("Failed to parse '{}' value '{}' to integer: {}", name, stringValue, nfe.getMessage());
             }
         }
         return null;
@@ -1610,20 +1618,25 @@ public class VdsBrokerObjectsBuilder {
 
     private static Long assignLongValue(Map<String, Object> input, String name) {
         if (input.containsKey(name)) {
-            if (input.get(name) instanceof Long || input.get(name) instanceof Integer) {
-                return Long.parseLong(input.get(name).toString());
-            }
-            String stringValue = (String) ((input.get(name) instanceof String) ? input.get(name) : null);
-            if (!StringUtils.isEmpty(stringValue)) { // in case the input
-                                                     // is decimal and we
-                                                     // need int.
-                stringValue = stringValue.split("[.]", -1)[0];
+            return toLong(name, input.get(name));
+        }
+        return null;
+    }
 
-                try {
-                    return Long.parseLong(stringValue);
-                } catch (NumberFormatException e) {
-                    log.error("Failed to parse '{}' value '{}' to long: {}", name, stringValue, e.getMessage());
-                }
+    static Long toLong(String name, Object value) {
+        if (value instanceof Long || value instanceof Integer) {
+            return Long.parseLong(value.toString());
+        }
+        String stringValue = (String) ((value instanceof String) ? value : null);
+        if (!StringUtils.isEmpty(stringValue)) { // in case the input
+                                                 // is decimal and we
+                                                 // need int.
+            stringValue = stringValue.split("[.]", -1)[0];
+
+            try {
+                return Long.parseLong(stringValue);
+            } catch (NumberFormatException e) {
+                log.error("Failed to parse '{}' value '{}' to long: {}", name, stringValue, e.getMessage());
             }
         }
         return null;
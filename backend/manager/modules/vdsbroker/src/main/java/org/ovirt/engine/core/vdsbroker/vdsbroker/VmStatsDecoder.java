@@ -0,0 +1,403 @@
+package org.ovirt.engine.core.vdsbroker.vdsbroker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.ovirt.engine.core.common.businessentities.VmBalloonInfo;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.NetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
+import org.ovirt.engine.core.common.businessentities.storage.LUNs;
+import org.ovirt.engine.core.common.utils.SizeConverter;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.SerializationFactory;
+import org.ovirt.engine.core.vdsbroker.monitoring.VdsmVm;
+
+/**
+ * Decodes the VM statistics returned by {@code Host.getAllVmStats} and {@code VM.getStats} directly from the tokens of
+ * the JSON-RPC response into the engine entities, without building the nested maps the other responses are decoded
+ * into.
+ *
+ * The statistics, the balloon, the network interfaces and the disks of the VMs, which make most of the response, are
+ * decoded into their entities applying the same conversions as {@link VdsBrokerObjectsBuilder}. The remaining fields
+ * are small and are kept in a flat struct, from which the {@code VmDynamic}, the jobs and the guest agent interfaces
+ * are built by {@link VdsBrokerObjectsBuilder} once the host is known.
+ */
+public final class VmStatsDecoder {
+
+    private VmStatsDecoder() {
+    }
+
+    /**
+     * Decodes the list of VM statistics in the given result of the response.
+     *
+     * @param result - the result of the JSON-RPC response, a list of VM statistics
+     * @return the decoded VMs, in the order they were reported
+     */
+    public static List<DecodedVm> decode(JsonNode result) throws IOException {
+        JsonParser parser = result.traverse();
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException("Expected a list of VM statistics", parser.getCurrentLocation());
+        }
+        List<DecodedVm> vms = new ArrayList<>(result.size());
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            vms.add(decodeVm(parser));
+        }
+        return vms;
+    }
+
+    private static DecodedVm decodeVm(JsonParser parser) throws IOException {
+        Map<String, Object> struct = new HashMap<>();
+        VmStatistics statistics = new VmStatistics();
+        VmBalloonInfo balloonInfo = new VmBalloonInfo();
+        List<VmNetworkInterface> interfaceStatistics = null;
+        List<DiskImageDynamic> diskStatistics = Collections.emptyList();
+        Map<String, LUNs> lunsMap = Collections.emptyMap();
+        Double timestamp = -1d;
+        String devicesHash = null;
+        Double elapsedTime = null;
+        Double cpuSys = null;
+        Double cpuUser = null;
+        Integer memoryUsage = null;
+        Integer migrationProgress = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            switch (name) {
+            case VdsProperties.vm_guid:
+                String vmId = parser.getText();
+                statistics.setId(new Guid(vmId));
+                struct.put(name, vmId);
+                break;
+            case VdsProperties.statusTime:
+                timestamp = VdsBrokerObjectsBuilder.toDouble(readValue(parser));
+                break;
+            case VdsProperties.hash:
+                devicesHash = asString(readValue(parser));
+                break;
+            case VdsProperties.elapsed_time:
+                elapsedTime = VdsBrokerObjectsBuilder.toDouble(readValue(parser));
+                break;
+            case VdsProperties.cpu_sys:
+                cpuSys = VdsBrokerObjectsBuilder.toDouble(readValue(parser));
+                break;
+            case VdsProperties.cpu_user:
+                cpuUser = VdsBrokerObjectsBuilder.toDouble(readValue(parser));
+                break;
+            case VdsProperties.vm_usage_mem_percent:
+                memoryUsage = VdsBrokerObjectsBuilder.toInteger(name, readValue(parser));
+                break;
+            case VdsProperties.vm_migration_progress_percent:
+                migrationProgress = VdsBrokerObjectsBuilder.toInteger(name, readValue(parser));
+                break;
+            case VdsProperties.vm_guest_mem_stats:
+                decodeGuestMemoryStats(parser, statistics);
+                break;
+            case VdsProperties.VM_DISKS_USAGE:
+                Object disksUsage = readValue(parser);
+                if (disksUsage instanceof Object[]) {
+                    statistics.setDisksUsage(SerializationFactory.getSerializer()
+                            .serializeUnformattedJson(new ArrayList<>(Arrays.asList((Object[]) disksUsage))));
+                }
+                break;
+            case VdsProperties.vm_balloonInfo:
+                decodeBalloonInfo(parser, balloonInfo);
+                break;
+            case VdsProperties.VM_NETWORK:
+                interfaceStatistics = decodeInterfaceStatistics(parser);
+                break;
+            case VdsProperties.vm_disks:
+                diskStatistics = new ArrayList<>();
+                lunsMap = new HashMap<>();
+                decodeDisks(parser, diskStatistics, lunsMap);
+                break;
+            default:
+                struct.put(name, readValue(parser));
+                break;
+            }
+        }
+        statistics.setElapsedTime(elapsedTime);
+        statistics.setCpuSys(cpuSys);
+        statistics.setCpuUser(cpuUser);
+        statistics.setUsageMemPercent(memoryUsage);
+        statistics.setMigrationProgressPercent(migrationProgress != null ? migrationProgress : 0);
+
+        VdsmVm vm = new VdsmVm(timestamp)
+                .setDevicesHash(devicesHash)
+                .setVmStatistics(statistics)
+                .setVmBalloonInfo(balloonInfo)
+                .setInterfaceStatistics(interfaceStatistics)
+                .setDiskStatistics(diskStatistics)
+                .setLunsMap(lunsMap);
+        return new DecodedVm(vm, struct);
+    }
+
+    private static void decodeGuestMemoryStats(JsonParser parser, VmStatistics statistics) throws IOException {
+        if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            switch (name) {
+            case VdsProperties.vm_guest_mem_buffered:
+                statistics.setGuestMemoryBuffered(Long.parseLong(parser.getText()));
+                break;
+            case VdsProperties.vm_guest_mem_cached:
+                statistics.setGuestMemoryCached(Long.parseLong(parser.getText()));
+                break;
+            case VdsProperties.vm_guest_mem_free:
+                statistics.setGuestMemoryFree(Long.parseLong(parser.getText()));
+                break;
+            default:
+                parser.skipChildren();
+                break;
+            }
+        }
+    }
+
+    private static void decodeBalloonInfo(JsonParser parser, VmBalloonInfo balloonInfo) throws IOException {
+        if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        int size = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            size++;
+            switch (name) {
+            case VdsProperties.vm_balloon_cur:
+                balloonInfo.setCurrentMemory(VdsBrokerObjectsBuilder.toLong(name, readValue(parser)));
+                break;
+            case VdsProperties.vm_balloon_max:
+                balloonInfo.setBalloonMaxMemory(VdsBrokerObjectsBuilder.toLong(name, readValue(parser)));
+                break;
+            case VdsProperties.vm_balloon_target:
+                balloonInfo.setBalloonTargetMemory(VdsBrokerObjectsBuilder.toLong(name, readValue(parser)));
+                break;
+            case VdsProperties.vm_balloon_min:
+                balloonInfo.setBalloonMinMemory(VdsBrokerObjectsBuilder.toLong(name, readValue(parser)));
+                break;
+            default:
+                parser.skipChildren();
+                break;
+            }
+        }
+        if (size > 0) {
+            // only if all 4 properties are found the balloon is considered enabled (available from 3.3)
+            balloonInfo.setBalloonDeviceEnabled(size >= 4);
+        }
+    }
+
+    private static List<VmNetworkInterface> decodeInterfaceStatistics(JsonParser parser) throws IOException {
+        List<VmNetworkInterface> interfaceStatistics = new ArrayList<>();
+        if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return interfaceStatistics;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            VmNetworkInterface nic = new VmNetworkInterface();
+            NetworkStatistics stats = nic.getStatistics();
+            Double receiveDropRate = null;
+            Double transmitDropRate = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                switch (name) {
+                case VdsProperties.VM_INTERFACE_NAME:
+                    nic.setName(asString(readValue(parser)));
+                    break;
+                case VdsProperties.MAC_ADDR:
+                    nic.setMacAddress(asString(readValue(parser)));
+                    break;
+                case VdsProperties.rx_dropped:
+                    receiveDropRate = VdsBrokerObjectsBuilder.toDouble(readValue(parser));
+                    break;
+                case VdsProperties.tx_dropped:
+                    transmitDropRate = VdsBrokerObjectsBuilder.toDouble(readValue(parser));
+                    break;
+                case VdsProperties.rx_total:
+                    stats.setReceivedBytes(VdsBrokerObjectsBuilder.toLong(name, readValue(parser)));
+                    break;
+                case VdsProperties.tx_total:
+                    stats.setTransmittedBytes(VdsBrokerObjectsBuilder.toLong(name, readValue(parser)));
+                    break;
+                case VdsProperties.sample_time:
+                    stats.setSampleTime(VdsBrokerObjectsBuilder.toDouble(readValue(parser)));
+                    break;
+                case VdsProperties.INTERFACE_SPEED:
+                    nic.setSpeed(VdsBrokerObjectsBuilder.toInteger(name, readValue(parser)));
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+                }
+            }
+            stats.setReceiveDropRate(receiveDropRate != null ? receiveDropRate : 0.0);
+            stats.setTransmitDropRate(transmitDropRate != null ? transmitDropRate : 0.0);
+            interfaceStatistics.add(nic);
+        }
+        return interfaceStatistics;
+    }
+
+    private static void decodeDisks(JsonParser parser, List<DiskImageDynamic> diskStatistics,
+            Map<String, LUNs> lunsMap) throws IOException {
+        if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            DiskImageDynamic disk = new DiskImageDynamic();
+            String imageGroupId = null;
+            String lunGuid = null;
+            boolean hasTrueSize = false;
+            Long trueSize = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                switch (name) {
+                case VdsProperties.image_group_id:
+                    imageGroupId = asString(readValue(parser));
+                    break;
+                case VdsProperties.lun_guid:
+                    lunGuid = asString(readValue(parser));
+                    break;
+                case VdsProperties.vm_disk_read_rate:
+                    disk.setReadRate(VdsBrokerObjectsBuilder.toInteger(name, readValue(parser)));
+                    break;
+                case VdsProperties.vm_disk_write_rate:
+                    disk.setWriteRate(VdsBrokerObjectsBuilder.toInteger(name, readValue(parser)));
+                    break;
+                case VdsProperties.disk_true_size:
+                    hasTrueSize = true;
+                    trueSize = VdsBrokerObjectsBuilder.toLong(name, readValue(parser));
+                    break;
+                case VdsProperties.vm_disk_read_latency:
+                    disk.setReadLatency(toLatency(readValue(parser)));
+                    break;
+                case VdsProperties.vm_disk_write_latency:
+                    disk.setWriteLatency(toLatency(readValue(parser)));
+                    break;
+                case VdsProperties.vm_disk_flush_latency:
+                    disk.setFlushLatency(toLatency(readValue(parser)));
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+                }
+            }
+            if (!StringUtils.isEmpty(imageGroupId)) {
+                disk.setId(new Guid(imageGroupId));
+                if (hasTrueSize) {
+                    disk.setActualSize(trueSize != null ? trueSize : 0);
+                }
+                diskStatistics.add(disk);
+            }
+            if (!StringUtils.isEmpty(lunGuid)) {
+                LUNs lun = new LUNs();
+                lun.setLUNId(lunGuid);
+                if (trueSize != null) {
+                    lun.setDeviceSize(SizeConverter.convert(
+                            trueSize, SizeConverter.SizeUnit.BYTES, SizeConverter.SizeUnit.GiB).intValue());
+                }
+                lunsMap.put(lunGuid, lun);
+            }
+        }
+    }
+
+    private static double toLatency(Object value) {
+        Double latency = VdsBrokerObjectsBuilder.toDouble(value);
+        return (latency != null ? latency : 0.0) / VdsBrokerObjectsBuilder.NANO_SECONDS;
+    }
+
+    private static String asString(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
+    /**
+     * Reads the value at the current token in the form the rest of the responses are decomposed into: objects as
+     * maps and lists as arrays.
+     */
+    private static Object readValue(JsonParser parser) throws IOException {
+        switch (parser.getCurrentToken()) {
+        case START_OBJECT:
+            Map<String, Object> map = new HashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                map.put(name, readValue(parser));
+            }
+            return map;
+        case START_ARRAY:
+            List<Object> list = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                list.add(readValue(parser));
+            }
+            return list.toArray();
+        case VALUE_STRING:
+            return parser.getText();
+        case VALUE_NUMBER_INT:
+            return parser.getNumberValue();
+        case VALUE_NUMBER_FLOAT:
+            return parser.getDoubleValue();
+        case VALUE_TRUE:
+            return Boolean.TRUE;
+        case VALUE_FALSE:
+            return Boolean.FALSE;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * A VM whose statistics were decoded, waiting for its dynamic data to be built out of the remaining fields.
+     */
+    public static class DecodedVm {
+
+        private final VdsmVm vdsmVm;
+        private final Map<String, Object> struct;
+
+        DecodedVm(VdsmVm vdsmVm, Map<String, Object> struct) {
+            this.vdsmVm = vdsmVm;
+            this.struct = struct;
+        }
+
+        /**
+         * @return the VM with its statistics, balloon, interfaces and disks set
+         */
+        public VdsmVm getVdsmVm() {
+            return vdsmVm;
+        }
+
+        /**
+         * @return the fields of the VM that were not decoded, in the form of the other responses
+         */
+        public Map<String, Object> getStruct() {
+            return struct;
+        }
+    }
+}
@@ -44,6 +44,16 @@ public abstract class VmStatsVdsBrokerCommand<P extends VdsIdVDSCommandParameter
                 .setDiskStatistics(vdsBrokerObjectsBuilder.buildVmDiskStatistics(struct));
     }
 
+    protected VdsmVm createVdsmVm(VmStatsDecoder.DecodedVm decodedVm) {
+        Map<String, Object> struct = decodedVm.getStruct();
+        VmDynamic vmDynamic = vdsBrokerObjectsBuilder.buildVMDynamicData(struct, getVds());
+        return decodedVm.getVdsmVm()
+                .setVmDynamic(vmDynamic)
+                .setVmJobs(vdsBrokerObjectsBuilder.buildVmJobsData(struct))
+                .setVmGuestAgentInterfaces(
+                        vdsBrokerObjectsBuilder.buildVmGuestAgentInterfacesData(vmDynamic.getId(), struct));
+    }
+
     @Override
     protected boolean shouldLogToAudit() {
         return false;
@@ -0,0 +1,156 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.errors.EngineError;
+import org.ovirt.engine.core.common.errors.EngineException;
+import org.ovirt.engine.core.common.vdscommands.VDSReturnValue;
+import org.ovirt.engine.core.common.vdscommands.VdsIdVDSCommandParametersBase;
+import org.ovirt.engine.core.compat.Guid;
+
+public class VdsCommandFanOutTest {
+
+    private static final int HOSTS = 20;
+
+    private ExecutorService executor;
+    private List<VdsIdVDSCommandParametersBase> parameters;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(HOSTS);
+        parameters = new ArrayList<>();
+        for (int i = 0; i < HOSTS; i++) {
+            parameters.add(new VdsIdVDSCommandParametersBase(Guid.newGuid()));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testReturnValuesOfAllHostsInOrder() {
+        Map<Guid, VDSReturnValue> returnValues = fanOut(5, 10).run(parameters, VdsCommandFanOutTest::succeeded);
+
+        assertEquals(HOSTS, returnValues.size());
+        int i = 0;
+        for (Map.Entry<Guid, VDSReturnValue> entry : returnValues.entrySet()) {
+            assertEquals(parameters.get(i++).getVdsId(), entry.getKey());
+            assertTrue(entry.getValue().getSucceeded());
+            assertEquals(entry.getKey(), entry.getValue().getReturnValue());
+        }
+    }
+
+    @Test
+    public void testHostsInFlightAreBounded() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        fanOut(3, 10).run(parameters, hostParameters -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(10);
+            inFlight.decrementAndGet();
+            return succeeded(hostParameters);
+        });
+
+        assertTrue(maxInFlight.get() <= 3);
+    }
+
+    @Test
+    public void testHostThatDoesNotAnswerTimesOut() throws InterruptedException {
+        Guid stuckHost = parameters.get(1).getVdsId();
+        CountDownLatch released = new CountDownLatch(1);
+
+        Map<Guid, VDSReturnValue> returnValues = new VdsCommandFanOut<VdsIdVDSCommandParametersBase>(
+                executor, 5, 200, TimeUnit.MILLISECONDS).run(parameters, hostParameters -> {
+                    if (hostParameters.getVdsId().equals(stuckHost)) {
+                        try {
+                            released.await();
+                        } catch (InterruptedException e) {
+                            // cancelled after the timeout
+                        }
+                    }
+                    return succeeded(hostParameters);
+                });
+
+        assertEquals(HOSTS, returnValues.size());
+        VDSReturnValue stuckReturnValue = returnValues.get(stuckHost);
+        assertFalse(stuckReturnValue.getSucceeded());
+        assertEquals(EngineError.VDS_NETWORK_ERROR, stuckReturnValue.getVdsError().getCode());
+        assertEquals(HOSTS - 1, returnValues.values().stream().filter(VDSReturnValue::getSucceeded).count());
+    }
+
+    @Test
+    public void testFailureOfHostDoesNotAffectOthers() {
+        Guid failingHost = parameters.get(0).getVdsId();
+
+        Map<Guid, VDSReturnValue> returnValues = fanOut(5, 10).run(parameters, hostParameters -> {
+            if (hostParameters.getVdsId().equals(failingHost)) {
+                throw new IllegalStateException("failure");
+            }
+            return succeeded(hostParameters);
+        });
+
+        assertFalse(returnValues.get(failingHost).getSucceeded());
+        assertEquals(HOSTS - 1, returnValues.values().stream().filter(VDSReturnValue::getSucceeded).count());
+    }
+
+    @Test
+    public void testErrorOfHostIsKept() {
+        Guid failingHost = parameters.get(0).getVdsId();
+
+        Map<Guid, VDSReturnValue> returnValues = fanOut(5, 10).run(parameters, hostParameters -> {
+            if (hostParameters.getVdsId().equals(failingHost)) {
+                throw new EngineException(EngineError.StoragePoolUnknown);
+            }
+            return succeeded(hostParameters);
+        });
+
+        assertFalse(returnValues.get(failingHost).getSucceeded());
+        assertEquals(EngineError.StoragePoolUnknown, returnValues.get(failingHost).getVdsError().getCode());
+    }
+
+    @Test
+    public void testRejectedCallsFail() {
+        executor.shutdown();
+
+        Map<Guid, VDSReturnValue> returnValues = fanOut(5, 10).run(parameters, VdsCommandFanOutTest::succeeded);
+
+        assertEquals(HOSTS, returnValues.size());
+        assertTrue(returnValues.values().stream().noneMatch(VDSReturnValue::getSucceeded));
+    }
+
+    private VdsCommandFanOut<VdsIdVDSCommandParametersBase> fanOut(int maxInFlight, int timeoutInSeconds) {
+        return new VdsCommandFanOut<>(executor, maxInFlight, timeoutInSeconds, TimeUnit.SECONDS);
+    }
+
+    private static VDSReturnValue succeeded(VdsIdVDSCommandParametersBase hostParameters) {
+        VDSReturnValue returnValue = new VDSReturnValue();
+        returnValue.setSucceeded(true);
+        returnValue.setReturnValue(hostParameters.getVdsId());
+        return returnValue;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.compat.Guid;
+
+public class VmManagerTest {
+
+    private static final int MAX_SKIPPED_SAVES = 2;
+
+    private VmManager vmManager;
+    private VmStatistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        Guid vmId = Guid.newGuid();
+        vmManager = new VmManager(vmId);
+        statistics = new VmStatistics(vmId);
+        statistics.setCpuUser(10.0);
+        statistics.setElapsedTime(100.0);
+    }
+
+    @Test
+    public void testStatisticsNeverSavedAreSaved() {
+        assertTrue(vmManager.isStatisticsSaveNeeded(statistics, MAX_SKIPPED_SAVES));
+    }
+
+    @Test
+    public void testElapsedTimeAndHistoryChangesAreNotSaved() {
+        vmManager.statisticsSaved(statistics);
+
+        statistics.setElapsedTime(115.0);
+        statistics.setCpuUsageHistory(Collections.singletonList(10));
+        assertFalse(vmManager.isStatisticsSaveNeeded(statistics, MAX_SKIPPED_SAVES));
+    }
+
+    @Test
+    public void testChangedStatisticsAreSaved() {
+        vmManager.statisticsSaved(statistics);
+
+        statistics.setCpuUser(20.0);
+        assertTrue(vmManager.isStatisticsSaveNeeded(statistics, MAX_SKIPPED_SAVES));
+    }
+
+    @Test
+    public void testChangeOfSavedStatisticsIsDetected() {
+        statistics.setUsageMemPercent(10);
+        vmManager.statisticsSaved(statistics);
+
+        // the saved statistics must not be affected by later changes of the saved instance
+        statistics.setUsageMemPercent(20);
+        assertTrue(vmManager.isStatisticsSaveNeeded(statistics, MAX_SKIPPED_SAVES));
+    }
+
+    @Test
+    public void testSaveIsForcedAfterMaxSkippedSaves() {
+        vmManager.statisticsSaved(statistics);
+
+        for (int i = 0; i < MAX_SKIPPED_SAVES; i++) {
+            assertFalse(vmManager.isStatisticsSaveNeeded(statistics, MAX_SKIPPED_SAVES));
+        }
+        assertTrue(vmManager.isStatisticsSaveNeeded(statistics, MAX_SKIPPED_SAVES));
+
+        vmManager.statisticsSaved(statistics);
+        assertFalse(vmManager.isStatisticsSaveNeeded(statistics, MAX_SKIPPED_SAVES));
+    }
+
+    @Test
+    public void testForcedSaveIsNotAChange() {
+        vmManager.statisticsSaved(statistics);
+
+        for (int i = 0; i <= MAX_SKIPPED_SAVES; i++) {
+            vmManager.isStatisticsSaveNeeded(statistics, MAX_SKIPPED_SAVES);
+        }
+        assertFalse(vmManager.isStatisticsChanged(statistics));
+
+        statistics.setCpuUser(20.0);
+        assertTrue(vmManager.isStatisticsChanged(statistics));
+    }
+}
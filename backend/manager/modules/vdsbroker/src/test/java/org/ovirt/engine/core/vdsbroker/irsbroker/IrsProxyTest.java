@@ -0,0 +1,170 @@
+package org.ovirt.engine.core.vdsbroker.irsbroker;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.businessentities.StorageDomainStatus;
+import org.ovirt.engine.core.common.businessentities.StoragePool;
+import org.ovirt.engine.core.common.businessentities.StoragePoolStatus;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSDomainsData;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.eventqueue.EventQueue;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.StorageDomainStaticDao;
+import org.ovirt.engine.core.dao.StoragePoolDao;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+
+@ExtendWith({MockitoExtension.class, MockConfigExtension.class})
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class IrsProxyTest {
+
+    private static final Guid POOL_ID = new Guid("6d2f3b1a-4c5e-4f7a-8b9c-0d1e2f3a4b01");
+    private static final Guid DOMAIN_ID = new Guid("6d2f3b1a-4c5e-4f7a-8b9c-0d1e2f3a4b02");
+    private static final long FAILURE_TIMEOUT = 5L;
+
+    @Mock
+    private StoragePoolDao storagePoolDao;
+
+    @Mock
+    private StorageDomainStaticDao storageDomainStaticDao;
+
+    @Mock
+    private EventQueue eventQueue;
+
+    @Mock
+    private ManagedScheduledExecutorService schedulerService;
+
+    @Mock
+    private ScheduledFuture<?> recoveryJob;
+
+    @InjectMocks
+    private IrsProxy irsProxy = new IrsProxy(POOL_ID);
+
+    private final Queue<Runnable> domainTasks = new ArrayDeque<>();
+    private ExecutorService previousExecutor;
+    private VDS vds;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.StorageDomainFailureTimeoutInMinutes, FAILURE_TIMEOUT));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        previousExecutor = ThreadPoolUtil.getExecutorService();
+        ExecutorService executor = mock(ExecutorService.class);
+        when(executor.submit(any(Runnable.class))).thenAnswer(invocation -> {
+            domainTasks.add(invocation.getArgument(0));
+            return null;
+        });
+        ThreadPoolUtil.setExecutorService(executor);
+
+        StoragePool storagePool = new StoragePool();
+        storagePool.setId(POOL_ID);
+        storagePool.setStatus(StoragePoolStatus.Up);
+        when(storagePoolDao.get(POOL_ID)).thenReturn(storagePool);
+        when(storageDomainStaticDao.getAllIds(POOL_ID, StorageDomainStatus.Active))
+                .thenReturn(Collections.singletonList(DOMAIN_ID));
+        when(schedulerService.schedule(any(Runnable.class), anyLong(), any())).thenAnswer(invocation -> recoveryJob);
+
+        vds = new VDS();
+        vds.setId(Guid.newGuid());
+        vds.setVdsName("host");
+        vds.setStatus(VDSStatus.Up);
+        vds.setClusterSupportsVirtService(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ThreadPoolUtil.setExecutorService(previousExecutor);
+    }
+
+    @Test
+    public void testUnseenDomainStartsRecoveryTimer() {
+        reportNoDomains();
+        runDomainTasks();
+
+        verify(schedulerService).schedule(any(Runnable.class), eq(FAILURE_TIMEOUT), eq(TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void testReportIsSkippedDuringReconstruct() {
+        when(eventQueue.isEventInProgress(eq(POOL_ID), any())).thenReturn(true);
+
+        reportNoDomains();
+
+        assertTrue(domainTasks.isEmpty());
+        verify(schedulerService, never()).schedule(any(Runnable.class), anyLong(), any());
+    }
+
+    @Test
+    public void testQueuedReportIsDroppedOnceReconstructStarts() {
+        reportNoDomains();
+        when(eventQueue.isEventInProgress(eq(POOL_ID), any())).thenReturn(true);
+        runDomainTasks();
+
+        verify(schedulerService, never()).schedule(any(Runnable.class), anyLong(), any());
+    }
+
+    @Test
+    public void testQueuedReportIsDroppedOnceHostIsCleared() {
+        reportNoDomains();
+        irsProxy.clearVdsFromCache(vds.getId(), vds.getName());
+        runDomainTasks();
+
+        verify(schedulerService, never()).schedule(any(Runnable.class), anyLong(), any());
+    }
+
+    @Test
+    public void testHostClearedWhileReportIsAppliedIsClearedAgain() {
+        reportNoDomains();
+        // the host is cleared after the domain update checked the report is current, but before it applied it
+        when(eventQueue.isEventInProgress(eq(POOL_ID), any())).thenAnswer(invocation -> {
+            irsProxy.clearVdsFromCache(vds.getId(), vds.getName());
+            return false;
+        });
+        runDomainTasks();
+
+        verify(schedulerService).schedule(any(Runnable.class), eq(FAILURE_TIMEOUT), eq(TimeUnit.MINUTES));
+        verify(recoveryJob).cancel(true);
+    }
+
+    private void reportNoDomains() {
+        irsProxy.updateVdsDomainsData(vds, new ArrayList<VDSDomainsData>());
+    }
+
+    private void runDomainTasks() {
+        while (!domainTasks.isEmpty()) {
+            domainTasks.poll().run();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class AdaptiveMonitoringJobTest {
+
+    private static final long INTERVAL = 1000;
+
+    @Mock
+    private ScheduledExecutorService executor;
+    @Mock
+    private ScheduledFuture<?> future;
+    @Mock
+    private Runnable task;
+    @Captor
+    private ArgumentCaptor<Runnable> runCaptor;
+
+    private AdaptiveMonitoringJob job;
+
+    @BeforeEach
+    public void setUp() {
+        doReturn(future).when(executor).schedule(any(Runnable.class), anyLong(), any());
+        job = new AdaptiveMonitoringJob("test", executor, task, INTERVAL, 4, 2);
+    }
+
+    @Test
+    public void testIntervalIsStretchedWhileStable() {
+        job.stable();
+        assertEquals(INTERVAL, job.getInterval());
+        job.stable();
+        assertEquals(2 * INTERVAL, job.getInterval());
+        job.stable();
+        job.stable();
+        assertEquals(4 * INTERVAL, job.getInterval());
+        job.stable();
+        job.stable();
+        assertEquals(4 * INTERVAL, job.getInterval());
+    }
+
+    @Test
+    public void testActivityRestoresInterval() {
+        job.stable();
+        job.activity();
+        job.stable();
+        assertEquals(INTERVAL, job.getInterval());
+        job.stable();
+        job.activity();
+        assertEquals(INTERVAL, job.getInterval());
+    }
+
+    @Test
+    public void testRunIsRescheduledWithCurrentInterval() {
+        job.start();
+        verify(executor).schedule(runCaptor.capture(), eq(INTERVAL), eq(TimeUnit.MILLISECONDS));
+
+        job.stable();
+        job.stable();
+        runCaptor.getValue().run();
+
+        verify(task).run();
+        verify(executor).schedule(any(Runnable.class), eq(2 * INTERVAL), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testActivityBringsStretchedRunForward() {
+        job.start();
+        job.stable();
+        job.stable();
+        when(future.getDelay(TimeUnit.MILLISECONDS)).thenReturn(2 * INTERVAL);
+        when(future.cancel(false)).thenReturn(true);
+
+        job.activity();
+
+        verify(future).cancel(false);
+        verify(executor, times(2)).schedule(any(Runnable.class), eq(INTERVAL), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testActivityKeepsCloseRun() {
+        job.start();
+        job.stable();
+        job.stable();
+        when(future.getDelay(TimeUnit.MILLISECONDS)).thenReturn(INTERVAL / 2);
+
+        job.activity();
+
+        verify(future, never()).cancel(false);
+    }
+
+    @Test
+    public void testStoppedJobIsNotRescheduled() {
+        job.start();
+        verify(executor).schedule(runCaptor.capture(), eq(INTERVAL), eq(TimeUnit.MILLISECONDS));
+        job.stop();
+
+        runCaptor.getValue().run();
+
+        verify(future).cancel(true);
+        verify(executor, times(1)).schedule(any(Runnable.class), anyLong(), any());
+    }
+}
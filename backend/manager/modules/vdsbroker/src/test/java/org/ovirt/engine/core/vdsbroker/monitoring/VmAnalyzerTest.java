@@ -36,6 +36,7 @@ import org.ovirt.engine.core.common.businessentities.VDS;
 import org.ovirt.engine.core.common.businessentities.VDSStatus;
 import org.ovirt.engine.core.common.businessentities.VMStatus;
 import org.ovirt.engine.core.common.businessentities.VdsDynamic;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
 import org.ovirt.engine.core.common.businessentities.VmExitReason;
 import org.ovirt.engine.core.common.businessentities.VmExitStatus;
 import org.ovirt.engine.core.common.businessentities.VmPauseStatus;
@@ -44,9 +45,13 @@ import org.ovirt.engine.core.common.vdscommands.DestroyVmVDSCommandParameters;
 import org.ovirt.engine.core.common.vdscommands.VDSCommandType;
 import org.ovirt.engine.core.common.vdscommands.VDSParametersBase;
 import org.ovirt.engine.core.common.vdscommands.VDSReturnValue;
+import org.ovirt.engine.core.dal.dbbroker.DbEngineDialect;
+import org.ovirt.engine.core.dal.dbbroker.PostgresDbEngineDialect;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogableBase;
 import org.ovirt.engine.core.dao.VdsDynamicDao;
+import org.ovirt.engine.core.dao.VmDynamicDao;
+import org.ovirt.engine.core.dao.VmDynamicDaoImpl;
 import org.ovirt.engine.core.utils.InjectorExtension;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.VdsManager;
@@ -56,6 +61,7 @@ import org.ovirt.engine.core.vdsbroker.VmManager;
 @MockitoSettings(strictness = Strictness.LENIENT)
 public class VmAnalyzerTest {
     VmAnalyzer vmAnalyzer;
+    private boolean trackChanges = true;
 
     @Mock
     private AuditLogDirector auditLogDirector;
@@ -81,6 +87,14 @@ public class VmAnalyzerTest {
     private VDS vdsManagerVds;
     @Mock
     private ResourceManager resourceManager;
+    private final VmDynamicDao vmDynamicDao = new VmDynamicDaoImpl() {
+        private final DbEngineDialect dialect = new PostgresDbEngineDialect();
+
+        @Override
+        protected DbEngineDialect getDialect() {
+            return dialect;
+        }
+    };
 
     @ParameterizedTest
     @EnumSource(VmTestPairs.class)
@@ -308,6 +322,49 @@ public class VmAnalyzerTest {
         assertNull(vmAnalyzer.getVmDynamicToSave());
     }
 
+    @Test
+    public void vmDynamicWithUnpersistedChangesIsNotChanged() {
+        VmTestPairs data = createUpVmWithUnpersistedChange();
+        initMocks(data, true);
+
+        assertNotNull(vmAnalyzer.getVmDynamicToSave());
+        assertFalse(vmAnalyzer.isVmDynamicChanged());
+    }
+
+    @Test
+    public void vmDynamicWithChangedGuestCpuCountIsChanged() {
+        VmTestPairs data = createUpVmWithUnpersistedChange();
+        data.vdsmVm().getVmDynamic().setGuestCpuCount(data.dbVm().getDynamicData().getGuestCpuCount() + 1);
+        initMocks(data, true);
+
+        assertNotNull(vmAnalyzer.getVmDynamicToSave());
+        assertTrue(vmAnalyzer.isVmDynamicChanged());
+    }
+
+    @Test
+    public void untrackedVmDynamicIsChanged() {
+        VmTestPairs data = createUpVmWithUnpersistedChange();
+        trackChanges = false;
+        initMocks(data, true);
+
+        assertNotNull(vmAnalyzer.getVmDynamicToSave());
+        assertTrue(vmAnalyzer.isVmDynamicChanged());
+    }
+
+    /**
+     * A VM that is up on the monitored host and whose only change is in a field that is not persisted
+     */
+    private VmTestPairs createUpVmWithUnpersistedChange() {
+        VmTestPairs data = VmTestPairs.STATUS_CHANGED_TO_UP;
+        VmDynamic dbVm = data.dbVm().getDynamicData();
+        VmDynamic vdsmVm = data.vdsmVm().getVmDynamic();
+        dbVm.setStatus(VMStatus.Up);
+        vdsmVm.setClientIp(dbVm.getClientIp());
+        vdsmVm.setLastWatchdogEvent(dbVm.getLastWatchdogEvent());
+        vdsmVm.setVncKeyboardLayout("en-us");
+        return data;
+    }
+
     @Test
     public void prepareGuestAgentNetworkDevicesForUpdate() {
         // TODO add tests
@@ -337,9 +394,11 @@ public class VmAnalyzerTest {
                 vmData.dbVm() != null ? vmData.dbVm().getDynamicData() : null,
                 vmData.vdsmVm(),
                 false,
+                trackChanges,
                 vdsManager,
                 auditLogDirector,
                 resourceManager,
+                vmDynamicDao,
                 vdsDynamicDao,
                 null));
         doNothing().when(vmAnalyzer).resetVmInterfaceStatistics();
@@ -0,0 +1,87 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.businessentities.VmGuestAgentInterface;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.vdsbroker.VmManager;
+
+public class VmsMonitoringFlushTest {
+
+    private final VmDynamic changedDynamic = new VmDynamic();
+    private final VmDynamic unchangedDynamic = new VmDynamic();
+    private final VmStatistics statisticsToSave = new VmStatistics();
+    private final VmStatistics skippedStatistics = new VmStatistics();
+    private final VmGuestAgentInterface guestAgentNic = new VmGuestAgentInterface();
+
+    private final VmAnalyzer changedAnalyzer = createAnalyzer(changedDynamic, true, statisticsToSave, true);
+    private final VmAnalyzer unchangedAnalyzer = createAnalyzer(unchangedDynamic, false, skippedStatistics, false);
+    private final VmAnalyzer emptyAnalyzer = createAnalyzer(null, false, null, false);
+    private final List<VmAnalyzer> analyzers = Arrays.asList(changedAnalyzer, unchangedAnalyzer, emptyAnalyzer);
+
+    @Test
+    public void unchangedRowsAreSkipped() {
+        when(changedAnalyzer.getVmGuestAgentNics()).thenReturn(Collections.singletonList(guestAgentNic));
+
+        VmsMonitoringFlush flush = VmsMonitoringFlush.of(analyzers, true, 4);
+
+        assertEquals(Collections.singletonList(changedDynamic), flush.getVmDynamic());
+        assertEquals(Collections.singletonList(statisticsToSave), flush.getVmStatistics());
+        assertEquals(Collections.singletonList(changedAnalyzer.getVmId()), flush.getGuestAgentNicsVmIds());
+        assertEquals(Collections.singletonList(guestAgentNic), flush.getGuestAgentNics());
+        assertEquals(2, flush.getSuppressedRows());
+        assertEquals(4, flush.getRows());
+        assertTrue(flush.isChanged());
+    }
+
+    @Test
+    public void allRowsAreSavedWhenNotSkippingUnchanged() {
+        VmsMonitoringFlush flush = VmsMonitoringFlush.of(analyzers, false, 4);
+
+        assertEquals(Arrays.asList(changedDynamic, unchangedDynamic), flush.getVmDynamic());
+        assertEquals(Arrays.asList(statisticsToSave, skippedStatistics), flush.getVmStatistics());
+        assertEquals(0, flush.getSuppressedRows());
+        assertEquals(4, flush.getRows());
+        assertTrue(flush.isChanged());
+    }
+
+    @Test
+    public void unchangedVmsAreReportedAsUnchanged() {
+        List<VmAnalyzer> unchangedAnalyzers = Arrays.asList(unchangedAnalyzer, emptyAnalyzer);
+
+        assertFalse(VmsMonitoringFlush.of(unchangedAnalyzers, true, 4).isChanged());
+        assertFalse(VmsMonitoringFlush.of(unchangedAnalyzers, false, 4).isChanged());
+    }
+
+    private static VmAnalyzer createAnalyzer(VmDynamic vmDynamic,
+            boolean dynamicChanged,
+            VmStatistics statistics,
+            boolean statisticsSaveNeeded) {
+        VmManager vmManager = mock(VmManager.class);
+        when(vmManager.isStatisticsSaveNeeded(any(), anyInt())).thenReturn(statisticsSaveNeeded);
+        when(vmManager.isStatisticsChanged(any())).thenReturn(statisticsSaveNeeded);
+        VmAnalyzer analyzer = mock(VmAnalyzer.class);
+        when(analyzer.getVmId()).thenReturn(Guid.newGuid());
+        when(analyzer.getVmDynamicToSave()).thenReturn(vmDynamic);
+        when(analyzer.isVmDynamicChanged()).thenReturn(dynamicChanged);
+        when(analyzer.getVmStatisticsToSave()).thenReturn(statistics);
+        when(analyzer.getVmManager()).thenReturn(vmManager);
+        when(analyzer.getVmNetworkStatistics()).thenReturn(Collections.emptyList());
+        when(analyzer.getVmDiskImageDynamicToSave()).thenReturn(Collections.emptyList());
+        when(analyzer.getVmGuestAgentNics()).thenReturn(null);
+        return analyzer;
+    }
+}
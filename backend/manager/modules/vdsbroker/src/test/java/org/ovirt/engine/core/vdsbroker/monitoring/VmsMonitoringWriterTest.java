@@ -0,0 +1,269 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.businessentities.VmGuestAgentInterface;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.DiskImageDynamicDao;
+import org.ovirt.engine.core.dao.VmDynamicDao;
+import org.ovirt.engine.core.dao.VmGuestAgentInterfaceDao;
+import org.ovirt.engine.core.dao.VmStatisticsDao;
+import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.MockedConfig;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+import org.ovirt.engine.core.utils.transaction.TransactionMethod;
+
+@ExtendWith({MockitoExtension.class, MockConfigExtension.class})
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class VmsMonitoringWriterTest {
+
+    private static final Guid VM_ID_1 = new Guid("b7dfe5e6-5667-4e40-8ecb-6d97c8df504c");
+    private static final Guid VM_ID_2 = new Guid("b7dfe5e6-5667-4e40-8ecb-6d97c8df504d");
+    private static final String WRITER_THREAD = "VmsMonitoringWriter";
+
+    @Mock
+    private DiskImageDynamicDao diskImageDynamicDao;
+    @Mock
+    private VmDynamicDao vmDynamicDao;
+    @Mock
+    private VmNetworkStatisticsDao vmNetworkStatisticsDao;
+    @Mock
+    private VmStatisticsDao vmStatisticsDao;
+    @Mock
+    private VmGuestAgentInterfaceDao vmGuestAgentInterfaceDao;
+
+    @Spy
+    @InjectMocks
+    private VmsMonitoringWriter writer;
+
+    @Captor
+    private ArgumentCaptor<Collection<VmDynamic>> vmDynamicCaptor;
+
+    private final CountDownLatch writerEntered = new CountDownLatch(1);
+    private final CountDownLatch writerReleased = new CountDownLatch(1);
+    private volatile boolean writerBlocked;
+    private volatile Error writerError;
+    private ExecutorService executorService;
+    private ExecutorService writerExecutor;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.VmsMonitoringAggregatedWriterEnabled, false),
+                MockConfigDescriptor.of(ConfigValues.VmsMonitoringWriterQueueSize, 10),
+                MockConfigDescriptor.of(ConfigValues.VmsMonitoringWriterMaxBatchRows, 100)
+        );
+    }
+
+    public static Stream<MockConfigDescriptor<?>> aggregatedWriter() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.VmsMonitoringAggregatedWriterEnabled, true),
+                MockConfigDescriptor.of(ConfigValues.VmsMonitoringWriterQueueSize, 10),
+                MockConfigDescriptor.of(ConfigValues.VmsMonitoringWriterMaxBatchRows, 100),
+                MockConfigDescriptor.of(ConfigValues.VmsMonitoringWriterTimeoutInSeconds, 1)
+        );
+    }
+
+    @BeforeEach
+    public void setUp() {
+        executorService = ThreadPoolUtil.getExecutorService();
+        writerExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, WRITER_THREAD));
+        ThreadPoolUtil.setExecutorService(writerExecutor);
+        doAnswer(invocation -> {
+            if (WRITER_THREAD.equals(Thread.currentThread().getName())) {
+                Error error = writerError;
+                if (error != null) {
+                    writerError = null;
+                    throw error;
+                }
+                if (writerBlocked) {
+                    writerEntered.countDown();
+                    writerReleased.await();
+                }
+            }
+            return ((TransactionMethod<?>) invocation.getArgument(0)).runInTransaction();
+        }).when(writer).executeInNewTransaction(any());
+        writer.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        writerReleased.countDown();
+        writer.shutdown();
+        writerExecutor.shutdown();
+        ThreadPoolUtil.setExecutorService(executorService);
+    }
+
+    @Test
+    public void testFlushesOfHostsAreSavedInOneBatch() {
+        VmsMonitoringFlush host1 = createFlush(VM_ID_2);
+        VmsMonitoringFlush host2 = createFlush(VM_ID_1);
+
+        writer.saveBatch(Arrays.asList(host1, host2));
+
+        verify(writer, times(1)).executeInNewTransaction(any());
+        verify(vmDynamicDao).updateAllInBatch(vmDynamicCaptor.capture());
+        List<VmDynamic> saved = (List<VmDynamic>) vmDynamicCaptor.getValue();
+        assertEquals(VM_ID_1, saved.get(0).getId());
+        assertEquals(VM_ID_2, saved.get(1).getId());
+        verify(vmStatisticsDao).updateAllInBatch(argThat(statistics -> statistics.size() == 2));
+        verify(vmGuestAgentInterfaceDao, never()).removeAllForVms(any());
+        assertEquals(2, writer.getSavedFlushes());
+        assertEquals(1, writer.getSavedBatches());
+        assertEquals(4, writer.getSavedRows());
+    }
+
+    @Test
+    public void testGuestAgentNicsAreReplaced() {
+        VmGuestAgentInterface nic = new VmGuestAgentInterface();
+        VmsMonitoringFlush flush = new VmsMonitoringFlush(
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Collections.singletonList(VM_ID_1),
+                Collections.singletonList(nic));
+
+        writer.save(flush);
+
+        verify(vmGuestAgentInterfaceDao).removeAllForVms(Collections.singletonList(VM_ID_1));
+        verify(vmGuestAgentInterfaceDao).save(nic);
+    }
+
+    @Test
+    public void testFailedBatchIsSavedSeparately() throws InterruptedException {
+        VmsMonitoringFlush host1 = createFlush(VM_ID_1);
+        VmsMonitoringFlush host2 = createFlush(VM_ID_2);
+        RuntimeException failure = new RuntimeException();
+        doThrow(failure).when(vmDynamicDao).updateAllInBatch(argThat(rows -> rows.stream()
+                .anyMatch(vmDynamic -> VM_ID_2.equals(vmDynamic.getId()))));
+
+        writer.saveBatch(Arrays.asList(host1, host2));
+
+        assertTrue(host1.await(0, TimeUnit.SECONDS));
+        assertSame(failure, assertThrows(RuntimeException.class, () -> host2.await(0, TimeUnit.SECONDS)));
+        verify(writer, times(3)).executeInNewTransaction(any());
+        assertEquals(1, writer.getSavedFlushes());
+        assertEquals(1, writer.getSavedBatches());
+    }
+
+    @Test
+    @MockedConfig("aggregatedWriter")
+    public void testFlushIsSavedByWriter() {
+        writer.save(createFlush(VM_ID_1));
+
+        assertEquals(1, writer.getSavedFlushes());
+        assertEquals(0, writer.getTimedOutFlushes());
+    }
+
+    @Test
+    @MockedConfig("aggregatedWriter")
+    public void testMonitoringSavesItsDataWhenWriterIsStuck() throws Exception {
+        writerBlocked = true;
+        VmsMonitoringFlush stuck = createFlush(VM_ID_1);
+        Thread stuckHost = new Thread(() -> writer.save(stuck));
+        stuckHost.start();
+        assertTrue(writerEntered.await(10, TimeUnit.SECONDS));
+
+        writer.save(createFlush(VM_ID_2));
+
+        assertEquals(1, writer.getTimedOutFlushes());
+        assertEquals(1, writer.getSavedFlushes());
+        writerReleased.countDown();
+        stuckHost.join();
+        assertEquals(2, writer.getSavedFlushes());
+    }
+
+    @Test
+    @MockedConfig("aggregatedWriter")
+    public void testWriterSurvivesErrors() {
+        writerError = new AssertionError();
+
+        RuntimeException failure = assertThrows(RuntimeException.class, () -> writer.save(createFlush(VM_ID_1)));
+        writer.save(createFlush(VM_ID_2));
+
+        assertSame(AssertionError.class, failure.getCause().getClass());
+        assertEquals(1, writer.getSavedFlushes());
+        assertEquals(0, writer.getTimedOutFlushes());
+    }
+
+    @Test
+    @MockedConfig("aggregatedWriter")
+    public void testQueuedFlushesFailOnShutdown() throws Exception {
+        writerBlocked = true;
+        VmsMonitoringFlush stuck = createFlush(VM_ID_1);
+        new Thread(() -> writer.save(stuck)).start();
+        assertTrue(writerEntered.await(10, TimeUnit.SECONDS));
+        VmsMonitoringFlush queued = createFlush(VM_ID_2);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Thread queuedHost = new Thread(() -> {
+            try {
+                writer.save(queued);
+            } catch (RuntimeException e) {
+                failure.set(e);
+            }
+        });
+        queuedHost.start();
+        while (writer.getQueueSize() == 0) {
+            Thread.sleep(10);
+        }
+
+        writer.shutdown();
+        queuedHost.join();
+
+        assertSame(IllegalStateException.class, failure.get().getClass());
+        verify(vmDynamicDao, never()).updateAllInBatch(argThat(rows -> rows.stream()
+                .anyMatch(vmDynamic -> VM_ID_2.equals(vmDynamic.getId()))));
+    }
+
+    private static VmsMonitoringFlush createFlush(Guid vmId) {
+        VmDynamic vmDynamic = new VmDynamic();
+        vmDynamic.setId(vmId);
+        VmStatistics vmStatistics = new VmStatistics();
+        vmStatistics.setId(vmId);
+        return new VmsMonitoringFlush(
+                Collections.singletonList(vmDynamic),
+                Collections.singletonList(vmStatistics),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Collections.emptyList());
+    }
+}
@@ -0,0 +1,135 @@
+package org.ovirt.engine.core.vdsbroker.vdsbroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VmBalloonInfo;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.vdsbroker.jsonrpc.FutureMap;
+import org.ovirt.engine.core.vdsbroker.monitoring.VdsmVm;
+import org.ovirt.vdsm.jsonrpc.client.JsonRpcClient;
+import org.ovirt.vdsm.jsonrpc.client.JsonRpcRequest;
+import org.ovirt.vdsm.jsonrpc.client.JsonRpcResponse;
+
+public class VmStatsDecoderTest {
+
+    private static final String STATS = "["
+            + "{\"vmId\": \"71ca53fb-c223-4b31-926d-de1c2ab0b0a9\", \"status\": \"Up\", \"statusTime\": \"4295739630\","
+            + " \"hash\": \"-3472227339018773254\", \"session\": \"Unknown\", \"elapsedTime\": \"1245\","
+            + " \"cpuSys\": \"0.27\", \"cpuUser\": \"1.53\", \"memUsage\": \"37\", \"timeOffset\": \"+3600\","
+            + " \"guestFQDN\": \"vm1.example.com\", \"guestCPUCount\": 2, \"monitorResponse\": \"0\","
+            + " \"memoryStats\": {\"mem_buffers\": \"2048\", \"mem_cached\": \"524288\", \"mem_free\": \"1048576\"},"
+            + " \"balloonInfo\": {\"balloon_cur\": \"4194304\", \"balloon_max\": \"4194304\","
+            + " \"balloon_min\": \"2097152\", \"balloon_target\": \"4194304\"},"
+            + " \"displayInfo\": [{\"type\": \"spice\", \"ipAddress\": \"0\", \"port\": \"5900\", \"tlsPort\": \"5901\"}],"
+            + " \"appsList\": [\"kernel-3.10.0\", \"ovirt-guest-agent-common-1.0.14\"],"
+            + " \"disksUsage\": [{\"path\": \"/\", \"total\": \"10724835328\", \"used\": \"1561194496\", \"fs\": \"xfs\"}],"
+            + " \"netIfaces\": [{\"name\": \"eth0\", \"hw\": \"56:6f:00:00:00:01\", \"inet\": [\"10.35.1.2\"],"
+            + " \"inet6\": [\"fe80::546f:ff:fe00:1\"]}],"
+            + " \"network\": {\"vnet0\": {\"name\": \"vnet0\", \"macAddr\": \"56:6f:00:00:00:01\", \"speed\": \"1000\","
+            + " \"rxDropped\": \"0\", \"txDropped\": \"2\", \"rx\": \"2831726\", \"tx\": \"55612\","
+            + " \"sampleTime\": \"4295739.63\", \"state\": \"unknown\"}},"
+            + " \"disks\": {\"vda\": {\"imageID\": \"ed185868-3f9e-4040-a340-e1a64726ebc0\", \"readRate\": \"1024.5\","
+            + " \"writeRate\": \"512\", \"truesize\": \"10737418240\", \"readLatency\": \"120000\","
+            + " \"writeLatency\": \"240000\", \"flushLatency\": \"80000\"},"
+            + " \"sdb\": {\"lunGUID\": \"3600140510ba3ad0a1de4e0f8d0c4a9b1\", \"truesize\": \"21474836480\"}},"
+            + " \"migrationProgress\": 0},"
+            + "{\"vmId\": \"5f3a1c35-2b1c-44e0-a11e-6b3c6cfc0f2d\", \"status\": \"Migration Source\","
+            + " \"elapsedTime\": \"60\", \"migrationProgress\": \"42\", \"balloonInfo\": {}}"
+            + "]";
+
+    private final VdsBrokerObjectsBuilder builder = new VdsBrokerObjectsBuilder();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testDecodedVmsMatchDecomposedVms() throws Exception {
+        VDS host = new VDS();
+        host.setHostName("host.example.com");
+        Object[] structs = decompose(STATS);
+        List<VmStatsDecoder.DecodedVm> decodedVms = VmStatsDecoder.decode(mapper.readTree(STATS));
+
+        assertEquals(structs.length, decodedVms.size());
+        for (int i = 0; i < structs.length; i++) {
+            VdsmVm expected = createVdsmVm((Map<String, Object>) structs[i], host);
+            VdsmVm actual = createVdsmVm(decodedVms.get(i), host);
+            assertEquals(expected, actual);
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+            assertEquals(expected.getDevicesHash(), actual.getDevicesHash());
+            assertEquals(expected.getVmJobs(), actual.getVmJobs());
+            assertBalloonInfoEquals(expected.getVmBalloonInfo(), actual.getVmBalloonInfo());
+            assertEquals(expected.getVmStatistics().getDisksUsage(), actual.getVmStatistics().getDisksUsage());
+            assertEquals(expected.getVmStatistics().getGuestMemoryFree(),
+                    actual.getVmStatistics().getGuestMemoryFree());
+            assertEquals(expected.getVmStatistics().getMigrationProgressPercent(),
+                    actual.getVmStatistics().getMigrationProgressPercent());
+        }
+    }
+
+    @Test
+    public void testEmptyList() throws Exception {
+        assertEquals(0, VmStatsDecoder.decode(mapper.readTree("[]")).size());
+    }
+
+    @Test
+    public void testNotAList() {
+        assertThrows(IOException.class, () -> VmStatsDecoder.decode(mapper.readTree("{\"vmId\": \"1\"}")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object[] decompose(String stats) throws Exception {
+        String json = "{\"jsonrpc\": \"2.0\", \"id\": \"ae80f5c4-0f63-4c2e-aed6-5372f07a14c1\", \"result\": "
+                + stats + "}";
+        JsonRpcResponse response = JsonRpcResponse.fromJsonNode(mapper.readTree(json));
+        Future<JsonRpcResponse> future = mock(Future.class);
+        when(future.get()).thenReturn(response);
+        JsonRpcClient client = mock(JsonRpcClient.class);
+        JsonRpcRequest request = mock(JsonRpcRequest.class);
+        when(client.call(request)).thenReturn(future);
+        return (Object[]) new FutureMap(client, request)
+                .withResponseKey("statsList")
+                .withResponseType(Object[].class)
+                .get("statsList");
+    }
+
+    private VdsmVm createVdsmVm(Map<String, Object> struct, VDS host) {
+        VmDynamic vmDynamic = builder.buildVMDynamicData(struct, host);
+        return new VdsmVm(builder.getVdsmCallTimestamp(struct))
+                .setVmDynamic(vmDynamic)
+                .setDevicesHash(builder.getVmDevicesHash(struct))
+                .setVmStatistics(builder.buildVMStatisticsData(struct))
+                .setVmJobs(builder.buildVmJobsData(struct))
+                .setInterfaceStatistics(builder.buildInterfaceStatisticsData(struct))
+                .setVmBalloonInfo(builder.buildVmBalloonInfo(struct))
+                .setVmGuestAgentInterfaces(builder.buildVmGuestAgentInterfacesData(vmDynamic.getId(), struct))
+                .setLunsMap(builder.buildVmLunDisksData(struct))
+                .setDiskStatistics(builder.buildVmDiskStatistics(struct));
+    }
+
+    private VdsmVm createVdsmVm(VmStatsDecoder.DecodedVm decodedVm, VDS host) {
+        Map<String, Object> struct = decodedVm.getStruct();
+        return decodedVm.getVdsmVm()
+                .setVmDynamic(builder.buildVMDynamicData(struct, host))
+                .setVmJobs(builder.buildVmJobsData(struct))
+                .setVmGuestAgentInterfaces(builder.buildVmGuestAgentInterfacesData(
+                        decodedVm.getVdsmVm().getId(), struct));
+    }
+
+    private static void assertBalloonInfoEquals(VmBalloonInfo expected, VmBalloonInfo actual) {
+        assertEquals(expected.getCurrentMemory(), actual.getCurrentMemory());
+        assertEquals(expected.getBalloonMaxMemory(), actual.getBalloonMaxMemory());
+        assertEquals(expected.getBalloonMinMemory(), actual.getBalloonMinMemory());
+        assertEquals(expected.getBalloonTargetMemory(), actual.getBalloonTargetMemory());
+        assertEquals(expected.isBalloonDeviceEnabled(), actual.isBalloonDeviceEnabled());
+    }
+}
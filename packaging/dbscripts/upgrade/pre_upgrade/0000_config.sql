@@ -56,11 +56,17 @@ select fn_db_add_config_value('AllowClusterWithVirtGlusterEnabled','true','gener
 select fn_db_add_config_value('ApplicationMode','255','general');
 select fn_db_add_config_value('AsyncCommandPollingLoopInSeconds','1','general');
 select fn_db_add_config_value('AsyncCommandPollingRateInSeconds','10','general');
+select fn_db_add_config_value('AsyncCommandCallbacksParallelism','4','general');
 select fn_db_add_config_value('AsyncTaskPollingRate','10','general');
 select fn_db_add_config_value('AsyncTaskStatusCacheRefreshRateInSeconds','30','general');
 select fn_db_add_config_value('AsyncTaskStatusCachingTimeInMinutes','1','general');
 select fn_db_add_config_value('AsyncTaskZombieTaskLifeInMinutes','300','general');
 select fn_db_add_config_value('AuditLogAgingThreshold','30','general');
+select fn_db_add_config_value('AuditLogAsyncWriterEnabled','true','general');
+select fn_db_add_config_value('AuditLogWriterQueueSize','10000','general');
+select fn_db_add_config_value('AuditLogWriterMaxBatchSize','500','general');
+select fn_db_add_config_value('AuditLogSyncMinSeverity','ALERT','general');
+select fn_db_add_config_value('AuditLogWriterSyncTimeoutInSeconds','10','general');
 select fn_db_add_config_value('AuditLogCleanupTime','03:35:35','general');
 select fn_db_add_config_value('CoCoLifeInMinutes','3000','general');
 select fn_db_add_config_value('CoCoWaitForEventInMinutes','300','general');
@@ -364,6 +370,12 @@ select fn_db_add_config_value_for_versions_up_to('DomainXML', 'false', '4.1');
 select fn_db_add_config_value_for_versions_up_to('DomainXML', 'true', '4.3');
 select fn_db_add_config_value('IPTablesConfigSiteCustom','','general');
 select fn_db_add_config_value('IsMultilevelAdministrationOn','true','general');
+select fn_db_add_config_value('PermissionCacheEnabled','true','general');
+select fn_db_add_config_value('PermissionCacheTimeToLiveInSeconds','60','general');
+select fn_db_add_config_value('PermissionCacheMaxEntries','100000','general');
+select fn_db_add_config_value('QueryResultCacheEnabled','true','general');
+select fn_db_add_config_value('QueryResultCacheTimeToLiveInSeconds','60','general');
+select fn_db_add_config_value('QueryResultCacheMaxEntries','10000','general');
 select fn_db_add_config_value('JobCleanupRateInMinutes','10','general');
 select fn_db_add_config_value('JobPageSize','100','general');
 select fn_db_add_config_value('LeaseRetries','3','general');
@@ -402,6 +414,16 @@ select fn_db_add_config_value('NicDHCPDelayGraceInMS','60','general');
 select fn_db_add_config_value('NumberOfFailedRunsOnVds','3','general');
 select fn_db_add_config_value('NumberOfUSBSlots','4','general');
 select fn_db_add_config_value('NumberVmRefreshesBeforeSave','5','general');
+select fn_db_add_config_value('VmsMonitoringAggregatedWriterEnabled','true','general');
+select fn_db_add_config_value('VmsMonitoringWriterQueueSize','200','general');
+select fn_db_add_config_value('VmsMonitoringWriterMaxBatchRows','10000','general');
+select fn_db_add_config_value('VmsMonitoringWriterTimeoutInSeconds','10','general');
+select fn_db_add_config_value('VmsMonitoringSkipUnchangedRows','true','general');
+select fn_db_add_config_value('VmsMonitoringMaxSkippedStatisticsSaves','4','general');
+select fn_db_add_config_value('VdsmTypedDecodingVerbs','','general');
+select fn_db_add_config_value('VdsCommandFanOutMaxInFlight','50','general');
+select fn_db_add_config_value('VdsRefreshRateMaxStretchFactor','1','general');
+select fn_db_add_config_value('NumberStableRefreshesBeforeStretch','5','general');
 select fn_db_add_config_value('NumberVdsRefreshesBeforeTryToStartUnknownVms','10','general');
 select fn_db_add_config_value('NumberVdsRefreshesBeforeRetryToStartUnknownVms','100','general');
 select fn_db_add_config_value('EnableMACAntiSpoofingFilterRules','true', 'general');
@@ -409,6 +431,11 @@ select fn_db_add_config_value('MaxSchedulerWeight','1000','general');
 select fn_db_add_config_value('SpeedOptimizationSchedulingThreshold','10','general');
 select fn_db_add_config_value('SchedulerAllowOverBooking','false','general');
 select fn_db_add_config_value('SchedulerOverBookingThreshold','10','general');
+select fn_db_add_config_value('SchedulerParallelEvaluationEnabled','false','general');
+select fn_db_add_config_value('SchedulerParallelEvaluationThreads','4','general');
+select fn_db_add_config_value('SchedulerParallelEvaluationHostThreshold','100','general');
+select fn_db_add_config_value('SchedulerBatchSchedulingEnabled','true','general');
+select fn_db_add_config_value('SchedulerScoreCacheEnabled','false','general');
 select fn_db_add_config_value('UploadFileMaxTimeInMinutes','5','general');
 select fn_db_add_config_value('RetrieveDataMaxTimeInMinutes','5','general');
 select fn_db_add_config_value('StorageDomainOvfStoreCount','2','general');
@@ -425,6 +452,8 @@ select fn_db_add_config_value('oVirtUpgradeScriptName','/usr/share/vdsm-reg/vdsm
 select fn_db_add_config_value('oVirtUploadPath','/data/updates/ovirt-node-image.iso','general');
 select fn_db_add_config_value('OvfUpdateIntervalInMinutes','60','general');
 select fn_db_add_config_value('OvfItemsCountPerUpdate','100','general');
+select fn_db_add_config_value('OvfStoreIncrementalUpdate','false','general');
+select fn_db_add_config_value('OvfStoreManifestMaxSizeInMB','256','general');
 select fn_db_add_config_value('PayloadSize','8192','general');
 -- Power management health check
 select fn_db_add_config_value('PMHealthCheckEnabled','false','general');
@@ -444,6 +473,8 @@ select fn_db_add_config_value('RhevhLocalFSPath','/data/images/','general');
 select fn_db_add_config_value('SANWipeAfterDelete','false','general');
 --Handling SASL QOP
 select fn_db_add_config_value('SearchResultsLimit','100','general');
+select fn_db_add_config_value('SearchQueryCacheMaxEntries','1000','general');
+select fn_db_add_config_value('SearchQueryCacheTimeToLiveInMinutes','1440','general');
 select fn_db_add_config_value('SendSMPOnRunVm','true','general');
 select fn_db_add_config_value('ServerCPUList', '3:Intel Conroe Family:vmx,nx,model_Conroe:Conroe:x86_64; 4:Intel Penryn Family:vmx,nx,model_Penryn:Penryn:x86_64; 5:Intel Nehalem Family:vmx,nx,model_Nehalem:Nehalem:x86_64; 6:Intel Westmere Family:aes,vmx,nx,model_Westmere:Westmere:x86_64; 7:Intel SandyBridge Family:vmx,nx,model_SandyBridge:SandyBridge:x86_64; 8:Intel Haswell-noTSX Family:vmx,nx,model_Haswell-noTSX:Haswell-noTSX:x86_64; 9:Intel Haswell Family:vmx,nx,model_Haswell:Haswell:x86_64; 10:Intel Broadwell-noTSX Family:vmx,nx,model_Broadwell-noTSX:Broadwell-noTSX:x86_64; 11:Intel Broadwell Family:vmx,nx,model_Broadwell:Broadwell:x86_64; 2:AMD Opteron G1:svm,nx,model_Opteron_G1:Opteron_G1:x86_64; 3:AMD Opteron G2:svm,nx,model_Opteron_G2:Opteron_G2:x86_64; 4:AMD Opteron G3:svm,nx,model_Opteron_G3:Opteron_G3:x86_64; 5:AMD Opteron G4:svm,nx,model_Opteron_G4:Opteron_G4:x86_64; 6:AMD Opteron G5:svm,nx,model_Opteron_G5:Opteron_G5:x86_64; 3:IBM POWER8:powernv,model_POWER8:POWER8:ppc64;', '4.0');
 select fn_db_add_config_value('ServerCPUList', '3:Intel Conroe Family:vmx,nx,model_Conroe:Conroe:x86_64; 4:Intel Penryn Family:vmx,nx,model_Penryn:Penryn:x86_64; 5:Intel Nehalem Family:vmx,nx,model_Nehalem:Nehalem:x86_64; 6:Intel Westmere Family:aes,vmx,nx,model_Westmere:Westmere:x86_64; 7:Intel SandyBridge Family:vmx,nx,model_SandyBridge:SandyBridge:x86_64; 8:Intel Haswell-noTSX Family:vmx,nx,model_Haswell-noTSX:Haswell-noTSX:x86_64; 9:Intel Haswell Family:vmx,nx,model_Haswell:Haswell:x86_64; 10:Intel Broadwell-noTSX Family:vmx,nx,model_Broadwell-noTSX:Broadwell-noTSX:x86_64; 11:Intel Broadwell Family:vmx,nx,model_Broadwell:Broadwell:x86_64; 11:Intel Skylake Family:vmx,nx,model_Skylake-Client:Skylake-Client:x86_64; 2:AMD Opteron G1:svm,nx,model_Opteron_G1:Opteron_G1:x86_64; 3:AMD Opteron G2:svm,nx,model_Opteron_G2:Opteron_G2:x86_64; 4:AMD Opteron G3:svm,nx,model_Opteron_G3:Opteron_G3:x86_64; 5:AMD Opteron G4:svm,nx,model_Opteron_G4:Opteron_G4:x86_64; 6:AMD Opteron G5:svm,nx,model_Opteron_G5:Opteron_G5:x86_64; 3:IBM POWER8:powernv,model_POWER8:POWER8:ppc64;', '4.1');
@@ -515,6 +546,10 @@ select fn_db_add_config_value('VdsFenceOptionTypes','encrypt_options=bool,secure
 select fn_db_add_config_value('CustomVdsFenceType','','general');
 select fn_db_add_config_value('vdsHeartbeatInSeconds','30','general');
 select fn_db_add_config_value('VdsLoadBalancingIntervalInMinutes','1','general');
+select fn_db_add_config_value('VdsLoadBalancingEventDriven','false','general');
+select fn_db_add_config_value('VdsLoadBalancingCpuDeltaThreshold','10','general');
+select fn_db_add_config_value('VdsLoadBalancingMemoryDeltaThresholdInMB','1024','general');
+select fn_db_add_config_value('VdsLoadBalancingMaxSkippedIntervals','10','general');
 select fn_db_add_config_value('VdsLocalDisksCriticallyLowFreeSpace','100','general');
 select fn_db_add_config_value('VdsLocalDisksLowFreeSpace','100','general');
 select fn_db_add_config_value('VdsRecoveryTimeoutInMinutes','3','general');
@@ -79,6 +79,27 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+DROP TYPE IF EXISTS ovf_generation_rs CASCADE;
+CREATE TYPE ovf_generation_rs AS (
+        vm_guid UUID,
+        ovf_generation BIGINT
+        );
+
+CREATE OR REPLACE FUNCTION LoadOvfGenerationsForIds (v_ids VARCHAR(5000))
+RETURNS SETOF ovf_generation_rs STABLE AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT ovf.vm_guid,
+        ovf.ovf_generation
+    FROM vm_ovf_generations ovf
+    WHERE ovf.vm_guid IN (
+            SELECT *
+            FROM fnSplitterUuid(v_ids)
+            );
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION GetIdsForOvfDeletion (v_storage_pool_id UUID)
 RETURNS SETOF UUID STABLE AS $PROCEDURE$
 BEGIN